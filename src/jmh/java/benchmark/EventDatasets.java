@@ -0,0 +1,59 @@
+package benchmark;
+
+import model.Event;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Генератор наборов событий для бенчмарков. Набор детерминирован (фиксированный seed),
+ * поэтому результаты разных коммитов сравнимы между собой.
+ */
+public final class EventDatasets {
+
+    public static final long SEED = 42L;
+    // Начало периода, по которому раскиданы события
+    public static final LocalDateTime BASE_TIME = LocalDateTime.of(2030, 1, 1, 0, 0);
+    public static final int DAYS_SPAN = 365;
+
+    private EventDatasets() {
+    }
+
+    /**
+     * События size штук, равномерно распределенные между owners владельцами (ownerChatId от 1 до owners).
+     * У каждого второго события есть Google ID вида "g-<номер>".
+     */
+    public static List<Event> generate(int size, int owners) {
+        Random random = new Random(SEED);
+        List<Event> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime start = BASE_TIME.plusMinutes(random.nextInt(DAYS_SPAN * 24 * 60));
+            Event event = new Event(
+                UUID.nameUUIDFromBytes(("event-" + i).getBytes()).toString(),
+                i % 2 == 0 ? "g-" + i : null,
+                "Событие " + i + ": обсуждение (v1.2) - итоги!",
+                "Описание события " + i + " со *спецсимволами* и [ссылкой](https://example.com/" + i + ")",
+                start,
+                start.plusMinutes(30 + random.nextInt(90)),
+                "Переговорная #" + (i % 20),
+                start.minusMinutes(15),
+                (long) (i % owners) + 1
+            );
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Глушит System.out в форкнутой JVM бенчмарка: DAO и сервисы пишут лог на каждую операцию,
+     * и вывод миллиона строк исказил бы замеры. Форматирование строк лога при этом сохраняется.
+     */
+    public static void silenceStdout() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
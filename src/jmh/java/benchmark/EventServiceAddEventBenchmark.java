@@ -0,0 +1,59 @@
+package benchmark;
+
+import dao.impl.InMemoryEventDAO;
+import model.Event;
+import org.openjdk.jmh.annotations.*;
+import service.impl.EventServiceImpl;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventServiceImpl.addEvent в режиме upsert: событие из Google с уже известным Google ID
+ * (поиск и обновление) и новое локальное событие (создание).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EventServiceAddEventBenchmark {
+
+    private static final int OWNERS = 100;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private EventServiceImpl eventService;
+    private List<Event> googleEvents;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventDatasets.silenceStdout();
+        InMemoryEventDAO eventDAO = new InMemoryEventDAO();
+        List<Event> events = EventDatasets.generate(size, OWNERS);
+        for (Event event : events) {
+            eventDAO.createEvent(event);
+        }
+        googleEvents = events.stream().filter(event -> event.getGoogleId() != null).toList();
+        eventService = new EventServiceImpl(eventDAO);
+    }
+
+    @Benchmark
+    public Event upsertExistingGoogleEvent() {
+        Event stored = googleEvents.get(ThreadLocalRandom.current().nextInt(googleEvents.size()));
+        // Изменение названия гарантирует путь с обновлением, а не "изменений нет"
+        Event incoming = new Event(null, stored.getGoogleId(), "Из Google " + System.nanoTime(), stored.getDescription(),
+                stored.getStartTime(), stored.getEndTime(), stored.getLocation(), stored.getReminderTime(), null);
+        return eventService.addEvent(incoming, stored.getOwnerChatId());
+    }
+
+    @Benchmark
+    public Event addNewLocalEvent() {
+        Event stored = googleEvents.get(ThreadLocalRandom.current().nextInt(googleEvents.size()));
+        Event incoming = new Event(null, "Локальное", "", stored.getStartTime(), stored.getEndTime(), "", null, null);
+        return eventService.addEvent(incoming, stored.getOwnerChatId());
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import dao.EventDAO;
+import dao.impl.CompactEventDAO;
+import dao.impl.InMemoryEventDAO;
+import model.Event;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Замер занимаемой кучи: InMemoryEventDAO против CompactEventDAO на одном и том же наборе событий.
+ * Это не JMH-бенчмарк (JMH меряет время, а не память), а отдельная программа:
+ * mvn -Pbenchmarks test-compile exec:exec@footprint -Dfootprint.size=1000000
+ */
+public final class EventStoreFootprint {
+
+    private static final int OWNERS = 1000;
+
+    private EventStoreFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        EventDatasets.silenceStdout();
+
+        long inMemory = measure(InMemoryEventDAO::new, size);
+        long compact = measure(CompactEventDAO::new, size);
+
+        System.err.printf("[EventStoreFootprint] events=%d owners=%d%n", size, OWNERS);
+        System.err.printf("[EventStoreFootprint] InMemoryEventDAO: %,d bytes (%.1f bytes/event)%n", inMemory, (double) inMemory / size);
+        System.err.printf("[EventStoreFootprint] CompactEventDAO:  %,d bytes (%.1f bytes/event)%n", compact, (double) compact / size);
+        System.err.printf("[EventStoreFootprint] ratio: %.2fx%n", (double) inMemory / compact);
+    }
+
+    // Разница занятой кучи до и после заполнения; исходные объекты Event к моменту замера уже недостижимы
+    private static long measure(Supplier<EventDAO> factory, int size) throws InterruptedException {
+        long before = usedHeapAfterGc();
+        EventDAO eventDAO = factory.get();
+        fill(eventDAO, size);
+        long after = usedHeapAfterGc();
+        // Держим DAO живым до второго замера
+        if (eventDAO.countByOwnerChatId(1L) < 0) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static void fill(EventDAO eventDAO, int size) {
+        List<Event> events = EventDatasets.generate(size, OWNERS);
+        for (Event event : events) {
+            eventDAO.createEvent(event);
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,95 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение времени событий из текста ISO (прежняя схема SQLiteEventDAO) и из секунд Unix (текущая схема)
+ * на выборке из rows строк. Читаются одни и те же значения, отличается только разбор трех колонок времени.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EventTimeDecodeBenchmark {
+
+    @Param({"10000", "200000"})
+    public int rows;
+
+    private Path dbFile;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbFile = Files.createTempFile("event-decode-benchmark", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE text_times (start_time TEXT, end_time TEXT, reminder_time TEXT)");
+            stmt.execute("CREATE TABLE epoch_times (start_time INTEGER, end_time INTEGER, reminder_time INTEGER)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement text = connection.prepareStatement("INSERT INTO text_times VALUES (?, ?, ?)");
+             PreparedStatement epoch = connection.prepareStatement("INSERT INTO epoch_times VALUES (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                LocalDateTime start = EventDatasets.BASE_TIME.plusMinutes(i * 30L);
+                LocalDateTime[] times = {start, start.plusHours(1), start.minusMinutes(15)};
+                for (int column = 0; column < times.length; column++) {
+                    text.setString(column + 1, times[column].toString());
+                    epoch.setLong(column + 1, times[column].toEpochSecond(ZoneOffset.UTC));
+                }
+                text.addBatch();
+                epoch.addBatch();
+            }
+            text.executeBatch();
+            epoch.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public long decodeIsoText() throws SQLException {
+        long checksum = 0;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM text_times")) {
+            while (rs.next()) {
+                checksum += LocalDateTime.parse(rs.getString("start_time")).getMinute();
+                checksum += LocalDateTime.parse(rs.getString("end_time")).getMinute();
+                checksum += LocalDateTime.parse(rs.getString("reminder_time")).getMinute();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long decodeEpochSeconds() throws SQLException {
+        long checksum = 0;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM epoch_times")) {
+            while (rs.next()) {
+                checksum += LocalDateTime.ofEpochSecond(rs.getLong("start_time"), 0, ZoneOffset.UTC).getMinute();
+                checksum += LocalDateTime.ofEpochSecond(rs.getLong("end_time"), 0, ZoneOffset.UTC).getMinute();
+                checksum += LocalDateTime.ofEpochSecond(rs.getLong("reminder_time"), 0, ZoneOffset.UTC).getMinute();
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import dao.impl.InMemoryEventDAO;
+import model.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запросы InMemoryEventDAO при росте хранилища от 10 тысяч до миллиона событий.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InMemoryEventDAOBenchmark {
+
+    private static final int OWNERS = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private InMemoryEventDAO eventDAO;
+    private List<Event> events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventDatasets.silenceStdout();
+        eventDAO = new InMemoryEventDAO();
+        events = EventDatasets.generate(size, OWNERS);
+        for (Event event : events) {
+            eventDAO.createEvent(event);
+        }
+    }
+
+    private Event randomEvent() {
+        return events.get(ThreadLocalRandom.current().nextInt(events.size()));
+    }
+
+    @Benchmark
+    public Optional<Event> findById() {
+        Event event = randomEvent();
+        return eventDAO.findByIdAndOwnerChatId(event.getId(), event.getOwnerChatId());
+    }
+
+    @Benchmark
+    public Optional<Event> findByGoogleId() {
+        Event event = events.get(ThreadLocalRandom.current().nextInt(events.size() / 2) * 2);
+        return eventDAO.findByGoogleIdAndOwnerChatId(event.getGoogleId(), event.getOwnerChatId());
+    }
+
+    @Benchmark
+    public List<Event> findAllByOwner() {
+        return eventDAO.findAllByOwnerChatId(randomEvent().getOwnerChatId());
+    }
+
+    @Benchmark
+    public List<Event> findWeekForOwner() {
+        Event event = randomEvent();
+        LocalDateTime weekStart = event.getStartTime().toLocalDate().atStartOfDay();
+        return eventDAO.findEventsBetweenForOwner(weekStart, weekStart.plusDays(7), event.getOwnerChatId());
+    }
+
+    @Benchmark
+    public Event updateEvent() {
+        Event event = randomEvent();
+        event.setTitle("Обновлено " + System.nanoTime());
+        return eventDAO.updateEvent(event);
+    }
+}
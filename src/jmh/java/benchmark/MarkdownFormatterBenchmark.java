@@ -0,0 +1,51 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import util.MarkdownFormatter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Экранирование MarkdownV2 для текста разной длины и доли спецсимволов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownFormatterBenchmark {
+
+    @Param({"32", "512", "4096"})
+    public int length;
+
+    @Param({"plain", "special"})
+    public String content;
+
+    private String text;
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String sample = content.equals("plain")
+                ? "Встреча с командой по планированию спринта "
+                : "Итоги (v1.2): +15% - [план]_на_*неделю*! #релиз ";
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(sample);
+        }
+        text = sb.substring(0, length);
+    }
+
+    @Benchmark
+    public String escapeMarkdownV2() {
+        return MarkdownFormatter.escapeMarkdownV2(text);
+    }
+
+    // Запись в переиспользуемый буфер, как при сборке сообщения из нескольких частей
+    @Benchmark
+    public StringBuilder appendEscaped() {
+        buffer.setLength(0);
+        return MarkdownFormatter.appendEscaped(buffer, text);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmark;
+
+import dao.impl.InMemoryResponseTemplateDAO;
+import org.openjdk.jmh.annotations.*;
+import service.MessageTemplate;
+import service.TemplateService;
+import service.impl.TemplateServiceImpl;
+import util.MarkdownFormatter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка ответа по шаблону с одним слотом: разбор и замена при каждом вызове против заранее разобранного шаблона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTemplateBenchmark {
+
+    private static final String KEY = "unknown_command";
+    private static final String DEFAULT = "Неизвестная команда: {command}\nДоступные команды:\n";
+    private static final String COMMAND = "/list_evnets";
+
+    private TemplateService templateService;
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        templateService = new TemplateServiceImpl(new InMemoryResponseTemplateDAO());
+    }
+
+    // Как было: сырой шаблон, replace и экранирование всей строки
+    @Benchmark
+    public String replaceAndEscape() {
+        String template = templateService.getTemplate(KEY, DEFAULT);
+        return MarkdownFormatter.escapeMarkdownV2(template.replace("{command}", COMMAND));
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        MessageTemplate template = templateService.getCompiledTemplate(KEY, DEFAULT, false);
+        buffer.setLength(0);
+        return template.render(buffer, "command", COMMAND).toString();
+    }
+}
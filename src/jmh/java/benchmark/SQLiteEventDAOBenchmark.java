@@ -0,0 +1,89 @@
+package benchmark;
+
+import dao.impl.SQLiteEventDAO;
+import model.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Основные запросы SQLiteEventDAO на базе из size событий у OWNERS владельцев.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SQLiteEventDAOBenchmark {
+
+    private static final int OWNERS = 100;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private Path dbFile;
+    private SQLiteEventDAO eventDAO;
+    private List<Event> events;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        EventDatasets.silenceStdout();
+        dbFile = Files.createTempFile("events-benchmark", ".db");
+        eventDAO = new SQLiteEventDAO(dbFile.toString());
+        events = EventDatasets.generate(size, OWNERS);
+        eventDAO.saveAll(events, List.of(), List.of(), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        eventDAO.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    private Event randomEvent() {
+        return events.get(ThreadLocalRandom.current().nextInt(events.size()));
+    }
+
+    @Benchmark
+    public Event createEvent() {
+        LocalDateTime start = EventDatasets.BASE_TIME.plusDays(ThreadLocalRandom.current().nextInt(EventDatasets.DAYS_SPAN));
+        // Новые события уходят владельцу вне набора, чтобы не менять размер выборок остальных бенчмарков
+        return eventDAO.createEvent(new Event(null, "Новое", "", start, start.plusHours(1), "", null, OWNERS + 1L));
+    }
+
+    @Benchmark
+    public Event updateEvent() {
+        Event event = randomEvent();
+        event.setTitle("Обновлено " + System.nanoTime());
+        return eventDAO.updateEvent(event);
+    }
+
+    @Benchmark
+    public Optional<Event> findById() {
+        Event event = randomEvent();
+        return eventDAO.findByIdAndOwnerChatId(event.getId(), event.getOwnerChatId());
+    }
+
+    @Benchmark
+    public List<Event> findAllByOwner() {
+        return eventDAO.findAllByOwnerChatId(randomEvent().getOwnerChatId());
+    }
+
+    @Benchmark
+    public List<Event> findWeekForOwner() {
+        Event event = randomEvent();
+        LocalDateTime weekStart = event.getStartTime().toLocalDate().atStartOfDay();
+        return eventDAO.findEventsBetweenForOwner(weekStart, weekStart.plusDays(7), event.getOwnerChatId());
+    }
+
+    @Benchmark
+    public List<Event> findDueReminders() {
+        return eventDAO.findDueReminders(EventDatasets.BASE_TIME.plusDays(1));
+    }
+}
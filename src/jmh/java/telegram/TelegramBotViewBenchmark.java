@@ -0,0 +1,47 @@
+package telegram;
+
+import benchmark.EventDatasets;
+import model.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Форматирование карточки события для списка. Бенчмарк лежит в пакете telegram,
+ * потому что formatEventText видим только внутри пакета.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelegramBotViewBenchmark {
+
+    private TelegramBotView view;
+    private List<Event> events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventDatasets.silenceStdout();
+        view = new TelegramBotView("token", "username", null);
+        events = EventDatasets.generate(1000, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        view.stopUpdateProcessing();
+    }
+
+    @Benchmark
+    public String formatEventText() {
+        return view.formatEventText(events.get(ThreadLocalRandom.current().nextInt(events.size())), false);
+    }
+
+    @Benchmark
+    public String formatObservedEventText() {
+        return view.formatEventText(events.get(ThreadLocalRandom.current().nextInt(events.size())), true);
+    }
+}
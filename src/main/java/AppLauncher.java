@@ -2,18 +2,28 @@
 
 import dao.EventDAO;
 import dao.ResponseTemplateDAO;
+import dao.impl.CachingEventDAO;
+import dao.impl.GoogleCalendarDAO;
 // import dao.impl.InMemoryEventDAO;
 import dao.impl.InMemoryResponseTemplateDAO;
+import dao.impl.MappedLogEventDAO;
+import dao.impl.SQLiteConnectionPool;
 import dao.impl.SQLiteEventDAO;
+import dao.impl.SQLiteWriteQueue;
 // import model.Event;
 import presenter.impl.MainPresenterImpl;
 import service.EventService;
+import service.GoogleSyncService;
 // import service.ReminderService;
+import service.ScheduleAnalysisService;
 import service.TemplateService;
 import service.impl.EventServiceImpl;
+import service.impl.GoogleSyncServiceImpl;
 import service.impl.ReminderServiceImpl;
+import service.impl.ScheduleAnalysisServiceImpl;
 import service.impl.TemplateServiceImpl;
 import telegram.TelegramBotView;
+import telegram.WebhookServer;
 import config.AppConfig;
 
 //import javafx.application.Application;
@@ -40,15 +50,70 @@ public class AppLauncher {
     public void startBot() throws Exception {
         System.out.println("Application starting (Telegram Bot Mode)...");
 
+        // 1. Создание зависимостей (DAO, Service)
+        boolean useEventLog = "eventlog".equals(AppConfig.getStorageBackend());
+        String dataPath = useEventLog ? AppConfig.getEventLogPath() : AppConfig.getDbPath();
+
         // Создаем директорию для данных, если её нет
-        java.nio.file.Files.createDirectories(java.nio.file.Paths.get("data"));
+        java.nio.file.Path dataParentDir = java.nio.file.Paths.get(dataPath).toAbsolutePath().getParent();
+        if (dataParentDir != null) {
+            java.nio.file.Files.createDirectories(dataParentDir);
+        }
 
-        // 1. Создание зависимостей (DAO, Service)
-        EventDAO eventDAO = new SQLiteEventDAO("data/events.db");
+        EventDAO eventDAO;
+        AutoCloseable eventStorage;
+        if (useEventLog) {
+            MappedLogEventDAO mappedLogEventDAO = new MappedLogEventDAO(
+                dataPath,
+                AppConfig.getEventLogCompactionMinMb() * 1024L * 1024L,
+                AppConfig.getEventLogForceOnWrite()
+            );
+            eventDAO = mappedLogEventDAO;
+            eventStorage = mappedLogEventDAO;
+        } else {
+            SQLiteConnectionPool connectionPool = new SQLiteConnectionPool(
+                dataPath,
+                AppConfig.getDbPoolSize(),
+                AppConfig.getDbBusyTimeoutMs(),
+                AppConfig.getDbJournalMode(),
+                AppConfig.getDbSynchronous()
+            );
+            SQLiteEventDAO sqliteEventDAO = new SQLiteEventDAO(
+                connectionPool,
+                SQLiteWriteQueue.DEFAULT_MAX_BATCH_SIZE,
+                AppConfig.getDbStreamFetchSize()
+            );
+            eventDAO = sqliteEventDAO;
+            eventStorage = sqliteEventDAO;
+        }
+        // Все чтения и изменения событий идут через кэш, иначе его сброс пропустит изменения
+        CachingEventDAO cachingEventDAO = new CachingEventDAO(
+            eventDAO,
+            AppConfig.getEventCacheMaxOwners(),
+            AppConfig.getEventCacheMaxEventsPerOwner()
+        );
         ResponseTemplateDAO responseTemplateDAO = new InMemoryResponseTemplateDAO();
         
-        EventService eventService = new EventServiceImpl(eventDAO);
+        EventService eventService = new EventServiceImpl(cachingEventDAO);
         TemplateService templateService = new TemplateServiceImpl(responseTemplateDAO);
+        ScheduleAnalysisService analysisService = new ScheduleAnalysisServiceImpl(cachingEventDAO);
+
+        // Один экземпляр GoogleCalendarDAO на приложение: его кэш сессий общий для View и фоновой синхронизации
+        GoogleCalendarDAO googleCalendarDAO = null;
+        GoogleSyncService googleSyncService = null;
+        try {
+            googleCalendarDAO = new GoogleCalendarDAO(AppConfig.getGooglePageSize());
+            googleSyncService = new GoogleSyncServiceImpl(
+                googleCalendarDAO,
+                eventService,
+                AppConfig.getGoogleSyncIntervalMinutes(),
+                AppConfig.getGoogleSyncMaxJitterSeconds(),
+                AppConfig.getGoogleSyncWorkers()
+            );
+        } catch (Exception e) {
+            System.err.println("Error initializing Google Calendar integration: " + e.getMessage());
+            e.printStackTrace();
+        }
 
         // 2. Создание Telegram View (сначала, т.к. Presenter его требует)
         TelegramBotView telegramBotView = new TelegramBotView(
@@ -56,6 +121,10 @@ public class AppLauncher {
             AppConfig.getBotUsername(),
             templateService
         );
+        telegramBotView.setScheduleAnalysisService(analysisService);
+        telegramBotView.setScheduleDAO(googleCalendarDAO);
+        telegramBotView.setGoogleSyncService(googleSyncService);
+        telegramBotView.setEventCache(cachingEventDAO);
 
         // 3. Создание Presenter и связывание с View
         MainPresenterImpl mainPresenter = new MainPresenterImpl(eventService, telegramBotView);
@@ -64,18 +133,56 @@ public class AppLauncher {
         // 4. Создание и запуск ReminderService
         ReminderServiceImpl reminderService = new ReminderServiceImpl(eventService);
         reminderService.setTelegramBotView(telegramBotView);
+        eventService.addEventChangeListener(reminderService);
         reminderService.start();
 
-        // 5. Регистрация бота (после инициализации всех сервисов)
-        telegramBotView.registerBot();
+        // 5. Запуск фоновой синхронизации с Google Calendar
+        if (googleSyncService != null) {
+            googleSyncService.start();
+        }
+
+        // 6. Регистрация бота (после инициализации всех сервисов): long polling или webhook
+        WebhookServer webhookServer = null;
+        if ("webhook".equals(AppConfig.getTelegramMode())) {
+            String webhookUrl = AppConfig.getTelegramWebhookUrl();
+            if (webhookUrl == null || webhookUrl.trim().isEmpty()) {
+                throw new IllegalStateException("telegram.webhook.url is required in webhook mode");
+            }
+            String webhookSecret = AppConfig.getTelegramWebhookSecret();
+            if (webhookSecret == null || webhookSecret.trim().isEmpty()) {
+                throw new IllegalStateException("telegram.webhook.secret is required in webhook mode");
+            }
+            String webhookPath = AppConfig.getTelegramWebhookPath();
+            webhookServer = new WebhookServer(AppConfig.getTelegramWebhookPort(), webhookPath, webhookSecret.trim(),
+                                              telegramBotView::onUpdateReceived);
+            webhookServer.start();
+            telegramBotView.registerWebhook(webhookUrl.trim().replaceAll("/+$", "") + webhookPath,
+                                            AppConfig.getTelegramWebhookMaxConnections(), webhookSecret.trim());
+        } else {
+            telegramBotView.registerBot();
+        }
 
         System.out.println("Telegram Bot registered. Waiting for messages...");
 
-        // Добавляем graceful shutdown для ReminderService
+        // Добавляем graceful shutdown для ReminderService и синхронизации Google
+        GoogleSyncService finalGoogleSyncService = googleSyncService;
+        WebhookServer finalWebhookServer = webhookServer;
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (finalWebhookServer != null) {
+                finalWebhookServer.stop();
+            }
+            telegramBotView.stopUpdateProcessing();
             System.out.println("Shutting down ReminderService...");
             reminderService.stop();
             System.out.println("ReminderService stopped.");
+            if (finalGoogleSyncService != null) {
+                finalGoogleSyncService.stop();
+            }
+            try {
+                eventStorage.close();
+            } catch (Exception e) {
+                System.err.println("Error closing event storage: " + e.getMessage());
+            }
         }));
     }
 }
\ No newline at end of file
@@ -32,4 +32,130 @@ public class AppConfig {
     public static String getAdminSecret() {
         return properties.getProperty("admin.secret");
     }
-} 
\ No newline at end of file
+
+    public static String getDbPath() {
+        return properties.getProperty("db.path", "data/events.db");
+    }
+
+    public static int getDbPoolSize() {
+        return getIntProperty("db.pool.size", 4);
+    }
+
+    public static int getDbBusyTimeoutMs() {
+        return getIntProperty("db.busy_timeout_ms", 5000);
+    }
+
+    public static String getDbJournalMode() {
+        return properties.getProperty("db.journal_mode", "WAL");
+    }
+
+    public static String getDbSynchronous() {
+        return properties.getProperty("db.synchronous", "NORMAL");
+    }
+
+    // Сколько строк драйвер читает за раз при потоковом обходе всех событий
+    public static int getDbStreamFetchSize() {
+        return getIntProperty("db.stream_fetch_size", 500);
+    }
+
+    // sqlite (по умолчанию) или eventlog - журнал изменений в файле, отображенном в память
+    public static String getStorageBackend() {
+        return properties.getProperty("storage.backend", "sqlite").trim().toLowerCase();
+    }
+
+    public static String getEventLogPath() {
+        return properties.getProperty("eventlog.path", "data/events.log");
+    }
+
+    public static int getEventLogCompactionMinMb() {
+        return getIntProperty("eventlog.compaction_min_mb", 16);
+    }
+
+    public static boolean getEventLogForceOnWrite() {
+        return Boolean.parseBoolean(properties.getProperty("eventlog.force_on_write", "false").trim());
+    }
+
+    public static int getGooglePageSize() {
+        return getIntProperty("google.page_size", 250);
+    }
+
+    public static int getGoogleSyncIntervalMinutes() {
+        return getIntProperty("google.sync.interval_minutes", 15);
+    }
+
+    public static int getGoogleSyncMaxJitterSeconds() {
+        return getIntProperty("google.sync.max_jitter_seconds", 120);
+    }
+
+    public static int getGoogleSyncWorkers() {
+        return getIntProperty("google.sync.workers", 4);
+    }
+
+    public static int getTelegramSendGlobalPerSecond() {
+        return getIntProperty("telegram.send.global_per_second", 30);
+    }
+
+    public static int getTelegramSendPerChatPerSecond() {
+        return getIntProperty("telegram.send.per_chat_per_second", 1);
+    }
+
+    public static int getTelegramSendPerChatBurst() {
+        return getIntProperty("telegram.send.per_chat_burst", 3);
+    }
+
+    public static int getTelegramSendThreads() {
+        return getIntProperty("telegram.send.threads", 4);
+    }
+
+    public static int getTelegramSendMaxPending() {
+        return getIntProperty("telegram.send.max_pending", 10000);
+    }
+
+    public static int getEventCacheMaxOwners() {
+        return getIntProperty("cache.events.max_owners", 1000);
+    }
+
+    public static int getEventCacheMaxEventsPerOwner() {
+        return getIntProperty("cache.events.max_events_per_owner", 2000);
+    }
+
+    // polling (по умолчанию) или webhook
+    public static String getTelegramMode() {
+        return properties.getProperty("telegram.mode", "polling").trim().toLowerCase();
+    }
+
+    public static int getTelegramWebhookPort() {
+        return getIntProperty("telegram.webhook.port", 8443);
+    }
+
+    public static String getTelegramWebhookPath() {
+        return properties.getProperty("telegram.webhook.path", "/telegram/webhook");
+    }
+
+    // Публичный HTTPS-адрес (без пути), на который Telegram будет отправлять обновления
+    public static String getTelegramWebhookUrl() {
+        return properties.getProperty("telegram.webhook.url");
+    }
+
+    // Секрет, который Telegram присылает в заголовке X-Telegram-Bot-Api-Secret-Token; обязателен в режиме webhook
+    public static String getTelegramWebhookSecret() {
+        return properties.getProperty("telegram.webhook.secret");
+    }
+
+    public static int getTelegramWebhookMaxConnections() {
+        return getIntProperty("telegram.webhook.max_connections", 40);
+    }
+
+    private static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid integer value for " + key + ": " + value + ". Using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
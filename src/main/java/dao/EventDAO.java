@@ -4,6 +4,7 @@ import model.Event;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface EventDAO {
     /**
@@ -46,6 +47,22 @@ public interface EventDAO {
      */
     List<Event> findAllByOwnerChatId(Long ownerChatId);
 
+    /**
+     * Возвращает одну страницу событий владельца в порядке времени начала.
+     * @param ownerChatId ID чата владельца.
+     * @param offset Сколько событий пропустить с начала списка.
+     * @param limit Максимальное количество событий на странице.
+     * @return События страницы (пустой список, если offset за концом списка).
+     */
+    List<Event> findPageByOwnerChatId(Long ownerChatId, int offset, int limit);
+
+    /**
+     * Возвращает количество событий владельца.
+     * @param ownerChatId ID чата владельца.
+     * @return Количество событий.
+     */
+    int countByOwnerChatId(Long ownerChatId);
+
     /**
      * Возвращает список событий для указанного владельца в заданном временном интервале.
      * @param start Начало интервала (включительно).
@@ -64,12 +81,60 @@ public interface EventDAO {
 
     /**
      * Возвращает список абсолютно всех событий из хранилища (использовать с осторожностью).
-     * Этот метод предназначен для специальных случаев, таких как работа ReminderService,
-     * который должен проверять все события всех пользователей.
+     * Этот метод предназначен для специальных случаев, когда нужно обойти события всех пользователей.
      * @return Список всех событий в системе.
      */
     List<Event> getAllEventsGlobally();
 
+    /**
+     * Потоковый вариант getAllEventsGlobally(): события читаются по мере обхода, а не собираются заранее
+     * в один список, поэтому полный проход по хранилищу не требует памяти под все события.
+     * Порядок не гарантируется. Поток может держать ресурсы хранилища (например, курсор базы данных),
+     * поэтому его нужно закрывать: try (Stream<Event> events = eventDAO.streamAllEventsGlobally()) { ... }
+     * Реализация по умолчанию обходит результат getAllEventsGlobally().
+     * @return Поток всех событий в системе.
+     */
+    default Stream<Event> streamAllEventsGlobally() {
+        return getAllEventsGlobally().stream();
+    }
+
+    /**
+     * Потоковый вариант findAllByOwnerChatId() с тем же порядком событий. Поток нужно закрывать.
+     * Реализация по умолчанию обходит результат findAllByOwnerChatId().
+     * @param ownerChatId ID чата владельца.
+     * @return Поток событий владельца.
+     */
+    default Stream<Event> streamAllByOwnerChatId(Long ownerChatId) {
+        return findAllByOwnerChatId(ownerChatId).stream();
+    }
+
+    /**
+     * Возвращает события всех пользователей с включенными и еще не отправленными напоминаниями,
+     * время напоминания которых не позже указанного момента.
+     * @param until Верхняя граница времени напоминания (включительно).
+     * @return Список событий, отсортированный по времени напоминания.
+     */
+    List<Event> findDueReminders(LocalDateTime until);
+
+    /**
+     * Возвращает все события владельца, у которых есть Google ID, одним запросом.
+     * Используется для сверки при пакетной синхронизации с Google Calendar.
+     * @param ownerChatId ID чата владельца.
+     * @return Список событий, привязанных к Google Calendar.
+     */
+    List<Event> findAllWithGoogleIdByOwnerChatId(Long ownerChatId);
+
+    /**
+     * Создает, обновляет и удаляет события владельца одной транзакцией: либо применяются все изменения, либо ни одного.
+     * Для новых событий без ID генерируется ID, как в createEvent.
+     * @param eventsToCreate Новые события.
+     * @param eventsToUpdate Существующие события (с ID и ownerChatId).
+     * @param eventIdsToDelete Локальные ID удаляемых событий.
+     * @param ownerChatId ID чата владельца удаляемых событий.
+     * @throws IllegalArgumentException если одно из обновляемых событий не найдено.
+     */
+    void saveAll(List<Event> eventsToCreate, List<Event> eventsToUpdate, List<String> eventIdsToDelete, Long ownerChatId);
+
     // Старые методы, которые были заменены или стали не нужны:
     // Optional<Event> getEventById(String eventId);
     // List<Event> getAllEvents();
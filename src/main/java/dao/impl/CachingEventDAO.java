@@ -0,0 +1,289 @@
+package dao.impl;
+
+import dao.EventDAO;
+import model.Event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Кэширующая обертка над EventDAO для интерактивных сценариев.
+ *
+ * Кэшируются чтения одного владельца: событие по ID, полный список, страницы списка и количество событий.
+ * Записи хранятся по владельцам в LRU-карте ограниченного размера; любое изменение событий владельца
+ * (создание, обновление, удаление, пакетное сохранение) сбрасывает все его записи целиком.
+ * Выборки по нескольким владельцам (напоминания, getAllEventsGlobally), по времени и потоковые выборки
+ * всегда идут в базу.
+ *
+ * Event изменяем, поэтому и в кэш, и наружу отдаются копии: изменения вызывающего кода
+ * не попадают в кэш, пока не пройдут через updateEvent.
+ */
+public class CachingEventDAO implements EventDAO {
+
+    // Кэш одного владельца; доступ только под монитором CachingEventDAO
+    private static class OwnerEntry {
+        final Map<String, Event> eventsById = new HashMap<>();
+        final Map<String, List<Event>> pages = new HashMap<>();
+        List<Event> allEvents;
+        Integer count;
+    }
+
+    private final EventDAO delegate;
+    private final int maxEventsPerOwner;
+    private final LinkedHashMap<Long, OwnerEntry> owners;
+
+    // Увеличивается при каждом сбросе. Результат чтения сохраняется, только если за время запроса
+    // к базе сбросов не было - иначе он мог прочитать данные до изменения
+    private long invalidationCounter = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param delegate DAO, к которому идут промахи и все изменения.
+     * @param maxOwners Сколько владельцев держать в кэше; самый давно использованный вытесняется.
+     * @param maxEventsPerOwner Списки и страницы длиннее этого не кэшируются.
+     */
+    public CachingEventDAO(EventDAO delegate, int maxOwners, int maxEventsPerOwner) {
+        this.delegate = delegate;
+        this.maxEventsPerOwner = maxEventsPerOwner;
+        this.owners = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, OwnerEntry> eldest) {
+                if (size() > maxOwners) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Event createEvent(Event event) {
+        try {
+            return delegate.createEvent(event);
+        } finally {
+            invalidateOwner(event.getOwnerChatId());
+        }
+    }
+
+    @Override
+    public Event updateEvent(Event event) {
+        try {
+            return delegate.updateEvent(event);
+        } finally {
+            invalidateOwner(event.getOwnerChatId());
+        }
+    }
+
+    @Override
+    public void deleteByIdAndOwnerChatId(String eventId, Long ownerChatId) {
+        try {
+            delegate.deleteByIdAndOwnerChatId(eventId, ownerChatId);
+        } finally {
+            invalidateOwner(ownerChatId);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Event> eventsToCreate, List<Event> eventsToUpdate, List<String> eventIdsToDelete, Long ownerChatId) {
+        try {
+            delegate.saveAll(eventsToCreate, eventsToUpdate, eventIdsToDelete, ownerChatId);
+        } finally {
+            invalidateOwner(ownerChatId);
+            for (Event event : eventsToCreate) {
+                invalidateOwner(event.getOwnerChatId());
+            }
+            for (Event event : eventsToUpdate) {
+                invalidateOwner(event.getOwnerChatId());
+            }
+        }
+    }
+
+    @Override
+    public Optional<Event> findByIdAndOwnerChatId(String eventId, Long ownerChatId) {
+        if (eventId == null || ownerChatId == null) {
+            return delegate.findByIdAndOwnerChatId(eventId, ownerChatId);
+        }
+        Event cached = cachedValue(ownerChatId, entry -> {
+            Event event = entry.eventsById.get(eventId);
+            if (event == null && entry.allEvents != null) {
+                // Полный список владельца уже в кэше - ищем в нем
+                event = entry.allEvents.stream().filter(e -> eventId.equals(e.getId())).findFirst().orElse(null);
+            }
+            return event;
+        });
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+        return load(ownerChatId, () -> delegate.findByIdAndOwnerChatId(eventId, ownerChatId),
+                (entry, result) -> result.ifPresent(event -> entry.eventsById.put(eventId, copy(event))));
+    }
+
+    @Override
+    public List<Event> findAllByOwnerChatId(Long ownerChatId) {
+        if (ownerChatId == null) {
+            return delegate.findAllByOwnerChatId(null);
+        }
+        List<Event> cached = cachedValue(ownerChatId, entry -> entry.allEvents);
+        if (cached != null) {
+            return copyAll(cached);
+        }
+        return load(ownerChatId, () -> delegate.findAllByOwnerChatId(ownerChatId), (entry, result) -> {
+            if (result.size() <= maxEventsPerOwner) {
+                entry.allEvents = copyAll(result);
+                entry.count = result.size();
+            }
+        });
+    }
+
+    @Override
+    public List<Event> findPageByOwnerChatId(Long ownerChatId, int offset, int limit) {
+        if (ownerChatId == null || limit > maxEventsPerOwner) {
+            return delegate.findPageByOwnerChatId(ownerChatId, offset, limit);
+        }
+        String pageKey = offset + ":" + limit;
+        List<Event> cached = cachedValue(ownerChatId, entry -> entry.pages.get(pageKey));
+        if (cached != null) {
+            return copyAll(cached);
+        }
+        return load(ownerChatId, () -> delegate.findPageByOwnerChatId(ownerChatId, offset, limit),
+                (entry, result) -> entry.pages.put(pageKey, copyAll(result)));
+    }
+
+    @Override
+    public int countByOwnerChatId(Long ownerChatId) {
+        if (ownerChatId == null) {
+            return delegate.countByOwnerChatId(null);
+        }
+        Integer cached = cachedValue(ownerChatId, entry -> entry.count);
+        if (cached != null) {
+            return cached;
+        }
+        return load(ownerChatId, () -> delegate.countByOwnerChatId(ownerChatId),
+                (entry, result) -> entry.count = result);
+    }
+
+    @Override
+    public Optional<Event> findByGoogleIdAndOwnerChatId(String googleId, Long ownerChatId) {
+        return delegate.findByGoogleIdAndOwnerChatId(googleId, ownerChatId);
+    }
+
+    @Override
+    public List<Event> findEventsBetweenForOwner(LocalDateTime start, LocalDateTime end, Long ownerChatId) {
+        return delegate.findEventsBetweenForOwner(start, end, ownerChatId);
+    }
+
+    @Override
+    public List<Event> getAllEventsGlobally() {
+        return delegate.getAllEventsGlobally();
+    }
+
+    @Override
+    public Stream<Event> streamAllEventsGlobally() {
+        return delegate.streamAllEventsGlobally();
+    }
+
+    // Потоковый обход нужен как раз для больших выборок, которые не должны оседать в кэше
+    @Override
+    public Stream<Event> streamAllByOwnerChatId(Long ownerChatId) {
+        return delegate.streamAllByOwnerChatId(ownerChatId);
+    }
+
+    @Override
+    public List<Event> findDueReminders(LocalDateTime until) {
+        return delegate.findDueReminders(until);
+    }
+
+    @Override
+    public List<Event> findAllWithGoogleIdByOwnerChatId(Long ownerChatId) {
+        return delegate.findAllWithGoogleIdByOwnerChatId(ownerChatId);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public synchronized int getCachedOwnerCount() {
+        return owners.size();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    private synchronized <T> T cachedValue(Long ownerChatId, Function<OwnerEntry, T> getter) {
+        OwnerEntry entry = owners.get(ownerChatId);
+        T value = entry != null ? getter.apply(entry) : null;
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface EntryUpdater<T> {
+        void store(OwnerEntry entry, T result);
+    }
+
+    // Запрос к базе идет без блокировки, чтобы медленное чтение одного владельца не задерживало остальных
+    private <T> T load(Long ownerChatId, Supplier<T> query, EntryUpdater<T> updater) {
+        long counterBefore;
+        synchronized (this) {
+            counterBefore = invalidationCounter;
+        }
+        T result = query.get();
+        synchronized (this) {
+            if (invalidationCounter == counterBefore) {
+                updater.store(owners.computeIfAbsent(ownerChatId, key -> new OwnerEntry()), result);
+            }
+        }
+        return result;
+    }
+
+    private synchronized void invalidateOwner(Long ownerChatId) {
+        invalidationCounter++;
+        if (ownerChatId != null) {
+            owners.remove(ownerChatId);
+        }
+    }
+
+    private static List<Event> copyAll(List<Event> events) {
+        List<Event> copies = new ArrayList<>(events.size());
+        for (Event event : events) {
+            copies.add(copy(event));
+        }
+        return copies;
+    }
+
+    private static Event copy(Event event) {
+        Event copy = new Event(event.getId(), event.getGoogleId(), event.getTitle(), event.getDescription(),
+                event.getStartTime(), event.getEndTime(), event.getLocation(), event.getReminderTime(),
+                event.getOwnerChatId());
+        copy.setRemindersEnabled(event.isRemindersEnabled());
+        copy.setReminderSent(event.isReminderSent());
+        return copy;
+    }
+}
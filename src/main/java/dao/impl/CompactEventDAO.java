@@ -0,0 +1,641 @@
+package dao.impl;
+
+import dao.EventDAO;
+import model.Event;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Компактное хранилище событий в памяти для больших объемов (сотни тысяч - миллионы событий).
+ *
+ * Вместо объекта Event на каждое событие данные лежат по колонкам в массивах примитивов:
+ * время - секунды (long), ID в формате UUID - два long, владелец - long, флаги - байт.
+ * Повторяющиеся строки (название, описание, место) кодируются через словарь, индексы по ID,
+ * владельцу и Google ID - хеш-таблицы long -> int без упаковки. Освободившиеся строки переиспользуются.
+ * Объекты Event создаются только для результатов запросов, поэтому наружу всегда отдаются копии.
+ *
+ * Время хранится с точностью до секунды, как и в SQLiteEventDAO.
+ * Чтения идут параллельно под общей блокировкой чтения, изменения - под блокировкой записи.
+ */
+public class CompactEventDAO implements EventDAO {
+
+    private static final long NO_OWNER = Long.MIN_VALUE;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final byte LIVE = 1;
+    private static final byte REMINDERS_ENABLED = 2;
+    private static final byte REMINDER_SENT = 4;
+
+    // Сколько событий поток обхода материализует за одну блокировку чтения
+    private static final int STREAM_BATCH_SIZE = 256;
+
+    private static final Comparator<Event> BY_START_AND_ID =
+            Comparator.comparing(Event::getStartTime).thenComparing(Event::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Колонки; строка i описывает одно событие, если в flags[i] стоит LIVE
+    private long[] idHigh = new long[0];
+    private long[] idLow = new long[0];
+    private long[] owners = new long[0];
+    private long[] starts = new long[0];
+    private long[] ends = new long[0];
+    private long[] reminders = new long[0];
+    private int[] titles = new int[0];
+    private int[] descriptions = new int[0];
+    private int[] locations = new int[0];
+    private String[] googleIds = new String[0];
+    private byte[] flags = new byte[0];
+    // Позиция строки в списке строк ее владельца - для удаления за O(1)
+    private int[] ownerPositions = new int[0];
+    private int rowCount;
+    private final StringDictionary.IntStack freeRows = new StringDictionary.IntStack();
+    private int liveRows;
+
+    // ID не в формате UUID (редкость): храним строкой
+    private final Map<Integer, String> irregularIds = new HashMap<>();
+
+    private final StringDictionary dictionary = new StringDictionary();
+
+    // 64-битный хеш ID -> строка; ID с совпавшим хешем уходят в карту коллизий
+    private final LongIntHashMap idIndex = new LongIntHashMap();
+    private final Map<String, Integer> idCollisions = new HashMap<>();
+    // Хеш (владелец, Google ID) -> строка. Остальные строки с тем же хешем, в том числе
+    // дубликаты одного Google ID у владельца, лежат списком под ключом "владелец:Google ID"
+    private final LongIntHashMap googleIdIndex = new LongIntHashMap();
+    private final Map<String, List<Integer>> googleIdCollisions = new HashMap<>();
+
+    // Владелец -> номер списка его строк
+    private final LongIntHashMap ownerSlots = new LongIntHashMap();
+    private int[][] ownerRows = new int[0][];
+    private int[] ownerRowCounts = new int[0];
+
+    @Override
+    public Event createEvent(Event event) {
+        if (event.getId() == null || event.getId().trim().isEmpty()) {
+            event.setId(UUID.randomUUID().toString());
+        }
+        lock.writeLock().lock();
+        try {
+            int existing = findRow(event.getId());
+            if (existing != LongIntHashMap.MISSING) {
+                System.err.println("[DAO Compact] Attempting to create an event with an existing ID: " + event.getId());
+                return toEvent(existing);
+            }
+            insertRow(event);
+            return event;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Event updateEvent(Event event) {
+        if (event.getId() == null || event.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Event ID cannot be null or empty for an update.");
+        }
+        lock.writeLock().lock();
+        try {
+            int row = findRow(event.getId());
+            if (row == LongIntHashMap.MISSING) {
+                throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for update.");
+            }
+            deleteRow(row);
+            insertRow(event);
+            return event;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Event> findByIdAndOwnerChatId(String eventId, Long ownerChatId) {
+        if (eventId == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int row = findRow(eventId);
+            if (row == LongIntHashMap.MISSING || owners[row] != ownerKey(ownerChatId)) {
+                return Optional.empty();
+            }
+            return Optional.of(toEvent(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Event> findByGoogleIdAndOwnerChatId(String googleId, Long ownerChatId) {
+        if (googleId == null || googleId.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int row = findGoogleRow(ownerKey(ownerChatId), googleId);
+            return row == LongIntHashMap.MISSING ? Optional.empty() : Optional.of(toEvent(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Event> findAllByOwnerChatId(Long ownerChatId) {
+        lock.readLock().lock();
+        try {
+            List<Event> result = new ArrayList<>();
+            int slot = ownerSlots.get(ownerKey(ownerChatId));
+            if (slot != LongIntHashMap.MISSING) {
+                for (int i = 0; i < ownerRowCounts[slot]; i++) {
+                    result.add(toEvent(ownerRows[slot][i]));
+                }
+            }
+            result.sort(BY_START_AND_ID);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Event> findPageByOwnerChatId(Long ownerChatId, int offset, int limit) {
+        List<Event> all = findAllByOwnerChatId(ownerChatId);
+        if (offset >= all.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(all.subList(offset, Math.min(all.size(), offset + limit)));
+    }
+
+    @Override
+    public int countByOwnerChatId(Long ownerChatId) {
+        lock.readLock().lock();
+        try {
+            int slot = ownerSlots.get(ownerKey(ownerChatId));
+            return slot == LongIntHashMap.MISSING ? 0 : ownerRowCounts[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Event> findEventsBetweenForOwner(LocalDateTime start, LocalDateTime end, Long ownerChatId) {
+        long from = toSeconds(start);
+        long to = toSeconds(end);
+        lock.readLock().lock();
+        try {
+            List<Event> result = new ArrayList<>();
+            int slot = ownerSlots.get(ownerKey(ownerChatId));
+            if (slot != LongIntHashMap.MISSING) {
+                // Сравниваются колонки long; Event создается только для подходящих строк
+                for (int i = 0; i < ownerRowCounts[slot]; i++) {
+                    int row = ownerRows[slot][i];
+                    if (ends[row] > from && starts[row] < to) {
+                        result.add(toEvent(row));
+                    }
+                }
+            }
+            result.sort(BY_START_AND_ID);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteByIdAndOwnerChatId(String eventId, Long ownerChatId) {
+        if (eventId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = findRow(eventId);
+            if (row != LongIntHashMap.MISSING && owners[row] == ownerKey(ownerChatId)) {
+                deleteRow(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Event> getAllEventsGlobally() {
+        lock.readLock().lock();
+        try {
+            List<Event> result = new ArrayList<>(liveRows);
+            for (int row = 0; row < rowCount; row++) {
+                if ((flags[row] & LIVE) != 0) {
+                    result.add(toEvent(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Обходит строки пачками по STREAM_BATCH_SIZE, беря блокировку чтения на каждую пачку,
+     * поэтому запись не ждет конца обхода. Изменения во время обхода могут быть видны или нет.
+     */
+    @Override
+    public Stream<Event> streamAllEventsGlobally() {
+        Spliterator<Event> cursor = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.NONNULL) {
+            private final List<Event> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            private int batchPosition;
+            private int nextRow;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Event> action) {
+                if (batchPosition == batch.size()) {
+                    fillBatch();
+                    if (batch.isEmpty()) {
+                        return false;
+                    }
+                }
+                action.accept(batch.get(batchPosition++));
+                return true;
+            }
+
+            private void fillBatch() {
+                batch.clear();
+                batchPosition = 0;
+                lock.readLock().lock();
+                try {
+                    for (; nextRow < rowCount && batch.size() < STREAM_BATCH_SIZE; nextRow++) {
+                        if ((flags[nextRow] & LIVE) != 0) {
+                            batch.add(toEvent(nextRow));
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        };
+        return StreamSupport.stream(cursor, false);
+    }
+
+    @Override
+    public List<Event> findDueReminders(LocalDateTime until) {
+        long limit = toSeconds(until);
+        lock.readLock().lock();
+        try {
+            List<Event> result = new ArrayList<>();
+            for (int row = 0; row < rowCount; row++) {
+                if ((flags[row] & (LIVE | REMINDERS_ENABLED | REMINDER_SENT)) == (LIVE | REMINDERS_ENABLED)
+                        && reminders[row] != NO_TIME && reminders[row] <= limit) {
+                    result.add(toEvent(row));
+                }
+            }
+            result.sort(Comparator.comparing(Event::getReminderTime));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Event> findAllWithGoogleIdByOwnerChatId(Long ownerChatId) {
+        lock.readLock().lock();
+        try {
+            List<Event> result = new ArrayList<>();
+            int slot = ownerSlots.get(ownerKey(ownerChatId));
+            if (slot != LongIntHashMap.MISSING) {
+                for (int i = 0; i < ownerRowCounts[slot]; i++) {
+                    int row = ownerRows[slot][i];
+                    if (googleIds[row] != null) {
+                        result.add(toEvent(row));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(List<Event> eventsToCreate, List<Event> eventsToUpdate, List<String> eventIdsToDelete, Long ownerChatId) {
+        for (Event event : eventsToCreate) {
+            if (event.getId() == null || event.getId().trim().isEmpty()) {
+                event.setId(UUID.randomUUID().toString());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            // Проверяем заранее, чтобы не применить изменения частично
+            for (Event event : eventsToUpdate) {
+                if (event.getId() == null || findRow(event.getId()) == LongIntHashMap.MISSING) {
+                    throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for update.");
+                }
+            }
+            for (Event event : eventsToCreate) {
+                int existing = findRow(event.getId());
+                if (existing != LongIntHashMap.MISSING) {
+                    deleteRow(existing);
+                }
+                insertRow(event);
+            }
+            for (Event event : eventsToUpdate) {
+                deleteRow(findRow(event.getId()));
+                insertRow(event);
+            }
+            long owner = ownerKey(ownerChatId);
+            for (String eventId : eventIdsToDelete) {
+                int row = findRow(eventId);
+                if (row != LongIntHashMap.MISSING && owners[row] == owner) {
+                    deleteRow(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Есть ли событие с таким ID у любого владельца.
+     */
+    boolean containsId(String eventId) {
+        lock.readLock().lock();
+        try {
+            return findRow(eventId) != LongIntHashMap.MISSING;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество хранимых событий.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество уникальных строк в словаре - для оценки сжатия.
+     */
+    public int getDictionarySize() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insertRow(Event event) {
+        int row;
+        if (!freeRows.isEmpty()) {
+            row = freeRows.pop();
+        } else {
+            row = rowCount++;
+            if (row == flags.length) {
+                grow(Math.max(16, row * 2));
+            }
+        }
+        String eventId = event.getId();
+        UUID uuid = parseUuid(eventId);
+        if (uuid != null) {
+            idHigh[row] = uuid.getMostSignificantBits();
+            idLow[row] = uuid.getLeastSignificantBits();
+        } else {
+            irregularIds.put(row, eventId);
+        }
+        long owner = ownerKey(event.getOwnerChatId());
+        owners[row] = owner;
+        starts[row] = toSeconds(event.getStartTime());
+        ends[row] = toSeconds(event.getEndTime());
+        reminders[row] = event.getReminderTime() != null ? toSeconds(event.getReminderTime()) : NO_TIME;
+        titles[row] = dictionary.acquire(event.getTitle());
+        descriptions[row] = dictionary.acquire(event.getDescription());
+        locations[row] = dictionary.acquire(event.getLocation());
+        String googleId = event.getGoogleId();
+        googleIds[row] = googleId;
+        flags[row] = (byte) (LIVE
+                | (event.isRemindersEnabled() ? REMINDERS_ENABLED : 0)
+                | (event.isReminderSent() ? REMINDER_SENT : 0));
+        liveRows++;
+
+        long idHash = hashId(eventId, uuid);
+        int sameHash = idIndex.get(idHash);
+        if (sameHash == LongIntHashMap.MISSING) {
+            idIndex.put(idHash, row);
+        } else {
+            idCollisions.put(eventId, row);
+        }
+        if (isIndexedGoogleId(googleId)) {
+            long googleHash = hashGoogleId(owner, googleId);
+            if (googleIdIndex.get(googleHash) == LongIntHashMap.MISSING) {
+                googleIdIndex.put(googleHash, row);
+            } else {
+                googleIdCollisions.computeIfAbsent(owner + ":" + googleId, key -> new ArrayList<>(1)).add(row);
+            }
+        }
+        addToOwner(owner, row);
+    }
+
+    private void deleteRow(int row) {
+        String eventId = idAt(row);
+        long idHash = hashId(eventId, parseUuid(eventId));
+        if (idIndex.get(idHash) == row) {
+            idIndex.remove(idHash);
+        } else {
+            idCollisions.remove(eventId);
+        }
+        long owner = owners[row];
+        String googleId = googleIds[row];
+        if (isIndexedGoogleId(googleId)) {
+            long googleHash = hashGoogleId(owner, googleId);
+            String collisionKey = owner + ":" + googleId;
+            List<Integer> sameKey = googleIdCollisions.get(collisionKey);
+            if (googleIdIndex.get(googleHash) == row) {
+                googleIdIndex.remove(googleHash);
+                // Дубликат того же Google ID занимает место в индексе, иначе он бы потерялся
+                if (sameKey != null) {
+                    googleIdIndex.put(googleHash, sameKey.remove(sameKey.size() - 1));
+                }
+            } else if (sameKey != null) {
+                sameKey.remove(Integer.valueOf(row));
+            }
+            if (sameKey != null && sameKey.isEmpty()) {
+                googleIdCollisions.remove(collisionKey);
+            }
+        }
+        removeFromOwner(owner, row);
+        dictionary.release(titles[row]);
+        dictionary.release(descriptions[row]);
+        dictionary.release(locations[row]);
+        irregularIds.remove(row);
+        googleIds[row] = null;
+        flags[row] = 0;
+        liveRows--;
+        freeRows.push(row);
+    }
+
+    private int findRow(String eventId) {
+        UUID uuid = parseUuid(eventId);
+        int row = idIndex.get(hashId(eventId, uuid));
+        if (row != LongIntHashMap.MISSING && rowHasId(row, eventId, uuid)) {
+            return row;
+        }
+        Integer collided = idCollisions.get(eventId);
+        return collided != null ? collided : LongIntHashMap.MISSING;
+    }
+
+    private int findGoogleRow(long owner, String googleId) {
+        int row = googleIdIndex.get(hashGoogleId(owner, googleId));
+        if (row != LongIntHashMap.MISSING && owners[row] == owner && googleId.equals(googleIds[row])) {
+            return row;
+        }
+        List<Integer> collided = googleIdCollisions.get(owner + ":" + googleId);
+        return collided != null ? collided.get(0) : LongIntHashMap.MISSING;
+    }
+
+    private boolean rowHasId(int row, String eventId, UUID uuid) {
+        if (uuid != null) {
+            return !irregularIds.containsKey(row) && idHigh[row] == uuid.getMostSignificantBits()
+                    && idLow[row] == uuid.getLeastSignificantBits();
+        }
+        return eventId.equals(irregularIds.get(row));
+    }
+
+    private String idAt(int row) {
+        String irregular = irregularIds.get(row);
+        return irregular != null ? irregular : new UUID(idHigh[row], idLow[row]).toString();
+    }
+
+    private Event toEvent(int row) {
+        long owner = owners[row];
+        Event event = new Event(
+            idAt(row),
+            googleIds[row],
+            dictionary.get(titles[row]),
+            dictionary.get(descriptions[row]),
+            fromSeconds(starts[row]),
+            fromSeconds(ends[row]),
+            dictionary.get(locations[row]),
+            reminders[row] != NO_TIME ? fromSeconds(reminders[row]) : null,
+            owner != NO_OWNER ? owner : null
+        );
+        event.setRemindersEnabled((flags[row] & REMINDERS_ENABLED) != 0);
+        event.setReminderSent((flags[row] & REMINDER_SENT) != 0);
+        return event;
+    }
+
+    private void addToOwner(long owner, int row) {
+        int slot = ownerSlots.get(owner);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = ownerSlots.size();
+            ownerSlots.put(owner, slot);
+            if (slot == ownerRows.length) {
+                int capacity = Math.max(16, slot * 2);
+                ownerRows = Arrays.copyOf(ownerRows, capacity);
+                ownerRowCounts = Arrays.copyOf(ownerRowCounts, capacity);
+            }
+            ownerRows[slot] = new int[4];
+        }
+        int count = ownerRowCounts[slot];
+        if (count == ownerRows[slot].length) {
+            ownerRows[slot] = Arrays.copyOf(ownerRows[slot], count * 2);
+        }
+        ownerRows[slot][count] = row;
+        ownerPositions[row] = count;
+        ownerRowCounts[slot] = count + 1;
+    }
+
+    // Последняя строка владельца переносится на место удаляемой; пустой список владельца остается
+    private void removeFromOwner(long owner, int row) {
+        int slot = ownerSlots.get(owner);
+        int position = ownerPositions[row];
+        int last = --ownerRowCounts[slot];
+        int movedRow = ownerRows[slot][last];
+        ownerRows[slot][position] = movedRow;
+        ownerPositions[movedRow] = position;
+    }
+
+    private void grow(int capacity) {
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        reminders = Arrays.copyOf(reminders, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        locations = Arrays.copyOf(locations, capacity);
+        googleIds = Arrays.copyOf(googleIds, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        ownerPositions = Arrays.copyOf(ownerPositions, capacity);
+    }
+
+    private static boolean isIndexedGoogleId(String googleId) {
+        return googleId != null && !googleId.trim().isEmpty();
+    }
+
+    private static long ownerKey(Long ownerChatId) {
+        return ownerChatId != null ? ownerChatId : NO_OWNER;
+    }
+
+    // LocalDateTime без пояса: секунды считаются от полуночи 1970-01-01 того же локального времени
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromSeconds(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    // UUID, только если строка - его каноническая запись (иначе ID не восстановить из двух long)
+    private static UUID parseUuid(String eventId) {
+        if (eventId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(eventId);
+            return uuid.toString().equals(eventId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long hashId(String eventId, UUID uuid) {
+        if (uuid != null) {
+            return uuid.getMostSignificantBits() ^ (uuid.getLeastSignificantBits() * 0x9E3779B97F4A7C15L);
+        }
+        return hashString(eventId);
+    }
+
+    private static long hashGoogleId(long owner, String googleId) {
+        return hashString(googleId) * 31 + owner * 0x9E3779B97F4A7C15L;
+    }
+
+    // 64-битный FNV-1a
+    private static long hashString(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,235 @@
+package dao.impl;
+
+import model.Event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Интервальный индекс событий одного владельца для InMemoryEventDAO.
+ *
+ * Неизменяемое декартово дерево (treap), упорядоченное по (начало, ID). Каждый узел хранит максимальное
+ * время окончания и размер своего поддерева: это позволяет отсекать ветки без пересечений и пропускать
+ * страницы без обхода. Изменение копирует только путь от корня (O(log n)) и публикует новый корень,
+ * поэтому читатели работают со снимком без блокировок, а писатели одного владельца идут по очереди.
+ *
+ * Начало и окончание запоминаются при вставке: Event изменяем, и вызывающий код может поменять время
+ * в объекте до вызова updateEvent.
+ */
+final class EventIntervalIndex {
+
+    private static final class Node {
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final String id;
+        final Event event;
+        final int priority;
+        final Node left;
+        final Node right;
+        // Наибольшее окончание в поддереве и число узлов в нем
+        final LocalDateTime maxEnd;
+        final int size;
+
+        Node(LocalDateTime start, LocalDateTime end, String id, Event event, int priority, Node left, Node right) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.event = event;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            LocalDateTime max = end;
+            if (left != null && left.maxEnd.isAfter(max)) {
+                max = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(max)) {
+                max = right.maxEnd;
+            }
+            this.maxEnd = max;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node withChildren(Node newLeft, Node newRight) {
+            return new Node(start, end, id, event, priority, newLeft, newRight);
+        }
+    }
+
+    private volatile Node root;
+    // Время начала, под которым событие лежит в дереве, - ключ для удаления
+    private final Map<String, LocalDateTime> indexedStarts = new ConcurrentHashMap<>();
+
+    /**
+     * Добавляет событие или заменяет ранее добавленное с тем же ID.
+     */
+    synchronized void put(Event event) {
+        Node current = removeNode(root, event.getId());
+        Node item = new Node(event.getStartTime(), event.getEndTime(), event.getId(), event,
+                ThreadLocalRandom.current().nextInt(), null, null);
+        root = insert(current, item);
+        indexedStarts.put(event.getId(), event.getStartTime());
+    }
+
+    synchronized void remove(String eventId) {
+        root = removeNode(root, eventId);
+        indexedStarts.remove(eventId);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Все события по возрастанию времени начала.
+     */
+    List<Event> all() {
+        Node snapshot = root;
+        List<Event> result = new ArrayList<>(size(snapshot));
+        collectAll(snapshot, result);
+        return result;
+    }
+
+    /**
+     * События, пересекающие интервал [from, to): начало до to и окончание после from. По возрастанию начала.
+     */
+    List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        collectOverlapping(root, from, to, result);
+        return result;
+    }
+
+    /**
+     * До limit событий, начинающихся не раньше from, по возрастанию начала.
+     */
+    List<Event> startingFrom(LocalDateTime from, int limit) {
+        List<Event> result = new ArrayList<>(Math.min(limit, 64));
+        collectStartingFrom(root, from, limit, result);
+        return result;
+    }
+
+    /**
+     * Страница в порядке (начало, ID): пропуск offset событий по размерам поддеревьев, без обхода.
+     */
+    List<Event> page(int offset, int limit) {
+        List<Event> result = new ArrayList<>(Math.min(limit, 64));
+        collectPage(root, offset, offset + limit, 0, result);
+        return result;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int compare(LocalDateTime start, String id, Node node) {
+        int byStart = start.compareTo(node.start);
+        return byStart != 0 ? byStart : id.compareTo(node.id);
+    }
+
+    private static Node insert(Node node, Node item) {
+        if (node == null) {
+            return item;
+        }
+        if (compare(item.start, item.id, node) < 0) {
+            Node left = insert(node.left, item);
+            if (left.priority > node.priority) {
+                // Поворот вправо: левый потомок поднимается на место узла
+                return left.withChildren(left.left, node.withChildren(left.right, node.right));
+            }
+            return node.withChildren(left, node.right);
+        }
+        Node right = insert(node.right, item);
+        if (right.priority > node.priority) {
+            return right.withChildren(node.withChildren(node.left, right.left), right.right);
+        }
+        return node.withChildren(node.left, right);
+    }
+
+    private Node removeNode(Node node, String eventId) {
+        LocalDateTime start = indexedStarts.get(eventId);
+        return start == null ? node : remove(node, start, eventId);
+    }
+
+    private static Node remove(Node node, LocalDateTime start, String id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            return node.withChildren(remove(node.left, start, id), node.right);
+        }
+        if (cmp > 0) {
+            return node.withChildren(node.left, remove(node.right, start, id));
+        }
+        return merge(node.left, node.right);
+    }
+
+    // Все ключи a меньше всех ключей b
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            return a.withChildren(a.left, merge(a.right, b));
+        }
+        return b.withChildren(merge(a, b.left), b.right);
+    }
+
+    private static void collectAll(Node node, List<Event> result) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, result);
+        result.add(node.event);
+        collectAll(node.right, result);
+    }
+
+    private static void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to, List<Event> result) {
+        // Все события поддерева закончились не позже from
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        // Этот узел и правое поддерево начинаются не раньше to
+        if (!node.start.isBefore(to)) {
+            return;
+        }
+        if (node.end.isAfter(from)) {
+            result.add(node.event);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private static void collectStartingFrom(Node node, LocalDateTime from, int limit, List<Event> result) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        if (node.start.isBefore(from)) {
+            collectStartingFrom(node.right, from, limit, result);
+            return;
+        }
+        collectStartingFrom(node.left, from, limit, result);
+        if (result.size() < limit) {
+            result.add(node.event);
+            collectStartingFrom(node.right, from, limit, result);
+        }
+    }
+
+    // skipped - сколько событий левее этого поддерева; собираем позиции [fromIndex, toIndex)
+    private static void collectPage(Node node, int fromIndex, int toIndex, int skipped, List<Event> result) {
+        if (node == null || skipped >= toIndex || skipped + node.size <= fromIndex) {
+            return;
+        }
+        collectPage(node.left, fromIndex, toIndex, skipped, result);
+        int position = skipped + size(node.left);
+        if (position >= fromIndex && position < toIndex) {
+            result.add(node.event);
+        }
+        collectPage(node.right, fromIndex, toIndex, position + 1, result);
+    }
+}
@@ -6,10 +6,12 @@ import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.DateTime;
+import com.google.api.client.util.store.DataStore;
 import com.google.api.client.util.store.DataStoreFactory;
 import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.calendar.Calendar;
@@ -19,6 +21,7 @@ import com.google.api.services.calendar.model.Events;
 import dao.ScheduleDAO;
 import model.Event;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -30,7 +33,9 @@ import java.time.ZoneId;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GoogleCalendarDAO implements ScheduleDAO {
 
@@ -40,38 +45,122 @@ public class GoogleCalendarDAO implements ScheduleDAO {
     private static final List<String> SCOPES = Collections.singletonList(CalendarScopes.CALENDAR_READONLY);
     private static final String CREDENTIALS_FILE_PATH = "/credentials.json";
     private static final String OOB_REDIRECT_URI = "urn:ietf:wg:oauth:2.0:oob";
+    // Токен инкрементальной синхронизации лежит рядом с StoredCredential в tokens/<chatId>
+    private static final String SYNC_SETTINGS_STORE_ID = "SyncSettings";
+    // Имя файла, в котором FileDataStoreFactory хранит учетные данные (StoredCredential.DEFAULT_DATA_STORE_ID)
+    private static final String STORED_CREDENTIAL_FILE_NAME = "StoredCredential";
+    private static final String SYNC_TOKEN_KEY = "syncToken";
+    private static final String CALENDAR_ID = "primary";
+    public static final int DEFAULT_MAX_RESULTS = 250;
+    private static final int MAX_CACHED_SESSIONS = 256;
+    private static final long SESSION_TTL_MS = 30 * 60 * 1000L;
+    // Только поля, которые читают convertToModelEvent и разбор изменений, - остальное Google не передает
+    private static final String EVENT_LIST_FIELDS =
+            "nextPageToken,nextSyncToken,items(id,status,summary,description,location,start,end,reminders)";
 
-    private final NetHttpTransport httpTransport;
+    private final HttpTransport httpTransport;
     private final GoogleClientSecrets clientSecrets;
+    private final File tokensDirectory;
+    private final int maxResults;
+    // Ограниченный LRU-кэш сессий пользователей; записи дополнительно устаревают через SESSION_TTL_MS
+    private final Map<Long, UserSession> sessions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserSession> eldest) {
+            return size() > MAX_CACHED_SESSIONS;
+        }
+    };
 
     public GoogleCalendarDAO() throws GeneralSecurityException, IOException {
-        this.httpTransport = GoogleNetHttpTransport.newTrustedTransport();
+        this(DEFAULT_MAX_RESULTS);
+    }
+
+    public GoogleCalendarDAO(int maxResults) throws GeneralSecurityException, IOException {
+        this(GoogleNetHttpTransport.newTrustedTransport(), loadClientSecrets(), new File(TOKENS_DIRECTORY_PATH), maxResults);
+    }
+
+    /**
+     * Конструктор с явным HTTP-транспортом и каталогом токенов (например, для тестов с MockHttpTransport).
+     * @param maxResults Размер страницы events.list (от 1 до 2500).
+     */
+    public GoogleCalendarDAO(HttpTransport httpTransport, GoogleClientSecrets clientSecrets, File tokensDirectory, int maxResults) {
+        if (maxResults < 1 || maxResults > 2500) {
+            throw new IllegalArgumentException("Google Calendar page size must be between 1 and 2500, got: " + maxResults);
+        }
+        this.httpTransport = httpTransport;
+        this.clientSecrets = clientSecrets;
+        this.tokensDirectory = tokensDirectory;
+        this.maxResults = maxResults;
+    }
+
+    private static GoogleClientSecrets loadClientSecrets() throws IOException {
         InputStream in = GoogleCalendarDAO.class.getResourceAsStream(CREDENTIALS_FILE_PATH);
         if (in == null) {
             throw new FileNotFoundException("Resource not found: " + CREDENTIALS_FILE_PATH);
         }
-        this.clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, new InputStreamReader(in));
+        return GoogleClientSecrets.load(JSON_FACTORY, new InputStreamReader(in));
     }
 
-    private DataStoreFactory createDataStoreFactory(Long ownerChatId) throws IOException {
-        return new FileDataStoreFactory(new java.io.File(TOKENS_DIRECTORY_PATH, ownerChatId.toString()));
+    /**
+     * Объекты Google API одного пользователя: хранилище токенов, OAuth-flow, учетные данные и клиент Calendar.
+     * Credential сам обновляет access token и сохраняет его через flow, поэтому его можно переиспользовать.
+     */
+    private final class UserSession {
+        private final DataStoreFactory dataStoreFactory;
+        private final GoogleAuthorizationCodeFlow flow;
+        private final long expiresAtMillis;
+        private Credential credential;
+        private Calendar calendar;
+
+        private UserSession(Long ownerChatId) throws IOException {
+            this.dataStoreFactory = new FileDataStoreFactory(new File(tokensDirectory, ownerChatId.toString()));
+            this.flow = new GoogleAuthorizationCodeFlow.Builder(
+                    httpTransport, JSON_FACTORY, clientSecrets, SCOPES)
+                    .setDataStoreFactory(dataStoreFactory)
+                    .setAccessType("offline")
+                    .build();
+            this.expiresAtMillis = System.currentTimeMillis() + SESSION_TTL_MS;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAtMillis;
+        }
+
+        private void setCredential(Credential credential) {
+            this.credential = credential;
+            this.calendar = null;
+        }
     }
-    
-    private GoogleAuthorizationCodeFlow createGoogleAuthorizationCodeFlow(Long ownerChatId) throws IOException {
-        return new GoogleAuthorizationCodeFlow.Builder(
-                httpTransport, JSON_FACTORY, clientSecrets, SCOPES)
-                .setDataStoreFactory(createDataStoreFactory(ownerChatId))
-                .setAccessType("offline")
-                .build();
+
+    private synchronized UserSession getSession(Long ownerChatId) throws IOException {
+        UserSession session = sessions.get(ownerChatId);
+        if (session == null || session.isExpired()) {
+            session = new UserSession(ownerChatId);
+            sessions.put(ownerChatId, session);
+        }
+        return session;
+    }
+
+    private synchronized void invalidateSession(Long ownerChatId) {
+        sessions.remove(ownerChatId);
     }
 
     public Credential loadCredential(Long ownerChatId) throws IOException {
-        GoogleAuthorizationCodeFlow flow = createGoogleAuthorizationCodeFlow(ownerChatId);
-        return flow.loadCredential(ownerChatId.toString());
+        UserSession session = getSession(ownerChatId);
+        synchronized (session) {
+            return loadCredential(session, ownerChatId);
+        }
+    }
+
+    private Credential loadCredential(UserSession session, Long ownerChatId) throws IOException {
+        if (session.credential == null) {
+            // Отсутствие учетных данных не кэшируем: их может создать exchangeCodeForTokens
+            session.setCredential(session.flow.loadCredential(ownerChatId.toString()));
+        }
+        return session.credential;
     }
 
     public String getAuthorizationUrl(Long ownerChatId, String state) throws IOException {
-        GoogleAuthorizationCodeFlow flow = createGoogleAuthorizationCodeFlow(ownerChatId);
+        GoogleAuthorizationCodeFlow flow = getSession(ownerChatId).flow;
         return flow.newAuthorizationUrl()
                 .setRedirectUri(OOB_REDIRECT_URI)
                 .setState(state)
@@ -79,18 +168,22 @@ public class GoogleCalendarDAO implements ScheduleDAO {
     }
 
     public Credential exchangeCodeForTokens(Long ownerChatId, String authorizationCode) throws IOException {
-        GoogleAuthorizationCodeFlow flow = createGoogleAuthorizationCodeFlow(ownerChatId);
-        com.google.api.client.auth.oauth2.TokenResponse response = flow.newTokenRequest(authorizationCode)
+        UserSession session = getSession(ownerChatId);
+        com.google.api.client.auth.oauth2.TokenResponse response = session.flow.newTokenRequest(authorizationCode)
                 .setRedirectUri(OOB_REDIRECT_URI)
                 .execute();
-        return flow.createAndStoreCredential(response, ownerChatId.toString());
+        Credential credential = session.flow.createAndStoreCredential(response, ownerChatId.toString());
+        synchronized (session) {
+            session.setCredential(credential);
+        }
+        return credential;
     }
     
     public void deleteTokens(Long ownerChatId) throws IOException {
-        // DataStoreFactory dataStoreFactory = createDataStoreFactory(ownerChatId);
-        java.io.File userTokenDir = new java.io.File(TOKENS_DIRECTORY_PATH, ownerChatId.toString());
+        invalidateSession(ownerChatId);
+        File userTokenDir = new File(tokensDirectory, ownerChatId.toString());
         if (userTokenDir.exists()) {
-            java.io.File storedCredentialFile = new java.io.File(userTokenDir, "StoredCredential");
+            File storedCredentialFile = new File(userTokenDir, STORED_CREDENTIAL_FILE_NAME);
             if (storedCredentialFile.exists()) {
                 if (storedCredentialFile.delete()) {
                     System.out.println("[GoogleCalendarDAO] Deleted StoredCredential for user: " + ownerChatId);
@@ -98,6 +191,11 @@ public class GoogleCalendarDAO implements ScheduleDAO {
                     System.err.println("[GoogleCalendarDAO] Failed to delete StoredCredential for user: " + ownerChatId);
                 }
             }
+            // Токен синхронизации привязан к аккаунту: после переподключения нужна полная синхронизация
+            File syncSettingsFile = new File(userTokenDir, SYNC_SETTINGS_STORE_ID);
+            if (syncSettingsFile.exists() && !syncSettingsFile.delete()) {
+                System.err.println("[GoogleCalendarDAO] Failed to delete sync token for user: " + ownerChatId);
+            }
             if (userTokenDir.isDirectory() && userTokenDir.list().length == 0) {
                 if (userTokenDir.delete()) {
                      System.out.println("[GoogleCalendarDAO] Deleted token directory for user: " + ownerChatId);
@@ -106,37 +204,201 @@ public class GoogleCalendarDAO implements ScheduleDAO {
         }
     }
 
-    @Override
-    public List<Event> getEvents(LocalDate from, LocalDate to, Long ownerChatId) throws GeneralSecurityException, IOException {
-        Credential credential = loadCredential(ownerChatId);
-        if (credential == null || credential.getAccessToken() == null) {
-            throw new UserNotAuthenticatedException("User " + ownerChatId + " is not authenticated with Google Calendar. Please use /connect_google_calendar.");
+    /**
+     * Находит пользователей, подключивших Google Calendar: каталоги tokens/<chatId> с сохраненными учетными данными.
+     * @return Список ID чатов подключенных пользователей.
+     */
+    public List<Long> findConnectedChatIds() {
+        List<Long> chatIds = new ArrayList<>();
+        File[] userDirs = tokensDirectory.listFiles(File::isDirectory);
+        if (userDirs == null) {
+            return chatIds;
         }
+        for (File userDir : userDirs) {
+            if (!new File(userDir, STORED_CREDENTIAL_FILE_NAME).isFile()) {
+                continue;
+            }
+            try {
+                chatIds.add(Long.parseLong(userDir.getName()));
+            } catch (NumberFormatException e) {
+                System.err.println("[GoogleCalendarDAO] Skipping unexpected token directory: " + userDir.getName());
+            }
+        }
+        return chatIds;
+    }
 
-        Calendar service = new Calendar.Builder(httpTransport, JSON_FACTORY, credential)
-                .setApplicationName(APPLICATION_NAME)
-                .build();
+    private Calendar createCalendarService(Long ownerChatId) throws IOException {
+        UserSession session = getSession(ownerChatId);
+        synchronized (session) {
+            Credential credential = loadCredential(session, ownerChatId);
+            if (credential == null || credential.getAccessToken() == null) {
+                throw new UserNotAuthenticatedException("User " + ownerChatId + " is not authenticated with Google Calendar. Please use /connect_google_calendar.");
+            }
+            if (session.calendar == null) {
+                session.calendar = new Calendar.Builder(httpTransport, JSON_FACTORY, credential)
+                        .setApplicationName(APPLICATION_NAME)
+                        .build();
+            }
+            return session.calendar;
+        }
+    }
+
+    /**
+     * Обработчик очередной страницы результатов Google Calendar.
+     */
+    @FunctionalInterface
+    public interface PageHandler<T> {
+        void handle(T page) throws IOException;
+    }
 
+    @Override
+    public List<Event> getEvents(LocalDate from, LocalDate to, Long ownerChatId) throws GeneralSecurityException, IOException {
         List<Event> resultEvents = new ArrayList<>();
+        forEachEventPage(from, to, ownerChatId, resultEvents::addAll);
+        return resultEvents;
+    }
+
+    /**
+     * Постранично обходит события пользователя за период, не собирая их в один список.
+     * Каждая страница (не больше maxResults событий) передается обработчику сразу после загрузки.
+     * @param from Первый день периода (включительно).
+     * @param to Последний день периода (включительно).
+     * @param ownerChatId ID чата пользователя.
+     * @param handler Обработчик страницы событий.
+     * @throws UserNotAuthenticatedException если пользователь не подключил Google Calendar.
+     */
+    public void forEachEventPage(LocalDate from, LocalDate to, Long ownerChatId, PageHandler<List<Event>> handler) throws IOException {
+        Calendar service = createCalendarService(ownerChatId);
         DateTime dateFrom = new DateTime(from.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
         DateTime dateTo = new DateTime(to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
 
-        String calendarId = "primary";
-
-        Events googleEventsResponse = service.events().list(calendarId)
+        Calendar.Events.List request = newListRequest(service)
                 .setTimeMin(dateFrom)
                 .setTimeMax(dateTo)
-                .setOrderBy("startTime")
-                .setSingleEvents(true)
-                .execute();
+                .setOrderBy("startTime");
+        forEachPage(request, page -> {
+            List<Event> events = new ArrayList<>();
+            if (page.getItems() != null) {
+                for (com.google.api.services.calendar.model.Event googleEvent : page.getItems()) {
+                    events.add(convertToModelEvent(googleEvent));
+                }
+            }
+            handler.handle(events);
+        });
+    }
 
-        List<com.google.api.services.calendar.model.Event> items = googleEventsResponse.getItems();
-        if (items != null) {
-            for (com.google.api.services.calendar.model.Event googleEvent : items) {
-                resultEvents.add(convertToModelEvent(googleEvent));
+    /**
+     * Возвращает все изменения в календаре пользователя с прошлой синхронизации одним объектом.
+     * См. forEachEventChangesPage.
+     * @param ownerChatId ID чата пользователя.
+     * @return Изменившиеся и отмененные события и новый токен синхронизации.
+     * @throws UserNotAuthenticatedException если пользователь не подключил Google Calendar.
+     */
+    public GoogleEventChanges getEventChanges(Long ownerChatId) throws IOException {
+        List<Event> changedEvents = new ArrayList<>();
+        List<String> cancelledGoogleIds = new ArrayList<>();
+        GoogleEventChanges lastPage = forEachEventChangesPage(ownerChatId, page -> {
+            changedEvents.addAll(page.getChangedEvents());
+            cancelledGoogleIds.addAll(page.getCancelledGoogleIds());
+        });
+        return new GoogleEventChanges(changedEvents, cancelledGoogleIds, lastPage.getNextSyncToken(), lastPage.isFullSync());
+    }
+
+    /**
+     * Постранично обходит изменения в календаре пользователя с прошлой синхронизации.
+     * Если сохраненного токена нет или Google ответил 410 Gone (токен устарел),
+     * выполняется полная синхронизация предстоящих событий, начиная с сегодняшнего дня.
+     * Полученный токен не сохраняется: вызовите storeSyncToken после применения всех страниц.
+     * @param ownerChatId ID чата пользователя.
+     * @param handler Обработчик страницы изменений.
+     * @return Последняя страница: только она содержит nextSyncToken.
+     * @throws UserNotAuthenticatedException если пользователь не подключил Google Calendar.
+     */
+    public GoogleEventChanges forEachEventChangesPage(Long ownerChatId, PageHandler<GoogleEventChanges> handler) throws IOException {
+        Calendar service = createCalendarService(ownerChatId);
+        String syncToken = getSyncSettings(ownerChatId).get(SYNC_TOKEN_KEY);
+        if (syncToken != null) {
+            try {
+                return listEventChanges(service, syncToken, handler);
+            } catch (GoogleJsonResponseException e) {
+                if (e.getStatusCode() != 410) {
+                    throw e;
+                }
+                System.out.println("[GoogleCalendarDAO] Sync token expired for user " + ownerChatId + ". Falling back to full sync.");
+                getSyncSettings(ownerChatId).delete(SYNC_TOKEN_KEY);
             }
         }
-        return resultEvents;
+        return listEventChanges(service, null, handler);
+    }
+
+    /**
+     * Начало окна полной синхронизации: она загружает только события, которые заканчиваются позже этого момента.
+     */
+    public static LocalDateTime fullSyncWindowStart() {
+        return LocalDate.now().atStartOfDay();
+    }
+
+    /**
+     * Сохраняет токен для следующей инкрементальной синхронизации.
+     * @param ownerChatId ID чата пользователя.
+     * @param syncToken Токен из GoogleEventChanges (null удаляет сохраненный токен).
+     */
+    public void storeSyncToken(Long ownerChatId, String syncToken) throws IOException {
+        DataStore<String> syncSettings = getSyncSettings(ownerChatId);
+        if (syncToken == null) {
+            syncSettings.delete(SYNC_TOKEN_KEY);
+        } else {
+            syncSettings.set(SYNC_TOKEN_KEY, syncToken);
+        }
+    }
+
+    private DataStore<String> getSyncSettings(Long ownerChatId) throws IOException {
+        return getSession(ownerChatId).dataStoreFactory.getDataStore(SYNC_SETTINGS_STORE_ID);
+    }
+
+    private GoogleEventChanges listEventChanges(Calendar service, String syncToken, PageHandler<GoogleEventChanges> handler) throws IOException {
+        boolean fullSync = syncToken == null;
+        // С syncToken нельзя передавать timeMin/orderBy: окно задается первым (полным) запросом
+        Calendar.Events.List request = newListRequest(service);
+        if (fullSync) {
+            request.setTimeMin(new DateTime(fullSyncWindowStart().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        } else {
+            request.setSyncToken(syncToken);
+        }
+        GoogleEventChanges[] lastPage = new GoogleEventChanges[1];
+        forEachPage(request, page -> {
+            List<Event> changedEvents = new ArrayList<>();
+            List<String> cancelledGoogleIds = new ArrayList<>();
+            if (page.getItems() != null) {
+                for (com.google.api.services.calendar.model.Event googleEvent : page.getItems()) {
+                    if ("cancelled".equals(googleEvent.getStatus())) {
+                        cancelledGoogleIds.add(googleEvent.getId());
+                    } else {
+                        changedEvents.add(convertToModelEvent(googleEvent));
+                    }
+                }
+            }
+            // nextSyncToken приходит только на последней странице
+            lastPage[0] = new GoogleEventChanges(changedEvents, cancelledGoogleIds, page.getNextSyncToken(), fullSync);
+            handler.handle(lastPage[0]);
+        });
+        return lastPage[0];
+    }
+
+    private Calendar.Events.List newListRequest(Calendar service) throws IOException {
+        return service.events().list(CALENDAR_ID)
+                .setSingleEvents(true)
+                .setMaxResults(maxResults)
+                .setFields(EVENT_LIST_FIELDS);
+    }
+
+    private void forEachPage(Calendar.Events.List request, PageHandler<Events> handler) throws IOException {
+        String pageToken = null;
+        do {
+            Events page = request.setPageToken(pageToken).execute();
+            handler.handle(page);
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
     }
 
     public List<Event> getEvents(LocalDate from, LocalDate to) throws Exception {
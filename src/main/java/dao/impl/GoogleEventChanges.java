@@ -0,0 +1,34 @@
+package dao.impl;
+
+import model.Event;
+
+import java.util.List;
+
+/**
+ * Изменения в Google Calendar пользователя с момента прошлой синхронизации (все или одна страница).
+ * При полной синхронизации (токена еще нет или Google его отозвал) changedEvents содержит все события,
+ * а cancelledGoogleIds пуст. nextSyncToken есть только у последней страницы; его нужно сохранить
+ * только после того, как изменения применены локально, иначе они будут потеряны.
+ */
+public class GoogleEventChanges {
+    private final List<Event> changedEvents;
+    private final List<String> cancelledGoogleIds;
+    private final String nextSyncToken;
+    private final boolean fullSync;
+
+    public GoogleEventChanges(List<Event> changedEvents, List<String> cancelledGoogleIds, String nextSyncToken, boolean fullSync) {
+        this.changedEvents = changedEvents;
+        this.cancelledGoogleIds = cancelledGoogleIds;
+        this.nextSyncToken = nextSyncToken;
+        this.fullSync = fullSync;
+    }
+
+    public List<Event> getChangedEvents() { return changedEvents; }
+    public List<String> getCancelledGoogleIds() { return cancelledGoogleIds; }
+    public String getNextSyncToken() { return nextSyncToken; }
+    public boolean isFullSync() { return fullSync; }
+
+    public boolean isEmpty() {
+        return changedEvents.isEmpty() && cancelledGoogleIds.isEmpty();
+    }
+}
@@ -6,12 +6,134 @@ import model.Event;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // Простая реализация в памяти
 public class InMemoryEventDAO implements EventDAO {
 
+    // Ключ индекса для событий без владельца (ConcurrentHashMap не допускает null)
+    private static final Long NO_OWNER = Long.MIN_VALUE;
+
+    private static final EventIntervalIndex EMPTY_INDEX = new EventIntervalIndex();
+
     private final Map<String, Event> eventStore = new ConcurrentHashMap<>();
+    // Упорядоченные по времени события каждого владельца: выборки владельца не обходят чужие события
+    private final Map<Long, EventIntervalIndex> ownerIndexes = new ConcurrentHashMap<>();
+    // (владелец, Google ID) -> ID события: поиск при синхронизации без обхода событий владельца
+    private final Map<String, String> googleIdIndex = new ConcurrentHashMap<>();
+    // Под какими ключами событие сейчас лежит в индексах. Event изменяем, поэтому старые ключи
+    // нельзя взять из самого объекта: к вызову updateEvent в нем уже могут быть новые значения
+    private final Map<String, IndexedKeys> indexedKeys = new ConcurrentHashMap<>();
+    // Одиночные изменения берут блокировку на чтение и идут параллельно; saveAll берет ее на запись,
+    // поэтому между его проверкой и записью никто не удалит и не изменит события
+    private final ReadWriteLock batchLock = new ReentrantReadWriteLock();
+
+    private static final class IndexedKeys {
+        final Long owner;
+        final String googleKey; // null, если у события нет Google ID
+
+        IndexedKeys(Long owner, String googleKey) {
+            this.owner = owner;
+            this.googleKey = googleKey;
+        }
+    }
+
+    private enum WriteMode {
+        CREATE, // только если события с таким ID еще нет
+        UPDATE, // только если событие с таким ID уже есть
+        UPSERT
+    }
+
+    private static Long ownerKey(Long ownerChatId) {
+        return ownerChatId != null ? ownerChatId : NO_OWNER;
+    }
+
+    private static String googleKey(Long owner, String googleId) {
+        return googleId == null || googleId.trim().isEmpty() ? null : owner + ":" + googleId;
+    }
+
+    private EventIntervalIndex indexFor(Long owner) {
+        return ownerIndexes.computeIfAbsent(owner, key -> new EventIntervalIndex());
+    }
+
+    // Для чтения: не заводит индекс владельцу, у которого еще нет событий
+    private EventIntervalIndex readIndex(Long ownerChatId) {
+        return ownerIndexes.getOrDefault(ownerKey(ownerChatId), EMPTY_INDEX);
+    }
+
+    /**
+     * Записывает событие в хранилище и все индексы. compute блокирует только запись этого ID,
+     * поэтому изменения одного события применяются целиком и по очереди, а разных - параллельно
+     * (пока не выполняется saveAll).
+     * @return false, если запись не выполнена из-за режима (событие уже есть или его нет).
+     */
+    private boolean store(Event event, WriteMode mode) {
+        Long owner = ownerKey(event.getOwnerChatId());
+        String newGoogleKey = googleKey(owner, event.getGoogleId());
+        boolean[] stored = {false};
+        batchLock.readLock().lock();
+        try {
+            indexedKeys.compute(event.getId(), (eventId, previous) -> {
+                if ((mode == WriteMode.CREATE && previous != null) || (mode == WriteMode.UPDATE && previous == null)) {
+                    return previous;
+                }
+                if (previous != null) {
+                    if (!previous.owner.equals(owner)) {
+                        ownerIndexes.get(previous.owner).remove(eventId);
+                    }
+                    if (previous.googleKey != null && !previous.googleKey.equals(newGoogleKey)) {
+                        // Удаляем, только если ключ все еще указывает на это событие
+                        googleIdIndex.remove(previous.googleKey, eventId);
+                    }
+                }
+                eventStore.put(eventId, event);
+                indexFor(owner).put(event);
+                if (newGoogleKey != null) {
+                    googleIdIndex.put(newGoogleKey, eventId);
+                }
+                stored[0] = true;
+                return new IndexedKeys(owner, newGoogleKey);
+            });
+        } finally {
+            batchLock.readLock().unlock();
+        }
+        return stored[0];
+    }
+
+    /**
+     * Удаляет событие из хранилища и индексов, если оно принадлежит владельцу.
+     * @return true, если событие было удалено.
+     */
+    private boolean evict(String eventId, Long ownerChatId) {
+        Long owner = ownerKey(ownerChatId);
+        boolean[] removed = {false};
+        batchLock.readLock().lock();
+        try {
+            indexedKeys.computeIfPresent(eventId, (id, previous) -> {
+                if (!previous.owner.equals(owner)) {
+                    return previous;
+                }
+                eventStore.remove(id);
+                ownerIndexes.get(previous.owner).remove(id);
+                if (previous.googleKey != null) {
+                    googleIdIndex.remove(previous.googleKey, id);
+                }
+                removed[0] = true;
+                return null;
+            });
+        } finally {
+            batchLock.readLock().unlock();
+        }
+        return removed[0];
+    }
+
+    // Для проверки согласованности индекса в тестах
+    int googleIdIndexSize() {
+        return googleIdIndex.size();
+    }
 
     @Override
     public Event createEvent(Event event) {
@@ -23,7 +145,7 @@ public class InMemoryEventDAO implements EventDAO {
         // Если ID предоставлен (например, сервисом после проверки GoogleId или для локального события с заранее известным ID),
         // просто используем его. Сервис отвечает за предотвращение коллизий или обновление вместо создания.
         
-        if (eventStore.containsKey(event.getId())) {
+        if (!store(event, WriteMode.CREATE)) {
             // Эта ситуация не должна возникать, если сервис правильно отрабатывает логику create/update.
             // Если событие с таким ID уже есть, это ошибка на уровне сервиса, который должен был вызвать updateEvent.
             System.err.println("[DAO InMemory] CRITICAL: Attempting to create an event with an existing ID: " + event.getId() + ". This might indicate an issue in EventService logic.");
@@ -32,7 +154,6 @@ public class InMemoryEventDAO implements EventDAO {
             return eventStore.get(event.getId()); // Возвращаем существующее, чтобы избежать падения, но это сигнал проблемы
         }
 
-        eventStore.put(event.getId(), event);
         System.out.println("[DAO InMemory] Created Event: " + event);
         return event;
     }
@@ -44,12 +165,11 @@ public class InMemoryEventDAO implements EventDAO {
         }
         // Сервис должен был проверить, что событие принадлежит пользователю.
         // DAO просто обновляет по ID.
-        if (!eventStore.containsKey(event.getId())) {
+        if (!store(event, WriteMode.UPDATE)) {
             // Эта ситуация также нежелательна, если сервис сначала проверяет существование.
             System.err.println("[DAO InMemory] Attempting to update a non-existing event with ID: " + event.getId() + ". This might indicate an issue in EventService logic.");
             throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for update.");
         }
-        eventStore.put(event.getId(), event);
         System.out.println("[DAO InMemory] Updated Event: " + event);
         return event;
     }
@@ -68,34 +188,38 @@ public class InMemoryEventDAO implements EventDAO {
         if (googleId == null || googleId.trim().isEmpty()) {
             return Optional.empty();
         }
-        return eventStore.values().stream()
-                .filter(event -> googleId.equals(event.getGoogleId()) && Objects.equals(event.getOwnerChatId(), ownerChatId))
-                .findFirst();
+        String eventId = googleIdIndex.get(googleKey(ownerKey(ownerChatId), googleId));
+        Event event = eventId != null ? eventStore.get(eventId) : null;
+        // Проверка защищает от чтения между изменениями хранилища и индекса в параллельной записи
+        if (event != null && googleId.equals(event.getGoogleId()) && Objects.equals(event.getOwnerChatId(), ownerChatId)) {
+            return Optional.of(event);
+        }
+        return Optional.empty();
     }
 
     @Override
     public List<Event> findAllByOwnerChatId(Long ownerChatId) {
-        return eventStore.values().stream()
-                .filter(event -> Objects.equals(event.getOwnerChatId(), ownerChatId))
-                .sorted(Comparator.comparing(Event::getStartTime)) // Сортировка по времени начала
-                .collect(Collectors.toList());
+        return readIndex(ownerChatId).all();
+    }
+
+    @Override
+    public List<Event> findPageByOwnerChatId(Long ownerChatId, int offset, int limit) {
+        return readIndex(ownerChatId).page(offset, limit);
+    }
+
+    @Override
+    public int countByOwnerChatId(Long ownerChatId) {
+        return readIndex(ownerChatId).size();
     }
 
     @Override
     public List<Event> findEventsBetweenForOwner(LocalDateTime start, LocalDateTime end, Long ownerChatId) {
-        return eventStore.values().stream()
-                .filter(event -> Objects.equals(event.getOwnerChatId(), ownerChatId) &&
-                                 event.getEndTime().isAfter(start) && 
-                                 event.getStartTime().isBefore(end))
-                .sorted(Comparator.comparing(Event::getStartTime)) // Сортировка по времени начала
-                .collect(Collectors.toList());
+        return readIndex(ownerChatId).overlapping(start, end);
     }
 
     @Override
     public void deleteByIdAndOwnerChatId(String eventId, Long ownerChatId) {
-        Event event = eventStore.get(eventId);
-        if (event != null && Objects.equals(event.getOwnerChatId(), ownerChatId)) {
-            eventStore.remove(eventId);
+        if (evict(eventId, ownerChatId)) {
             System.out.println("[DAO InMemory] Deleted Event ID: " + eventId + " for owner: " + ownerChatId);
         } else {
             System.out.println("[DAO InMemory] Event ID: " + eventId + " not found for owner: " + ownerChatId + " or does not belong to them. No deletion performed.");
@@ -109,4 +233,59 @@ public class InMemoryEventDAO implements EventDAO {
         System.out.println("[DAO InMemory] Getting all events globally. Count: " + eventStore.size());
         return new ArrayList<>(eventStore.values());
     }
+
+    // Обход самой карты без копирования; изменения во время обхода могут быть видны или нет
+    @Override
+    public Stream<Event> streamAllEventsGlobally() {
+        return eventStore.values().stream();
+    }
+
+    @Override
+    public List<Event> findDueReminders(LocalDateTime until) {
+        return eventStore.values().stream()
+                .filter(event -> event.isRemindersEnabled() && !event.isReminderSent() &&
+                                 event.getReminderTime() != null &&
+                                 !event.getReminderTime().isAfter(until))
+                .sorted(Comparator.comparing(Event::getReminderTime))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Event> findAllWithGoogleIdByOwnerChatId(Long ownerChatId) {
+        return readIndex(ownerChatId).all().stream()
+                .filter(event -> event.getGoogleId() != null)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void saveAll(List<Event> eventsToCreate, List<Event> eventsToUpdate, List<String> eventIdsToDelete, Long ownerChatId) {
+        // Под блокировкой на запись одиночные изменения ждут, поэтому проверка остается верной до конца пакета
+        batchLock.writeLock().lock();
+        try {
+            // Проверяем заранее, чтобы не применить изменения частично
+            for (Event event : eventsToUpdate) {
+                if (event.getId() == null || !eventStore.containsKey(event.getId())) {
+                    throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for update.");
+                }
+            }
+            for (Event event : eventsToCreate) {
+                if (event.getId() == null || event.getId().trim().isEmpty()) {
+                    event.setId(UUID.randomUUID().toString());
+                }
+                store(event, WriteMode.UPSERT);
+            }
+            for (Event event : eventsToUpdate) {
+                if (!store(event, WriteMode.UPDATE)) {
+                    // Недостижимо, пока все изменения проходят через batchLock
+                    throw new IllegalStateException("Event with ID " + event.getId() + " disappeared during batch update.");
+                }
+            }
+            for (String eventId : eventIdsToDelete) {
+                evict(eventId, ownerChatId);
+            }
+        } finally {
+            batchLock.writeLock().unlock();
+        }
+        System.out.println("[DAO InMemory] Saved batch: created " + eventsToCreate.size() + ", updated " + eventsToUpdate.size() + ", deleted " + eventIdsToDelete.size());
+    }
 }
@@ -0,0 +1,131 @@
+package dao.impl;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица long -> int без упаковки ключей и значений в объекты (для CompactEventDAO).
+ * Открытая адресация с линейным пробированием; удаление сдвигает следующие элементы цепочки назад,
+ * поэтому "надгробий" нет. Значения - неотрицательные номера строк, отсутствие ключа - MISSING.
+ * Не потокобезопасна: синхронизацию обеспечивает владелец.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeThreshold;
+
+    LongIntHashMap() {
+        allocate(16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return прежнее значение ключа или MISSING.
+     */
+    int put(long key, int value) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return удаленное значение или MISSING.
+     */
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                int removed = values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    // Переносит в освободившуюся ячейку элементы цепочки, которые иначе стали бы недостижимы
+    private void shiftBack(int freeSlot, int mask) {
+        int slot = freeSlot;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                break;
+            }
+            int home = slot(keys[slot], mask);
+            // Элемент можно сдвинуть, если его "домашняя" ячейка не лежит между freeSlot и slot
+            boolean movable = freeSlot <= slot ? (home <= freeSlot || home > slot) : (home <= freeSlot && home > slot);
+            if (movable) {
+                keys[freeSlot] = keys[slot];
+                values[freeSlot] = values[slot];
+                freeSlot = slot;
+            }
+        }
+        used[freeSlot] = false;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        Arrays.fill(values, MISSING);
+        size = 0;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int slot(long key, int mask) {
+        // Перемешивание битов (финализатор MurmurHash3), чтобы последовательные ключи не шли подряд
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,519 @@
+package dao.impl;
+
+import dao.EventDAO;
+import model.Event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Хранилище событий в виде журнала изменений: каждое изменение дописывается в конец файла,
+ * отображенного в память (без SQL, соединений и разбора запросов), а все чтения обслуживает
+ * индекс в памяти (CompactEventDAO), который при запуске восстанавливается проигрыванием журнала.
+ *
+ * Формат файла: заголовок (MAGIC, VERSION), затем записи [длина][CRC32][данные].
+ * Одна запись - один вызов изменяющего метода (для saveAll - весь пакет), поэтому пакет
+ * применяется целиком или никак. Запись с нулевой длиной - конец журнала. Если при чтении
+ * встречается оборванная или поврежденная запись (сбой посреди записи), журнал обрезается
+ * до последней целой записи.
+ *
+ * Когда устаревших записей становится вдвое больше живых событий, журнал переписывается
+ * снимком текущего состояния (compact()) во временный файл, который затем атомарно заменяет старый.
+ *
+ * Запись в файл попадает в страничный кэш ОС и переживает падение процесса; чтобы переживать
+ * и падение ОС, включите forceOnWrite (сброс на диск после каждой записи, заметно медленнее).
+ */
+public class MappedLogEventDAO implements EventDAO, AutoCloseable {
+
+    private static final int MAGIC = 0x45564C47; // "EVLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 1 << 20;
+    private static final int SNAPSHOT_EVENTS_PER_RECORD = 1000;
+    // Запас операций сверх живых событий, чтобы маленький журнал не переписывался постоянно
+    private static final int COMPACTION_SLACK = 1000;
+
+    public static final long DEFAULT_COMPACTION_MIN_BYTES = 16L << 20;
+
+    private final Path path;
+    private final long compactionMinBytes;
+    private final boolean forceOnWrite;
+    private final CompactEventDAO state = new CompactEventDAO();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    // Сколько событий и удалений записано в журнал: по сравнению с числом живых событий решаем, когда сжимать
+    private long loggedOperations;
+
+    public MappedLogEventDAO(String logPath) {
+        this(logPath, DEFAULT_COMPACTION_MIN_BYTES, false);
+    }
+
+    public MappedLogEventDAO(String logPath, long compactionMinBytes, boolean forceOnWrite) {
+        this.path = Paths.get(logPath).toAbsolutePath();
+        this.compactionMinBytes = compactionMinBytes;
+        this.forceOnWrite = forceOnWrite;
+        try {
+            // Остаток прерванного сжатия: исходный журнал к этому моменту не тронут
+            Files.deleteIfExists(compactionPath());
+            open();
+            replay();
+        } catch (IOException e) {
+            System.err.println("[MappedLogEventDAO] Error opening event log " + path + ": " + e.getMessage());
+            throw new RuntimeException("Failed to open event log", e);
+        }
+        System.out.println("[MappedLogEventDAO] Loaded " + state.size() + " events from " + path);
+    }
+
+    @Override
+    public Event createEvent(Event event) {
+        if (event.getId() == null || event.getId().isEmpty()) {
+            event.setId(UUID.randomUUID().toString());
+        }
+        requireStorable(event);
+        synchronized (this) {
+            if (state.containsId(event.getId())) {
+                throw new IllegalArgumentException("Event with ID " + event.getId() + " already exists.");
+            }
+            appendAndApply(List.of(event), List.of(), event.getOwnerChatId(), () -> state.createEvent(event));
+        }
+        return event;
+    }
+
+    @Override
+    public Event updateEvent(Event event) {
+        if (event.getId() == null || event.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Event ID cannot be null or empty for an update.");
+        }
+        requireStorable(event);
+        synchronized (this) {
+            if (!state.containsId(event.getId())) {
+                throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for update.");
+            }
+            appendAndApply(List.of(event), List.of(), event.getOwnerChatId(), () -> state.updateEvent(event));
+        }
+        return event;
+    }
+
+    @Override
+    public synchronized void deleteByIdAndOwnerChatId(String eventId, Long ownerChatId) {
+        if (state.findByIdAndOwnerChatId(eventId, ownerChatId).isEmpty()) {
+            System.out.println("[MappedLogEventDAO] No event found with ID " + eventId + " for owner " + ownerChatId + " to delete (or already deleted).");
+            return;
+        }
+        appendAndApply(List.of(), List.of(eventId), ownerChatId, () -> state.deleteByIdAndOwnerChatId(eventId, ownerChatId));
+    }
+
+    @Override
+    public void saveAll(List<Event> eventsToCreate, List<Event> eventsToUpdate, List<String> eventIdsToDelete, Long ownerChatId) {
+        for (Event event : eventsToCreate) {
+            if (event.getId() == null || event.getId().trim().isEmpty()) {
+                event.setId(UUID.randomUUID().toString());
+            }
+            requireStorable(event);
+        }
+        eventsToUpdate.forEach(MappedLogEventDAO::requireStorable);
+        synchronized (this) {
+            // Проверяем заранее: в журнал попадает только пакет, который применится целиком
+            for (Event event : eventsToUpdate) {
+                if (event.getId() == null || !state.containsId(event.getId())) {
+                    throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for update.");
+                }
+            }
+            List<Event> puts = new ArrayList<>(eventsToCreate);
+            puts.addAll(eventsToUpdate);
+            appendAndApply(puts, eventIdsToDelete, ownerChatId,
+                    () -> state.saveAll(eventsToCreate, eventsToUpdate, eventIdsToDelete, ownerChatId));
+        }
+    }
+
+    @Override
+    public Optional<Event> findByIdAndOwnerChatId(String eventId, Long ownerChatId) {
+        return state.findByIdAndOwnerChatId(eventId, ownerChatId);
+    }
+
+    @Override
+    public Optional<Event> findByGoogleIdAndOwnerChatId(String googleId, Long ownerChatId) {
+        return state.findByGoogleIdAndOwnerChatId(googleId, ownerChatId);
+    }
+
+    @Override
+    public List<Event> findAllByOwnerChatId(Long ownerChatId) {
+        return state.findAllByOwnerChatId(ownerChatId);
+    }
+
+    @Override
+    public List<Event> findPageByOwnerChatId(Long ownerChatId, int offset, int limit) {
+        return state.findPageByOwnerChatId(ownerChatId, offset, limit);
+    }
+
+    @Override
+    public int countByOwnerChatId(Long ownerChatId) {
+        return state.countByOwnerChatId(ownerChatId);
+    }
+
+    @Override
+    public List<Event> findEventsBetweenForOwner(LocalDateTime start, LocalDateTime end, Long ownerChatId) {
+        return state.findEventsBetweenForOwner(start, end, ownerChatId);
+    }
+
+    @Override
+    public List<Event> getAllEventsGlobally() {
+        return state.getAllEventsGlobally();
+    }
+
+    @Override
+    public Stream<Event> streamAllEventsGlobally() {
+        return state.streamAllEventsGlobally();
+    }
+
+    @Override
+    public Stream<Event> streamAllByOwnerChatId(Long ownerChatId) {
+        return state.streamAllByOwnerChatId(ownerChatId);
+    }
+
+    @Override
+    public List<Event> findDueReminders(LocalDateTime until) {
+        return state.findDueReminders(until);
+    }
+
+    @Override
+    public List<Event> findAllWithGoogleIdByOwnerChatId(Long ownerChatId) {
+        return state.findAllWithGoogleIdByOwnerChatId(ownerChatId);
+    }
+
+    /**
+     * Переписывает журнал снимком текущих событий, отбрасывая устаревшие записи.
+     */
+    public synchronized void compact() {
+        Path compactionPath = compactionPath();
+        try {
+            int size = HEADER_SIZE;
+            int eventCount = 0;
+            // Снимок пишется частями по мере обхода, без списка всех событий в памяти
+            try (FileChannel out = FileChannel.open(compactionPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 Stream<Event> events = state.streamAllEventsGlobally()) {
+                out.write(header());
+                List<Event> chunk = new ArrayList<>(SNAPSHOT_EVENTS_PER_RECORD);
+                for (Iterator<Event> it = events.iterator(); it.hasNext(); ) {
+                    chunk.add(it.next());
+                    if (chunk.size() == SNAPSHOT_EVENTS_PER_RECORD || !it.hasNext()) {
+                        byte[] record = encodeRecord(chunk, List.of(), null);
+                        out.write(ByteBuffer.wrap(record));
+                        size += record.length;
+                        eventCount += chunk.size();
+                        chunk.clear();
+                    }
+                }
+                out.force(true);
+            }
+            // Файл закрывается до замены (отображенный файл не везде можно заменить); если замена
+            // не удалась, старый журнал цел - открываем его снова и продолжаем писать в него
+            channel.close();
+            try {
+                Files.move(compactionPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                open();
+                Files.deleteIfExists(compactionPath);
+                throw e;
+            }
+            open();
+            int before = writePosition;
+            writePosition = size;
+            loggedOperations = eventCount;
+            System.out.println("[MappedLogEventDAO] Compacted event log: " + state.size() + " events, " + before + " -> " + writePosition + " bytes");
+        } catch (IOException e) {
+            System.err.println("[MappedLogEventDAO] Error compacting event log: " + e.getMessage());
+            throw new RuntimeException("Failed to compact event log", e);
+        }
+    }
+
+    /**
+     * Размер данных журнала в байтах (файл может быть больше: место под новые записи выделяется заранее).
+     */
+    public synchronized long getLogSize() {
+        return writePosition;
+    }
+
+    /**
+     * Сбрасывает журнал на диск и закрывает файл. После вызова DAO использовать нельзя.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("[MappedLogEventDAO] Error closing event log: " + e.getMessage());
+        }
+    }
+
+    // Запись попадает в журнал до изменения индекса. Если индекс изменение не принял, запись
+    // стирается: иначе проигрывание журнала спотыкалось бы о нее при каждом запуске
+    private void appendAndApply(List<Event> puts, List<String> deletes, Long ownerChatId, Runnable apply) {
+        int recordStart = writePosition;
+        long operationsBefore = loggedOperations;
+        append(puts, deletes, ownerChatId);
+        try {
+            apply.run();
+        } catch (RuntimeException e) {
+            buffer.put(recordStart, new byte[writePosition - recordStart]);
+            if (forceOnWrite) {
+                buffer.force(recordStart, writePosition - recordStart);
+            }
+            writePosition = recordStart;
+            loggedOperations = operationsBefore;
+            throw e;
+        }
+        compactIfNeeded();
+    }
+
+    private void append(List<Event> puts, List<String> deletes, Long ownerChatId) {
+        byte[] record = encodeRecord(puts, deletes, ownerChatId);
+        try {
+            // Последние байты после записи должны остаться нулевыми: это признак конца журнала
+            ensureCapacity((long) writePosition + record.length + RECORD_HEADER_SIZE);
+        } catch (IOException e) {
+            System.err.println("[MappedLogEventDAO] Error growing event log: " + e.getMessage());
+            throw new RuntimeException("Failed to write event log", e);
+        }
+        buffer.put(writePosition, record);
+        if (forceOnWrite) {
+            buffer.force(writePosition, record.length);
+        }
+        writePosition += record.length;
+        loggedOperations += puts.size() + deletes.size();
+    }
+
+    private void compactIfNeeded() {
+        if (writePosition >= compactionMinBytes && loggedOperations > 2L * state.size() + COMPACTION_SLACK) {
+            compact();
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            channel.write(header(), 0);
+        }
+        map(Math.max(MIN_CAPACITY, channel.size()));
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an event log (or unsupported version): " + path);
+        }
+    }
+
+    private void map(long capacity) throws IOException {
+        // Отображение за концом файла увеличивает файл, новые байты - нулевые
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(required, 2L * buffer.capacity()));
+        if (required > capacity) {
+            throw new IOException("Event log is larger than 2 GB; compact it or use another backend");
+        }
+        buffer.force();
+        map(capacity);
+    }
+
+    private void replay() throws IOException {
+        int position = HEADER_SIZE;
+        long operations = 0;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || (long) position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                truncateAt(position, "record length " + length + " is out of range");
+                break;
+            }
+            ByteBuffer payload = buffer.slice(position + RECORD_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                truncateAt(position, "checksum mismatch");
+                break;
+            }
+            try {
+                operations += applyRecord(payload);
+            } catch (RuntimeException e) {
+                // Границы записи подтверждены CRC, поэтому пропускаем только ее, а не весь хвост журнала
+                System.err.println("[MappedLogEventDAO] WARNING: skipping event log record at byte " + position +
+                                   " that cannot be applied: " + e);
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        writePosition = position;
+        loggedOperations = operations;
+    }
+
+    private void truncateAt(int position, String reason) throws IOException {
+        System.err.println("[MappedLogEventDAO] WARNING: event log is damaged at byte " + position + " (" + reason +
+                           "), dropping the tail. Changes after this point are lost.");
+        byte[] zeros = new byte[64 * 1024];
+        for (int offset = position; offset < buffer.capacity(); offset += zeros.length) {
+            buffer.put(offset, zeros, 0, Math.min(zeros.length, buffer.capacity() - offset));
+        }
+        buffer.force();
+    }
+
+    private int applyRecord(ByteBuffer payload) {
+        Long ownerChatId = readOwner(payload);
+        int putCount = payload.getInt();
+        List<Event> puts = new ArrayList<>(putCount);
+        for (int i = 0; i < putCount; i++) {
+            puts.add(readEvent(payload));
+        }
+        int deleteCount = payload.getInt();
+        List<String> deletes = new ArrayList<>(deleteCount);
+        for (int i = 0; i < deleteCount; i++) {
+            deletes.add(readString(payload));
+        }
+        // Записанные события - всегда полные версии, поэтому при проигрывании это вставка или замена
+        state.saveAll(puts, List.of(), deletes, ownerChatId);
+        return putCount + deleteCount;
+    }
+
+    // Индекс хранит время начала и конца как число; без них событие не применить
+    private static void requireStorable(Event event) {
+        if (event.getStartTime() == null || event.getEndTime() == null) {
+            throw new IllegalArgumentException("Event " + event.getId() + " must have a start and end time.");
+        }
+    }
+
+    private Path compactionPath() {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.rewind();
+        return header;
+    }
+
+    private static byte[] encodeRecord(List<Event> puts, List<String> deletes, Long ownerChatId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(0); // место под длину и CRC32
+            writeOwner(out, ownerChatId);
+            out.writeInt(puts.size());
+            for (Event event : puts) {
+                writeEvent(out, event);
+            }
+            out.writeInt(deletes.size());
+            for (String eventId : deletes) {
+                writeString(out, eventId);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory write failed", e);
+        }
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+        ByteBuffer.wrap(record).putInt(record.length - RECORD_HEADER_SIZE).putInt((int) crc.getValue());
+        return record;
+    }
+
+    private static void writeEvent(DataOutputStream out, Event event) throws IOException {
+        writeString(out, event.getId());
+        writeString(out, event.getGoogleId());
+        writeString(out, event.getTitle());
+        writeString(out, event.getDescription());
+        out.writeLong(toSeconds(event.getStartTime()));
+        out.writeLong(toSeconds(event.getEndTime()));
+        writeString(out, event.getLocation());
+        out.writeLong(toSeconds(event.getReminderTime()));
+        writeOwner(out, event.getOwnerChatId());
+        out.writeBoolean(event.isRemindersEnabled());
+        out.writeBoolean(event.isReminderSent());
+    }
+
+    private static Event readEvent(ByteBuffer in) {
+        Event event = new Event(
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            fromSeconds(in.getLong()),
+            fromSeconds(in.getLong()),
+            readString(in),
+            fromSeconds(in.getLong()),
+            readOwner(in)
+        );
+        event.setRemindersEnabled(in.get() != 0);
+        event.setReminderSent(in.get() != 0);
+        return event;
+    }
+
+    private static void writeOwner(DataOutputStream out, Long ownerChatId) throws IOException {
+        out.writeBoolean(ownerChatId != null);
+        out.writeLong(ownerChatId != null ? ownerChatId : 0);
+    }
+
+    private static Long readOwner(ByteBuffer in) {
+        boolean present = in.get() != 0;
+        long ownerChatId = in.getLong();
+        return present ? ownerChatId : null;
+    }
+
+    // Длина в байтах UTF-8 (-1 для null), затем сами байты
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // Время хранится с точностью до секунды, как в SQLiteEventDAO
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    private static LocalDateTime fromSeconds(long seconds) {
+        return seconds != NO_TIME ? LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,229 @@
+package dao.impl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул долгоживущих соединений с SQLite.
+ * Соединения открываются лениво (не больше poolSize) и переиспользуются между вызовами DAO,
+ * а у каждого соединения есть собственный кэш подготовленных выражений.
+ * При открытии соединения применяются journal_mode, synchronous и busy_timeout.
+ */
+public class SQLiteConnectionPool implements AutoCloseable {
+
+    public static final int DEFAULT_POOL_SIZE = 4;
+    public static final int DEFAULT_BUSY_TIMEOUT_MS = 5000;
+    public static final String DEFAULT_JOURNAL_MODE = "WAL";
+    public static final String DEFAULT_SYNCHRONOUS = "NORMAL";
+
+    // Сколько подготовленных выражений держать на одно соединение (DAO использует около десятка)
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final String url;
+    private final int poolSize;
+    private final int busyTimeoutMs;
+    private final String journalMode;
+    private final String synchronous;
+
+    private final BlockingQueue<PooledConnection> idleConnections = new LinkedBlockingQueue<>();
+    private final AtomicInteger openedConnections = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public SQLiteConnectionPool(String dbPath) {
+        this(dbPath, DEFAULT_POOL_SIZE, DEFAULT_BUSY_TIMEOUT_MS, DEFAULT_JOURNAL_MODE, DEFAULT_SYNCHRONOUS);
+    }
+
+    public SQLiteConnectionPool(String dbPath, int poolSize, int busyTimeoutMs, String journalMode, String synchronous) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, got: " + poolSize);
+        }
+        this.url = "jdbc:sqlite:" + dbPath;
+        this.poolSize = poolSize;
+        this.busyTimeoutMs = busyTimeoutMs;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Берет соединение из пула. Если свободных нет и лимит исчерпан, ждет не дольше busy_timeout.
+     * Соединение нужно вернуть вызовом close() (удобно через try-with-resources).
+     * @return Соединение из пула.
+     * @throws SQLException если пул закрыт, соединение не удалось открыть или ожидание истекло.
+     */
+    public PooledConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        PooledConnection pooled = idleConnections.poll();
+        if (pooled != null) {
+            return pooled;
+        }
+        if (openedConnections.incrementAndGet() <= poolSize) {
+            try {
+                return openConnection();
+            } catch (SQLException | RuntimeException e) {
+                openedConnections.decrementAndGet();
+                throw e;
+            }
+        }
+        openedConnections.decrementAndGet();
+        try {
+            pooled = idleConnections.poll(busyTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+        if (pooled == null) {
+            throw new SQLException("Timed out after " + busyTimeoutMs + " ms waiting for a pooled connection");
+        }
+        return pooled;
+    }
+
+    /**
+     * Открывает отдельное соединение вне лимита пула (с теми же настройками и кэшем выражений).
+     * Используется потоком записи, которому нужно постоянное соединение.
+     * При close() такое соединение закрывается, а не возвращается в пул.
+     * @return Выделенное соединение.
+     * @throws SQLException если соединение не удалось открыть.
+     */
+    public PooledConnection openDedicated() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        PooledConnection pooled = openConnection();
+        pooled.dedicated = true;
+        return pooled;
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode=" + journalMode);
+            stmt.execute("PRAGMA synchronous=" + synchronous);
+            stmt.execute("PRAGMA busy_timeout=" + busyTimeoutMs);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return new PooledConnection(connection);
+    }
+
+    private void release(PooledConnection pooled) {
+        if (pooled.dedicated) {
+            pooled.closeQuietly();
+            return;
+        }
+        try {
+            if (closed || pooled.connection.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            if (!pooled.connection.getAutoCommit()) {
+                // Незавершенная транзакция не должна достаться следующему пользователю соединения
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            idleConnections.offer(pooled);
+        } catch (SQLException e) {
+            System.err.println("[SQLiteConnectionPool] Dropping broken connection: " + e.getMessage());
+            discard(pooled);
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        openedConnections.decrementAndGet();
+        pooled.closeQuietly();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idleConnections.poll()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Соединение из пула с кэшем подготовленных выражений.
+     * Выражения из prepare() закрывать не нужно: они живут вместе с соединением.
+     */
+    public final class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private boolean dedicated = false;
+        private final Map<String, PreparedStatement> statementCache =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() > STATEMENT_CACHE_SIZE) {
+                            closeStatementQuietly(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Возвращает подготовленное выражение из кэша соединения (или готовит новое).
+         * Параметры выражения очищаются перед возвратом.
+         * @param sql Текст SQL-запроса.
+         * @return Подготовленное выражение.
+         * @throws SQLException если выражение не удалось подготовить.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statementCache.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statementCache.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * Возвращает соединение в пул.
+         */
+        @Override
+        public void close() {
+            release(this);
+        }
+
+        private void closeQuietly() {
+            for (PreparedStatement statement : statementCache.values()) {
+                closeStatementQuietly(statement);
+            }
+            statementCache.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("[SQLiteConnectionPool] Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void closeStatementQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("[SQLiteConnectionPool] Error closing prepared statement: " + e.getMessage());
+        }
+    }
+}
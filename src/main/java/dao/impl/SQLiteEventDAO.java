@@ -5,41 +5,144 @@ import model.Event;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class SQLiteEventDAO implements EventDAO {
-    private final String dbPath;
+public class SQLiteEventDAO implements EventDAO, AutoCloseable {
+
+    // Запросы вынесены в константы: текст запроса - ключ кэша подготовленных выражений в пуле
+    private static final String INSERT_EVENT_SQL = """
+        INSERT INTO events (id, google_id, title, description, start_time, end_time, location, reminder_time, reminders_enabled, owner_chat_id, reminder_sent)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+    private static final String UPDATE_EVENT_SQL = """
+        UPDATE events
+        SET google_id = ?, title = ?, description = ?, start_time = ?, end_time = ?, location = ?,
+            reminder_time = ?, reminders_enabled = ?, owner_chat_id = ?, reminder_sent = ?
+        WHERE id = ? AND owner_chat_id = ?
+    """;
+    private static final String FIND_BY_ID_AND_OWNER_SQL = "SELECT * FROM events WHERE id = ? AND owner_chat_id = ?";
+    private static final String FIND_BY_GOOGLE_ID_AND_OWNER_SQL = "SELECT * FROM events WHERE google_id = ? AND owner_chat_id = ?";
+    private static final String FIND_ALL_BY_OWNER_SQL = "SELECT * FROM events WHERE owner_chat_id = ? ORDER BY start_time";
+    // id - второй ключ сортировки, чтобы события с одинаковым временем начала не переходили между страницами
+    private static final String FIND_PAGE_BY_OWNER_SQL = "SELECT * FROM events WHERE owner_chat_id = ? ORDER BY start_time, id LIMIT ? OFFSET ?";
+    private static final String COUNT_BY_OWNER_SQL = "SELECT COUNT(*) FROM events WHERE owner_chat_id = ?";
+    private static final String FIND_BETWEEN_FOR_OWNER_SQL = "SELECT * FROM events WHERE owner_chat_id = ? AND end_time > ? AND start_time < ? ORDER BY start_time";
+    private static final String DELETE_BY_ID_AND_OWNER_SQL = "DELETE FROM events WHERE id = ? AND owner_chat_id = ?";
+    private static final String FIND_ALL_SQL = "SELECT * FROM events ORDER BY start_time"; // Можно добавить сортировку, если нужно
+    // Без ORDER BY: сортировка всей таблицы заставила бы SQLite собрать все строки до выдачи первой
+    private static final String STREAM_ALL_SQL = "SELECT * FROM events";
+    private static final String FIND_WITH_GOOGLE_ID_BY_OWNER_SQL = "SELECT * FROM events WHERE owner_chat_id = ? AND google_id IS NOT NULL";
+    // Условия частичного индекса повторены дословно, иначе SQLite не сможет его использовать
+    private static final String FIND_DUE_REMINDERS_SQL = """
+        SELECT * FROM events
+        WHERE reminders_enabled = 1 AND reminder_sent = 0 AND reminder_time <= ?
+        ORDER BY reminder_time
+    """;
+
+    private static final String CREATE_DUE_REMINDERS_INDEX_SQL = """
+        CREATE INDEX IF NOT EXISTS idx_events_due_reminders
+        ON events (reminder_time)
+        WHERE reminders_enabled = 1 AND reminder_sent = 0
+    """;
+    // Покрывает и (owner_chat_id, start_time): список, страница и подсчет без сортировки всей выборки
+    private static final String CREATE_OWNER_START_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_events_owner_start ON events (owner_chat_id, start_time, id)";
+    // Индекс не UNIQUE: у локальных событий google_id = NULL, уникальность обеспечивает сервис
+    private static final String CREATE_OWNER_GOOGLE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_events_owner_google ON events (owner_chat_id, google_id)";
+    private static final String CREATE_OWNER_END_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_events_owner_end ON events (owner_chat_id, end_time)";
+
+    /**
+     * Шаг миграции схемы. Выполняется внутри транзакции, открытой в migrate.
+     */
+    @FunctionalInterface
+    private interface Migration {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    // Миграции схемы по порядку: миграция N переводит базу с user_version N-1 на N.
+    // Старые базы создавались без учета версии (user_version = 0), поэтому первая миграция идемпотентна
+    private static final List<Migration> MIGRATIONS = List.of(
+        // 1: исходная таблица с временем в тексте ISO, частичный индекс ожидающих напоминаний и индекс постраничного списка
+        connection -> executeAll(connection,
+            """
+            CREATE TABLE IF NOT EXISTS events (
+                id TEXT PRIMARY KEY,
+                google_id TEXT,
+                title TEXT NOT NULL,
+                description TEXT,
+                start_time TEXT NOT NULL,
+                end_time TEXT NOT NULL,
+                location TEXT,
+                reminder_time TEXT,
+                reminders_enabled INTEGER DEFAULT 1,
+                owner_chat_id INTEGER,
+                reminder_sent INTEGER DEFAULT 0
+            )
+            """,
+            CREATE_DUE_REMINDERS_INDEX_SQL,
+            CREATE_OWNER_START_INDEX_SQL),
+        // 2: поиск по Google ID и сверка при синхронизации; выборка интервала по времени окончания
+        connection -> executeAll(connection,
+            CREATE_OWNER_GOOGLE_INDEX_SQL,
+            CREATE_OWNER_END_INDEX_SQL),
+        // 3: время хранится в секундах Unix вместо текста ISO
+        SQLiteEventDAO::migrateTimesToEpochSeconds
+    );
+
+    // Запросы одного владельца, планы которых проверяются при запуске
+    private static final List<String> OWNER_QUERIES = List.of(
+        FIND_BY_ID_AND_OWNER_SQL,
+        FIND_BY_GOOGLE_ID_AND_OWNER_SQL,
+        FIND_ALL_BY_OWNER_SQL,
+        FIND_PAGE_BY_OWNER_SQL,
+        COUNT_BY_OWNER_SQL,
+        FIND_BETWEEN_FOR_OWNER_SQL,
+        FIND_WITH_GOOGLE_ID_BY_OWNER_SQL
+    );
+
+    // Сколько строк курсор потока просит у драйвера за раз
+    public static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+
+    private final SQLiteConnectionPool connectionPool;
+    private final int streamFetchSize;
+    // Все изменения идут через единственный поток записи, чтения - через пул параллельно
+    private final SQLiteWriteQueue writeQueue;
 
     public SQLiteEventDAO(String dbPath) {
-        this.dbPath = dbPath;
+        this(new SQLiteConnectionPool(dbPath));
+    }
+
+    public SQLiteEventDAO(SQLiteConnectionPool connectionPool) {
+        this(connectionPool, SQLiteWriteQueue.DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public SQLiteEventDAO(SQLiteConnectionPool connectionPool, int writeBatchSize) {
+        this(connectionPool, writeBatchSize, DEFAULT_STREAM_FETCH_SIZE);
+    }
+
+    public SQLiteEventDAO(SQLiteConnectionPool connectionPool, int writeBatchSize, int streamFetchSize) {
+        this.connectionPool = connectionPool;
+        this.streamFetchSize = streamFetchSize;
         initializeDatabase();
+        this.writeQueue = new SQLiteWriteQueue(connectionPool, writeBatchSize);
     }
 
     private void initializeDatabase() {
-        try (Connection conn = getConnection()) {
-            String createTableSQL = """
-                CREATE TABLE IF NOT EXISTS events (
-                    id TEXT PRIMARY KEY,
-                    google_id TEXT, 
-                    title TEXT NOT NULL,
-                    description TEXT,
-                    start_time TEXT NOT NULL,
-                    end_time TEXT NOT NULL,
-                    location TEXT,
-                    reminder_time TEXT,
-                    reminders_enabled INTEGER DEFAULT 1,
-                    owner_chat_id INTEGER,
-                    reminder_sent INTEGER DEFAULT 0
-                )
-            """;
-            // Примечание по UNIQUE (google_id, owner_chat_id):
-            // Решено пока не добавлять, чтобы избежать проблем с NULL google_id для локальных событий.
-            // Уникальность google_id для конкретного пользователя должна обеспечиваться логикой сервиса.
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createTableSQL);
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            migrate(conn.getConnection());
+            for (String sql : findFullTableScans(conn.getConnection())) {
+                System.err.println("[SQLiteEventDAO] WARNING: query does a full table scan: " + sql.trim());
             }
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error initializing database: " + e.getMessage());
@@ -47,55 +150,193 @@ public class SQLiteEventDAO implements EventDAO {
         }
     }
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+    /**
+     * Применяет миграции схемы, которых еще нет в базе. Номер последней примененной миграции
+     * хранится в PRAGMA user_version; каждая миграция выполняется в своей транзакции вместе с обновлением номера.
+     */
+    private void migrate(Connection connection) throws SQLException {
+        int currentVersion;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            currentVersion = rs.next() ? rs.getInt(1) : 0;
+        }
+        if (currentVersion > MIGRATIONS.size()) {
+            System.err.println("[SQLiteEventDAO] WARNING: database schema version " + currentVersion +
+                               " is newer than supported version " + MIGRATIONS.size());
+            return;
+        }
+        for (int version = currentVersion + 1; version <= MIGRATIONS.size(); version++) {
+            connection.setAutoCommit(false);
+            try {
+                MIGRATIONS.get(version - 1).apply(connection);
+                executeAll(connection, "PRAGMA user_version = " + version);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            System.out.println("[SQLiteEventDAO] Applied schema migration " + version);
+        }
+    }
+
+    private static void executeAll(Connection connection, String... statements) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Пересоздает таблицу с колонками времени INTEGER: SQLite не умеет менять тип колонки.
+     * Текст ISO разбирается один раз здесь; строки с секундами и без после миграции сравниваются одинаково.
+     *
+     * Миграция блокирующая: копия и замена таблицы идут одной транзакцией. Она выполняется один раз
+     * при запуске, до создания очереди записи, когда DAO еще не принимает запросов, а с базой работает
+     * только этот процесс, так что ждать ей некого. Строки копируются пакетами по 1000, память от размера
+     * таблицы не зависит; при сбое транзакция откатывается и старая таблица остается нетронутой.
+     */
+    private static void migrateTimesToEpochSeconds(Connection connection) throws SQLException {
+        executeAll(connection, """
+            CREATE TABLE events_epoch (
+                id TEXT PRIMARY KEY,
+                google_id TEXT,
+                title TEXT NOT NULL,
+                description TEXT,
+                start_time INTEGER NOT NULL,
+                end_time INTEGER NOT NULL,
+                location TEXT,
+                reminder_time INTEGER,
+                reminders_enabled INTEGER DEFAULT 1,
+                owner_chat_id INTEGER,
+                reminder_sent INTEGER DEFAULT 0
+            )
+            """);
+        int copiedRows = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT * FROM events");
+             PreparedStatement insert = connection.prepareStatement("""
+                 INSERT INTO events_epoch (id, google_id, title, description, start_time, end_time, location, reminder_time, reminders_enabled, owner_chat_id, reminder_sent)
+                 VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+             """)) {
+            while (rs.next()) {
+                String reminderTime = rs.getString("reminder_time");
+                insert.setString(1, rs.getString("id"));
+                insert.setString(2, rs.getString("google_id"));
+                insert.setString(3, rs.getString("title"));
+                insert.setString(4, rs.getString("description"));
+                insert.setLong(5, toEpochSecond(LocalDateTime.parse(rs.getString("start_time"))));
+                insert.setLong(6, toEpochSecond(LocalDateTime.parse(rs.getString("end_time"))));
+                insert.setString(7, rs.getString("location"));
+                insert.setObject(8, reminderTime != null ? toEpochSecond(LocalDateTime.parse(reminderTime)) : null);
+                insert.setObject(9, rs.getObject("reminders_enabled"));
+                insert.setObject(10, rs.getObject("owner_chat_id"));
+                insert.setObject(11, rs.getObject("reminder_sent"));
+                insert.addBatch();
+                if (++copiedRows % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        // Индексы удаляются вместе со старой таблицей и создаются заново уже по колонкам INTEGER
+        executeAll(connection,
+            "DROP TABLE events",
+            "ALTER TABLE events_epoch RENAME TO events",
+            CREATE_DUE_REMINDERS_INDEX_SQL,
+            CREATE_OWNER_START_INDEX_SQL,
+            CREATE_OWNER_GOOGLE_INDEX_SQL,
+            CREATE_OWNER_END_INDEX_SQL);
+        System.out.println("[SQLiteEventDAO] Converted times of " + copiedRows + " events to epoch seconds");
+    }
+
+    // Время событий - локальное время пользователя без пояса. В базе хранятся показания часов, записанные
+    // как будто в UTC: перевод не зависит от пояса сервера и не сдвигает время, попавшее в переход на летнее время.
+    // Так же время хранят CompactEventDAO и MappedLogEventDAO
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
     }
 
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Проверяет планы запросов одного владельца и возвращает те, что читают всю таблицу events.
+     */
+    static List<String> findFullTableScans(Connection connection) throws SQLException {
+        List<String> fullScans = new ArrayList<>();
+        for (String sql : OWNER_QUERIES) {
+            try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                // План не зависит от значений параметров, достаточно NULL
+                for (int i = 1; i <= pstmt.getParameterMetaData().getParameterCount(); i++) {
+                    pstmt.setObject(i, null);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String detail = rs.getString("detail");
+                        if (detail.startsWith("SCAN") && !detail.contains("INDEX")) {
+                            fullScans.add(sql);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return fullScans;
+    }
+
+    /**
+     * Дожидается уже поставленных изменений, останавливает поток записи и закрывает соединения пула.
+     * После вызова DAO использовать нельзя.
+     */
     @Override
-    public Event createEvent(Event event) {
-        String sql = """
-            INSERT INTO events (id, google_id, title, description, start_time, end_time, location, reminder_time, reminders_enabled, owner_chat_id, reminder_sent)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """;
+    public void close() {
+        writeQueue.close();
+        connectionPool.close();
+    }
 
+    @Override
+    public Event createEvent(Event event) {
         String id = event.getId();
         if (id == null || id.isEmpty()) {
             id = UUID.randomUUID().toString();
             event.setId(id); // Устанавливаем сгенерированный ID обратно в объект
         }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, event.getId());
-            pstmt.setString(2, event.getGoogleId());
-            pstmt.setString(3, event.getTitle());
-            pstmt.setString(4, event.getDescription());
-            pstmt.setString(5, event.getStartTime().toString());
-            pstmt.setString(6, event.getEndTime().toString());
-            pstmt.setString(7, event.getLocation());
-            pstmt.setString(8, event.getReminderTime() != null ? event.getReminderTime().toString() : null);
-            pstmt.setInt(9, event.isRemindersEnabled() ? 1 : 0);
-            pstmt.setObject(10, event.getOwnerChatId());
-            pstmt.setInt(11, event.isReminderSent() ? 1 : 0);
-
-            pstmt.executeUpdate();
-            return event;
+        try {
+            return writeQueue.submit(conn -> insertEvent(conn, event));
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error creating event: " + e.getMessage());
             throw new RuntimeException("Failed to create event", e);
         }
     }
-    
+
+    private Event insertEvent(SQLiteConnectionPool.PooledConnection conn, Event event) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(INSERT_EVENT_SQL);
+        bindInsertParameters(pstmt, event);
+        pstmt.executeUpdate();
+        return event;
+    }
+
+    private void bindInsertParameters(PreparedStatement pstmt, Event event) throws SQLException {
+        pstmt.setString(1, event.getId());
+        pstmt.setString(2, event.getGoogleId());
+        pstmt.setString(3, event.getTitle());
+        pstmt.setString(4, event.getDescription());
+        pstmt.setLong(5, toEpochSecond(event.getStartTime()));
+        pstmt.setLong(6, toEpochSecond(event.getEndTime()));
+        pstmt.setString(7, event.getLocation());
+        pstmt.setObject(8, event.getReminderTime() != null ? toEpochSecond(event.getReminderTime()) : null);
+        pstmt.setInt(9, event.isRemindersEnabled() ? 1 : 0);
+        pstmt.setObject(10, event.getOwnerChatId());
+        pstmt.setInt(11, event.isReminderSent() ? 1 : 0);
+    }
+
     @Override
     public Event updateEvent(Event event) {
-        String sql = """
-            UPDATE events 
-            SET google_id = ?, title = ?, description = ?, start_time = ?, end_time = ?, location = ?,
-                reminder_time = ?, reminders_enabled = ?, owner_chat_id = ?, reminder_sent = ?
-            WHERE id = ? AND owner_chat_id = ? 
-        """;
-
         if (event.getId() == null || event.getId().isEmpty()) {
             throw new IllegalArgumentException("Event ID must be provided for an update.");
         }
@@ -104,43 +345,51 @@ public class SQLiteEventDAO implements EventDAO {
             throw new IllegalArgumentException("OwnerChatId must be provided in Event for an update.");
         }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, event.getGoogleId());
-            pstmt.setString(2, event.getTitle());
-            pstmt.setString(3, event.getDescription());
-            pstmt.setString(4, event.getStartTime().toString());
-            pstmt.setString(5, event.getEndTime().toString());
-            pstmt.setString(6, event.getLocation());
-            pstmt.setString(7, event.getReminderTime() != null ? event.getReminderTime().toString() : null);
-            pstmt.setInt(8, event.isRemindersEnabled() ? 1 : 0);
-            pstmt.setObject(9, event.getOwnerChatId()); 
-            pstmt.setInt(10, event.isReminderSent() ? 1 : 0);
-            pstmt.setString(11, event.getId());
-            pstmt.setObject(12, event.getOwnerChatId()); // Для WHERE clause
-
-            int updatedRows = pstmt.executeUpdate();
-            if (updatedRows == 0) {
-                throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for owner " + event.getOwnerChatId() + " or no changes needed.");
-            }
-            return event;
+        try {
+            return writeQueue.submit(conn -> updateEventRow(conn, event));
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error updating event: " + e.getMessage());
             throw new RuntimeException("Failed to update event", e);
         }
     }
 
+    private Event updateEventRow(SQLiteConnectionPool.PooledConnection conn, Event event) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(UPDATE_EVENT_SQL);
+        bindUpdateParameters(pstmt, event);
+        int updatedRows = pstmt.executeUpdate();
+        if (updatedRows == 0) {
+            throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for owner " + event.getOwnerChatId() + " or no changes needed.");
+        }
+        return event;
+    }
+
+    private void bindUpdateParameters(PreparedStatement pstmt, Event event) throws SQLException {
+        pstmt.setString(1, event.getGoogleId());
+        pstmt.setString(2, event.getTitle());
+        pstmt.setString(3, event.getDescription());
+        pstmt.setLong(4, toEpochSecond(event.getStartTime()));
+        pstmt.setLong(5, toEpochSecond(event.getEndTime()));
+        pstmt.setString(6, event.getLocation());
+        pstmt.setObject(7, event.getReminderTime() != null ? toEpochSecond(event.getReminderTime()) : null);
+        pstmt.setInt(8, event.isRemindersEnabled() ? 1 : 0);
+        pstmt.setObject(9, event.getOwnerChatId());
+        pstmt.setInt(10, event.isReminderSent() ? 1 : 0);
+        pstmt.setString(11, event.getId());
+        pstmt.setObject(12, event.getOwnerChatId()); // Для WHERE clause
+    }
+
     private Event mapResultSetToEvent(ResultSet rs) throws SQLException {
+        long reminderEpochSecond = rs.getLong("reminder_time");
+        Long reminderTime = rs.wasNull() ? null : reminderEpochSecond;
         Event event = new Event(
             rs.getString("id"),
-            rs.getString("google_id"), 
+            rs.getString("google_id"),
             rs.getString("title"),
             rs.getString("description"),
-            LocalDateTime.parse(rs.getString("start_time")),
-            LocalDateTime.parse(rs.getString("end_time")),
+            fromEpochSecond(rs.getLong("start_time")),
+            fromEpochSecond(rs.getLong("end_time")),
             rs.getString("location"),
-            rs.getString("reminder_time") != null ? LocalDateTime.parse(rs.getString("reminder_time")) : null,
+            reminderTime != null ? fromEpochSecond(reminderTime) : null,
             rs.getObject("owner_chat_id") != null ? rs.getLong("owner_chat_id") : null
         );
         event.setRemindersEnabled(rs.getInt("reminders_enabled") == 1);
@@ -148,18 +397,89 @@ public class SQLiteEventDAO implements EventDAO {
         return event;
     }
 
-    @Override
-    public Optional<Event> findByIdAndOwnerChatId(String eventId, Long ownerChatId) {
-        String sql = "SELECT * FROM events WHERE id = ? AND owner_chat_id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, eventId);
-            pstmt.setObject(2, ownerChatId); // setObject для Long, т.к. owner_chat_id INTEGER
+    private List<Event> mapResultSetToEvents(PreparedStatement pstmt) throws SQLException {
+        List<Event> events = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                events.add(mapResultSetToEvent(rs));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Поток по курсору: строки читаются из базы по одной по мере обхода.
+     * Курсор держит отдельное соединение вне пула (долгий обход не должен занимать соединения
+     * запросов бота), которое закрывается вместе с потоком, а также сразу, как только строки
+     * закончились или чтение упало: дочитанный до конца поток, который не закрыли, не держит соединение.
+     */
+    private Stream<Event> streamQuery(String sql, String operation, Object... parameters) {
+        SQLiteConnectionPool.PooledConnection conn = null;
+        try {
+            conn = connectionPool.openDedicated();
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setFetchSize(streamFetchSize);
+            for (int i = 0; i < parameters.length; i++) {
+                pstmt.setObject(i + 1, parameters[i]);
+            }
             ResultSet rs = pstmt.executeQuery();
+            SQLiteConnectionPool.PooledConnection cursorConnection = conn;
+            Spliterator<Event> cursor = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                private boolean finished;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super Event> action) {
+                    if (finished) {
+                        return false;
+                    }
+                    Event event;
+                    try {
+                        if (!rs.next()) {
+                            finish();
+                            return false;
+                        }
+                        event = mapResultSetToEvent(rs);
+                    } catch (SQLException e) {
+                        finish();
+                        System.err.println("[SQLiteEventDAO] Error in " + operation + ": " + e.getMessage());
+                        throw new RuntimeException("Failed to read events in " + operation, e);
+                    }
+                    action.accept(event);
+                    return true;
+                }
+
+                // Повторное закрытие при close() потока безопасно
+                private void finish() {
+                    finished = true;
+                    cursorConnection.close();
+                }
+            };
+            return StreamSupport.stream(cursor, false).onClose(cursorConnection::close);
+        } catch (SQLException e) {
+            if (conn != null) {
+                conn.close();
+            }
+            System.err.println("[SQLiteEventDAO] Error in " + operation + ": " + e.getMessage());
+            throw new RuntimeException("Failed to open event cursor in " + operation, e);
+        }
+    }
+
+    private Optional<Event> mapFirstResult(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) {
                 return Optional.of(mapResultSetToEvent(rs));
             }
             return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Event> findByIdAndOwnerChatId(String eventId, Long ownerChatId) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(FIND_BY_ID_AND_OWNER_SQL);
+            pstmt.setString(1, eventId);
+            pstmt.setObject(2, ownerChatId); // setObject для Long, т.к. owner_chat_id INTEGER
+            return mapFirstResult(pstmt);
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error in findByIdAndOwnerChatId: " + e.getMessage());
             throw new RuntimeException("Failed to find event by id and owner", e);
@@ -168,19 +488,14 @@ public class SQLiteEventDAO implements EventDAO {
 
     @Override
     public Optional<Event> findByGoogleIdAndOwnerChatId(String googleId, Long ownerChatId) {
-        String sql = "SELECT * FROM events WHERE google_id = ? AND owner_chat_id = ?";
         if (googleId == null || googleId.trim().isEmpty()) { // Google ID не может быть пустым для поиска
              return Optional.empty();
         }
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(FIND_BY_GOOGLE_ID_AND_OWNER_SQL);
             pstmt.setString(1, googleId);
             pstmt.setObject(2, ownerChatId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapResultSetToEvent(rs));
-            }
-            return Optional.empty();
+            return mapFirstResult(pstmt);
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error in findByGoogleIdAndOwnerChatId: " + e.getMessage());
             throw new RuntimeException("Failed to find event by google_id and owner", e);
@@ -189,50 +504,67 @@ public class SQLiteEventDAO implements EventDAO {
 
     @Override
     public List<Event> findAllByOwnerChatId(Long ownerChatId) {
-        String sql = "SELECT * FROM events WHERE owner_chat_id = ? ORDER BY start_time";
-        List<Event> events = new ArrayList<>();
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(FIND_ALL_BY_OWNER_SQL);
             pstmt.setObject(1, ownerChatId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
-            }
+            return mapResultSetToEvents(pstmt);
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error in findAllByOwnerChatId: " + e.getMessage());
             throw new RuntimeException("Failed to find events by owner", e);
         }
-        return events;
     }
 
     @Override
-    public List<Event> findEventsBetweenForOwner(LocalDateTime start, LocalDateTime end, Long ownerChatId) {
-        String sql = "SELECT * FROM events WHERE owner_chat_id = ? AND end_time > ? AND start_time < ? ORDER BY start_time";
-        List<Event> events = new ArrayList<>();
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public List<Event> findPageByOwnerChatId(Long ownerChatId, int offset, int limit) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(FIND_PAGE_BY_OWNER_SQL);
             pstmt.setObject(1, ownerChatId);
-            pstmt.setString(2, start.toString());
-            pstmt.setString(3, end.toString());
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+            pstmt.setInt(2, limit);
+            pstmt.setInt(3, offset);
+            return mapResultSetToEvents(pstmt);
+        } catch (SQLException e) {
+            System.err.println("[SQLiteEventDAO] Error in findPageByOwnerChatId: " + e.getMessage());
+            throw new RuntimeException("Failed to find page of events by owner", e);
+        }
+    }
+
+    @Override
+    public int countByOwnerChatId(Long ownerChatId) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(COUNT_BY_OWNER_SQL);
+            pstmt.setObject(1, ownerChatId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
             }
+        } catch (SQLException e) {
+            System.err.println("[SQLiteEventDAO] Error in countByOwnerChatId: " + e.getMessage());
+            throw new RuntimeException("Failed to count events by owner", e);
+        }
+    }
+
+    @Override
+    public List<Event> findEventsBetweenForOwner(LocalDateTime start, LocalDateTime end, Long ownerChatId) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(FIND_BETWEEN_FOR_OWNER_SQL);
+            pstmt.setObject(1, ownerChatId);
+            pstmt.setLong(2, toEpochSecond(start));
+            pstmt.setLong(3, toEpochSecond(end));
+            return mapResultSetToEvents(pstmt);
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error in findEventsBetweenForOwner: " + e.getMessage());
             throw new RuntimeException("Failed to find events in period for owner", e);
         }
-        return events;
     }
 
     @Override
     public void deleteByIdAndOwnerChatId(String eventId, Long ownerChatId) {
-        String sql = "DELETE FROM events WHERE id = ? AND owner_chat_id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, eventId);
-            pstmt.setObject(2, ownerChatId);
-            int deletedRows = pstmt.executeUpdate();
+        try {
+            int deletedRows = writeQueue.submit(conn -> {
+                PreparedStatement pstmt = conn.prepare(DELETE_BY_ID_AND_OWNER_SQL);
+                pstmt.setString(1, eventId);
+                pstmt.setObject(2, ownerChatId);
+                return pstmt.executeUpdate();
+            });
             if (deletedRows == 0) {
                 System.out.println("[SQLiteEventDAO] No event found with ID " + eventId + " for owner " + ownerChatId + " to delete (or already deleted).");
             } else {
@@ -246,15 +578,9 @@ public class SQLiteEventDAO implements EventDAO {
 
     @Override
     public List<Event> getAllEventsGlobally() {
-        String sql = "SELECT * FROM events ORDER BY start_time"; // Можно добавить сортировку, если нужно
-        List<Event> events = new ArrayList<>();
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
-            }
+        List<Event> events;
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            events = mapResultSetToEvents(conn.prepare(FIND_ALL_SQL));
         } catch (SQLException e) {
             System.err.println("[SQLiteEventDAO] Error in getAllEventsGlobally: " + e.getMessage());
             throw new RuntimeException("Failed to get all events globally", e);
@@ -262,4 +588,97 @@ public class SQLiteEventDAO implements EventDAO {
         System.out.println("[SQLiteEventDAO] Fetched all events globally. Count: " + events.size());
         return events;
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Stream<Event> streamAllEventsGlobally() {
+        return streamQuery(STREAM_ALL_SQL, "streamAllEventsGlobally");
+    }
+
+    @Override
+    public Stream<Event> streamAllByOwnerChatId(Long ownerChatId) {
+        return streamQuery(FIND_ALL_BY_OWNER_SQL, "streamAllByOwnerChatId", ownerChatId);
+    }
+
+    @Override
+    public List<Event> findDueReminders(LocalDateTime until) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(FIND_DUE_REMINDERS_SQL);
+            pstmt.setLong(1, toEpochSecond(until));
+            return mapResultSetToEvents(pstmt);
+        } catch (SQLException e) {
+            System.err.println("[SQLiteEventDAO] Error in findDueReminders: " + e.getMessage());
+            throw new RuntimeException("Failed to find due reminders", e);
+        }
+    }
+
+    @Override
+    public List<Event> findAllWithGoogleIdByOwnerChatId(Long ownerChatId) {
+        try (SQLiteConnectionPool.PooledConnection conn = connectionPool.acquire()) {
+            PreparedStatement pstmt = conn.prepare(FIND_WITH_GOOGLE_ID_BY_OWNER_SQL);
+            pstmt.setObject(1, ownerChatId);
+            return mapResultSetToEvents(pstmt);
+        } catch (SQLException e) {
+            System.err.println("[SQLiteEventDAO] Error in findAllWithGoogleIdByOwnerChatId: " + e.getMessage());
+            throw new RuntimeException("Failed to find Google-linked events by owner", e);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Event> eventsToCreate, List<Event> eventsToUpdate, List<String> eventIdsToDelete, Long ownerChatId) {
+        for (Event event : eventsToCreate) {
+            if (event.getId() == null || event.getId().isEmpty()) {
+                event.setId(UUID.randomUUID().toString());
+            }
+        }
+        for (Event event : eventsToUpdate) {
+            if (event.getId() == null || event.getId().isEmpty() || event.getOwnerChatId() == null) {
+                throw new IllegalArgumentException("Event ID and OwnerChatId must be provided for an update.");
+            }
+        }
+        if (eventsToCreate.isEmpty() && eventsToUpdate.isEmpty() && eventIdsToDelete.isEmpty()) {
+            return;
+        }
+        try {
+            // Одна операция очереди записи - одна точка сохранения, поэтому пакет применяется целиком или никак
+            writeQueue.submit(conn -> {
+                executeBatch(conn.prepare(INSERT_EVENT_SQL), eventsToCreate, this::bindInsertParameters);
+                int[] updateCounts = executeBatch(conn.prepare(UPDATE_EVENT_SQL), eventsToUpdate, this::bindUpdateParameters);
+                for (int i = 0; i < updateCounts.length; i++) {
+                    if (updateCounts[i] == 0) {
+                        Event event = eventsToUpdate.get(i);
+                        throw new IllegalArgumentException("Event with ID " + event.getId() + " not found for owner " + event.getOwnerChatId() + ".");
+                    }
+                }
+                executeBatch(conn.prepare(DELETE_BY_ID_AND_OWNER_SQL), eventIdsToDelete, (pstmt, eventId) -> {
+                    pstmt.setString(1, eventId);
+                    pstmt.setObject(2, ownerChatId);
+                });
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("[SQLiteEventDAO] Error saving event batch: " + e.getMessage());
+            throw new RuntimeException("Failed to save events", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParameterBinder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    private <T> int[] executeBatch(PreparedStatement pstmt, List<T> items, ParameterBinder<T> binder) throws SQLException {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            for (T item : items) {
+                binder.bind(pstmt, item);
+                pstmt.addBatch();
+            }
+            return pstmt.executeBatch();
+        } finally {
+            // Выражение живет в кэше соединения - не оставляем в нем недоотправленный пакет
+            pstmt.clearBatch();
+        }
+    }
+}
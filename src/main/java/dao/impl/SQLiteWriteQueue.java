@@ -0,0 +1,235 @@
+package dao.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Очередь изменений SQLite с единственным потоком записи.
+ *
+ * SQLite допускает одного писателя за раз, поэтому все изменения из DAO выполняются здесь
+ * на выделенном соединении, а не конкурируют за блокировку файла из разных потоков.
+ * Поток забирает из очереди до maxBatchSize операций и фиксирует их одной транзакцией
+ * (group commit). Каждая операция выполняется в своей точке сохранения, поэтому ошибка
+ * одной операции откатывает только ее. Читатели при этом работают параллельно
+ * на снимках WAL через обычный пул соединений.
+ */
+public class SQLiteWriteQueue implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    /**
+     * Операция записи, выполняемая потоком записи внутри транзакции.
+     */
+    @FunctionalInterface
+    public interface WriteOperation<T> {
+        T execute(SQLiteConnectionPool.PooledConnection connection) throws SQLException;
+    }
+
+    private static final class WriteTask<T> {
+        private final WriteOperation<T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable failure;
+
+        WriteTask(WriteOperation<T> operation) {
+            this.operation = operation;
+        }
+
+        void run(SQLiteConnectionPool.PooledConnection connection) throws SQLException {
+            result = operation.execute(connection);
+        }
+
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    // Маркер остановки потока записи
+    private static final WriteTask<Void> SHUTDOWN = new WriteTask<>(connection -> null);
+
+    private final SQLiteConnectionPool connectionPool;
+    private final int maxBatchSize;
+    private final BlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    // Проверка closed и постановка в очередь выполняются под этой блокировкой вместе с close(),
+    // поэтому каждая принятая операция оказывается в очереди раньше маркера остановки
+    private final Object lifecycleLock = new Object();
+    private volatile boolean closed = false;
+
+    public SQLiteWriteQueue(SQLiteConnectionPool connectionPool) {
+        this(connectionPool, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public SQLiteWriteQueue(SQLiteConnectionPool connectionPool, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Write batch size must be at least 1, got: " + maxBatchSize);
+        }
+        this.connectionPool = connectionPool;
+        this.maxBatchSize = maxBatchSize;
+        this.writerThread = new Thread(this::writerLoop, "sqlite-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Ставит операцию в очередь и ждет фиксации транзакции, в которую она попала.
+     * RuntimeException из операции (например, IllegalArgumentException) пробрасывается как есть.
+     * @param operation Операция записи.
+     * @return Результат операции.
+     * @throws SQLException если операция или фиксация транзакции завершились ошибкой SQL.
+     */
+    public <T> T submit(WriteOperation<T> operation) throws SQLException {
+        if (Thread.currentThread() == writerThread) {
+            throw new IllegalStateException("Nested write submitted from the writer thread");
+        }
+        WriteTask<T> task = new WriteTask<>(operation);
+        synchronized (lifecycleLock) {
+            if (closed) {
+                throw new SQLException("Write queue is closed");
+            }
+            queue.add(task);
+        }
+        try {
+            return task.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a write to commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new SQLException("Write operation failed", cause);
+        }
+    }
+
+    private void writerLoop() {
+        SQLiteConnectionPool.PooledConnection connection = null;
+        List<WriteTask<?>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (true) {
+                WriteTask<?> first = queue.take();
+                if (first == SHUTDOWN) {
+                    break;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                boolean shutdownRequested = batch.remove(SHUTDOWN);
+                try {
+                    if (connection == null) {
+                        connection = connectionPool.openDedicated();
+                    }
+                    commitBatch(connection, batch);
+                } catch (SQLException e) {
+                    System.err.println("[SQLiteWriteQueue] Error committing write batch of " + batch.size() + ": " + e.getMessage());
+                    for (WriteTask<?> task : batch) {
+                        task.failure = e;
+                    }
+                    if (connection != null) {
+                        // Соединение могло остаться в неопределенном состоянии - откроем новое
+                        connection.close();
+                        connection = null;
+                    }
+                }
+                for (WriteTask<?> task : batch) {
+                    task.complete();
+                }
+                batch.clear();
+                if (shutdownRequested) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            // Ошибка вне операций (например, из commit/rollback драйвера) останавливает поток записи
+            System.err.println("[SQLiteWriteQueue] Writer thread failed: " + e);
+            failTasks(batch, e);
+            batch.clear();
+            throw e;
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+            // Поток мог завершиться и без close() (прерывание) - новые операции больше не принимаем
+            synchronized (lifecycleLock) {
+                closed = true;
+            }
+            failPending();
+        }
+    }
+
+    private void commitBatch(SQLiteConnectionPool.PooledConnection pooled, List<WriteTask<?>> batch) throws SQLException {
+        Connection connection = pooled.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            for (WriteTask<?> task : batch) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    task.run(pooled);
+                    connection.releaseSavepoint(savepoint);
+                } catch (Throwable e) {
+                    // Любая ошибка операции, включая Error, откатывает только ее и возвращается вызывающему
+                    connection.rollback(savepoint);
+                    connection.releaseSavepoint(savepoint);
+                    task.failure = e;
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void failPending() {
+        List<WriteTask<?>> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        failTasks(pending, new SQLException("Write queue is closed"));
+    }
+
+    private static void failTasks(List<WriteTask<?>> tasks, Throwable failure) {
+        for (WriteTask<?> task : tasks) {
+            // Уже завершенные задачи completeExceptionally не затрагивает
+            task.future.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Дожидается записи уже поставленных операций и останавливает поток записи.
+     */
+    @Override
+    public void close() {
+        synchronized (lifecycleLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(SHUTDOWN);
+        }
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package dao.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Словарь строк с подсчетом ссылок для CompactEventDAO: одинаковые названия, описания и места
+ * хранятся один раз, а в колонках лежат int-коды. Когда строка больше нигде не используется,
+ * она удаляется, а ее код переиспользуется.
+ * Не потокобезопасен: синхронизацию обеспечивает владелец.
+ */
+final class StringDictionary {
+
+    // Код для null
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private int[] referenceCounts = new int[16];
+    private final IntStack freeCodes = new IntStack();
+
+    /**
+     * Возвращает код строки и увеличивает число ее использований.
+     */
+    int acquire(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            referenceCounts[existing]++;
+            return existing;
+        }
+        int code;
+        if (!freeCodes.isEmpty()) {
+            code = freeCodes.pop();
+            strings.set(code, value);
+        } else {
+            code = strings.size();
+            strings.add(value);
+            if (code == referenceCounts.length) {
+                referenceCounts = Arrays.copyOf(referenceCounts, code * 2);
+            }
+        }
+        referenceCounts[code] = 1;
+        codes.put(value, code);
+        return code;
+    }
+
+    void release(int code) {
+        if (code == NULL_CODE) {
+            return;
+        }
+        if (--referenceCounts[code] == 0) {
+            codes.remove(strings.get(code));
+            strings.set(code, null);
+            freeCodes.push(code);
+        }
+    }
+
+    String get(int code) {
+        return code == NULL_CODE ? null : strings.get(code);
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    /**
+     * Стек int без упаковки: свободные коды словаря и свободные строки хранилища.
+     */
+    static final class IntStack {
+        private int[] items = new int[16];
+        private int size;
+
+        void push(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        int pop() {
+            return items[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
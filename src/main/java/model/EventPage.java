@@ -0,0 +1,41 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Одна страница списка событий владельца.
+ */
+public class EventPage {
+    private final List<Event> events;
+    private final int pageIndex;
+    private final int pageSize;
+    private final int totalCount;
+
+    public EventPage(List<Event> events, int pageIndex, int pageSize, int totalCount) {
+        this.events = events;
+        this.pageIndex = pageIndex;
+        this.pageSize = pageSize;
+        this.totalCount = totalCount;
+    }
+
+    public List<Event> getEvents() { return events; }
+    public int getPageIndex() { return pageIndex; }
+    public int getPageSize() { return pageSize; }
+    public int getTotalCount() { return totalCount; }
+
+    public int getTotalPages() {
+        return Math.max(1, (totalCount + pageSize - 1) / pageSize);
+    }
+
+    public boolean hasPrevious() {
+        return pageIndex > 0;
+    }
+
+    public boolean hasNext() {
+        return pageIndex + 1 < getTotalPages();
+    }
+
+    public boolean isEmpty() {
+        return totalCount == 0;
+    }
+}
@@ -0,0 +1,43 @@
+package model;
+
+/**
+ * Снимок метрик фоновой синхронизации с Google Calendar.
+ */
+public class GoogleSyncMetrics {
+    private final long completedSyncs;
+    private final long failedSyncs;
+    private final long rejectedSyncs;
+    private final long appliedChanges;
+    private final int inFlightSyncs;
+    private final double syncsPerMinute;
+    private final long averageQueueWaitMs;
+    private final long averageSyncDurationMs;
+    private final long maxSyncLagSeconds;
+
+    public GoogleSyncMetrics(long completedSyncs, long failedSyncs, long rejectedSyncs, long appliedChanges,
+                             int inFlightSyncs, double syncsPerMinute, long averageQueueWaitMs,
+                             long averageSyncDurationMs, long maxSyncLagSeconds) {
+        this.completedSyncs = completedSyncs;
+        this.failedSyncs = failedSyncs;
+        this.rejectedSyncs = rejectedSyncs;
+        this.appliedChanges = appliedChanges;
+        this.inFlightSyncs = inFlightSyncs;
+        this.syncsPerMinute = syncsPerMinute;
+        this.averageQueueWaitMs = averageQueueWaitMs;
+        this.averageSyncDurationMs = averageSyncDurationMs;
+        this.maxSyncLagSeconds = maxSyncLagSeconds;
+    }
+
+    public long getCompletedSyncs() { return completedSyncs; }
+    public long getFailedSyncs() { return failedSyncs; }
+    public long getRejectedSyncs() { return rejectedSyncs; }
+    // Созданные, обновленные и удаленные события за все время работы
+    public long getAppliedChanges() { return appliedChanges; }
+    public int getInFlightSyncs() { return inFlightSyncs; }
+    public double getSyncsPerMinute() { return syncsPerMinute; }
+    // Сколько в среднем синхронизация ждет свободного потока пула
+    public long getAverageQueueWaitMs() { return averageQueueWaitMs; }
+    public long getAverageSyncDurationMs() { return averageSyncDurationMs; }
+    // Наибольшее время с последней успешной синхронизации среди подключенных пользователей
+    public long getMaxSyncLagSeconds() { return maxSyncLagSeconds; }
+}
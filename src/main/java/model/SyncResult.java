@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Итог пакетной синхронизации событий (например, из Google Calendar).
+ */
+public class SyncResult {
+    private final int created;
+    private final int updated;
+    private final int unchanged;
+    private final int deleted;
+    private final int skipped;
+
+    public SyncResult(int created, int updated, int unchanged, int deleted, int skipped) {
+        this.created = created;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        this.deleted = deleted;
+        this.skipped = skipped;
+    }
+
+    public int getCreated() { return created; }
+    public int getUpdated() { return updated; }
+    public int getUnchanged() { return unchanged; }
+    public int getDeleted() { return deleted; }
+    public int getSkipped() { return skipped; }
+
+    /**
+     * Складывает итоги двух частей синхронизации (например, двух страниц).
+     */
+    public SyncResult plus(SyncResult other) {
+        return new SyncResult(created + other.created, updated + other.updated, unchanged + other.unchanged,
+                deleted + other.deleted, skipped + other.skipped);
+    }
+
+    @Override
+    public String toString() {
+        return "SyncResult{" +
+                "created=" + created +
+                ", updated=" + updated +
+                ", unchanged=" + unchanged +
+                ", deleted=" + deleted +
+                ", skipped=" + skipped +
+                '}';
+    }
+}
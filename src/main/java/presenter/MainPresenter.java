@@ -1,27 +1,31 @@
 package presenter;
 
 import model.Event;
+import telegram.UpdateContext;
 import java.time.LocalDateTime;
 
-// Интерфейс для Presenter главного окна
+// Интерфейс для Presenter главного окна.
+// ctx - обновление, на которое отвечаем; Presenter передает его в методы View без изменений.
 public interface MainPresenter {
-    void loadEvents(Long ownerChatId); // Загрузить события для конкретного пользователя
-    void addEventRequested(); // Пользователь нажал "Добавить событие"
-    void editEventRequested(Event event); // Пользователь выбрал событие для редактирования
-    void deleteEventRequested(String eventId, Long ownerChatId); // Пользователь выбрал событие для удаления, указывая ID и владельца
-    void eventSelected(Event event); // Пользователь выбрал событие в списке/календаре
-    void addEvent(Event event, Long ownerChatId); // Используется для создания локальных событий или обработки синхронизированных
+    void loadEvents(UpdateContext ctx, Long ownerChatId); // Загрузить события для конкретного пользователя (первая страница)
+    void loadEventsPage(UpdateContext ctx, Long ownerChatId, int pageIndex); // Загрузить страницу событий пользователя
+    void addEventRequested(UpdateContext ctx); // Пользователь нажал "Добавить событие"
+    void editEventRequested(UpdateContext ctx, Event event); // Пользователь выбрал событие для редактирования
+    void deleteEventRequested(UpdateContext ctx, String eventId, Long ownerChatId); // Пользователь выбрал событие для удаления, указывая ID и владельца
+    void eventSelected(UpdateContext ctx, Event event); // Пользователь выбрал событие в списке/календаре
+    void addEvent(UpdateContext ctx, Event event, Long ownerChatId); // Используется для создания локальных событий
 
     // Методы для управления напоминаниями
-    void setEventReminderTimeRequested(String eventId, LocalDateTime reminderTime, Long ownerChatId);
-    void toggleEventRemindersRequested(String eventId, boolean enable, Long ownerChatId);
+    void setEventReminderTimeRequested(UpdateContext ctx, String eventId, LocalDateTime reminderTime, Long ownerChatId);
+    void toggleEventRemindersRequested(UpdateContext ctx, String eventId, boolean enable, Long ownerChatId);
 
     // Получение события по ID для конкретного пользователя
     Event getEventById(String eventId, Long ownerChatId);
 
     // Методы для управления доступом наблюдателя
-    void grantViewAccess(Long granterChatId, Long observerChatId);
-    void loadObservedEvents(Long currentObserverChatId, Long targetOwnerChatIdToView);
+    void grantViewAccess(UpdateContext ctx, Long granterChatId, Long observerChatId);
+    void loadObservedEvents(UpdateContext ctx, Long currentObserverChatId, Long targetOwnerChatIdToView);
+    void loadObservedEventsPage(UpdateContext ctx, Long currentObserverChatId, Long targetOwnerChatIdToView, int pageIndex);
 
     // TODO: Добавить методы для анализа и синхронизации
     // void analysisRequested();
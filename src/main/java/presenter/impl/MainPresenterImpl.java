@@ -1,8 +1,10 @@
 package presenter.impl;
 
 import model.Event;
+import model.EventPage;
 import presenter.MainPresenter;
 import service.EventService;
+import telegram.UpdateContext;
 // import service.AnalysisService; // Закомментировано, т.к. не используется в текущей задаче
 // import service.SyncService;     // Закомментировано, т.к. не используется в текущей задаче
 import view.MainView;
@@ -10,7 +12,6 @@ import dao.ObserverPermissionDAO; // Импорт DAO для разрешени
 import dao.impl.InMemoryObserverPermissionDAO; // Конкретная реализация
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 public class MainPresenterImpl implements MainPresenter {
 
@@ -20,6 +21,9 @@ public class MainPresenterImpl implements MainPresenter {
     // private SyncService syncService;         // WIP
     private ObserverPermissionDAO observerPermissionDAO; // DAO для разрешений
 
+    // Сколько событий показывать в одном сообщении списка
+    private static final int EVENTS_PAGE_SIZE = 5;
+
     // Инъекция зависимостей через конструктор
     public MainPresenterImpl(EventService eventService, /* другие сервисы */ MainView view) {
         this.eventService = eventService;
@@ -36,72 +40,78 @@ public class MainPresenterImpl implements MainPresenter {
     }
 
     @Override
-    public void loadEvents(Long ownerChatId) {
+    public void loadEvents(UpdateContext ctx, Long ownerChatId) {
+        loadEventsPage(ctx, ownerChatId, 0);
+    }
+
+    @Override
+    public void loadEventsPage(UpdateContext ctx, Long ownerChatId, int pageIndex) {
         if (view == null) return;
         try {
-            System.out.println("[Presenter] Loading events for owner: " + ownerChatId);
-            List<Event> events = eventService.getEventsForOwner(ownerChatId);
-            view.displayEvents(events, false, ownerChatId);
-            System.out.println("[Presenter] Events loaded for owner " + ownerChatId + " and displayed: " + events.size());
+            System.out.println("[Presenter] Loading events page " + pageIndex + " for owner: " + ownerChatId);
+            EventPage page = eventService.getEventPageForOwner(ownerChatId, pageIndex, EVENTS_PAGE_SIZE);
+            view.displayEventPage(ctx, page, false, ownerChatId);
+            System.out.println("[Presenter] Events page " + page.getPageIndex() + " loaded for owner " + ownerChatId +
+                               " and displayed: " + page.getEvents().size() + " of " + page.getTotalCount());
         } catch (Exception e) {
             System.err.println("[Presenter] Error loading events for owner " + ownerChatId + ": " + e.getMessage());
-            view.showErrorMessage("Ошибка загрузки", "Не удалось загрузить события: " + e.getMessage());
+            view.showErrorMessage(ctx, "Ошибка загрузки", "Не удалось загрузить события: " + e.getMessage());
         }
     }
 
     @Override
-    public void addEventRequested() {
+    public void addEventRequested(UpdateContext ctx) {
         if (view == null) return;
         System.out.println("[Presenter] Add event requested.");
-        view.showEventEditor(null); // Передаем null для создания нового события
+        view.showEventEditor(ctx, null); // Передаем null для создания нового события
     }
 
     @Override
-    public void editEventRequested(Event event) {
+    public void editEventRequested(UpdateContext ctx, Event event) {
         if (view == null || event == null) return;
         System.out.println("[Presenter] Edit event requested for: " + event.getTitle());
-        view.showEventEditor(event); // Передаем событие для редактирования
+        view.showEventEditor(ctx, event); // Передаем событие для редактирования
     }
 
     @Override
-    public void deleteEventRequested(String eventId, Long ownerChatId) {
+    public void deleteEventRequested(UpdateContext ctx, String eventId, Long ownerChatId) {
         if (view == null || eventId == null || ownerChatId == null) return;
         
         Event eventToDelete = null;
         try {
             eventToDelete = this.getEventById(eventId, ownerChatId);
             if (eventToDelete == null) {
-                view.showErrorMessage("Ошибка удаления", "Событие с ID " + eventId + " не найдено или не принадлежит вам.");
+                view.showErrorMessage(ctx, "Ошибка удаления", "Событие с ID " + eventId + " не найдено или не принадлежит вам.");
                 return;
             }
         } catch (Exception e) {
-            view.showErrorMessage("Ошибка удаления", "Не удалось получить событие для удаления: " + e.getMessage());
+            view.showErrorMessage(ctx, "Ошибка удаления", "Не удалось получить событие для удаления: " + e.getMessage());
             return;
         }
         
         System.out.println("[Presenter] Delete event requested for ID: " + eventId + " by owner: " + ownerChatId);
-        boolean confirmed = view.showConfirmationDialog("Удаление события", "Вы уверены, что хотите удалить событие \"" + eventToDelete.getTitle() + "\"?");
+        boolean confirmed = view.showConfirmationDialog(ctx, "Удаление события", "Вы уверены, что хотите удалить событие \"" + eventToDelete.getTitle() + "\"?");
         if (confirmed) {
             try {
                 eventService.deleteEvent(eventId, ownerChatId);
-                view.showInfoMessage("Успех", "Событие \"" + eventToDelete.getTitle() + "\" удалено.");
-                loadEvents(ownerChatId);
+                view.showInfoMessage(ctx, "Успех", "Событие \"" + eventToDelete.getTitle() + "\" удалено.");
+                loadEvents(ctx, ownerChatId);
             } catch (Exception e) {
                 System.err.println("[Presenter] Error deleting event ID " + eventId + ": " + e.getMessage());
-                view.showErrorMessage("Ошибка удаления", "Не удалось удалить событие: " + e.getMessage());
+                view.showErrorMessage(ctx, "Ошибка удаления", "Не удалось удалить событие: " + e.getMessage());
             }
         }
     }
 
     @Override
-    public void eventSelected(Event event) {
+    public void eventSelected(UpdateContext ctx, Event event) {
         if (view == null || event == null) return;
         System.out.println("[Presenter] Event selected: " + event.getTitle());
-        view.displayEventDetails(event); // Показываем детали в View
+        view.displayEventDetails(ctx, event); // Показываем детали в View
     }
 
     @Override
-    public void addEvent(Event event, Long ownerChatId) {
+    public void addEvent(UpdateContext ctx, Event event, Long ownerChatId) {
         if (event == null) return;
         if (view == null) {
             System.err.println("[Presenter] View is not set. Cannot add event for chatId: " + ownerChatId);
@@ -111,58 +121,58 @@ public class MainPresenterImpl implements MainPresenter {
             System.out.println("[Presenter] Adding new local event: " + event.getTitle() + " for owner: " + ownerChatId);
             Event addedEvent = eventService.addEvent(event, ownerChatId);
             if (addedEvent != null) {
-                view.showInfoMessage("Создание события", "Событие \"" + addedEvent.getTitle() + "\" успешно создано.");
-                loadEvents(ownerChatId);
+                view.showInfoMessage(ctx, "Создание события", "Событие \"" + addedEvent.getTitle() + "\" успешно создано.");
+                loadEvents(ctx, ownerChatId);
             } else {
-                view.showErrorMessage("Ошибка создания", "Не удалось создать событие \"" + event.getTitle() + "\". Событие не было возвращено сервисом.");
+                view.showErrorMessage(ctx, "Ошибка создания", "Не удалось создать событие \"" + event.getTitle() + "\". Событие не было возвращено сервисом.");
             }
         } catch (Exception e) {
             System.err.println("[Presenter] Error adding new local event: " + e.getMessage());
-            view.showErrorMessage("Ошибка создания события", "Не удалось создать событие \"" + event.getTitle() + "\": " + e.getMessage());
+            view.showErrorMessage(ctx, "Ошибка создания события", "Не удалось создать событие \"" + event.getTitle() + "\": " + e.getMessage());
         }
     }
 
     // Методы для управления напоминаниями
     @Override
-    public void setEventReminderTimeRequested(String eventId, LocalDateTime reminderTime, Long ownerChatId) {
+    public void setEventReminderTimeRequested(UpdateContext ctx, String eventId, LocalDateTime reminderTime, Long ownerChatId) {
         if (view == null) return;
         try {
             Event event = this.getEventById(eventId, ownerChatId);
             
             if (event == null) {
-                view.showErrorMessage("Ошибка установки напоминания", "Событие с ID " + eventId + " не найдено или не принадлежит вам.");
+                view.showErrorMessage(ctx, "Ошибка установки напоминания", "Событие с ID " + eventId + " не найдено или не принадлежит вам.");
                 return;
             }
             
             Event updatedEvent = eventService.setEventReminderTime(eventId, reminderTime, ownerChatId);
-            view.showInfoMessage("Напоминание обновлено", 
+            view.showInfoMessage(ctx, "Напоминание обновлено", 
                 "Время напоминания для события '" + updatedEvent.getTitle() + "' установлено на " + 
                 (reminderTime != null ? util.DateTimeUtils.formatMedium(reminderTime) : "не установлено (отключено)") + ".");
-            view.displayEventDetails(updatedEvent);
+            view.displayEventDetails(ctx, updatedEvent);
         } catch (Exception e) {
             System.err.println("[Presenter] Error setting reminder time: " + e.getMessage());
-            view.showErrorMessage("Ошибка установки напоминания", e.getMessage());
+            view.showErrorMessage(ctx, "Ошибка установки напоминания", e.getMessage());
         }
     }
 
     @Override
-    public void toggleEventRemindersRequested(String eventId, boolean enable, Long ownerChatId) {
+    public void toggleEventRemindersRequested(UpdateContext ctx, String eventId, boolean enable, Long ownerChatId) {
         if (view == null) return;
         try {
             Event event = this.getEventById(eventId, ownerChatId);
 
             if (event == null) {
-                view.showErrorMessage("Ошибка изменения статуса напоминаний", "Событие с ID " + eventId + " не найдено или не принадлежит вам.");
+                view.showErrorMessage(ctx, "Ошибка изменения статуса напоминаний", "Событие с ID " + eventId + " не найдено или не принадлежит вам.");
                 return;
             }
 
             Event updatedEvent = eventService.toggleEventReminders(eventId, enable, ownerChatId);
-            view.showInfoMessage("Напоминания обновлены", 
+            view.showInfoMessage(ctx, "Напоминания обновлены", 
                 "Напоминания для события '" + updatedEvent.getTitle() + "' теперь " + (enable ? "ВКЛЮЧЕНЫ" : "ОТКЛЮЧЕНЫ") + ".");
-            view.displayEventDetails(updatedEvent);
+            view.displayEventDetails(ctx, updatedEvent);
         } catch (Exception e) {
             System.err.println("[Presenter] Error toggling reminders: " + e.getMessage());
-            view.showErrorMessage("Ошибка изменения статуса напоминаний", e.getMessage());
+            view.showErrorMessage(ctx, "Ошибка изменения статуса напоминаний", e.getMessage());
         }
     }
 
@@ -178,30 +188,36 @@ public class MainPresenterImpl implements MainPresenter {
     }
 
     @Override
-    public void grantViewAccess(Long granterChatId, Long observerChatId) {
+    public void grantViewAccess(UpdateContext ctx, Long granterChatId, Long observerChatId) {
         if (view == null) return;
         if (granterChatId.equals(observerChatId)) {
-            view.showErrorMessage("Ошибка доступа", "Нельзя предоставить доступ самому себе.");
+            view.showErrorMessage(ctx, "Ошибка доступа", "Нельзя предоставить доступ самому себе.");
             return;
         }
         observerPermissionDAO.addPermission(observerChatId, granterChatId);
-        view.showInfoMessage("Доступ предоставлен", "Пользователь " + observerChatId + " теперь может просматривать ваши события.");
+        view.showInfoMessage(ctx, "Доступ предоставлен", "Пользователь " + observerChatId + " теперь может просматривать ваши события.");
         // Можно также отправить сообщение наблюдателю, если это необходимо
         // view.showInfoMessageToUser(observerChatId, "Доступ получен", "Пользователь " + granterChatId + " предоставил вам доступ к просмотру его событий.");
     }
 
     @Override
-    public void loadObservedEvents(Long currentObserverChatId, Long targetOwnerChatIdToView) {
+    public void loadObservedEvents(UpdateContext ctx, Long currentObserverChatId, Long targetOwnerChatIdToView) {
+        loadObservedEventsPage(ctx, currentObserverChatId, targetOwnerChatIdToView, 0);
+    }
+
+    @Override
+    public void loadObservedEventsPage(UpdateContext ctx, Long currentObserverChatId, Long targetOwnerChatIdToView, int pageIndex) {
         if (view == null) return;
+        // Право проверяем на каждой странице: доступ могли отозвать, пока список был открыт
         if (!observerPermissionDAO.hasPermission(currentObserverChatId, targetOwnerChatIdToView)) {
-            view.showErrorMessage("Нет доступа", "У вас нет разрешения на просмотр событий пользователя " + targetOwnerChatIdToView + ".");
+            view.showErrorMessage(ctx, "Нет доступа", "У вас нет разрешения на просмотр событий пользователя " + targetOwnerChatIdToView + ".");
             return;
         }
-        List<Event> events = eventService.getEventsForOwner(targetOwnerChatIdToView);
-        if (events.isEmpty()) {
-            view.showInfoMessage("События не найдены", "У пользователя " + targetOwnerChatIdToView + " нет событий или вы не имеете к ним доступа.");
+        EventPage page = eventService.getEventPageForOwner(targetOwnerChatIdToView, pageIndex, EVENTS_PAGE_SIZE);
+        if (page.isEmpty()) {
+            view.showInfoMessage(ctx, "События не найдены", "У пользователя " + targetOwnerChatIdToView + " нет событий или вы не имеете к ним доступа.");
         } else {
-            view.displayEvents(events, true, targetOwnerChatIdToView);
+            view.displayEventPage(ctx, page, true, targetOwnerChatIdToView);
         }
     }
 
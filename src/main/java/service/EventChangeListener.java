@@ -0,0 +1,24 @@
+package service;
+
+import model.Event;
+
+/**
+ * Слушатель изменений событий, о которых сообщает EventService.
+ * Используется компонентами, которые держат собственный индекс событий
+ * (например, ReminderService) и должны узнавать об изменениях без опроса хранилища.
+ */
+public interface EventChangeListener {
+
+    /**
+     * Вызывается после того, как событие было создано или обновлено.
+     * @param event Сохраненное событие (с актуальным ID и ownerChatId).
+     */
+    void onEventSaved(Event event);
+
+    /**
+     * Вызывается после удаления события.
+     * @param eventId ID удаленного события.
+     * @param ownerChatId ID чата владельца.
+     */
+    void onEventDeleted(String eventId, Long ownerChatId);
+}
@@ -1,9 +1,13 @@
 package service;
 
 import model.Event;
+import model.EventPage;
+import model.SyncResult;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface EventService {
     /**
@@ -15,6 +19,29 @@ public interface EventService {
      */
     Event addEvent(Event event, Long ownerChatId);
 
+    /**
+     * Пакетно синхронизирует события из Google Calendar для пользователя.
+     * Сверяет весь список с локальными событиями одним запросом и применяет изменения одной транзакцией.
+     * События без Google ID пропускаются.
+     * @param googleEvents Новые и изменившиеся события, полученные из Google Calendar.
+     * @param cancelledGoogleIds Google ID событий, отмененных в Google Calendar (удаляются локально).
+     * @param ownerChatId ID чата пользователя, для которого синхронизируются события.
+     * @return Количество созданных, обновленных, неизмененных, удаленных и пропущенных событий.
+     */
+    SyncResult upsertFromGoogle(List<Event> googleEvents, List<String> cancelledGoogleIds, Long ownerChatId);
+
+    /**
+     * Завершает полную синхронизацию с Google Calendar: удаляет локальные события с Google ID,
+     * которых не оказалось в полном списке. Полный список не содержит отмененных событий,
+     * поэтому иначе события, удаленные в Google, пока токен был недействителен, остались бы навсегда.
+     * События, закончившиеся до windowStart, не трогаются: полная синхронизация их не загружает.
+     * @param seenGoogleIds Google ID всех событий, полученных при полной синхронизации.
+     * @param windowStart Начало окна полной синхронизации.
+     * @param ownerChatId ID чата пользователя.
+     * @return Количество удаленных событий.
+     */
+    SyncResult deleteGoogleEventsNotIn(Set<String> seenGoogleIds, LocalDateTime windowStart, Long ownerChatId);
+
     /**
      * Обновляет событие, принадлежащее указанному пользователю.
      * @param event Обновляемое событие (должно содержать ID существующего события).
@@ -46,6 +73,16 @@ public interface EventService {
      */
     List<Event> getEventsForOwner(Long ownerChatId);
 
+    /**
+     * Получает одну страницу событий пользователя в порядке времени начала.
+     * Если страницы с таким номером уже нет (события удалили), возвращается последняя.
+     * @param ownerChatId ID чата пользователя.
+     * @param pageIndex Номер страницы, начиная с 0.
+     * @param pageSize Количество событий на странице.
+     * @return Страница событий с общим количеством событий пользователя.
+     */
+    EventPage getEventPageForOwner(Long ownerChatId, int pageIndex, int pageSize);
+
     /**
      * Получает события за указанный период для указанного пользователя.
      * @param start Начало периода.
@@ -75,8 +112,29 @@ public interface EventService {
 
     /**
      * Возвращает список абсолютно всех событий из хранилища (использовать с осторожностью).
-     * Предназначен для ReminderService.
      * @return Список всех событий в системе.
      */
     List<Event> getAllEventsGlobally();
+
+    /**
+     * Обходит все события хранилища потоком, не собирая их в один список (для пакетных и админских задач).
+     * Поток нужно закрыть после использования (try-with-resources).
+     * @return Поток всех событий в системе.
+     */
+    Stream<Event> streamAllEventsGlobally();
+
+    /**
+     * Возвращает события с включенными и еще не отправленными напоминаниями,
+     * время напоминания которых не позже указанного момента.
+     * Предназначен для ReminderService.
+     * @param until Верхняя граница времени напоминания (включительно).
+     * @return Список событий с ожидающими напоминаниями.
+     */
+    List<Event> getDueReminders(LocalDateTime until);
+
+    /**
+     * Регистрирует слушателя, которому сервис сообщает о создании, изменении и удалении событий.
+     * @param listener Слушатель изменений.
+     */
+    void addEventChangeListener(EventChangeListener listener);
 }
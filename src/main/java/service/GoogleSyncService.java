@@ -0,0 +1,32 @@
+package service;
+
+import model.GoogleSyncMetrics;
+import model.SyncResult;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface GoogleSyncService {
+    /**
+     * Запускает фоновую периодическую синхронизацию всех пользователей, подключивших Google Calendar.
+     */
+    void start();
+
+    /**
+     * Останавливает планировщик и пул синхронизации.
+     */
+    void stop();
+
+    /**
+     * Ставит синхронизацию пользователя в очередь пула, не дожидаясь ее выполнения.
+     * Если синхронизация этого пользователя уже выполняется или ждет в очереди, возвращается ее результат.
+     * @param ownerChatId ID чата пользователя.
+     * @return Future с итогом синхронизации; завершается исключением при ошибке Google или переполнении очереди.
+     */
+    CompletableFuture<SyncResult> requestSync(Long ownerChatId);
+
+    /**
+     * Возвращает снимок метрик синхронизации (задержка, пропускная способность, ошибки).
+     * @return Метрики синхронизации.
+     */
+    GoogleSyncMetrics getMetrics();
+}
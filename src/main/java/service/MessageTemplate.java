@@ -0,0 +1,191 @@
+package service;
+
+import util.MarkdownFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Шаблон ответа, заранее разобранный на литералы и слоты {имя}.
+ * Литералы хранятся уже в виде MarkdownV2, значения слотов экранируются при подстановке.
+ * Формат слота задается суффиксом: {имя} - экранированный текст, {имя:code} - моноширинный, {имя:bold} - жирный.
+ * Неизвестные слоты и слоты без значения выводятся как есть.
+ */
+public final class MessageTemplate {
+    private static final byte FORMAT_TEXT = 0;
+    private static final byte FORMAT_CODE = 1;
+    private static final byte FORMAT_BOLD = 2;
+
+    private final String source;
+    // literals.length == slotNames.length + 1: литерал, слот, литерал, ..., литерал
+    private final String[] literals;
+    private final String[] slotNames;
+    private final byte[] slotFormats;
+    // Исходный текст слота в MarkdownV2 - на случай, если значение не передали
+    private final String[] slotFallbacks;
+    // Результат без подстановок; для шаблонов без слотов это и есть готовый текст
+    private final String rendered;
+    private final int literalLength;
+
+    private MessageTemplate(String source, List<String> literals, List<String> slotNames,
+                            List<Byte> slotFormats, List<String> slotFallbacks) {
+        this.source = source;
+        this.literals = literals.toArray(new String[0]);
+        this.slotNames = slotNames.toArray(new String[0]);
+        this.slotFormats = new byte[slotFormats.size()];
+        for (int i = 0; i < this.slotFormats.length; i++) {
+            this.slotFormats[i] = slotFormats.get(i);
+        }
+        this.slotFallbacks = slotFallbacks.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.rendered = render(new StringBuilder(length + 16), Map.of()).toString();
+    }
+
+    /**
+     * Разбирает шаблон, литералы которого - обычный текст: они экранируются один раз при разборе.
+     */
+    public static MessageTemplate plain(String source) {
+        return compile(source, false);
+    }
+
+    /**
+     * Разбирает шаблон, уже записанный в MarkdownV2: литералы копируются как есть,
+     * экранированная скобка \{ слотом не считается.
+     */
+    public static MessageTemplate markdown(String source) {
+        return compile(source, true);
+    }
+
+    private static MessageTemplate compile(String source, boolean isMarkdown) {
+        String text = source != null ? source : "";
+        List<String> literals = new ArrayList<>();
+        List<String> slotNames = new ArrayList<>();
+        List<Byte> slotFormats = new ArrayList<>();
+        List<String> slotFallbacks = new ArrayList<>();
+
+        int literalStart = 0;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (isMarkdown && c == '\\') {
+                i += 2;
+                continue;
+            }
+            int end = c == '{' ? text.indexOf('}', i + 1) : -1;
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            String body = text.substring(i + 1, end);
+            int colon = body.indexOf(':');
+            String name = colon < 0 ? body : body.substring(0, colon);
+            byte format = colon < 0 ? FORMAT_TEXT : parseFormat(body.substring(colon + 1));
+            if (!isSlotName(name) || format < 0) {
+                i++;
+                continue;
+            }
+            literals.add(literal(text.substring(literalStart, i), isMarkdown));
+            slotNames.add(name);
+            slotFormats.add(format);
+            slotFallbacks.add(MarkdownFormatter.escapeMarkdownV2(text.substring(i, end + 1)));
+            i = end + 1;
+            literalStart = i;
+        }
+        literals.add(literal(text.substring(literalStart), isMarkdown));
+        return new MessageTemplate(text, literals, slotNames, slotFormats, slotFallbacks);
+    }
+
+    /**
+     * Дописывает шаблон в out, беря значения слотов из values.
+     * @return out, чтобы можно было продолжать цепочку append
+     */
+    public StringBuilder render(StringBuilder out, Map<String, ?> values) {
+        out.ensureCapacity(out.length() + literalLength + 16 * slotNames.length);
+        for (int i = 0; i < slotNames.length; i++) {
+            out.append(literals[i]);
+            appendSlot(out, i, values.get(slotNames[i]));
+        }
+        return out.append(literals[slotNames.length]);
+    }
+
+    /**
+     * То же для шаблона с одним значением, без создания Map.
+     */
+    public StringBuilder render(StringBuilder out, String name, Object value) {
+        out.ensureCapacity(out.length() + literalLength + 16 * slotNames.length);
+        for (int i = 0; i < slotNames.length; i++) {
+            out.append(literals[i]);
+            appendSlot(out, i, slotNames[i].equals(name) ? value : null);
+        }
+        return out.append(literals[slotNames.length]);
+    }
+
+    /**
+     * Дописывает шаблон без подстановок.
+     */
+    public StringBuilder render(StringBuilder out) {
+        return out.append(rendered);
+    }
+
+    /**
+     * Готовый текст без подстановок; строка вычислена при разборе и не создается заново.
+     */
+    public String render() {
+        return rendered;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getSlotCount() {
+        return slotNames.length;
+    }
+
+    private void appendSlot(StringBuilder out, int slot, Object value) {
+        if (value == null) {
+            out.append(slotFallbacks[slot]);
+            return;
+        }
+        CharSequence text = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+        if (slotFormats[slot] == FORMAT_CODE) {
+            MarkdownFormatter.appendCode(out, text);
+        } else if (slotFormats[slot] == FORMAT_BOLD) {
+            MarkdownFormatter.appendBold(out, text);
+        } else {
+            MarkdownFormatter.appendEscaped(out, text);
+        }
+    }
+
+    private static String literal(String text, boolean isMarkdown) {
+        return isMarkdown ? text : MarkdownFormatter.escapeMarkdownV2(text);
+    }
+
+    private static byte parseFormat(String format) {
+        if (format.equals("code")) {
+            return FORMAT_CODE;
+        }
+        if (format.equals("bold")) {
+            return FORMAT_BOLD;
+        }
+        return -1;
+    }
+
+    private static boolean isSlotName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
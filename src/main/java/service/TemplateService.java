@@ -17,6 +17,17 @@ public interface TemplateService {
      */
     String getTemplate(String key, String defaultValue);
 
+    /**
+     * Получает шаблон, разобранный на литералы и слоты.
+     * Разбор выполняется один раз и повторяется только после setTemplate/resetTemplate.
+     *
+     * @param key          ключ шаблона
+     * @param defaultValue значение по умолчанию
+     * @param isMarkdown   true, если текст шаблона уже записан в MarkdownV2; иначе литералы будут экранированы
+     * @return разобранный шаблон
+     */
+    MessageTemplate getCompiledTemplate(String key, String defaultValue, boolean isMarkdown);
+
     /**
      * Устанавливает новый текст для шаблона.
      *
@@ -2,15 +2,27 @@ package service.impl;
 
 import dao.EventDAO;
 import model.Event;
+import model.EventPage;
+import model.SyncResult;
+import service.EventChangeListener;
 import service.EventService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 public class EventServiceImpl implements EventService {
 
     private final EventDAO eventDAO;
+    private final List<EventChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     public EventServiceImpl(EventDAO eventDAO) {
         this.eventDAO = eventDAO;
@@ -37,20 +49,15 @@ public class EventServiceImpl implements EventService {
                 // Сохраняем локальный ID существующего события, чтобы обновить его, а не создавать дубликат
                 newEvent.setId(existingLocalEvent.getId()); 
 
-                boolean needsUpdate = !newEvent.getTitle().equals(existingLocalEvent.getTitle()) ||
-                                      (newEvent.getDescription() != null ? !newEvent.getDescription().equals(existingLocalEvent.getDescription()) : existingLocalEvent.getDescription() != null) ||
-                                      !newEvent.getStartTime().equals(existingLocalEvent.getStartTime()) ||
-                                      !newEvent.getEndTime().equals(existingLocalEvent.getEndTime()) ||
-                                      (newEvent.getLocation() != null ? !newEvent.getLocation().equals(existingLocalEvent.getLocation()) : existingLocalEvent.getLocation() != null) ||
-                                      newEvent.isRemindersEnabled() != existingLocalEvent.isRemindersEnabled() ||
-                                      (newEvent.getReminderTime() != null ? !newEvent.getReminderTime().equals(existingLocalEvent.getReminderTime()) : existingLocalEvent.getReminderTime() != null);
-                
+                boolean needsUpdate = hasChanges(newEvent, existingLocalEvent);
+
                 if (needsUpdate) {
                     System.out.println("[Service] Changes detected for event '" + newEvent.getTitle() + "'. Attempting to update.");
                     // ownerChatId уже установлен в newEvent
                     Event updatedEvent = eventDAO.updateEvent(newEvent); // DAO должен обновить по newEvent.getId()
                     System.out.println("[Service] Successfully updated event '" + updatedEvent.getTitle() + 
                                        "' (ID: " + updatedEvent.getId() + ") OwnerChatID: " + updatedEvent.getOwnerChatId());
+                    notifySaved(updatedEvent);
                     return updatedEvent;
                 } else {
                     System.out.println("[Service] No changes detected for event '" + newEvent.getTitle() + "'. Skipping update.");
@@ -76,9 +83,89 @@ public class EventServiceImpl implements EventService {
         Event createdEvent = eventDAO.createEvent(newEvent);
         System.out.println("[Service] Successfully created new event: " + createdEvent.getTitle() + 
                            " (ID: " + createdEvent.getId() + ") OwnerChatID: " + createdEvent.getOwnerChatId());
+        notifySaved(createdEvent);
         return createdEvent;
     }
 
+    @Override
+    public SyncResult upsertFromGoogle(List<Event> googleEvents, List<String> cancelledGoogleIds, Long ownerChatId) {
+        // Повторяющийся Google ID в списке: применяется последняя версия события
+        Map<String, Event> incomingByGoogleId = new LinkedHashMap<>();
+        for (Event googleEvent : googleEvents) {
+            if (googleEvent.getGoogleId() == null || googleEvent.getGoogleId().isEmpty()) {
+                System.err.println("[Service] Skipping synced event without Google ID: " + googleEvent.getTitle());
+                continue;
+            }
+            incomingByGoogleId.put(googleEvent.getGoogleId(), googleEvent);
+        }
+        // Пропущенные: события без Google ID и вытесненные повторы
+        int skipped = googleEvents.size() - incomingByGoogleId.size();
+
+        Map<String, Event> existingByGoogleId = new HashMap<>();
+        for (Event existing : eventDAO.findAllWithGoogleIdByOwnerChatId(ownerChatId)) {
+            existingByGoogleId.putIfAbsent(existing.getGoogleId(), existing);
+        }
+
+        List<Event> eventsToCreate = new ArrayList<>();
+        List<Event> eventsToUpdate = new ArrayList<>();
+        int unchanged = 0;
+        for (Event googleEvent : incomingByGoogleId.values()) {
+            googleEvent.setOwnerChatId(ownerChatId);
+            Event existing = existingByGoogleId.get(googleEvent.getGoogleId());
+            if (existing == null) {
+                googleEvent.setId(null);
+                eventsToCreate.add(googleEvent);
+            } else if (hasChanges(googleEvent, existing)) {
+                googleEvent.setId(existing.getId());
+                eventsToUpdate.add(googleEvent);
+            } else {
+                unchanged++;
+            }
+        }
+
+        List<String> eventIdsToDelete = new ArrayList<>();
+        for (String cancelledGoogleId : cancelledGoogleIds) {
+            Event existing = existingByGoogleId.get(cancelledGoogleId);
+            if (existing != null) {
+                eventIdsToDelete.add(existing.getId());
+            }
+        }
+
+        eventDAO.saveAll(eventsToCreate, eventsToUpdate, eventIdsToDelete, ownerChatId);
+        eventsToCreate.forEach(this::notifySaved);
+        eventsToUpdate.forEach(this::notifySaved);
+        notifyDeleted(eventIdsToDelete, ownerChatId);
+
+        SyncResult result = new SyncResult(eventsToCreate.size(), eventsToUpdate.size(), unchanged, eventIdsToDelete.size(), skipped);
+        System.out.println("[Service] Google sync for owner " + ownerChatId + " finished: " + result);
+        return result;
+    }
+
+    @Override
+    public SyncResult deleteGoogleEventsNotIn(Set<String> seenGoogleIds, LocalDateTime windowStart, Long ownerChatId) {
+        List<String> eventIdsToDelete = new ArrayList<>();
+        for (Event existing : eventDAO.findAllWithGoogleIdByOwnerChatId(ownerChatId)) {
+            if (!seenGoogleIds.contains(existing.getGoogleId()) && existing.getEndTime().isAfter(windowStart)) {
+                eventIdsToDelete.add(existing.getId());
+            }
+        }
+        if (!eventIdsToDelete.isEmpty()) {
+            eventDAO.saveAll(List.of(), List.of(), eventIdsToDelete, ownerChatId);
+            notifyDeleted(eventIdsToDelete, ownerChatId);
+            System.out.println("[Service] Full Google sync for owner " + ownerChatId + " removed " +
+                               eventIdsToDelete.size() + " events missing in Google Calendar.");
+        }
+        return new SyncResult(0, 0, 0, eventIdsToDelete.size(), 0);
+    }
+
+    private void notifyDeleted(List<String> eventIds, Long ownerChatId) {
+        for (String eventId : eventIds) {
+            for (EventChangeListener listener : listeners) {
+                listener.onEventDeleted(eventId, ownerChatId);
+            }
+        }
+    }
+
     @Override
     public Event updateEvent(Event event, Long ownerChatId) {
         if (event.getId() == null || event.getId().isEmpty()) {
@@ -101,7 +188,9 @@ public class EventServiceImpl implements EventService {
         }
 
         System.out.println("[Service] Updating event: " + event.getTitle() + " for owner: " + ownerChatId);
-        return eventDAO.updateEvent(event);
+        Event updatedEvent = eventDAO.updateEvent(event);
+        notifySaved(updatedEvent);
+        return updatedEvent;
     }
 
     @Override
@@ -109,6 +198,9 @@ public class EventServiceImpl implements EventService {
         System.out.println("[Service] Deleting event ID: " + eventId + " for owner: " + ownerChatId);
         // DAO должен проверить принадлежность и удалить, или бросить исключение если не найдено/не принадлежит
         eventDAO.deleteByIdAndOwnerChatId(eventId, ownerChatId);
+        for (EventChangeListener listener : listeners) {
+            listener.onEventDeleted(eventId, ownerChatId);
+        }
     }
 
     @Override
@@ -123,6 +215,21 @@ public class EventServiceImpl implements EventService {
         return eventDAO.findAllByOwnerChatId(ownerChatId);
     }
 
+    @Override
+    public EventPage getEventPageForOwner(Long ownerChatId, int pageIndex, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1, got: " + pageSize);
+        }
+        System.out.println("[Service] Getting page " + pageIndex + " of events for owner: " + ownerChatId);
+        int totalCount = eventDAO.countByOwnerChatId(ownerChatId);
+        int lastPageIndex = Math.max(0, (totalCount - 1) / pageSize);
+        int safePageIndex = Math.min(Math.max(0, pageIndex), lastPageIndex);
+        List<Event> events = totalCount == 0
+                ? List.of()
+                : eventDAO.findPageByOwnerChatId(ownerChatId, safePageIndex * pageSize, pageSize);
+        return new EventPage(events, safePageIndex, pageSize, totalCount);
+    }
+
     @Override
     public List<Event> getEventsForPeriodForOwner(LocalDateTime start, LocalDateTime end, Long ownerChatId) {
         System.out.println("[Service] Getting events from " + start + " to " + end + " for owner: " + ownerChatId);
@@ -138,7 +245,9 @@ public class EventServiceImpl implements EventService {
         event.setReminderSent(false); // Сбрасываем флаг отправки при изменении времени
         System.out.println("[Service] Reminder time for event '" + event.getTitle() + 
                            "' (ID: " + eventId + ") set to: " + reminderTime + ". Owner: " + ownerChatId);
-        return eventDAO.updateEvent(event); // DAO обновит событие по его ID, ownerChatId в объекте event уже корректен
+        Event updatedEvent = eventDAO.updateEvent(event); // DAO обновит событие по его ID, ownerChatId в объекте event уже корректен
+        notifySaved(updatedEvent);
+        return updatedEvent;
     }
 
     @Override
@@ -149,12 +258,49 @@ public class EventServiceImpl implements EventService {
         event.setRemindersEnabled(enable);
         System.out.println("[Service] Reminders for event '" + event.getTitle() + 
                            "' (ID: " + eventId + ") " + (enable ? "ENABLED" : "DISABLED") + ". Owner: " + ownerChatId);
-        return eventDAO.updateEvent(event); // Аналогично setEventReminderTime
+        Event updatedEvent = eventDAO.updateEvent(event); // Аналогично setEventReminderTime
+        notifySaved(updatedEvent);
+        return updatedEvent;
     }
 
     @Override
     public List<Event> getAllEventsGlobally() {
-        System.out.println("[Service] Getting all events globally for reminder service.");
+        System.out.println("[Service] Getting all events globally.");
         return eventDAO.getAllEventsGlobally();
     }
-}
\ No newline at end of file
+
+    @Override
+    public Stream<Event> streamAllEventsGlobally() {
+        System.out.println("[Service] Streaming all events globally.");
+        return eventDAO.streamAllEventsGlobally();
+    }
+
+    @Override
+    public List<Event> getDueReminders(LocalDateTime until) {
+        return eventDAO.findDueReminders(until);
+    }
+
+    @Override
+    public void addEventChangeListener(EventChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    private boolean hasChanges(Event incoming, Event existing) {
+        return !Objects.equals(incoming.getTitle(), existing.getTitle()) ||
+               !Objects.equals(incoming.getDescription(), existing.getDescription()) ||
+               !Objects.equals(incoming.getStartTime(), existing.getStartTime()) ||
+               !Objects.equals(incoming.getEndTime(), existing.getEndTime()) ||
+               !Objects.equals(incoming.getLocation(), existing.getLocation()) ||
+               incoming.isRemindersEnabled() != existing.isRemindersEnabled() ||
+               !Objects.equals(incoming.getReminderTime(), existing.getReminderTime());
+    }
+
+    private void notifySaved(Event event) {
+        if (event == null) {
+            return;
+        }
+        for (EventChangeListener listener : listeners) {
+            listener.onEventSaved(event);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package service.impl;
+
+import dao.impl.GoogleCalendarDAO;
+import dao.impl.GoogleEventChanges;
+import model.Event;
+import model.GoogleSyncMetrics;
+import model.SyncResult;
+import service.EventService;
+import service.GoogleSyncService;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая синхронизация с Google Calendar.
+ *
+ * Раз в интервал планировщик находит подключенных пользователей (каталоги в tokens/) и назначает каждому
+ * синхронизацию со случайной задержкой до maxJitter, чтобы запросы к Google не уходили пачкой.
+ * Синхронизации выполняет ограниченный пул из workerCount потоков с очередью фиксированной длины;
+ * одновременно для одного пользователя выполняется не больше одной синхронизации.
+ * Поток обработки Telegram только ставит задачу в очередь (requestSync) и не ждет ввода-вывода Google.
+ */
+public class GoogleSyncServiceImpl implements GoogleSyncService {
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private final GoogleCalendarDAO googleCalendarDAO;
+    private final EventService eventService;
+    private final long intervalMs;
+    private final long maxJitterMs;
+    private final int workerCount;
+
+    private ScheduledExecutorService scheduler;
+    private ThreadPoolExecutor workers;
+
+    // Синхронизации, которые ждут в очереди или выполняются, по ID чата
+    private final Map<Long, CompletableFuture<SyncResult>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastSuccessfulSyncMillis = new ConcurrentHashMap<>();
+    private volatile Set<Long> connectedChatIds = Set.of();
+
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final AtomicLong completedSyncs = new AtomicLong();
+    private final AtomicLong failedSyncs = new AtomicLong();
+    private final AtomicLong rejectedSyncs = new AtomicLong();
+    private final AtomicLong appliedChanges = new AtomicLong();
+    private final AtomicLong totalQueueWaitMs = new AtomicLong();
+    private final AtomicLong totalSyncDurationMs = new AtomicLong();
+
+    public GoogleSyncServiceImpl(GoogleCalendarDAO googleCalendarDAO, EventService eventService,
+                                 long intervalMinutes, long maxJitterSeconds, int workerCount) {
+        if (intervalMinutes < 1) {
+            throw new IllegalArgumentException("Sync interval must be at least 1 minute, got: " + intervalMinutes);
+        }
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Sync worker count must be at least 1, got: " + workerCount);
+        }
+        this.googleCalendarDAO = googleCalendarDAO;
+        this.eventService = eventService;
+        this.intervalMs = TimeUnit.MINUTES.toMillis(intervalMinutes);
+        // Джиттер не длиннее интервала, иначе раунды начнут перекрываться
+        this.maxJitterMs = Math.min(TimeUnit.SECONDS.toMillis(Math.max(0, maxJitterSeconds)), intervalMs);
+        this.workerCount = workerCount;
+        this.workers = newWorkerPool();
+    }
+
+    private ThreadPoolExecutor newWorkerPool() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "google-sync-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            System.out.println("[GoogleSyncService] Already started.");
+            return;
+        }
+        if (workers.isShutdown()) {
+            workers = newWorkerPool();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "google-sync-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::scheduleRound, 0, intervalMs, TimeUnit.MILLISECONDS);
+        System.out.println("[GoogleSyncService] Started. Syncing every " + TimeUnit.MILLISECONDS.toMinutes(intervalMs) +
+                           " minute(s) with " + workerCount + " worker(s).");
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("[GoogleSyncService] Stopped.");
+    }
+
+    // Назначает синхронизацию всем подключенным пользователям со случайной задержкой
+    private void scheduleRound() {
+        try {
+            List<Long> chatIds = googleCalendarDAO.findConnectedChatIds();
+            connectedChatIds = Set.copyOf(chatIds);
+            lastSuccessfulSyncMillis.keySet().retainAll(connectedChatIds);
+            for (Long chatId : chatIds) {
+                long delayMs = maxJitterMs > 0 ? ThreadLocalRandom.current().nextLong(maxJitterMs) : 0;
+                scheduler.schedule(() -> {
+                    requestSync(chatId).exceptionally(e -> null); // Ошибки уже учтены и записаны в лог
+                }, delayMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            // Исключение не должно выйти за пределы задачи, иначе scheduleAtFixedRate остановит раунды
+            System.err.println("[GoogleSyncService] Failed to schedule sync round: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public CompletableFuture<SyncResult> requestSync(Long ownerChatId) {
+        CompletableFuture<SyncResult> created = new CompletableFuture<>();
+        CompletableFuture<SyncResult> existing = inFlight.putIfAbsent(ownerChatId, created);
+        if (existing != null) {
+            return existing;
+        }
+        long enqueuedAtMillis = System.currentTimeMillis();
+        try {
+            workers.execute(() -> runSync(ownerChatId, enqueuedAtMillis, created));
+        } catch (RejectedExecutionException e) {
+            rejectedSyncs.incrementAndGet();
+            inFlight.remove(ownerChatId, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private void runSync(Long ownerChatId, long enqueuedAtMillis, CompletableFuture<SyncResult> future) {
+        long syncStartedAtMillis = System.currentTimeMillis();
+        totalQueueWaitMs.addAndGet(syncStartedAtMillis - enqueuedAtMillis);
+        SyncResult result = null;
+        Exception failure = null;
+        try {
+            result = syncUser(ownerChatId);
+            completedSyncs.incrementAndGet();
+            appliedChanges.addAndGet(result.getCreated() + result.getUpdated() + result.getDeleted());
+            lastSuccessfulSyncMillis.put(ownerChatId, System.currentTimeMillis());
+        } catch (Exception e) {
+            failedSyncs.incrementAndGet();
+            System.err.println("[GoogleSyncService] Sync failed for user " + ownerChatId + ": " + e.getMessage());
+            failure = e;
+        } finally {
+            totalSyncDurationMs.addAndGet(System.currentTimeMillis() - syncStartedAtMillis);
+            // Снимаем отметку до завершения future, чтобы следующий запрос запустил новую синхронизацию
+            inFlight.remove(ownerChatId, future);
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    private SyncResult syncUser(Long ownerChatId) throws IOException {
+        // Каждую страницу применяем сразу после загрузки, не дожидаясь остальных
+        SyncResult[] total = { new SyncResult(0, 0, 0, 0, 0) };
+        // При полной синхронизации запоминаем все полученные Google ID, чтобы затем удалить пропавшие
+        Set<String> seenGoogleIds = new HashSet<>();
+        GoogleEventChanges lastPage = googleCalendarDAO.forEachEventChangesPage(ownerChatId, page -> {
+            if (page.isFullSync()) {
+                for (Event event : page.getChangedEvents()) {
+                    seenGoogleIds.add(event.getGoogleId());
+                }
+                seenGoogleIds.addAll(page.getCancelledGoogleIds());
+            }
+            if (!page.isEmpty()) {
+                total[0] = total[0].plus(eventService.upsertFromGoogle(page.getChangedEvents(), page.getCancelledGoogleIds(), ownerChatId));
+            }
+        });
+        if (lastPage.isFullSync()) {
+            total[0] = total[0].plus(eventService.deleteGoogleEventsNotIn(seenGoogleIds,
+                    GoogleCalendarDAO.fullSyncWindowStart(), ownerChatId));
+        }
+        // Токен сохраняем только после того, как все страницы записаны локально
+        googleCalendarDAO.storeSyncToken(ownerChatId, lastPage.getNextSyncToken());
+        return total[0];
+    }
+
+    @Override
+    public GoogleSyncMetrics getMetrics() {
+        long now = System.currentTimeMillis();
+        long completed = completedSyncs.get();
+        long finished = completed + failedSyncs.get();
+        long maxLagMs = 0;
+        for (Long chatId : connectedChatIds) {
+            long lastSync = lastSuccessfulSyncMillis.getOrDefault(chatId, startedAtMillis);
+            maxLagMs = Math.max(maxLagMs, now - lastSync);
+        }
+        double uptimeMinutes = Math.max(1, now - startedAtMillis) / 60000.0;
+        return new GoogleSyncMetrics(
+                completed,
+                failedSyncs.get(),
+                rejectedSyncs.get(),
+                appliedChanges.get(),
+                inFlight.size(),
+                completed / uptimeMinutes,
+                finished > 0 ? totalQueueWaitMs.get() / finished : 0,
+                finished > 0 ? totalSyncDurationMs.get() / finished : 0,
+                TimeUnit.MILLISECONDS.toSeconds(maxLagMs)
+        );
+    }
+}
@@ -2,27 +2,37 @@ package service.impl;
 
 import model.Event;
 import service.EventService;
+import service.EventChangeListener;
 import service.ReminderService;
+import telegram.SendPriority;
 import telegram.TelegramBotView; // Для отправки уведомлений
 import util.DateTimeUtils;
 import util.MarkdownFormatter;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-public class ReminderServiceImpl implements ReminderService {
+public class ReminderServiceImpl implements ReminderService, EventChangeListener {
 
     private final EventService eventService; // Для получения списка событий
     private TelegramBotView telegramBotView; // Для отправки сообщений (должен быть установлен)
     private ScheduledExecutorService scheduler;
     // private boolean running = false;
 
-    // Как часто проверять напоминания (например, каждую минуту)
-    private static final long CHECK_INTERVAL_MINUTES = 1;
+    // Индекс ожидающих напоминаний. Поддерживается в актуальном состоянии через EventChangeListener,
+    // поэтому на каждом тике обрабатываются только сработавшие напоминания, а не все события.
+    private final ReminderTimingWheel timingWheel = new ReminderTimingWheel(currentEpochSecond());
+
+    // Как часто продвигать колесо таймеров (точность напоминаний - одна секунда)
+    private static final long TICK_INTERVAL_SECONDS = 1;
+    // Как часто подгружать ближайшие напоминания из хранилища и на сколько вперед
+    private static final long REFILL_INTERVAL_MINUTES = 1;
+    private static final long LOOKAHEAD_MINUTES = 2;
 
     public ReminderServiceImpl(EventService eventService) {
         this.eventService = eventService;
@@ -40,8 +50,9 @@ public class ReminderServiceImpl implements ReminderService {
             return;
         }
         scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.scheduleAtFixedRate(this::checkForUpcomingReminders, 0, CHECK_INTERVAL_MINUTES, TimeUnit.MINUTES);
-        System.out.println("[ReminderService] Started. Checking every " + CHECK_INTERVAL_MINUTES + " minute(s).");
+        scheduler.scheduleAtFixedRate(this::loadUpcomingReminders, 0, REFILL_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        scheduler.scheduleAtFixedRate(this::dispatchDueReminders, TICK_INTERVAL_SECONDS, TICK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        System.out.println("[ReminderService] Started. Dispatching reminders every " + TICK_INTERVAL_SECONDS + " second(s).");
     }
 
     @Override
@@ -60,33 +71,101 @@ public class ReminderServiceImpl implements ReminderService {
         System.out.println("[ReminderService] Stopped.");
     }
 
-    private void checkForUpcomingReminders() {
+    @Override
+    public void onEventSaved(Event event) {
+        if (event == null || event.getId() == null) {
+            return;
+        }
+        if (isPending(event)) {
+            timingWheel.schedule(event.getId(), event.getOwnerChatId(), toEpochSecond(event.getReminderTime()));
+        } else {
+            timingWheel.cancel(event.getId());
+        }
+    }
+
+    @Override
+    public void onEventDeleted(String eventId, Long ownerChatId) {
+        if (eventId != null) {
+            timingWheel.cancel(eventId);
+        }
+    }
+
+    // Подгружает из хранилища напоминания, которые сработают в ближайшее окно (и просроченные неотправленные).
+    // Выборка идет по индексу ожидающих напоминаний, поэтому читается лишь несколько строк.
+    // При старте так заполняется колесо, а дальше это страховка от изменений в обход EventService.
+    private void loadUpcomingReminders() {
+        try {
+            LocalDateTime horizon = LocalDateTime.now().plusMinutes(LOOKAHEAD_MINUTES);
+            List<Event> upcoming = eventService.getDueReminders(horizon);
+            for (Event event : upcoming) {
+                timingWheel.schedule(event.getId(), event.getOwnerChatId(), toEpochSecond(event.getReminderTime()));
+            }
+            if (!upcoming.isEmpty()) {
+                System.out.println("[ReminderService] Loaded " + upcoming.size() + " upcoming reminder(s) into the timing wheel.");
+            }
+        } catch (Exception e) {
+            System.err.println("[ReminderService] Failed to load upcoming reminders: " + e.getMessage());
+        }
+    }
+
+    private void dispatchDueReminders() {
         if (telegramBotView == null) {
             // System.err.println("[ReminderService] TelegramBotView is not set. Cannot send reminders.");
-            return; // Не отправляем, если View не установлен
+            return; // Не отправляем, если View не установлен (напоминания остаются в колесе)
         }
-        // System.out.println("[ReminderService] Checking for upcoming reminders... (" + LocalDateTime.now() + ")");
-        List<Event> allEvents = eventService.getAllEventsGlobally();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Event event : allEvents) {
-            if (event.isRemindersEnabled() && event.getReminderTime() != null && !event.isReminderSent()) {
-                if (now.isEqual(event.getReminderTime()) || now.isAfter(event.getReminderTime())) {
-                    sendReminderNotification(event);
-                    event.setReminderSent(true);
-                    try {
-                        // Обновляем событие в хранилище, чтобы пометить, что напоминание отправлено
-                        // Важно: используем ownerChatId из события для корректного обновления
-                        eventService.updateEvent(event, event.getOwnerChatId()); 
-                    } catch (Exception e) {
-                        System.err.println("[ReminderService] Failed to mark reminder as sent for event ID: " + event.getId() + " - " + e.getMessage());
-                        // Можно откатить event.setReminderSent(false) если критично, но это усложнит логику
-                    }
-                }
+        List<ReminderTimingWheel.Entry> dueEntries;
+        try {
+            dueEntries = timingWheel.advance(currentEpochSecond());
+        } catch (Exception e) {
+            // Исключение не должно выйти за пределы задачи, иначе scheduleAtFixedRate остановит тики
+            System.err.println("[ReminderService] Failed to advance timing wheel: " + e.getMessage());
+            return;
+        }
+        for (ReminderTimingWheel.Entry entry : dueEntries) {
+            try {
+                fireReminder(entry);
+            } catch (Exception e) {
+                System.err.println("[ReminderService] Failed to dispatch reminder for event ID: " + entry.getEventId() + " - " + e.getMessage());
             }
         }
     }
 
+    private void fireReminder(ReminderTimingWheel.Entry entry) {
+        // Перечитываем событие: индекс хранит только ссылку, актуальное состояние - в хранилище
+        Event event = eventService.getEventByIdAndOwner(entry.getEventId(), entry.getOwnerChatId()).orElse(null);
+        if (event == null || !isPending(event)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (event.getReminderTime().isAfter(now)) {
+            // Время напоминания сдвинули в обход сервиса - планируем заново
+            timingWheel.schedule(event.getId(), event.getOwnerChatId(), toEpochSecond(event.getReminderTime()));
+            return;
+        }
+        sendReminderNotification(event);
+        event.setReminderSent(true);
+        try {
+            // Обновляем событие в хранилище, чтобы пометить, что напоминание отправлено
+            // Важно: используем ownerChatId из события для корректного обновления
+            eventService.updateEvent(event, event.getOwnerChatId());
+        } catch (Exception e) {
+            System.err.println("[ReminderService] Failed to mark reminder as sent for event ID: " + event.getId() + " - " + e.getMessage());
+            // Можно откатить event.setReminderSent(false) если критично, но это усложнит логику
+        }
+    }
+
+    private static boolean isPending(Event event) {
+        return event.isRemindersEnabled() && event.getReminderTime() != null && !event.isReminderSent();
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static long currentEpochSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
     private void sendReminderNotification(Event event) {
         if (telegramBotView == null) return;
         
@@ -96,40 +175,36 @@ public class ReminderServiceImpl implements ReminderService {
             return;
         }
 
-        // Экранируем все динамические части
-        String eventTitle = MarkdownFormatter.escapeMarkdownV2(event.getTitle());
-        String startTime = MarkdownFormatter.escapeMarkdownV2(DateTimeUtils.formatMedium(event.getStartTime()));
-        String endTime = MarkdownFormatter.escapeMarkdownV2(DateTimeUtils.formatMedium(event.getEndTime()));
-        
-        String description = "";
+        // Все динамические части экранируются прямо в буфер сообщения
+        StringBuilder messageText = new StringBuilder(256);
+        messageText.append("🔔 *Напоминание о событии\\!*\n\n");
+        messageText.append('*');
+        MarkdownFormatter.appendEscaped(messageText, event.getTitle()).append("*\n\n");
+        messageText.append("📅 Начало: ");
+        MarkdownFormatter.appendEscaped(messageText, DateTimeUtils.formatMedium(event.getStartTime())).append("\n");
+        messageText.append("⌚️ Окончание: ");
+        MarkdownFormatter.appendEscaped(messageText, DateTimeUtils.formatMedium(event.getEndTime()));
         if (event.getDescription() != null && !event.getDescription().isEmpty()) {
-            description = "\n📝 Описание: _" + MarkdownFormatter.escapeMarkdownV2(event.getDescription()) + "_";
+            messageText.append("\n📝 Описание: _");
+            MarkdownFormatter.appendEscaped(messageText, event.getDescription()).append('_');
         }
-        
-        String location = "";
         if (event.getLocation() != null && !event.getLocation().isEmpty()) {
-            location = "\n📍 Место: _" + MarkdownFormatter.escapeMarkdownV2(event.getLocation()) + "_";
+            messageText.append("\n📍 Место: _");
+            MarkdownFormatter.appendEscaped(messageText, event.getLocation()).append('_');
         }
 
-        StringBuilder messageText = new StringBuilder();
-        messageText.append("🔔 *Напоминание о событии\\!*\n\n");
-        messageText.append("*").append(eventTitle).append("*\n\n");
-        messageText.append("📅 Начало: ").append(startTime).append("\n");
-        messageText.append("⌚️ Окончание: ").append(endTime);
-        messageText.append(description); // Уже содержит \n, если есть
-        messageText.append(location);    // Уже содержит \n, если есть
-
         SendMessage message = new SendMessage();
         message.setChatId(recipientChatId.toString());
         message.setParseMode("MarkdownV2");
         message.setText(messageText.toString());
 
-        try {
-            telegramBotView.executeSendMessage(message);
-            System.out.println("[ReminderService] Reminder notification sent successfully to chatId: " + recipientChatId);
-        } catch (Exception e) {
-            System.err.println("[ReminderService] Failed to send reminder notification: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Отправка асинхронная: тик колеса не ждет HTTP, а напоминания обгоняют остальные сообщения в очереди
+        telegramBotView.executeSendMessage(message, SendPriority.REMINDER).whenComplete((sent, e) -> {
+            if (e == null) {
+                System.out.println("[ReminderService] Reminder notification sent successfully to chatId: " + recipientChatId);
+            } else {
+                System.err.println("[ReminderService] Failed to send reminder notification: " + e.getMessage());
+            }
+        });
     }
 } 
\ No newline at end of file
@@ -0,0 +1,199 @@
+package service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Иерархическое колесо таймеров для ожидающих напоминаний.
+ * Время измеряется в секундах (epoch seconds), один тик = одна секунда.
+ *
+ * Уровень 0 содержит 64 слота по 1 секунде, каждый следующий уровень в 64 раза грубее
+ * (~1 мин, ~68 мин, ~3 дня на слот). Напоминания дальше горизонта верхнего уровня
+ * (~194 дня) хранятся в отдельном списке и переносятся в колесо при его обороте.
+ * Вставка и отмена стоят O(1), продвижение на один тик — O(число сработавших + перенесенных).
+ *
+ * Класс потокобезопасен: все операции синхронизированы на экземпляре.
+ */
+public class ReminderTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    // Если часы ушли вперед сильнее, чем на это число тиков (сон машины, перевод времени),
+    // колесо не прокручивается посекундно, а перестраивается целиком.
+    private static final long MAX_CATCH_UP_TICKS = (long) SLOTS * SLOTS;
+
+    /**
+     * Запланированное напоминание.
+     */
+    public static final class Entry {
+        private final String eventId;
+        private final Long ownerChatId;
+        private final long deadline;
+        private Set<Entry> bucket;
+
+        Entry(String eventId, Long ownerChatId, long deadline) {
+            this.eventId = eventId;
+            this.ownerChatId = ownerChatId;
+            this.deadline = deadline;
+        }
+
+        public String getEventId() { return eventId; }
+        public Long getOwnerChatId() { return ownerChatId; }
+        public long getDeadline() { return deadline; }
+    }
+
+    @SuppressWarnings("unchecked")
+    private final Set<Entry>[][] wheels = new Set[LEVELS][SLOTS];
+    private final Set<Entry> overflow = new HashSet<>();
+    private final Set<Entry> expired = new HashSet<>();
+    private final Map<String, Entry> entriesByEventId = new HashMap<>();
+    private long currentTick;
+
+    public ReminderTimingWheel(long startTick) {
+        this.currentTick = startTick;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new HashSet<>();
+            }
+        }
+    }
+
+    /**
+     * Планирует (или переносит) напоминание для события.
+     * Повторный вызов для того же eventId заменяет предыдущую запись.
+     * @param eventId ID события.
+     * @param ownerChatId ID чата владельца.
+     * @param deadline Время срабатывания в epoch seconds.
+     */
+    public synchronized void schedule(String eventId, Long ownerChatId, long deadline) {
+        cancel(eventId);
+        Entry entry = new Entry(eventId, ownerChatId, deadline);
+        entriesByEventId.put(eventId, entry);
+        place(entry);
+    }
+
+    /**
+     * Отменяет напоминание для события, если оно было запланировано.
+     * @param eventId ID события.
+     * @return true, если запись была удалена.
+     */
+    public synchronized boolean cancel(String eventId) {
+        Entry entry = entriesByEventId.remove(eventId);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket.remove(entry);
+        entry.bucket = null;
+        return true;
+    }
+
+    /**
+     * Продвигает колесо до указанного момента и возвращает все напоминания,
+     * срок которых наступил. Возвращенные записи удаляются из колеса.
+     * @param nowTick Текущее время в epoch seconds.
+     * @return Список сработавших напоминаний (может быть пустым).
+     */
+    public synchronized List<Entry> advance(long nowTick) {
+        if (nowTick - currentTick > MAX_CATCH_UP_TICKS) {
+            rebuild(nowTick);
+        } else {
+            while (currentTick < nowTick) {
+                currentTick++;
+                cascade(currentTick);
+                Set<Entry> slot = wheels[0][(int) (currentTick & SLOT_MASK)];
+                if (!slot.isEmpty()) {
+                    for (Entry entry : new ArrayList<>(slot)) {
+                        move(entry, expired);
+                    }
+                }
+            }
+        }
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+        List<Entry> due = new ArrayList<>(expired);
+        for (Entry entry : due) {
+            entriesByEventId.remove(entry.eventId);
+            entry.bucket = null;
+        }
+        expired.clear();
+        return due;
+    }
+
+    public synchronized int size() {
+        return entriesByEventId.size();
+    }
+
+    public synchronized boolean isScheduled(String eventId) {
+        return entriesByEventId.containsKey(eventId);
+    }
+
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Set<Entry> slot = wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            if (!slot.isEmpty()) {
+                for (Entry entry : new ArrayList<>(slot)) {
+                    slot.remove(entry);
+                    place(entry);
+                }
+            }
+        }
+        // Полный оборот верхнего уровня: дальние напоминания могли войти в горизонт колеса
+        if ((tick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0 && !overflow.isEmpty()) {
+            for (Entry entry : new ArrayList<>(overflow)) {
+                overflow.remove(entry);
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.deadline - currentTick;
+        if (delta <= 0) {
+            move(entry, expired);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                int slot = (int) ((entry.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+                move(entry, wheels[level][slot]);
+                return;
+            }
+        }
+        move(entry, overflow);
+    }
+
+    private void move(Entry entry, Set<Entry> target) {
+        if (entry.bucket != null) {
+            entry.bucket.remove(entry);
+        }
+        target.add(entry);
+        entry.bucket = target;
+    }
+
+    private void rebuild(long nowTick) {
+        List<Entry> all = new ArrayList<>(entriesByEventId.values());
+        for (Set<Entry>[] level : wheels) {
+            for (Set<Entry> slot : level) {
+                slot.clear();
+            }
+        }
+        overflow.clear();
+        expired.clear();
+        currentTick = nowTick;
+        for (Entry entry : all) {
+            entry.bucket = null;
+            place(entry);
+        }
+    }
+}
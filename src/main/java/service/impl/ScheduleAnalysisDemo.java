@@ -1,6 +1,5 @@
 package service.impl;
 
-import dao.EventDAO;
 import dao.AnalysisExportDAO;
 import dao.impl.JsonAnalysisExportDAO;
 import dao.impl.SQLiteEventDAO;
@@ -13,9 +12,11 @@ public class ScheduleAnalysisDemo {
         Long ownerChatId = 1125972243L; // пример ID пользователя
         String outputPath = "analysis.json";
 
-        EventDAO eventDAO = new SQLiteEventDAO(dbPath);
-        ScheduleAnalysisService analysisService = new ScheduleAnalysisServiceImpl(eventDAO);
-        ScheduleAnalysis analysis = analysisService.analyzeCurrentWeek(ownerChatId);
+        ScheduleAnalysis analysis;
+        try (SQLiteEventDAO eventDAO = new SQLiteEventDAO(dbPath)) {
+            ScheduleAnalysisService analysisService = new ScheduleAnalysisServiceImpl(eventDAO);
+            analysis = analysisService.analyzeCurrentWeek(ownerChatId);
+        }
 
         AnalysisExportDAO exportDAO = new JsonAnalysisExportDAO();
         exportDAO.exportAnalysis(analysis, outputPath);
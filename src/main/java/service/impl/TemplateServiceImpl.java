@@ -1,12 +1,17 @@
 package service.impl;
 
 import dao.ResponseTemplateDAO;
+import service.MessageTemplate;
 import service.TemplateService;
 
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TemplateServiceImpl implements TemplateService {
     private final ResponseTemplateDAO templateDAO;
+    // Разобранные шаблоны по ключу; сбрасываются при изменении шаблона через сервис
+    private final ConcurrentHashMap<String, CompiledEntry> compiledTemplates = new ConcurrentHashMap<>();
 
     public TemplateServiceImpl(ResponseTemplateDAO templateDAO) {
         this.templateDAO = templateDAO;
@@ -17,14 +22,37 @@ public class TemplateServiceImpl implements TemplateService {
         return templateDAO.findByKey(key).orElse(defaultValue);
     }
 
+    @Override
+    public MessageTemplate getCompiledTemplate(String key, String defaultValue, boolean isMarkdown) {
+        CompiledEntry entry = compiledTemplates.get(key);
+        if (entry != null && entry.matches(defaultValue, isMarkdown)) {
+            return entry.template;
+        }
+        // compute держит блокировку ключа, поэтому разбор не пересекается с setTemplate/resetTemplate
+        return compiledTemplates.compute(key, (k, current) -> {
+            if (current != null && current.matches(defaultValue, isMarkdown)) {
+                return current;
+            }
+            String source = templateDAO.findByKey(k).orElse(defaultValue);
+            MessageTemplate template = isMarkdown ? MessageTemplate.markdown(source) : MessageTemplate.plain(source);
+            return new CompiledEntry(defaultValue, isMarkdown, template);
+        }).template;
+    }
+
     @Override
     public void setTemplate(String key, String value) {
-        templateDAO.saveOrUpdate(key, value);
+        compiledTemplates.compute(key, (k, current) -> {
+            templateDAO.saveOrUpdate(k, value);
+            return null;
+        });
     }
 
     @Override
     public void resetTemplate(String key) {
-        templateDAO.delete(key);
+        compiledTemplates.compute(key, (k, current) -> {
+            templateDAO.delete(k);
+            return null;
+        });
     }
 
     @Override
@@ -41,4 +69,21 @@ public class TemplateServiceImpl implements TemplateService {
     public boolean isCustomTemplate(String key) {
         return templateDAO.findByKey(key).isPresent();
     }
-} 
\ No newline at end of file
+
+    // Разобранный шаблон вместе с параметрами, с которыми он был получен
+    private static final class CompiledEntry {
+        private final String defaultValue;
+        private final boolean isMarkdown;
+        private final MessageTemplate template;
+
+        private CompiledEntry(String defaultValue, boolean isMarkdown, MessageTemplate template) {
+            this.defaultValue = defaultValue;
+            this.isMarkdown = isMarkdown;
+            this.template = template;
+        }
+
+        private boolean matches(String defaultValue, boolean isMarkdown) {
+            return this.isMarkdown == isMarkdown && Objects.equals(this.defaultValue, defaultValue);
+        }
+    }
+}
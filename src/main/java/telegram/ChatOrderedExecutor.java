@@ -0,0 +1,72 @@
+package telegram;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выполняет задачи разных чатов параллельно, а задачи одного чата — строго по очереди.
+ *
+ * Для каждого чата хранится хвост цепочки CompletableFuture; новая задача присоединяется к хвосту
+ * и стартует только после завершения предыдущей. Когда цепочка чата опустела, запись удаляется,
+ * поэтому карта содержит только чаты с необработанными обновлениями.
+ */
+public class ChatOrderedExecutor {
+
+    private final ExecutorService executor;
+    private final Map<Long, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public ChatOrderedExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Ставит задачу в очередь чата. Исключение задачи записывается в лог и не прерывает цепочку.
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Void> submit(Long chatId, Runnable task) {
+        CompletableFuture<Void>[] created = new CompletableFuture[1];
+        tails.compute(chatId, (key, tail) -> {
+            CompletableFuture<Void> previous = tail != null ? tail : CompletableFuture.completedFuture(null);
+            created[0] = previous.thenRunAsync(() -> runSafely(chatId, task), executor);
+            return created[0];
+        });
+        // Убираем хвост, только если за это время к нему ничего не присоединили
+        created[0].whenComplete((ignored, error) -> tails.remove(chatId, created[0]));
+        return created[0];
+    }
+
+    private void runSafely(Long chatId, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            System.err.println("[ChatOrderedExecutor] Error processing update for chat " + chatId + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    public void shutdown(long timeoutSeconds) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Пул для обработки обновлений: виртуальный поток на задачу.
+     * Обработчики подолгу блокируются на Google API и отправке файлов; виртуальный поток при этом
+     * не занимает поток ОС, поэтому медленные чаты не задерживают остальные. Порядок внутри чата
+     * по-прежнему обеспечивает цепочка в submit.
+     */
+    public static ExecutorService newUpdateExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
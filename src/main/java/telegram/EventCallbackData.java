@@ -0,0 +1,70 @@
+package telegram;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Данные inline-кнопки события: действие и ID события целиком, без состояния на сервере.
+ *
+ * Формат: {@code <действие>:<ID события>}, для переключения напоминаний — {@code r:<ID события>:<0|1>}.
+ * ID событий — UUID (36 символов), поэтому данные укладываются в лимит Telegram в 64 байта;
+ * кнопки устаревших сообщений продолжают работать и после перезапуска бота.
+ */
+final class EventCallbackData {
+
+    // Ограничение Telegram на callback_data
+    static final int MAX_CALLBACK_DATA_BYTES = 64;
+
+    private final String action;
+    private final String eventId;
+    private final boolean enableReminders;
+
+    private EventCallbackData(String action, String eventId, boolean enableReminders) {
+        this.action = action;
+        this.eventId = eventId;
+        this.enableReminders = enableReminders;
+    }
+
+    /**
+     * Помещается ли ID события в callback_data любой кнопки (самый длинный формат - переключение напоминаний).
+     */
+    static boolean fits(String eventId) {
+        return encodeToggleReminders(eventId, false).getBytes(StandardCharsets.UTF_8).length <= MAX_CALLBACK_DATA_BYTES;
+    }
+
+    static String encode(String action, String eventId) {
+        return action + ":" + eventId;
+    }
+
+    static String encodeToggleReminders(String eventId, boolean enable) {
+        return "r:" + eventId + ":" + (enable ? "1" : "0");
+    }
+
+    static EventCallbackData decode(String data) {
+        int actionEnd = data.indexOf(':');
+        if (actionEnd <= 0 || actionEnd == data.length() - 1) {
+            throw new IllegalArgumentException("Invalid callback data format: " + data);
+        }
+        String action = data.substring(0, actionEnd);
+        String rest = data.substring(actionEnd + 1);
+        if (!action.equals("r")) {
+            return new EventCallbackData(action, rest, false);
+        }
+        int flagStart = rest.lastIndexOf(':');
+        if (flagStart <= 0 || !(rest.endsWith(":0") || rest.endsWith(":1"))) {
+            throw new IllegalArgumentException("Invalid reminder toggle data: " + data);
+        }
+        return new EventCallbackData(action, rest.substring(0, flagStart), rest.endsWith(":1"));
+    }
+
+    String getAction() {
+        return action;
+    }
+
+    String getEventId() {
+        return eventId;
+    }
+
+    boolean isEnableReminders() {
+        return enableReminders;
+    }
+}
@@ -0,0 +1,509 @@
+package telegram;
+
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Асинхронная очередь исходящих сообщений Telegram с учетом лимитов Bot API.
+ * Через нее идут отправка сообщений (SendMessage) и файлов (SendDocument), редактирование сообщений
+ * (EditMessageText) и ответы на нажатия кнопок (AnswerCallbackQuery).
+ *
+ * Отправку ограничивают два маркерных ведра: общее на бота и отдельное на каждый чат.
+ * Сообщения разложены по очередям приоритетов (SendPriority); внутри приоритета чаты обслуживаются
+ * по кругу, а сообщения одного чата уходят по одному и в порядке постановки.
+ * На ответ 429 чат ставится на паузу на retry_after секунд, а сообщение возвращается в голову очереди.
+ * Для личного чата собственный лимит (около сообщения в секунду) уже соблюдает ведро чата, поэтому такой
+ * 429 означает общий лимит бота: на паузу ставится и общее ведро. 429 в группе чаще вызван лимитом
+ * группы (20 сообщений в минуту) и останавливает только ее.
+ *
+ * Решения о том, что отправлять, принимает один поток-диспетчер; HTTP-запросы выполняет пул отправителей.
+ */
+public class OutboundMessageQueue {
+
+    // Сколько раз повторять сообщение после ответа 429, прежде чем считать его потерянным
+    private static final int MAX_ATTEMPTS = 5;
+    // Как часто убирать из карты чаты без сообщений с полностью восстановленным ведром
+    private static final long IDLE_CHAT_SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * Выполняет HTTP-запрос к Bot API.
+     */
+    public interface MessageSender {
+        Serializable send(PartialBotApiMethod<? extends Serializable> method) throws TelegramApiException;
+    }
+
+    private final MessageSender sender;
+    private final ExecutorService sendExecutor;
+    private final TokenBucket globalBucket;
+    private final double perChatPerSecond;
+    private final int perChatBurst;
+    private final int maxPendingMessages;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final Map<Long, ChatQueue> chats = new HashMap<>();
+    // Для каждого приоритета - чаты, у которых есть сообщения этого приоритета (каждый не больше одного раза)
+    private final ArrayDeque<Long>[] readyChats;
+    private int pendingMessages;
+    private int inFlightMessages;
+    private boolean accepting = true;
+    private boolean running = true;
+    private long lastSweepNanos = System.nanoTime();
+    // Пауза всей отправки после 429 из-за общего лимита бота
+    private long globalBlockedUntilNanos = System.nanoTime();
+
+    private final Thread dispatcher;
+
+    @SuppressWarnings("unchecked")
+    public OutboundMessageQueue(MessageSender sender, double globalPerSecond, double perChatPerSecond,
+                                int perChatBurst, int senderThreads, int maxPendingMessages) {
+        if (globalPerSecond <= 0 || perChatPerSecond <= 0) {
+            throw new IllegalArgumentException("Send rates must be positive, got global=" + globalPerSecond +
+                                               ", perChat=" + perChatPerSecond);
+        }
+        if (perChatBurst < 1 || senderThreads < 1 || maxPendingMessages < 1) {
+            throw new IllegalArgumentException("Burst, sender threads and queue capacity must be at least 1");
+        }
+        this.sender = sender;
+        this.perChatPerSecond = perChatPerSecond;
+        this.perChatBurst = perChatBurst;
+        this.maxPendingMessages = maxPendingMessages;
+        this.globalBucket = new TokenBucket(globalPerSecond, Math.max(1, (int) Math.ceil(globalPerSecond)), System.nanoTime());
+        this.readyChats = new ArrayDeque[SendPriority.values().length];
+        for (int i = 0; i < readyChats.length; i++) {
+            readyChats[i] = new ArrayDeque<>();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sendExecutor = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "telegram-send-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatchLoop, "telegram-send-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Ставит сообщение в очередь. Future завершается, когда Telegram принял сообщение,
+     * или исключением, если отправить его не удалось.
+     */
+    public CompletableFuture<Message> enqueue(SendMessage message, SendPriority priority) {
+        return enqueueMethod(message.getChatId(), message, priority).thenApply(sent -> (Message) sent);
+    }
+
+    /**
+     * Ставит в очередь редактирование сообщения. Лимиты чата общие с отправкой.
+     */
+    public CompletableFuture<Serializable> enqueue(EditMessageText edit, SendPriority priority) {
+        return enqueueMethod(edit.getChatId(), edit, priority);
+    }
+
+    /**
+     * Ставит в очередь отправку файла.
+     */
+    public CompletableFuture<Message> enqueue(SendDocument document, SendPriority priority) {
+        return enqueueMethod(document.getChatId(), document, priority).thenApply(sent -> (Message) sent);
+    }
+
+    /**
+     * Ставит в очередь ответ на нажатие кнопки. В самом запросе чата нет, поэтому его передают отдельно:
+     * ответ учитывается в лимитах этого чата и не обгоняет его сообщения того же приоритета.
+     */
+    public CompletableFuture<Serializable> enqueue(AnswerCallbackQuery answer, Long chatId, SendPriority priority) {
+        return enqueueMethod(String.valueOf(chatId), answer, priority);
+    }
+
+    private CompletableFuture<Serializable> enqueueMethod(String rawChatId, PartialBotApiMethod<? extends Serializable> method,
+                                                          SendPriority priority) {
+        CompletableFuture<Serializable> result = new CompletableFuture<>();
+        Long chatId;
+        try {
+            chatId = Long.parseLong(rawChatId);
+        } catch (NumberFormatException e) {
+            result.completeExceptionally(new IllegalArgumentException("Invalid chat ID: " + rawChatId));
+            return result;
+        }
+        lock.lock();
+        try {
+            if (!accepting) {
+                result.completeExceptionally(new RejectedExecutionException("Outbound queue is shut down"));
+                return result;
+            }
+            if (pendingMessages >= maxPendingMessages) {
+                System.err.println("[OutboundMessageQueue] Queue is full (" + maxPendingMessages + "), dropping message for chat " + chatId);
+                result.completeExceptionally(new RejectedExecutionException("Outbound queue is full"));
+                return result;
+            }
+            ChatQueue chat = chats.computeIfAbsent(chatId, id -> new ChatQueue(new TokenBucket(perChatPerSecond, perChatBurst, System.nanoTime())));
+            ArrayDeque<PendingMessage> lane = chat.lanes[priority.ordinal()];
+            if (lane.isEmpty()) {
+                readyChats[priority.ordinal()].addLast(chatId);
+            }
+            lane.addLast(new PendingMessage(chatId, method, priority, result));
+            pendingMessages++;
+            stateChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            PendingMessage next;
+            lock.lock();
+            try {
+                while (true) {
+                    if (!running) {
+                        return;
+                    }
+                    long now = System.nanoTime();
+                    sweepIdleChats(now);
+                    next = pollSendable(now);
+                    if (next != null) {
+                        break;
+                    }
+                    long waitNanos = nanosUntilSendable(now);
+                    if (waitNanos < 0) {
+                        stateChanged.await();
+                    } else {
+                        stateChanged.awaitNanos(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            PendingMessage toSend = next;
+            try {
+                sendExecutor.execute(() -> send(toSend));
+            } catch (RejectedExecutionException e) {
+                finish(toSend, null, e);
+            }
+        }
+    }
+
+    // Выбирает сообщение, которое можно отправить прямо сейчас, и списывает маркеры. Вызывается под lock
+    private PendingMessage pollSendable(long now) {
+        if (globalBlockedUntilNanos - now > 0 || !globalBucket.hasToken(now)) {
+            return null;
+        }
+        for (SendPriority priority : SendPriority.values()) {
+            ArrayDeque<Long> ready = readyChats[priority.ordinal()];
+            for (int i = ready.size(); i > 0; i--) {
+                Long chatId = ready.pollFirst();
+                ChatQueue chat = chats.get(chatId);
+                if (chat.inFlight || chat.blockedUntilNanos > now || !chat.bucket.hasToken(now)) {
+                    ready.addLast(chatId);
+                    continue;
+                }
+                ArrayDeque<PendingMessage> lane = chat.lanes[priority.ordinal()];
+                PendingMessage message = lane.pollFirst();
+                if (!lane.isEmpty()) {
+                    ready.addLast(chatId); // Следующее сообщение этого чата - после остальных чатов
+                }
+                chat.bucket.take();
+                globalBucket.take();
+                chat.inFlight = true;
+                pendingMessages--;
+                inFlightMessages++;
+                return message;
+            }
+        }
+        return null;
+    }
+
+    // Сколько ждать до момента, когда какое-то сообщение станет отправляемым; -1 - ждать сигнала. Вызывается под lock
+    private long nanosUntilSendable(long now) {
+        long chatWait = -1;
+        for (ArrayDeque<Long> ready : readyChats) {
+            for (Long chatId : ready) {
+                ChatQueue chat = chats.get(chatId);
+                if (chat.inFlight) {
+                    continue; // Завершение отправки само разбудит диспетчер
+                }
+                long wait = Math.max(chat.blockedUntilNanos - now, chat.bucket.nanosUntilToken(now));
+                chatWait = chatWait < 0 ? wait : Math.min(chatWait, wait);
+            }
+        }
+        if (chatWait < 0) {
+            return -1;
+        }
+        return Math.max(Math.max(chatWait, globalBucket.nanosUntilToken(now)), globalBlockedUntilNanos - now);
+    }
+
+    private void send(PendingMessage pending) {
+        try {
+            Serializable sent = sender.send(pending.method);
+            System.out.println("[OutboundMessageQueue] " + methodName(pending.method) + " to " + pending.chatId + ": " +
+                               firstLine(pending.method));
+            finish(pending, sent, null);
+        } catch (TelegramApiRequestException e) {
+            Integer retryAfter = e.getParameters() != null ? e.getParameters().getRetryAfter() : null;
+            if (Integer.valueOf(429).equals(e.getErrorCode()) && retryAfter != null && pending.attempts + 1 < MAX_ATTEMPTS) {
+                boolean global = isBotWideLimit(pending.chatId);
+                System.err.println("[OutboundMessageQueue] Rate limited for chat " + pending.chatId + (global ? " (bot-wide)" : "") +
+                                   ", retrying after " + retryAfter + "s.");
+                pending.attempts++;
+                requeue(pending, TimeUnit.SECONDS.toNanos(retryAfter), global);
+            } else if (isParseError(e) && switchToPlainText(pending.method)) {
+                System.out.println("[OutboundMessageQueue] Attempting to send fallback message (plain text) to " + pending.chatId + ".");
+                requeue(pending, 0, false);
+            } else {
+                System.err.println("[OutboundMessageQueue] Error sending message to " + pending.chatId + ": " + e.getMessage());
+                finish(pending, null, e);
+            }
+        } catch (Exception e) {
+            System.err.println("[OutboundMessageQueue] Error sending message to " + pending.chatId + ": " + e.getMessage());
+            finish(pending, null, e);
+        }
+    }
+
+    // Личные чаты имеют положительный ID, группы и каналы - отрицательный
+    private static boolean isBotWideLimit(Long chatId) {
+        return chatId > 0;
+    }
+
+    private static boolean isParseError(TelegramApiException e) {
+        return e.getMessage() != null && e.getMessage().contains("parse");
+    }
+
+    private static final String PLAIN_TEXT_FALLBACK_NOTE = "\n\n[Сообщение было упрощено из-за ошибки форматирования]";
+
+    // Убирает разметку у сообщения, которое Telegram не смог разобрать; false - повторять нечего
+    private static boolean switchToPlainText(PartialBotApiMethod<? extends Serializable> method) {
+        if (method instanceof SendMessage message && message.getParseMode() != null) {
+            message.setParseMode(null);
+            message.setText(message.getText() + PLAIN_TEXT_FALLBACK_NOTE);
+            return true;
+        }
+        if (method instanceof EditMessageText edit && edit.getParseMode() != null) {
+            edit.setParseMode(null);
+            edit.setText(edit.getText() + PLAIN_TEXT_FALLBACK_NOTE);
+            return true;
+        }
+        return false;
+    }
+
+    private static String methodName(PartialBotApiMethod<? extends Serializable> method) {
+        return method instanceof BotApiMethod<?> apiMethod ? apiMethod.getMethod() : method.getClass().getSimpleName();
+    }
+
+    private static String firstLine(PartialBotApiMethod<? extends Serializable> method) {
+        String text = null;
+        if (method instanceof SendMessage message) {
+            text = message.getText();
+        } else if (method instanceof EditMessageText edit) {
+            text = edit.getText();
+        } else if (method instanceof SendDocument document) {
+            text = document.getCaption();
+        }
+        return text != null ? text.lines().findFirst().orElse("") : "";
+    }
+
+    // Возвращает сообщение в голову очереди его чата и приоритета; global - приостановить и всю отправку
+    private void requeue(PendingMessage pending, long delayNanos, boolean global) {
+        lock.lock();
+        try {
+            ChatQueue chat = chats.get(pending.chatId);
+            if (delayNanos > 0) {
+                long blockedUntil = System.nanoTime() + delayNanos;
+                chat.blockedUntilNanos = Math.max(chat.blockedUntilNanos, blockedUntil);
+                if (global) {
+                    globalBlockedUntilNanos = Math.max(globalBlockedUntilNanos, blockedUntil);
+                }
+            }
+            ArrayDeque<PendingMessage> lane = chat.lanes[pending.priority.ordinal()];
+            if (lane.isEmpty()) {
+                readyChats[pending.priority.ordinal()].addLast(pending.chatId);
+            }
+            lane.addFirst(pending);
+            chat.inFlight = false;
+            inFlightMessages--;
+            pendingMessages++;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(PendingMessage pending, Serializable sent, Exception error) {
+        lock.lock();
+        try {
+            ChatQueue chat = chats.get(pending.chatId);
+            if (chat != null) {
+                chat.inFlight = false;
+            }
+            inFlightMessages--;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (error == null) {
+            pending.result.complete(sent);
+        } else {
+            pending.result.completeExceptionally(error);
+        }
+    }
+
+    // Убирает чаты без сообщений, чье ведро уже восстановилось: новое ведро для них будет таким же. Вызывается под lock
+    private void sweepIdleChats(long now) {
+        if (now - lastSweepNanos < IDLE_CHAT_SWEEP_INTERVAL_NANOS) {
+            return;
+        }
+        lastSweepNanos = now;
+        Iterator<ChatQueue> iterator = chats.values().iterator();
+        while (iterator.hasNext()) {
+            ChatQueue chat = iterator.next();
+            if (!chat.inFlight && chat.isEmpty() && chat.blockedUntilNanos <= now && chat.bucket.isFull(now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Перестает принимать сообщения и ждет, пока уйдут уже поставленные в очередь (не дольше timeoutSeconds).
+     * Не отправленные за это время сообщения завершаются исключением.
+     */
+    public void shutdown(long timeoutSeconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        lock.lock();
+        try {
+            accepting = false;
+            while (pendingMessages + inFlightMessages > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    System.err.println("[OutboundMessageQueue] Shutdown timed out, dropping " + pendingMessages + " pending message(s).");
+                    break;
+                }
+                stateChanged.awaitNanos(remaining);
+            }
+            running = false;
+            for (ChatQueue chat : chats.values()) {
+                for (ArrayDeque<PendingMessage> lane : chat.lanes) {
+                    for (PendingMessage pending : lane) {
+                        pending.result.completeExceptionally(new RejectedExecutionException("Outbound queue is shut down"));
+                    }
+                    lane.clear();
+                }
+            }
+            stateChanged.signalAll();
+        } catch (InterruptedException e) {
+            running = false;
+            stateChanged.signalAll();
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        sendExecutor.shutdown();
+        System.out.println("[OutboundMessageQueue] Stopped.");
+    }
+
+    private static class PendingMessage {
+        private final Long chatId;
+        private final PartialBotApiMethod<? extends Serializable> method;
+        private final SendPriority priority;
+        private final CompletableFuture<Serializable> result;
+        private int attempts;
+
+        PendingMessage(Long chatId, PartialBotApiMethod<? extends Serializable> method, SendPriority priority,
+                       CompletableFuture<Serializable> result) {
+            this.chatId = chatId;
+            this.method = method;
+            this.priority = priority;
+            this.result = result;
+        }
+    }
+
+    private static class ChatQueue {
+        private final TokenBucket bucket;
+        @SuppressWarnings("unchecked")
+        private final ArrayDeque<PendingMessage>[] lanes = new ArrayDeque[SendPriority.values().length];
+        private boolean inFlight;
+        private long blockedUntilNanos;
+
+        ChatQueue(TokenBucket bucket) {
+            this.bucket = bucket;
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new ArrayDeque<>();
+            }
+        }
+
+        boolean isEmpty() {
+            for (ArrayDeque<PendingMessage> lane : lanes) {
+                if (!lane.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Маркерное ведро: ratePerSecond маркеров в секунду, не больше capacity накопленных.
+     * Не потокобезопасно, используется под lock очереди.
+     */
+    static class TokenBucket {
+        private final double ratePerNano;
+        private final int capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(double ratePerSecond, int capacity, long nowNanos) {
+            this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        private void refill(long nowNanos) {
+            if (nowNanos > lastRefillNanos) {
+                tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * ratePerNano);
+                lastRefillNanos = nowNanos;
+            }
+        }
+
+        boolean hasToken(long nowNanos) {
+            refill(nowNanos);
+            return tokens >= 1;
+        }
+
+        void take() {
+            tokens -= 1;
+        }
+
+        long nanosUntilToken(long nowNanos) {
+            refill(nowNanos);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / ratePerNano);
+        }
+
+        boolean isFull(long nowNanos) {
+            refill(nowNanos);
+            return tokens >= capacity;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package telegram;
+
+/**
+ * Приоритет исходящего сообщения. Порядок констант задает порядок обслуживания очередей:
+ * напоминания уходят раньше ответов на команды, а те — раньше длинных списков.
+ */
+public enum SendPriority {
+    REMINDER,
+    INTERACTIVE,
+    BULK
+}
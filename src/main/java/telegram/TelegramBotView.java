@@ -3,13 +3,20 @@ package telegram;
 
 
 import model.Event;
+import model.EventPage;
 import presenter.MainPresenter;
 import util.DateTimeUtils;
 import view.MainView;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
@@ -22,31 +29,36 @@ import org.telegram.telegrambots.meta.api.objects.commands.scope.BotCommandScope
 import org.telegram.telegrambots.meta.api.objects.InputFile;
 
 import dao.ScheduleDAO;
+import dao.impl.CachingEventDAO;
 import dao.impl.GoogleCalendarDAO;
 import dao.impl.UserNotAuthenticatedException;
-import dao.EventDAO;
-import dao.impl.SQLiteEventDAO;
 import dao.AnalysisExportDAO;
 import dao.impl.JsonAnalysisExportDAO;
 import model.ScheduleAnalysis;
+import model.SyncResult;
+import model.GoogleSyncMetrics;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.Set;
 
+import service.MessageTemplate;
 import service.TemplateService;
 import util.MarkdownFormatter;
 import config.AppConfig;
 import service.ScheduleAnalysisService;
-import service.impl.ScheduleAnalysisServiceImpl;
+import service.GoogleSyncService;
 
 /**
  * Реализация MainView для Telegram Bot.
@@ -58,9 +70,31 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
     private String botUsername; // Username бота
     private MainPresenter presenter; // Ссылка на Presenter
     private final TemplateService templateService;
+    private ScheduleAnalysisService scheduleAnalysisService;
+    private GoogleSyncService googleSyncService;
+    private CachingEventDAO eventCache;
 
-    // ID чата пользователя, для которого будем выводить информацию.
-    private Long currentChatId;
+    // Сколько событий без кнопок помещать в одно сообщение; длина дополнительно ограничена MAX_MESSAGE_LENGTH
+    private static final int EVENTS_PER_TEXT_MESSAGE = 10;
+
+    // Лимит Telegram на длину текста сообщения
+    static final int MAX_MESSAGE_LENGTH = 4096;
+
+    // В карточках списка название, описание и место обрезаются до этой длины: описания из Google бывают в несколько КБ
+    static final int LIST_FIELD_MAX_LENGTH = 300;
+
+    // До какой длины можно укоротить поля карточек, чтобы страница списка уместилась в одно сообщение
+    static final int MIN_LIST_FIELD_LENGTH = 20;
+
+    // Все исходящие сообщения проходят через очередь с лимитами Telegram
+    private final OutboundMessageQueue outboundQueue;
+
+    // Обновления разных чатов обрабатываются параллельно, одного чата — по порядку
+    private final ChatOrderedExecutor updateExecutor = new ChatOrderedExecutor(
+            ChatOrderedExecutor.newUpdateExecutor());
+
+    // Начальный размер буфера для короткого ответа по шаблону
+    private static final int SHORT_MESSAGE_CAPACITY = 256;
     
     // Используем интерфейс ScheduleDAO
     private ScheduleDAO scheduleDAO;
@@ -100,6 +134,8 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
             "✏️ /set\\_template `\\<key\\> \\<text\\>` \\- \\(Админ\\) Установить шаблон\n" +
             "🔄 /reset\\_template `\\<key\\>` \\- \\(Админ\\) Сбросить шаблон\n" +
             "🔄 /admin\\_logout \\- выйти из режима администратора\n" +
+            "📈 /sync\\_stats \\- \\(Админ\\) Статистика фоновой синхронизации Google\n" +
+            "🗃 /cache\\_stats \\- \\(Админ\\) Статистика кэша событий\n" +
             "📊 /get\\_analysis \\- получить анализ текущей недели";
 
 
@@ -107,11 +143,18 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         this.botToken = botToken;
         this.botUsername = botUsername;
         this.templateService = templateService;
+        this.outboundQueue = new OutboundMessageQueue(
+            this::executeQueued,
+            AppConfig.getTelegramSendGlobalPerSecond(),
+            AppConfig.getTelegramSendPerChatPerSecond(),
+            AppConfig.getTelegramSendPerChatBurst(),
+            AppConfig.getTelegramSendThreads(),
+            AppConfig.getTelegramSendMaxPending()
+        );
         try {
-            this.scheduleDAO = new GoogleCalendarDAO();
             setupBotCommands();
         } catch (Exception e) {
-            System.err.println("[TelegramBotView] Error initializing Google Calendar DAO: " + e.getMessage());
+            System.err.println("[TelegramBotView] Error setting up bot commands: " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -136,6 +179,8 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         commands.add(new BotCommand("set_template", "(Админ) Установить шаблон"));
         commands.add(new BotCommand("reset_template", "(Админ) Сбросить шаблон"));
         commands.add(new BotCommand("admin_logout", "Выйти из режима администратора"));
+        commands.add(new BotCommand("sync_stats", "(Админ) Статистика синхронизации Google"));
+        commands.add(new BotCommand("cache_stats", "(Админ) Статистика кэша событий"));
         commands.add(new BotCommand("get_analysis", "Получить анализ текущей недели"));
 
         try {
@@ -159,30 +204,50 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
 
     @Override
     public void onUpdateReceived(Update update) {
+        Long chatId;
         if (update.hasMessage() && update.getMessage().hasText()) {
-            currentChatId = update.getMessage().getChatId();
+            chatId = update.getMessage().getChatId();
+        } else if (update.hasCallbackQuery()) {
+            chatId = update.getCallbackQuery().getMessage().getChatId();
+        } else {
+            return;
+        }
+        // Поток long polling только раздает обновления; медленный обработчик задерживает лишь свой чат
+        UpdateContext ctx = new UpdateContext(chatId, update);
+        updateExecutor.submit(chatId, () -> processUpdate(ctx));
+    }
+
+    private void processUpdate(UpdateContext ctx) {
+        Update update = ctx.getUpdate();
+        if (update.hasMessage()) {
             String messageText = update.getMessage().getText();
-            System.out.println("[TelegramBotView] Received message from " + currentChatId + ": " + messageText);
+            System.out.println("[TelegramBotView] Received message from " + ctx.getChatId() + ": " + messageText);
 
-            if (userStates.get(currentChatId) == UserState.AWAITING_GOOGLE_CODE) {
-                handleGoogleAuthCode(messageText);
+            if (userStates.get(ctx.getChatId()) == UserState.AWAITING_GOOGLE_CODE) {
+                handleGoogleAuthCode(ctx, messageText);
                 return;
             }
 
             if (messageText.startsWith("/")) {
-                handleCommand(messageText);
+                handleCommand(ctx, messageText);
             } else {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2("Вы сказали: " + messageText + "\\nПопробуйте /help для просмотра доступных команд."));
+                sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2("Вы сказали: " + messageText + "\\nПопробуйте /help для просмотра доступных команд."));
             }
-        } else if (update.hasCallbackQuery()) {
-            currentChatId = update.getCallbackQuery().getMessage().getChatId();
-            handleCallbackQuery(update.getCallbackQuery());
+        } else {
+            handleCallbackQuery(ctx, update.getCallbackQuery());
         }
     }
 
-    private void handleCommand(String commandText) {
+    // Останавливает обработку обновлений, дожидаясь начатых обработчиков и отправки их ответов
+    public void stopUpdateProcessing() {
+        updateExecutor.shutdown(10);
+        outboundQueue.shutdown(10);
+        System.out.println("[TelegramBotView] Update processing stopped.");
+    }
+
+    private void handleCommand(UpdateContext ctx, String commandText) {
         if (presenter == null) {
-            sendMessage(currentChatId, "Бот не инициализирован\\. Пожалуйста, сообщите администратору\\.");
+            sendMessage(ctx.getChatId(), "Бот не инициализирован\\. Пожалуйста, сообщите администратору\\.");
             return;
         }
 
@@ -194,93 +259,100 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
 
         switch (command) {
             case "/start":
-                String welcomeText = templateService.getTemplate("start_welcome", "Привет\\! Я бот\\-планировщик\\.");
-                String additionalInfo = templateService.getTemplate("start_get_id_info", 
-                    "\nЧтобы узнать свой Telegram ID \\(например, для предоставления доступа другому пользователю\\), используйте команду /get\\_my\\_id\\.");
-                String welcomeMessage = String.format("*%s* 👋\n%s\n\nДля списка команд, используйте /help", 
-                    welcomeText, additionalInfo);
-                sendMessage(currentChatId, welcomeMessage);
+                StringBuilder welcomeMessage = new StringBuilder(SHORT_MESSAGE_CAPACITY * 2).append('*');
+                templateService.getCompiledTemplate("start_welcome", "Привет\\! Я бот\\-планировщик\\.", true)
+                    .render(welcomeMessage).append("* 👋\n");
+                templateService.getCompiledTemplate("start_get_id_info",
+                    "\nЧтобы узнать свой Telegram ID \\(например, для предоставления доступа другому пользователю\\), используйте команду /get\\_my\\_id\\.", true)
+                    .render(welcomeMessage).append("\n\nДля списка команд, используйте /help");
+                sendMessage(ctx.getChatId(), welcomeMessage.toString());
                 break;
             case "/help":
-                String helpInfo = templateService.getTemplate("help", AVAILABLE_COMMANDS_HELP);
-                sendMessage(currentChatId, helpInfo);
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("help", AVAILABLE_COMMANDS_HELP, true).render());
                 break;
             case "/list_events":
-                presenter.loadEvents(currentChatId);
+                presenter.loadEvents(ctx, ctx.getChatId());
                 break;
             case "/connect_google_calendar":
-                handleConnectGoogleCalendarCommand();
+                handleConnectGoogleCalendarCommand(ctx);
                 break;
             case "/disconnect_google_calendar":
-                handleDisconnectGoogleCalendarCommand();
+                handleDisconnectGoogleCalendarCommand(ctx);
                 break;
             case "/sync_google":
-                handleGoogleCalendarSync();
+                handleGoogleCalendarSync(ctx);
                 break;
             case "/list_google":
-                handleGoogleCalendarList();
+                handleGoogleCalendarList(ctx);
                 break;
             case "/add_event":
-                handleAddEventCommand(args);
+                handleAddEventCommand(ctx, args);
                 break;
             case "/set_reminder_time":
-                handleSetReminderTimeCommand(args);
+                handleSetReminderTimeCommand(ctx, args);
                 break;
             case "/toggle_reminders":
-                handleToggleRemindersCommand(args);
+                handleToggleRemindersCommand(ctx, args);
                 break;
             case "/grant_view_access":
-                handleGrantViewAccessCommand(args);
+                handleGrantViewAccessCommand(ctx, args);
                 break;
             case "/list_observed_events":
-                handleListObservedEventsCommand(args);
+                handleListObservedEventsCommand(ctx, args);
                 break;
             case "/get_my_id":
-                handleGetMyIdCommand();
+                handleGetMyIdCommand(ctx);
                 break;
             case "/admin_login":
-                handleAdminLogin(args);
+                handleAdminLogin(ctx, args);
                 break;
             case "/admin_logout":
-                handleAdminLogout();
+                handleAdminLogout(ctx);
                 break;
             case "/list_templates":
-                handleListTemplates();
+                handleListTemplates(ctx);
                 break;
             case "/set_template":
-                handleSetTemplateCommand(args);
+                handleSetTemplateCommand(ctx, args);
                 break;
             case "/reset_template":
-                handleResetTemplateCommand(args);
+                handleResetTemplateCommand(ctx, args);
                 break;
             case "/get_analysis":
-                handleGetAnalysisCommand();
+                handleGetAnalysisCommand(ctx);
+                break;
+            case "/sync_stats":
+                handleSyncStatsCommand(ctx);
+                break;
+            case "/cache_stats":
+                handleCacheStatsCommand(ctx);
                 break;
             default:
-                String unknownCommandText = templateService.getTemplate("unknown_command", "Неизвестная команда: {command}\nДоступные команды:\n");
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(unknownCommandText.replace("{command}", command)) + AVAILABLE_COMMANDS_HELP);
+                MessageTemplate unknownCommand = templateService.getCompiledTemplate("unknown_command",
+                    "Неизвестная команда: {command}\nДоступные команды:\n", false);
+                sendMessage(ctx.getChatId(), unknownCommand.render(new StringBuilder(SHORT_MESSAGE_CAPACITY + AVAILABLE_COMMANDS_HELP.length()), "command", command).append(AVAILABLE_COMMANDS_HELP).toString());
                 break;
         }
     }
 
-    private void handleAddEventCommand(String args) {
+    private void handleAddEventCommand(UpdateContext ctx, String args) {
         if (args == null || args.trim().isEmpty()) {
             String helpText = "Неверный формат. Используйте: " +
                 "<название>;<гггг-мм-ддTчч:мм>;<гггг-мм-ддTчч:мм>;<описание>;<место>";
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(helpText));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2(helpText));
             return;
         }
-        if (presenter == null || currentChatId == null) return;
+        if (presenter == null) return;
         try {
             String[] params = args.split(";", -1);
             if (params.length < 3) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("add_event_invalid_format", "Неверный формат. Используйте: <название>;<гггг-мм-ддTчч:мм>;<гггг-мм-ддTчч:мм>;<описание>;<место>")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("add_event_invalid_format", "Неверный формат. Используйте: <название>;<гггг-мм-ддTчч:мм>;<гггг-мм-ддTчч:мм>;<описание>;<место>", false).render());
                 return;
             }
 
             String title = params[0].trim();
             if (title.isEmpty()) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("add_event_title_empty", "Название события не может быть пустым.")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("add_event_title_empty", "Название события не может быть пустым.", false).render());
                 return;
             }
 
@@ -288,61 +360,61 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
             LocalDateTime endTime = LocalDateTime.parse(params[2].trim(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
 
             if (endTime.isBefore(startTime)) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("add_event_end_before_start", "Время окончания события не может быть раньше времени начала.")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("add_event_end_before_start", "Время окончания события не может быть раньше времени начала.", false).render());
                 return;
             }
 
             String description = params.length > 3 ? params[3].trim() : "";
             String location = params.length > 4 ? params[4].trim() : "";
 
-            Event newEvent = new Event(null, title, description, startTime, endTime, location, null, currentChatId);
+            Event newEvent = new Event(null, title, description, startTime, endTime, location, null, ctx.getChatId());
 
-            presenter.addEvent(newEvent, currentChatId);
+            presenter.addEvent(ctx, newEvent, ctx.getChatId());
 
         } catch (DateTimeParseException e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("add_event_invalid_date", "Ошибка в формате даты/времени. Пожалуйста, используйте гггг-мм-ддTчч:мм. Пример: 2023-12-25T15:30")));
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("add_event_invalid_date", "Ошибка в формате даты/времени. Пожалуйста, используйте гггг-мм-ддTчч:мм. Пример: 2023-12-25T15:30", false).render());
         } catch (Exception e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("add_event_error", "Произошла ошибка при добавлении события: ") + e.getMessage()));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.appendEscaped(templateService.getCompiledTemplate("add_event_error", "Произошла ошибка при добавлении события: ", false).render(new StringBuilder(SHORT_MESSAGE_CAPACITY)), e.getMessage()).toString());
         }
     }
 
-    private void handleSetReminderTimeCommand(String paramsString) {
-        if (presenter == null || currentChatId == null) return;
+    private void handleSetReminderTimeCommand(UpdateContext ctx, String paramsString) {
+        if (presenter == null) return;
         try {
             String[] params = paramsString.split(";", -1);
             if (params.length != 2) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("set_reminder_time_invalid_format", "Неверный формат. Используйте: /set_reminder_time <ID события>;<гггг-мм-ддTчч:мм> или <ID события>;null")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("set_reminder_time_invalid_format", "Неверный формат. Используйте: /set_reminder_time <ID события>;<гггг-мм-ддTчч:мм> или <ID события>;null", false).render());
                 return;
             }
 
             String eventId = params[0].trim();
             if (eventId.isEmpty()) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("set_reminder_time_event_id_empty", "ID события не может быть пустым.")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("set_reminder_time_event_id_empty", "ID события не может быть пустым.", false).render());
                 return;
             }
 
             String timeString = params[1].trim();
             LocalDateTime reminderTime = "null".equalsIgnoreCase(timeString) ? null : LocalDateTime.parse(timeString, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            presenter.setEventReminderTimeRequested(eventId, reminderTime, currentChatId);
+            presenter.setEventReminderTimeRequested(ctx, eventId, reminderTime, ctx.getChatId());
         } catch (DateTimeParseException e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("set_reminder_time_invalid_date", "Неверный формат даты/времени для напоминания. Используйте гггг-мм-ддTчч:мм или 'null'.") + " Ошибка: " + e.getMessage()));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.appendEscaped(templateService.getCompiledTemplate("set_reminder_time_invalid_date", "Неверный формат даты/времени для напоминания. Используйте гггг-мм-ддTчч:мм или 'null'.", false).render(new StringBuilder(SHORT_MESSAGE_CAPACITY)).append(" Ошибка\\: "), e.getMessage()).toString());
         } catch (Exception e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("set_reminder_time_error", "Ошибка установки времени напоминания: ") + e.getMessage()));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.appendEscaped(templateService.getCompiledTemplate("set_reminder_time_error", "Ошибка установки времени напоминания: ", false).render(new StringBuilder(SHORT_MESSAGE_CAPACITY)), e.getMessage()).toString());
         }
     }
 
-    private void handleToggleRemindersCommand(String paramsString) {
-        if (presenter == null || currentChatId == null) return;
+    private void handleToggleRemindersCommand(UpdateContext ctx, String paramsString) {
+        if (presenter == null) return;
         try {
             String[] params = paramsString.split(" ", 2);
             if (params.length != 2) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("toggle_reminders_invalid_format", "Неверный формат. Используйте: /toggle_reminders <ID события> <on|off>")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("toggle_reminders_invalid_format", "Неверный формат. Используйте: /toggle_reminders <ID события> <on|off>", false).render());
                 return;
             }
 
             String eventId = params[0].trim();
             if (eventId.isEmpty()) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("toggle_reminders_event_id_empty", "ID события не может быть пустым.")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("toggle_reminders_event_id_empty", "ID события не может быть пустым.", false).render());
                 return;
             }
 
@@ -353,25 +425,24 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
             } else if ("off".equalsIgnoreCase(toggleValue)) {
                 enable = false;
             } else {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("toggle_reminders_invalid_value", "Неверное значение для вкл/выкл. Используйте 'on' или 'off'.")));
+                sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("toggle_reminders_invalid_value", "Неверное значение для вкл/выкл. Используйте 'on' или 'off'.", false).render());
                 return;
             }
-            presenter.toggleEventRemindersRequested(eventId, enable, currentChatId);
+            presenter.toggleEventRemindersRequested(ctx, eventId, enable, ctx.getChatId());
         } catch (Exception e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2(templateService.getTemplate("toggle_reminders_error", "Ошибка изменения статуса напоминаний: ") + e.getMessage()));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.appendEscaped(templateService.getCompiledTemplate("toggle_reminders_error", "Ошибка изменения статуса напоминаний: ", false).render(new StringBuilder(SHORT_MESSAGE_CAPACITY)), e.getMessage()).toString());
         }
     }
 
-    private void handleConnectGoogleCalendarCommand() {
-        if (currentChatId == null) return;
+    private void handleConnectGoogleCalendarCommand(UpdateContext ctx) {
         if (scheduleDAO instanceof GoogleCalendarDAO) {
             GoogleCalendarDAO googleDAO = (GoogleCalendarDAO) scheduleDAO;
             try {
-                String authUrl = googleDAO.getAuthorizationUrl(currentChatId, currentChatId.toString());
-                userStates.put(currentChatId, UserState.AWAITING_GOOGLE_CODE);
+                String authUrl = googleDAO.getAuthorizationUrl(ctx.getChatId(), ctx.getChatId().toString());
+                userStates.put(ctx.getChatId(), UserState.AWAITING_GOOGLE_CODE);
                 
                 SendMessage message = new SendMessage();
-                message.setChatId(currentChatId.toString());
+                message.setChatId(ctx.getChatId().toString());
                 message.setParseMode(null);
                 message.enableWebPagePreview();
 
@@ -391,191 +462,162 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
                     "❌ Не удалось сгенерировать URL для подключения Google Calendar: %s",
                     MarkdownFormatter.escapeMarkdownV2(e.getMessage())
                 );
-                sendMessage(currentChatId, errorMsg);
-                System.err.println("[TelegramBotView] Error generating Google auth URL for user " + currentChatId + ": " + e.getMessage());
+                sendMessage(ctx.getChatId(), errorMsg);
+                System.err.println("[TelegramBotView] Error generating Google auth URL for user " + ctx.getChatId() + ": " + e.getMessage());
                 e.printStackTrace();
             }
         } else {
-            sendMessage(currentChatId, "❌ Ошибка: Функционал Google Calendar не настроен корректно");
+            sendMessage(ctx.getChatId(), "❌ Ошибка: Функционал Google Calendar не настроен корректно");
             System.err.println("[TelegramBotView] scheduleDAO is not an instance of GoogleCalendarDAO in handleConnectGoogleCalendarCommand.");
         }
     }
 
-    private void handleGoogleAuthCode(String code) {
-        if (currentChatId == null) return;
-        userStates.remove(currentChatId);
+    private void handleGoogleAuthCode(UpdateContext ctx, String code) {
+        userStates.remove(ctx.getChatId());
 
         if (scheduleDAO instanceof GoogleCalendarDAO) {
             GoogleCalendarDAO googleDAO = (GoogleCalendarDAO) scheduleDAO;
             try {
-                googleDAO.exchangeCodeForTokens(currentChatId, code);
-                sendMessage(currentChatId, "*✅ Google Calendar успешно подключен*");
+                googleDAO.exchangeCodeForTokens(ctx.getChatId(), code);
+                sendMessage(ctx.getChatId(), "*✅ Google Calendar успешно подключен*");
             } catch (IOException e) {
                 String errorMessage = String.format(
                     "❌ Ошибка подключения Google Calendar: %s\n\n" +
                     "Попробуйте /connect\\_google\\_calendar снова",
                     MarkdownFormatter.escapeMarkdownV2(e.getMessage())
                 );
-                sendMessage(currentChatId, errorMessage);
-                System.err.println("[TelegramBotView] Error exchanging Google auth code for user " + currentChatId + ": " + e.getMessage());
+                sendMessage(ctx.getChatId(), errorMessage);
+                System.err.println("[TelegramBotView] Error exchanging Google auth code for user " + ctx.getChatId() + ": " + e.getMessage());
                 e.printStackTrace();
             }
         } else {
-            sendMessage(currentChatId, "❌ Ошибка: Функционал Google Calendar не настроен корректно");
+            sendMessage(ctx.getChatId(), "❌ Ошибка: Функционал Google Calendar не настроен корректно");
             System.err.println("[TelegramBotView] scheduleDAO is not an instance of GoogleCalendarDAO in handleGoogleAuthCode.");
         }
     }
 
-    private void handleDisconnectGoogleCalendarCommand() {
-        if (currentChatId == null) return;
+    private void handleDisconnectGoogleCalendarCommand(UpdateContext ctx) {
         if (scheduleDAO instanceof GoogleCalendarDAO) {
             GoogleCalendarDAO googleDAO = (GoogleCalendarDAO) scheduleDAO;
             try {
-                googleDAO.deleteTokens(currentChatId);
-                sendMessage(currentChatId, "*✅ Google Calendar отключен*");
+                googleDAO.deleteTokens(ctx.getChatId());
+                sendMessage(ctx.getChatId(), "*✅ Google Calendar отключен*");
             } catch (IOException e) {
                 String errorMsg = String.format(
                     "❌ Ошибка при отключении Google Calendar: %s",
                     MarkdownFormatter.escapeMarkdownV2(e.getMessage())
                 );
-                sendMessage(currentChatId, errorMsg);
-                System.err.println("[TelegramBotView] Error disconnecting Google Calendar for user " + currentChatId + ": " + e.getMessage());
+                sendMessage(ctx.getChatId(), errorMsg);
+                System.err.println("[TelegramBotView] Error disconnecting Google Calendar for user " + ctx.getChatId() + ": " + e.getMessage());
                 e.printStackTrace();
             }
         } else {
-            sendMessage(currentChatId, "❌ Ошибка: Функционал Google Calendar не настроен корректно");
+            sendMessage(ctx.getChatId(), "❌ Ошибка: Функционал Google Calendar не настроен корректно");
             System.err.println("[TelegramBotView] scheduleDAO is not an instance of GoogleCalendarDAO in handleDisconnectGoogleCalendarCommand.");
         }
     }
 
-    private void handleGoogleCalendarSync() {
-        if (scheduleDAO == null || currentChatId == null) {
+    private void handleGoogleCalendarSync(UpdateContext ctx) {
+        if (googleSyncService == null) {
             SendMessage message = new SendMessage();
-            message.setChatId(currentChatId.toString());
+            message.setChatId(ctx.getChatId().toString());
             message.setParseMode(null);
             message.setText("Функция Google Calendar недоступна. Сервис не инициализирован.");
             executeSendMessage(message);
-            System.err.println("[TelegramBotView] scheduleDAO is null in handleGoogleCalendarSync.");
-            return;
-        }
-        if (!(scheduleDAO instanceof GoogleCalendarDAO)) {
-            SendMessage message = new SendMessage();
-            message.setChatId(currentChatId.toString());
-            message.setParseMode(null);
-            message.setText("Ошибка: Функционал Google Calendar настроен некорректно (неверный тип DAO).");
-            executeSendMessage(message);
-            System.err.println("[TelegramBotView] scheduleDAO is not an instance of GoogleCalendarDAO in handleGoogleCalendarSync.");
+            System.err.println("[TelegramBotView] googleSyncService is null in handleGoogleCalendarSync.");
             return;
         }
 
         SendMessage startMessage = new SendMessage();
-        startMessage.setChatId(currentChatId.toString());
+        startMessage.setChatId(ctx.getChatId().toString());
         startMessage.setParseMode(null);
         startMessage.setText("⏳ Начинаю синхронизацию с Google Calendar...");
         executeSendMessage(startMessage);
 
-        try {
-            LocalDate today = LocalDate.now();
-            List<Event> googleEvents = scheduleDAO.getEvents(today, today.plusYears(1), currentChatId);
-
-            if (googleEvents.isEmpty()) {
-                SendMessage emptyMessage = new SendMessage();
-                emptyMessage.setChatId(currentChatId.toString());
-                emptyMessage.setParseMode(null);
-                emptyMessage.setText("ℹ️ В вашем Google Calendar нет предстоящих событий для синхронизации (в диапазоне 1 год от текущей даты).");
-                executeSendMessage(emptyMessage);
-                return;
-            }
-
-            int syncedCount = 0;
-            int skippedCount = 0;
-            for (Event googleEvent : googleEvents) {
-                googleEvent.setOwnerChatId(currentChatId); 
-                try {
-                    presenter.addEvent(googleEvent, currentChatId); 
-                    syncedCount++;
-                } catch (Exception e) { 
-                    System.err.println("[TelegramBotView] Error adding synced event from Google: " + e.getMessage() + " for event: " + googleEvent.getTitle());
-                    skippedCount++;
-                }
-            }
-
+        // Синхронизация выполняется в пуле GoogleSyncService, поток обработки обновлений ее не ждет
+        Long chatId = ctx.getChatId();
+        googleSyncService.requestSync(chatId).whenComplete((syncResult, error) -> {
             SendMessage resultMessage = new SendMessage();
-            resultMessage.setChatId(currentChatId.toString());
+            resultMessage.setChatId(chatId.toString());
             resultMessage.setParseMode(null);
-            resultMessage.setText(String.format("✅ Синхронизация с Google Calendar завершена.\n" +
-                                             "Импортировано событий: %d\n" +
-                                             "Пропущено (возможно, уже существуют или ошибка): %d", 
-                                             syncedCount, skippedCount));
+            if (error == null) {
+                resultMessage.setText(formatSyncResult(syncResult));
+            } else {
+                resultMessage.setText(formatSyncError(chatId, error instanceof CompletionException ? error.getCause() : error));
+            }
             executeSendMessage(resultMessage);
+        });
+    }
 
-        } catch (UserNotAuthenticatedException e) {
-            SendMessage errorMessage = new SendMessage();
-            errorMessage.setChatId(currentChatId.toString());
-            errorMessage.setParseMode(null);
-            errorMessage.setText("⚠️ Вы не авторизованы в Google Calendar. " +
-                               "Пожалуйста, используйте команду /connect_google_calendar для подключения.");
-            executeSendMessage(errorMessage);
-        } catch (IOException | GeneralSecurityException e) {
-            SendMessage errorMessage = new SendMessage();
-            errorMessage.setChatId(currentChatId.toString());
-            errorMessage.setParseMode(null);
-            errorMessage.setText("❌ Ошибка при получении событий из Google Calendar: " + e.getMessage());
-            executeSendMessage(errorMessage);
-            System.err.println("[TelegramBotView] Error fetching events from Google Calendar for user " + currentChatId + ": " + e.getMessage());
-            e.printStackTrace();
-        } catch (Exception e) {
-            SendMessage errorMessage = new SendMessage();
-            errorMessage.setChatId(currentChatId.toString());
-            errorMessage.setParseMode(null);
-            errorMessage.setText("❌ Произошла неожиданная ошибка при синхронизации с Google Calendar: " + e.getMessage());
-            executeSendMessage(errorMessage);
-            System.err.println("[TelegramBotView] Unexpected error during Google Calendar sync for user " + currentChatId + ": " + e.getMessage());
-            e.printStackTrace();
+    private String formatSyncResult(SyncResult syncResult) {
+        if (syncResult.getCreated() + syncResult.getUpdated() + syncResult.getUnchanged()
+                + syncResult.getDeleted() + syncResult.getSkipped() == 0) {
+            return "ℹ️ С прошлой синхронизации в вашем Google Calendar ничего не изменилось.";
+        }
+        return String.format("✅ Синхронизация с Google Calendar завершена.\n" +
+                             "Создано событий: %d\n" +
+                             "Обновлено: %d\n" +
+                             "Без изменений: %d\n" +
+                             "Удалено: %d\n" +
+                             "Пропущено (нет Google ID или повтор): %d",
+                             syncResult.getCreated(), syncResult.getUpdated(),
+                             syncResult.getUnchanged(), syncResult.getDeleted(),
+                             syncResult.getSkipped());
+    }
+
+    private String formatSyncError(Long chatId, Throwable error) {
+        if (error instanceof UserNotAuthenticatedException) {
+            return "⚠️ Вы не авторизованы в Google Calendar. " +
+                   "Пожалуйста, используйте команду /connect_google_calendar для подключения.";
         }
+        if (error instanceof RejectedExecutionException) {
+            return "⏳ Сейчас выполняется слишком много синхронизаций. Попробуйте позже.";
+        }
+        System.err.println("[TelegramBotView] Error during Google Calendar sync for user " + chatId + ": " + error.getMessage());
+        if (error instanceof IOException) {
+            return "❌ Ошибка при получении событий из Google Calendar: " + error.getMessage();
+        }
+        return "❌ Произошла неожиданная ошибка при синхронизации с Google Calendar: " + error.getMessage();
     }
 
-    private void handleGoogleCalendarList() {
-        if (presenter == null || currentChatId == null) return;
+    private void handleGoogleCalendarList(UpdateContext ctx) {
+        if (presenter == null) return;
         try {
             if (!(scheduleDAO instanceof GoogleCalendarDAO)) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2("Вы не подключили Google Calendar. Используйте /connect_google_calendar"));
+                sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2("Вы не подключили Google Calendar. Используйте /connect_google_calendar"));
                 return;
             }
-            List<Event> googleEvents = scheduleDAO.getEvents(LocalDate.now(), LocalDate.now().plusDays(7), currentChatId);
+            List<Event> googleEvents = scheduleDAO.getEvents(LocalDate.now(), LocalDate.now().plusDays(7), ctx.getChatId());
             if (googleEvents.isEmpty()) {
-                sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2("В вашем Google Calendar нет событий на ближайшую неделю."));
+                sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2("В вашем Google Calendar нет событий на ближайшую неделю."));
             } else {
-                displayEvents(googleEvents, false, null);
+                sendEventListText(ctx.getChatId(), MarkdownFormatter.bold("События Google Calendar на ближайшую неделю:"), googleEvents);
             }
         } catch (UserNotAuthenticatedException e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2("Вы не подключили Google Calendar. Используйте /connect_google_calendar"));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2("Вы не подключили Google Calendar. Используйте /connect_google_calendar"));
         } catch (Exception e) {
             System.err.println("[TelegramBotView] Error listing Google Calendar events: " + e.getMessage());
             e.printStackTrace();
-            showErrorMessage("Ошибка Google Calendar", "Не удалось получить события из Google Calendar. Попробуйте /disconnect_google_calendar и /connect_google_calendar снова. " + e.getMessage());
+            showErrorMessage(ctx.getChatId(), "Ошибка Google Calendar", "Не удалось получить события из Google Calendar. Попробуйте /disconnect_google_calendar и /connect_google_calendar снова. " + e.getMessage());
         }
     }
 
+    // Сообщения уходят асинхронно через OutboundMessageQueue; вызывающий поток не ждет HTTP-запроса
     public void executeSendMessage(SendMessage message) {
-        try {
-            if (message.getParseMode() == null) {
-            }
-            execute(message);
-            System.out.println("[TelegramBotView] Message sent to " + message.getChatId() + ": " + message.getText().lines().findFirst().orElse(""));
-        } catch (TelegramApiException e) {
-            System.err.println("[TelegramBotView] Error sending message: " + e.getMessage());
-            if (e.getMessage() != null && e.getMessage().contains("parse")) {
-                System.out.println("[TelegramBotView] Attempting to send fallback message (plain text).");
-                try {
-                    message.setParseMode(null);
-                    message.setText(message.getText() + "\n\n[Сообщение было упрощено из-за ошибки форматирования]");
-                    execute(message);
-                } catch (TelegramApiException ex) {
-                    System.err.println("[TelegramBotView] Error sending fallback message: " + ex.getMessage());
-                }
-            }
+        executeSendMessage(message, SendPriority.INTERACTIVE);
+    }
+
+    public CompletableFuture<Message> executeSendMessage(SendMessage message, SendPriority priority) {
+        return outboundQueue.enqueue(message, priority);
+    }
+
+    // HTTP-запрос для OutboundMessageQueue: у файлов в DefaultAbsSender отдельный execute
+    @SuppressWarnings("unchecked")
+    private Serializable executeQueued(PartialBotApiMethod<? extends Serializable> method) throws TelegramApiException {
+        if (method instanceof SendDocument document) {
+            return execute(document);
         }
+        return execute((BotApiMethod<Serializable>) method);
     }
 
     private void sendMessage(Long chatId, String text) {
@@ -602,175 +644,285 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         if (keyboard != null) {
             message.setReplyMarkup(keyboard);
         }
-        executeSendMessage(message);
+        // Списки событий - самый объемный трафик, пропускаем вперед напоминания и ответы на команды
+        executeSendMessage(message, SendPriority.BULK);
     }
 
     @Override
-    public void displayEvents(List<Event> events, boolean isObservedView, Long targetOwnerIdIfObserved) {
-        if (events.isEmpty()) {
-            String message = isObservedView ? 
-                templateService.getTemplate("observed_events_empty", 
-                    "У пользователя пока нет событий\\.") :
-                templateService.getTemplate("event_list_empty", 
-                    "У вас пока нет событий\\.");
-            sendMessage(currentChatId, message);
-            return;
+    public void displayEventPage(UpdateContext ctx, EventPage page, boolean isObservedView, Long targetOwnerIdIfObserved) {
+        Long chatId = ctx.getChatId();
+
+        String text;
+        InlineKeyboardMarkup keyboard = null;
+        if (page.isEmpty()) {
+            text = isObservedView ?
+                templateService.getCompiledTemplate("observed_events_empty",
+                    "У пользователя пока нет событий\\.", true).render() :
+                templateService.getCompiledTemplate("event_list_empty",
+                    "У вас пока нет событий\\.", true).render();
+        } else {
+            StringBuilder sb = new StringBuilder(Math.min(MAX_MESSAGE_LENGTH, 1024 * page.getEvents().size()));
+            if (isObservedView) {
+                templateService.getCompiledTemplate("observed_events_header",
+                    "События пользователя с ID {owner_id:code}:", true).render(sb, "owner_id", targetOwnerIdIfObserved);
+            } else {
+                templateService.getCompiledTemplate("event_list_header",
+                    "Ваше расписание:\n\n_Используйте кнопки под списком для управления событиями_", true).render(sb);
+            }
+            text = appendEventPageCards(sb, page.getEvents(), isObservedView).toString();
+            keyboard = createEventPageKeyboard(page, isObservedView, targetOwnerIdIfObserved);
+        }
+
+        // Кнопки листания редактируют уже показанное сообщение, а не присылают новое
+        Integer messageIdToEdit = pageMessageToEdit(ctx);
+        if (messageIdToEdit != null) {
+            EditMessageText edit = new EditMessageText();
+            edit.setChatId(chatId.toString());
+            edit.setMessageId(messageIdToEdit);
+            edit.setText(text);
+            edit.setParseMode("MarkdownV2");
+            edit.setReplyMarkup(keyboard);
+            outboundQueue.enqueue(edit, SendPriority.INTERACTIVE);
+        } else {
+            sendMessageWithKeyboard(chatId, text, keyboard);
+        }
+    }
+
+    // ID сообщения со списком, если текущее обновление - нажатие кнопки листания этого списка
+    private static Integer pageMessageToEdit(UpdateContext ctx) {
+        if (!ctx.getUpdate().hasCallbackQuery()) {
+            return null;
+        }
+        String data = ctx.getUpdate().getCallbackQuery().getData();
+        if (data == null || !(data.startsWith("p:") || data.startsWith("o:"))) {
+            return null;
         }
+        return ctx.getUpdate().getCallbackQuery().getMessage().getMessageId();
+    }
 
-        String header = isObservedView ?
-            templateService.getTemplate("observed_events_header", 
-                "События пользователя с ID " + MarkdownFormatter.code(targetOwnerIdIfObserved.toString()) + ":") :
-            templateService.getTemplate("event_list_header", 
-                "Ваше расписание:\n\n_Используйте кнопки под каждым событием для управления_");
-        sendMessage(currentChatId, header);
+    // Список без кнопок (например, события из Google Calendar без локального ID), по несколько событий в сообщении
+    private void sendEventListText(Long chatId, String header, List<Event> events) {
+        for (String text : formatEventListMessages(header, events)) {
+            sendMessageWithKeyboard(chatId, text, null);
+        }
+    }
 
+    /**
+     * Карточки событий страницы списка. Страница должна уместиться в одно сообщение целиком: следующая страница
+     * начинается сразу после нее, и не показанные события нельзя было бы открыть листанием. Поэтому, пока текст
+     * длиннее MAX_MESSAGE_LENGTH, поля всех карточек укорачиваются вдвое, а на минимальной длине убираются описания.
+     * Страница из пяти карточек (размер страницы в MainPresenterImpl) без описаний и с полями
+     * по MIN_LIST_FIELD_LENGTH символов в лимит помещается всегда.
+     */
+    StringBuilder appendEventPageCards(StringBuilder sb, List<Event> events, boolean isObservedView) {
+        int headerLength = sb.length();
+        int maxFieldLength = LIST_FIELD_MAX_LENGTH;
+        boolean withDescription = true;
+        while (true) {
+            for (int i = 0; i < events.size(); i++) {
+                sb.append("\n\n").append(i + 1).append("\\. ");
+                appendEventText(sb, events.get(i), isObservedView, maxFieldLength, withDescription);
+            }
+            if (sb.length() <= MAX_MESSAGE_LENGTH || !withDescription) {
+                return sb;
+            }
+            sb.setLength(headerLength);
+            if (maxFieldLength > MIN_LIST_FIELD_LENGTH) {
+                maxFieldLength = Math.max(MIN_LIST_FIELD_LENGTH, maxFieldLength / 2);
+            } else {
+                withDescription = false;
+            }
+        }
+    }
+
+    /**
+     * Разбивает список событий на сообщения: не больше EVENTS_PER_TEXT_MESSAGE событий и MAX_MESSAGE_LENGTH символов в каждом.
+     */
+    List<String> formatEventListMessages(String header, List<Event> events) {
+        List<String> messages = new ArrayList<>();
+        StringBuilder sb = new StringBuilder(header);
+        int eventsInMessage = 0;
         for (Event event : events) {
-            String eventText = formatEventText(event, isObservedView);
-            InlineKeyboardMarkup keyboard = createEventKeyboard(event, isObservedView);
-            sendMessageWithKeyboard(currentChatId, eventText, keyboard);
+            String separator = sb.length() > 0 ? "\n\n" : "";
+            if (eventsInMessage < EVENTS_PER_TEXT_MESSAGE && appendListCard(sb, separator, event, false, MAX_MESSAGE_LENGTH)) {
+                eventsInMessage++;
+                continue;
+            }
+            if (sb.length() > 0) {
+                messages.add(sb.toString());
+                sb.setLength(0);
+            }
+            // В пустое сообщение обрезанная карточка помещается всегда
+            appendListCard(sb, "", event, false, MAX_MESSAGE_LENGTH);
+            eventsInMessage = 1;
+        }
+        if (sb.length() > 0) {
+            messages.add(sb.toString());
         }
+        return messages;
+    }
+
+    // Дописывает карточку списка, если она помещается в limit; при нехватке места пробует без описания
+    private boolean appendListCard(StringBuilder sb, String separator, Event event, boolean isObservedView, int limit) {
+        int mark = sb.length();
+        sb.append(separator);
+        appendEventText(sb, event, isObservedView, LIST_FIELD_MAX_LENGTH, true);
+        if (sb.length() <= limit) {
+            return true;
+        }
+        sb.setLength(mark);
+        sb.append(separator);
+        appendEventText(sb, event, isObservedView, LIST_FIELD_MAX_LENGTH, false);
+        if (sb.length() <= limit) {
+            return true;
+        }
+        sb.setLength(mark);
+        return false;
+    }
+
+    // Обрезает текст до maxLength символов с многоточием, не разрывая суррогатную пару
+    static String truncate(String text, int maxLength) {
+        if (text == null || text.length() <= maxLength) {
+            return text;
+        }
+        int end = maxLength - 1;
+        if (Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end) + "…";
     }
 
     String formatEventText(Event event, boolean isObservedView) {
-        StringBuilder sb = new StringBuilder();
-        
+        return appendEventText(new StringBuilder(256), event, isObservedView).toString();
+    }
+
+    StringBuilder appendEventText(StringBuilder sb, Event event, boolean isObservedView) {
+        return appendEventText(sb, event, isObservedView, Integer.MAX_VALUE, true);
+    }
+
+    // Карточка события пишется прямо в буфер сообщения, без промежуточных строк
+    private StringBuilder appendEventText(StringBuilder sb, Event event, boolean isObservedView,
+                                          int maxFieldLength, boolean withDescription) {
         // Название события
-        sb.append(MarkdownFormatter.bold(event.getTitle())).append("\n");
+        MarkdownFormatter.appendBold(sb, truncate(event.getTitle(), maxFieldLength)).append("\n");
         
         // Дата и время начала и окончания
-        String startTime = DateTimeUtils.formatDateTime(event.getStartTime());
-        String endTime = DateTimeUtils.formatDateTime(event.getEndTime());
-        sb.append("📅 Начало: ").append(MarkdownFormatter.code(startTime)).append("\n");
-        sb.append("⌚️ Окончание: ").append(MarkdownFormatter.code(endTime)).append("\n");
+        sb.append("📅 Начало: ");
+        MarkdownFormatter.appendCode(sb, DateTimeUtils.formatDateTime(event.getStartTime())).append("\n");
+        sb.append("⌚️ Окончание: ");
+        MarkdownFormatter.appendCode(sb, DateTimeUtils.formatDateTime(event.getEndTime())).append("\n");
         
         // Описание (если есть)
-        if (event.getDescription() != null && !event.getDescription().isEmpty()) {
-            sb.append("📝 ").append(MarkdownFormatter.escapeMarkdownV2(event.getDescription())).append("\n");
+        if (withDescription && event.getDescription() != null && !event.getDescription().isEmpty()) {
+            sb.append("📝 ");
+            MarkdownFormatter.appendEscaped(sb, truncate(event.getDescription(), maxFieldLength)).append("\n");
         }
         
         // Место (если есть)
         if (event.getLocation() != null && !event.getLocation().isEmpty()) {
-            sb.append("📍 ").append(MarkdownFormatter.escapeMarkdownV2(event.getLocation())).append("\n");
+            sb.append("📍 ");
+            MarkdownFormatter.appendEscaped(sb, truncate(event.getLocation(), maxFieldLength)).append("\n");
         }
         
         // Статус напоминаний
-        String reminderStatus = event.isRemindersEnabled() ? "ВКЛ" : "ОТКЛ";
-        sb.append("🔔 Напоминания: ").append(MarkdownFormatter.code(reminderStatus));
+        sb.append("🔔 Напоминания: ");
+        MarkdownFormatter.appendCode(sb, event.isRemindersEnabled() ? "ВКЛ" : "ОТКЛ");
         
         // Время напоминания (если есть и включено)
         if (event.getReminderTime() != null && event.isRemindersEnabled()) {
-            String reminderTime = DateTimeUtils.formatDateTime(event.getReminderTime());
-            sb.append(", ").append(MarkdownFormatter.code(reminderTime));
+            sb.append(", ");
+            MarkdownFormatter.appendCode(sb, DateTimeUtils.formatDateTime(event.getReminderTime()));
             if (event.isReminderSent()) {
-                sb.append(" ").append(MarkdownFormatter.escapeMarkdownV2("(отправлено)"));
+                sb.append(" \\(отправлено\\)");
             }
         }
         sb.append("\n");
         
         // ID события (если есть локальный ID или Google ID)
         if (event.getId() != null) {
-            sb.append("🆔 ").append(MarkdownFormatter.code(event.getId().toString()));
+            sb.append("🆔 ");
+            MarkdownFormatter.appendCode(sb, event.getId());
         } else if (event.getGoogleId() != null) {
-            sb.append("🆔 ").append(MarkdownFormatter.code("google:" + event.getGoogleId()));
+            sb.append("🆔 ");
+            MarkdownFormatter.appendCode(sb, "google:" + event.getGoogleId());
         }
         
-        return sb.toString();
+        return sb;
     }
 
-    private InlineKeyboardMarkup createEventKeyboard(Event event, boolean isObservedView) {
-        if (event == null || event.getId() == null) {
-            System.err.println("[TelegramBotView] Cannot create keyboard for null event or event with null ID");
-            return null;
+    private InlineKeyboardMarkup createEventPageKeyboard(EventPage page, boolean isObservedView, Long targetOwnerId) {
+        List<List<InlineKeyboardButton>> keyboard = new ArrayList<>();
+        List<Event> events = page.getEvents();
+        List<InlineKeyboardButton> observedRow = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (event.getId() == null) {
+                continue;
+            }
+            String number = String.valueOf(i + 1);
+            if (!EventCallbackData.fits(event.getId())) {
+                System.err.println("[TelegramBotView] Event ID is too long for callback data, skipping buttons: " + event.getId());
+                continue;
+            }
+            String detailsData = EventCallbackData.encode("d", event.getId());
+            if (isObservedView) {
+                // Наблюдателю доступны только детали - все кнопки в один ряд
+                observedRow.add(button(number + " \uD83D\uDCD1", detailsData));
+                continue;
+            }
+            List<InlineKeyboardButton> row = new ArrayList<>();
+            row.add(button(number + " \uD83D\uDCD1", detailsData));
+            row.add(button(number + " ⏰", EventCallbackData.encode("t", event.getId())));
+            row.add(button(number + (event.isRemindersEnabled() ? " 🔕" : " 🔔"),
+                           EventCallbackData.encodeToggleReminders(event.getId(), !event.isRemindersEnabled())));
+            keyboard.add(row);
         }
-        if (isObservedView) {
-            InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-            List<List<InlineKeyboardButton>> keyboard = new ArrayList<>();
-            List<InlineKeyboardButton> row1 = new ArrayList<>();
-            InlineKeyboardButton detailsButton = new InlineKeyboardButton();
-            detailsButton.setText("\uD83D\uDCD1 Детали");
-            String safeEventId = createSafeCallbackId(event.getId(), isObservedView);
-            detailsButton.setCallbackData("d:" + safeEventId);
-            row1.add(detailsButton);
-            keyboard.add(row1);
-            markup.setKeyboard(keyboard);
-            return markup;
+        if (!observedRow.isEmpty()) {
+            keyboard.add(observedRow);
         }
 
-        try {
-            InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-            List<List<InlineKeyboardButton>> keyboard = new ArrayList<>();
-
-            String safeEventId = createSafeCallbackId(event.getId(), false);
-
-            List<InlineKeyboardButton> row1 = new ArrayList<>();
-            InlineKeyboardButton detailsButton = new InlineKeyboardButton();
-            detailsButton.setText("\uD83D\uDCD1 Детали"); 
-            detailsButton.setCallbackData("d:" + safeEventId);
-            row1.add(detailsButton);
-
-            InlineKeyboardButton reminderTimeButton = new InlineKeyboardButton();
-            reminderTimeButton.setText("⏰ Время напом.");
-            reminderTimeButton.setCallbackData("t:" + safeEventId);
-            row1.add(reminderTimeButton);
-
-            List<InlineKeyboardButton> row2 = new ArrayList<>();
-            InlineKeyboardButton toggleRemindersButton = new InlineKeyboardButton();
-            toggleRemindersButton.setText((event.isRemindersEnabled() ? "🔕 Отключить" : "🔔 Включить") + " напом.");
-            toggleRemindersButton.setCallbackData("r:" + safeEventId + ":" + (event.isRemindersEnabled() ? "0" : "1"));
-            row2.add(toggleRemindersButton);
-
-            keyboard.add(row1);
-            keyboard.add(row2);
-            markup.setKeyboard(keyboard);
+        if (page.getTotalPages() > 1) {
+            // Для чужого списка в кнопке передаем и владельца; права Presenter проверяет заново
+            String pagePrefix = isObservedView ? "o:" : "p:";
+            String ownerSuffix = isObservedView ? ":" + targetOwnerId : "";
+            List<InlineKeyboardButton> navigationRow = new ArrayList<>();
+            if (page.hasPrevious()) {
+                navigationRow.add(button("◀️", pagePrefix + (page.getPageIndex() - 1) + ownerSuffix));
+            }
+            navigationRow.add(button((page.getPageIndex() + 1) + "/" + page.getTotalPages(), "n"));
+            if (page.hasNext()) {
+                navigationRow.add(button("▶️", pagePrefix + (page.getPageIndex() + 1) + ownerSuffix));
+            }
+            keyboard.add(navigationRow);
+        }
 
-            return markup;
-        } catch (Exception e) {
-            System.err.println("[TelegramBotView] Error creating keyboard for event " + event.getId() + ": " + e.getMessage());
+        if (keyboard.isEmpty()) {
             return null;
         }
+        InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
+        markup.setKeyboard(keyboard);
+        return markup;
     }
 
-    private final Map<String, String> callbackIdMap = new ConcurrentHashMap<>();
-    private final Map<String, Boolean> callbackObservedFlagMap = new ConcurrentHashMap<>();
-
-    private String createSafeCallbackId(String fullId, boolean isObservedView) {
-        String shortId = fullId.substring(0, Math.min(12, fullId.length())) +
-                         "_" + Long.toHexString(currentChatId != null ? currentChatId : 0L) +
-                         "_" + (isObservedView ? "1" : "0"); 
-        shortId = shortId.replaceAll("[^a-zA-Z0-9_]", "");
-        if (shortId.length() > 60) {
-            shortId = shortId.substring(0, 60);
-        }
-        callbackIdMap.put(shortId, fullId);
-        callbackObservedFlagMap.put(shortId, isObservedView);
-        return shortId;
+    private static InlineKeyboardButton button(String text, String callbackData) {
+        InlineKeyboardButton button = new InlineKeyboardButton();
+        button.setText(text);
+        button.setCallbackData(callbackData);
+        return button;
     }
 
-    private String getFullEventIdFromCallback(String shortId) {
-        String fullId = callbackIdMap.get(shortId);
-        if (fullId == null) {
-            System.err.println("[TelegramBotView] Unknown short callback ID: " + shortId);
-            throw new IllegalArgumentException("Unknown callback ID: " + shortId);
-        }
-        return fullId;
+    @Override
+    public void displayEventDetails(UpdateContext ctx, Event event) {
+        displayEventDetails(ctx.getChatId(), event);
     }
 
-    // private boolean isObservedFromCallback(String shortId) {
-    //     return callbackObservedFlagMap.getOrDefault(shortId, false);
-    // }
-
-    @Override
-    public void displayEventDetails(Event event) {
-        if (currentChatId == null) {
-            System.err.println("[TelegramBotView] No currentChatId to display event details.");
-            return;
-        }
+    private void displayEventDetails(Long chatId, Event event) {
         if (event == null) {
-            sendDirectMessage(currentChatId, "Событие не найдено.");
+            sendDirectMessage(chatId, "Событие не найдено.");
             return;
         }
 
-        boolean isObserved = !currentChatId.equals(event.getOwnerChatId());
+        boolean isObserved = !chatId.equals(event.getOwnerChatId());
 
         String title = MarkdownFormatter.escapeMarkdownV2(event.getTitle());
         String description = MarkdownFormatter.escapeMarkdownV2(event.getDescription() != null && !event.getDescription().isEmpty() ? event.getDescription() : "Нет");
@@ -820,35 +972,38 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
             eventId
         );
 
-        sendMessage(currentChatId, details);
+        sendMessage(chatId, details);
     }
 
     @Override
-    public void showEventEditor(Event event) {
-        if (currentChatId == null) return;
-        sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2("Функция редактирования/добавления событий пока не реализована в Telegram."));
+    public void showEventEditor(UpdateContext ctx, Event event) {
+        sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2("Функция редактирования/добавления событий пока не реализована в Telegram."));
     }
 
     @Override
-    public void showErrorMessage(String title, String message) {
+    public void showErrorMessage(UpdateContext ctx, String title, String message) {
+        showErrorMessage(ctx.getChatId(), title, message);
+    }
+
+    private void showErrorMessage(Long chatId, String title, String message) {
         System.err.println("[View] Displaying Error: " + title + " - " + message);
         String formattedMessage = String.format("*%s*\n\n%s",
             MarkdownFormatter.escapeMarkdownV2(title),
             MarkdownFormatter.escapeMarkdownV2(message));
-        sendMessage(currentChatId, formattedMessage);
+        sendMessage(chatId, formattedMessage);
     }
 
     @Override
-    public void showInfoMessage(String title, String message) {
+    public void showInfoMessage(UpdateContext ctx, String title, String message) {
         System.out.println("[View] Displaying Info: " + title + " - " + message);
         String formattedMessage = String.format("*%s*\n\n%s",
             MarkdownFormatter.escapeMarkdownV2(title),
             MarkdownFormatter.escapeMarkdownV2(message));
-        sendMessage(currentChatId, formattedMessage);
+        sendMessage(ctx.getChatId(), formattedMessage);
     }
 
     @Override
-    public boolean showConfirmationDialog(String title, String message) {
+    public boolean showConfirmationDialog(UpdateContext ctx, String title, String message) {
         System.out.println("[TelegramBotView] Confirmation requested: " + title + " - " + message + ". Auto-confirming for now for bot simplicity.");
         return true;
     }
@@ -859,6 +1014,23 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         System.out.println("[TelegramBotView] Presenter set.");
     }
 
+    // Сервис анализа использует общий EventDAO приложения (и его пул соединений)
+    public void setScheduleAnalysisService(ScheduleAnalysisService scheduleAnalysisService) {
+        this.scheduleAnalysisService = scheduleAnalysisService;
+    }
+
+    public void setScheduleDAO(ScheduleDAO scheduleDAO) {
+        this.scheduleDAO = scheduleDAO;
+    }
+
+    public void setGoogleSyncService(GoogleSyncService googleSyncService) {
+        this.googleSyncService = googleSyncService;
+    }
+
+    public void setEventCache(CachingEventDAO eventCache) {
+        this.eventCache = eventCache;
+    }
+
     public void registerBot() {
         try {
             TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
@@ -870,6 +1042,25 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         }
     }
 
+    /**
+     * Регистрирует webhook вместо long polling. Обновления принимает WebhookServer
+     * и передает их в onUpdateReceived.
+     */
+    public void registerWebhook(String url, int maxConnections, String secretToken) {
+        try {
+            SetWebhook setWebhook = SetWebhook.builder()
+                    .url(url)
+                    .maxConnections(maxConnections)
+                    .secretToken(secretToken)
+                    .build();
+            execute(setWebhook);
+            System.out.println("[TelegramBotView] Webhook registered: " + url);
+        } catch (TelegramApiException e) {
+            System.err.println("[TelegramBotView] Error registering webhook: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     public void sendDirectMessage(Long chatId, String text) {
         if (chatId == null) {
             System.err.println("[TelegramBotView] Attempted to send direct message with null chatId.");
@@ -882,45 +1073,36 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         executeSendMessage(message);
     }
 
-    private void handleCallbackQuery(org.telegram.telegrambots.meta.api.objects.CallbackQuery callbackQuery) {
+    private void handleCallbackQuery(UpdateContext ctx, org.telegram.telegrambots.meta.api.objects.CallbackQuery callbackQuery) {
         String callbackData = callbackQuery.getData();
-        Long chatId = callbackQuery.getMessage().getChatId();
+        Long chatId = ctx.getChatId();
         // String messageId = callbackQuery.getMessage().getMessageId().toString();
 
         System.out.println("[TelegramBotView] Received callback query: " + callbackData);
 
-        try {
-            String[] parts = callbackData.split(":", 2);
-            if (parts.length < 2) {
-                throw new IllegalArgumentException("Invalid callback data format");
-            }
+        if (callbackData.equals("n") || callbackData.startsWith("p:") || callbackData.startsWith("o:")) {
+            handlePageCallback(ctx, callbackQuery);
+            return;
+        }
 
-            String action = parts[0];
-            String shortId = parts[1];
-            
-            boolean enableReminders = false;
-            if (action.equals("r")) {
-                String[] reminderParts = parts[1].split(":");
-                if (reminderParts.length != 2) {
-                    throw new IllegalArgumentException("Invalid reminder toggle data");
-                }
-                shortId = reminderParts[0];
-                enableReminders = reminderParts[1].equals("1");
-            }
+        try {
+            EventCallbackData data = EventCallbackData.decode(callbackData);
+            String action = data.getAction();
+            String fullEventId = data.getEventId();
+            boolean enableReminders = data.isEnableReminders();
 
-            String fullEventId = getFullEventIdFromCallback(shortId);
             Event event = presenter.getEventById(fullEventId, chatId);
 
             if (event == null) {
                 sendDirectMessage(chatId, MarkdownFormatter.escapeMarkdownV2("❌ Событие не найдено."));
-                answerCallbackQuery(callbackQuery.getId(), "Событие не найдено");
+                answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), "Событие не найдено");
                 return;
             }
 
             switch (action) {
                 case "d": // details
-                    displayEventDetails(event);
-                    answerCallbackQuery(callbackQuery.getId(), "Показаны детали события");
+                    displayEventDetails(chatId, event);
+                    answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), "Показаны детали события");
                     break;
 
                 case "t": // reminder time
@@ -969,17 +1151,17 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
                     entities.add(entity3);
                     
                     sendMessageWithEntities(chatId, fullHelpText, entities);
-                    answerCallbackQuery(callbackQuery.getId(), "Инструкция по установке времени отправлена");
+                    answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), "Инструкция по установке времени отправлена");
                     break;
 
                 case "r": // toggle reminders
-                    presenter.toggleEventRemindersRequested(fullEventId, enableReminders, chatId);
+                    presenter.toggleEventRemindersRequested(ctx, fullEventId, enableReminders, chatId);
                     Event updatedEvent = presenter.getEventById(fullEventId, chatId);
                     if (updatedEvent != null) {
-                        answerCallbackQuery(callbackQuery.getId(), 
+                        answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), 
                             "Напоминания " + (enableReminders ? "включены" : "отключены") + ". Обновите список /list_events для просмотра изменений в кнопках.");
                     } else {
-                         answerCallbackQuery(callbackQuery.getId(), 
+                         answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), 
                             "Напоминания " + (enableReminders ? "включены" : "отключены") + ", но не удалось обновить кнопки.");
                     }
                     break;
@@ -991,73 +1173,88 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
             System.err.println("[TelegramBotView] Error handling callback query: " + e.getMessage());
             e.printStackTrace();
             sendDirectMessage(chatId, MarkdownFormatter.escapeMarkdownV2("❌ Произошла ошибка при обработке запроса."));
-            answerCallbackQuery(callbackQuery.getId(), "Ошибка: " + e.getMessage());
+            answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), "Ошибка: " + e.getMessage());
         }
     }
 
-    private void answerCallbackQuery(String callbackQueryId, String text) {
-        org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery answer = 
-            new org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery();
-        answer.setCallbackQueryId(callbackQueryId);
-        answer.setText(text);
+    // Листание списка: p:<страница> - свои события, o:<страница>:<владелец> - события наблюдаемого, n - номер страницы
+    private void handlePageCallback(UpdateContext ctx, org.telegram.telegrambots.meta.api.objects.CallbackQuery callbackQuery) {
+        String[] parts = callbackQuery.getData().split(":");
         try {
-            execute(answer);
-        } catch (TelegramApiException e) {
-            System.err.println("[TelegramBotView] Error answering callback query: " + e.getMessage());
-            e.printStackTrace();
+            if (parts[0].equals("p") && parts.length == 2) {
+                presenter.loadEventsPage(ctx, ctx.getChatId(), Integer.parseInt(parts[1]));
+            } else if (parts[0].equals("o") && parts.length == 3) {
+                presenter.loadObservedEventsPage(ctx, ctx.getChatId(), Long.parseLong(parts[2]), Integer.parseInt(parts[1]));
+            }
+            answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), null);
+        } catch (NumberFormatException e) {
+            System.err.println("[TelegramBotView] Invalid page callback data: " + callbackQuery.getData());
+            answerCallbackQuery(ctx.getChatId(), callbackQuery.getId(), "Ошибка: неверные данные страницы");
         }
     }
 
-    private void handleGrantViewAccessCommand(String args) {
-        if (presenter == null || currentChatId == null) return;
+    // Ответ уходит через очередь отправки: он учитывается в лимитах чата и общем лимите бота
+    private void answerCallbackQuery(Long chatId, String callbackQueryId, String text) {
+        AnswerCallbackQuery answer = new AnswerCallbackQuery();
+        answer.setCallbackQueryId(callbackQueryId);
+        answer.setText(text);
+        outboundQueue.enqueue(answer, chatId, SendPriority.INTERACTIVE).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("[TelegramBotView] Error answering callback query: " + error.getMessage());
+            }
+        });
+    }
+
+    private void handleGrantViewAccessCommand(UpdateContext ctx, String args) {
+        if (presenter == null) return;
         try {
             Long observerChatId = Long.parseLong(args.trim());
-            presenter.grantViewAccess(currentChatId, observerChatId);
+            presenter.grantViewAccess(ctx, ctx.getChatId(), observerChatId);
         } catch (NumberFormatException e) {
-            sendDirectMessage(currentChatId, "❌ Неверный формат ID пользователя. Введите числовой ID.");
+            sendDirectMessage(ctx.getChatId(), "❌ Неверный формат ID пользователя. Введите числовой ID.");
         } catch (Exception e) {
-            sendDirectMessage(currentChatId, "❌ Ошибка при предоставлении доступа: " + e.getMessage());
+            sendDirectMessage(ctx.getChatId(), "❌ Ошибка при предоставлении доступа: " + e.getMessage());
         }
     }
 
-    private void handleListObservedEventsCommand(String args) {
-        if (presenter == null || currentChatId == null) return;
+    private void handleListObservedEventsCommand(UpdateContext ctx, String args) {
+        if (presenter == null) return;
         try {
             long targetOwnerId = Long.parseLong(args);
-            presenter.loadObservedEvents(currentChatId, targetOwnerId);
+            presenter.loadObservedEvents(ctx, ctx.getChatId(), targetOwnerId);
         } catch (NumberFormatException e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2("❌ Неверный ID пользователя. ID должен быть числом."));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2("❌ Неверный ID пользователя. ID должен быть числом."));
         } catch (Exception e) {
-            sendMessage(currentChatId, MarkdownFormatter.escapeMarkdownV2("❌ Ошибка при загрузке событий: " + e.getMessage()));
+            sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2("❌ Ошибка при загрузке событий: " + e.getMessage()));
         }
     }
 
-    private void handleGetMyIdCommand() {
-        String message = templateService.getTemplate("get_my_id", 
-            "Ваш Telegram ID: {id}\\. Используйте его, чтобы другие могли предоставить вам доступ к своему расписанию\\.");
-        sendMessage(currentChatId, message.replace("{id}", MarkdownFormatter.code(currentChatId.toString())));
+    private void handleGetMyIdCommand(UpdateContext ctx) {
+        MessageTemplate message = templateService.getCompiledTemplate("get_my_id",
+            "Ваш Telegram ID: {id:code}\\. Используйте его, чтобы другие могли предоставить вам доступ к своему расписанию\\.", true);
+        sendMessage(ctx.getChatId(), message.render(new StringBuilder(SHORT_MESSAGE_CAPACITY), "id", ctx.getChatId()).toString());
     }
 
-    private void handleAdminLogin(String code) {
+    private void handleAdminLogin(UpdateContext ctx, String code) {
         if (code == null || !code.equals(AppConfig.getAdminSecret())) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_login_fail", 
-                "Неверный код администратора\\."));
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_login_fail", 
+                "Неверный код администратора\\.", true).render());
             return;
         }
-        adminChatIds.add(currentChatId);
-        sendMessage(currentChatId, templateService.getTemplate("admin_login_success", 
-            "Вы успешно вошли как администратор\\."));
+        adminChatIds.add(ctx.getChatId());
+        sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_login_success", 
+            "Вы успешно вошли как администратор\\.", true).render());
     }
 
-    private void handleAdminLogout() {
-        if (!isAdmin(currentChatId)) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_no_access", 
-                "У вас нет доступа к этой команде\\."));
+    private void handleAdminLogout(UpdateContext ctx) {
+        if (!isAdmin(ctx.getChatId())) {
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_no_access", 
+                "У вас нет доступа к этой команде\\.", true).render());
             return;
         }
-        adminChatIds.remove(currentChatId);
-        sendMessage(currentChatId, templateService.getTemplate("admin_logout_success", 
-            "✅ Вы вышли из режима администратора\\."));
+        adminChatIds.remove(ctx.getChatId());
+        sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_logout_success", 
+            "✅ Вы вышли из режима администратора\\.", true).render());
     }
 
     private boolean isAdmin(Long chatId) {
@@ -1065,17 +1262,69 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         return adminChatIds.contains(chatId);
     }
 
-    private void handleListTemplates() {
-        if (!isAdmin(currentChatId)) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_no_access", 
-                "У вас нет доступа к этой команде\\."));
+    private void handleSyncStatsCommand(UpdateContext ctx) {
+        if (!isAdmin(ctx.getChatId())) {
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_no_access",
+                "У вас нет доступа к этой команде\\.", true).render());
+            return;
+        }
+        if (googleSyncService == null) {
+            sendMessage(ctx.getChatId(), "Сервис синхронизации Google не инициализирован\\.");
+            return;
+        }
+
+        GoogleSyncMetrics metrics = googleSyncService.getMetrics();
+        String text = String.format("Синхронизация Google Calendar:\n" +
+                                    "Успешных: %d\n" +
+                                    "С ошибкой: %d\n" +
+                                    "Отклонено (очередь заполнена): %d\n" +
+                                    "Применено изменений: %d\n" +
+                                    "В очереди и в работе: %d\n" +
+                                    "Синхронизаций в минуту: %.2f\n" +
+                                    "Среднее ожидание в очереди: %d мс\n" +
+                                    "Средняя длительность: %d мс\n" +
+                                    "Максимальное отставание: %d с",
+                                    metrics.getCompletedSyncs(), metrics.getFailedSyncs(), metrics.getRejectedSyncs(),
+                                    metrics.getAppliedChanges(), metrics.getInFlightSyncs(), metrics.getSyncsPerMinute(),
+                                    metrics.getAverageQueueWaitMs(), metrics.getAverageSyncDurationMs(),
+                                    metrics.getMaxSyncLagSeconds());
+        sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2(text));
+    }
+
+    private void handleCacheStatsCommand(UpdateContext ctx) {
+        if (!isAdmin(ctx.getChatId())) {
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_no_access",
+                "У вас нет доступа к этой команде\\.", true).render());
+            return;
+        }
+        if (eventCache == null) {
+            sendMessage(ctx.getChatId(), "Кэш событий не используется\\.");
+            return;
+        }
+
+        String text = String.format("Кэш событий:\n" +
+                                    "Попаданий: %d\n" +
+                                    "Промахов: %d\n" +
+                                    "Доля попаданий: %.1f%%\n" +
+                                    "Владельцев в кэше: %d\n" +
+                                    "Вытеснено: %d",
+                                    eventCache.getHitCount(), eventCache.getMissCount(),
+                                    eventCache.getHitRate() * 100, eventCache.getCachedOwnerCount(),
+                                    eventCache.getEvictionCount());
+        sendMessage(ctx.getChatId(), MarkdownFormatter.escapeMarkdownV2(text));
+    }
+
+    private void handleListTemplates(UpdateContext ctx) {
+        if (!isAdmin(ctx.getChatId())) {
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_no_access", 
+                "У вас нет доступа к этой команде\\.", true).render());
             return;
         }
 
         Map<String, String> templates = templateService.getAllAvailableTemplates();
         if (templates.isEmpty()) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_list_templates_empty", 
-                "Шаблоны не найдены\\."));
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_list_templates_empty", 
+                "Шаблоны не найдены\\.", true).render());
             return;
         }
 
@@ -1095,19 +1344,19 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
                   .append("\n\n");
         }
 
-        sendMessage(currentChatId, message.toString());
+        sendMessage(ctx.getChatId(), message.toString());
     }
 
-    private void handleSetTemplateCommand(String args) {
-        if (!isAdmin(currentChatId)) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_no_access", 
-                "У вас нет доступа к этой команде\\."));
+    private void handleSetTemplateCommand(UpdateContext ctx, String args) {
+        if (!isAdmin(ctx.getChatId())) {
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_no_access", 
+                "У вас нет доступа к этой команде\\.", true).render());
             return;
         }
         String[] parts = args.split(" ", 2);
         if (parts.length < 2) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_set_template_invalid_format", 
-                "Неверный формат\\. Используйте: /set\\_template \\<key\\> \\<text\\>"));
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_set_template_invalid_format", 
+                "Неверный формат\\. Используйте: /set\\_template \\<key\\> \\<text\\>", true).render());
             return;
         }
         String key = parts[0];
@@ -1116,20 +1365,20 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
         }
         String text = parts[1];
         templateService.setTemplate(key, text);
-        String successMessage = templateService.getTemplate("admin_set_template_success", 
-            "Шаблон для ключа {key} успешно обновлен\\.");
-        sendMessage(currentChatId, successMessage.replace("{key}", MarkdownFormatter.code(parts[0])));
+        MessageTemplate successMessage = templateService.getCompiledTemplate("admin_set_template_success",
+            "Шаблон для ключа {key:code} успешно обновлен\\.", true);
+        sendMessage(ctx.getChatId(), successMessage.render(new StringBuilder(SHORT_MESSAGE_CAPACITY), "key", parts[0]).toString());
     }
 
-    private void handleResetTemplateCommand(String args) {
-        if (!isAdmin(currentChatId)) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_no_access", 
-                "У вас нет доступа к этой команде\\."));
+    private void handleResetTemplateCommand(UpdateContext ctx, String args) {
+        if (!isAdmin(ctx.getChatId())) {
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_no_access", 
+                "У вас нет доступа к этой команде\\.", true).render());
             return;
         }
         if (args.trim().isEmpty()) {
-            sendMessage(currentChatId, templateService.getTemplate("admin_reset_template_invalid_format", 
-                "Неверный формат\\. Используйте: /reset\\_template \\<key\\>"));
+            sendMessage(ctx.getChatId(), templateService.getCompiledTemplate("admin_reset_template_invalid_format", 
+                "Неверный формат\\. Используйте: /reset\\_template \\<key\\>", true).render());
             return;
         }
         String key = args.trim();
@@ -1138,40 +1387,42 @@ public class TelegramBotView extends TelegramLongPollingBot implements MainView
             key = key.substring(1);
         }
         templateService.resetTemplate(key);
-        String successMessage = templateService.getTemplate("admin_reset_template_success", 
-            "Шаблон для ключа {key} сброшен к значению по умолчанию\\.");
-        sendMessage(currentChatId, successMessage.replace("{key}", MarkdownFormatter.code(originalKey)));
+        MessageTemplate successMessage = templateService.getCompiledTemplate("admin_reset_template_success",
+            "Шаблон для ключа {key:code} сброшен к значению по умолчанию\\.", true);
+        sendMessage(ctx.getChatId(), successMessage.render(new StringBuilder(SHORT_MESSAGE_CAPACITY), "key", originalKey).toString());
     }
 
-    private void handleGetAnalysisCommand() {
+    private void handleGetAnalysisCommand(UpdateContext ctx) {
+        if (scheduleAnalysisService == null) {
+            sendMessage(ctx.getChatId(), "Сервис анализа не инициализирован\\. Пожалуйста, сообщите администратору\\.");
+            return;
+        }
         try {
-            // Используем те же параметры, что и в демо
-            String dbPath = "data/events.db";
-            Long ownerChatId = currentChatId;
+            Long ownerChatId = ctx.getChatId();
             String outputPath = "analysis_" + ownerChatId + ".json";
 
-            EventDAO eventDAO = new SQLiteEventDAO(dbPath);
-            ScheduleAnalysisService analysisService = new ScheduleAnalysisServiceImpl(eventDAO);
-            ScheduleAnalysis analysis = analysisService.analyzeCurrentWeek(ownerChatId);
+            ScheduleAnalysis analysis = scheduleAnalysisService.analyzeCurrentWeek(ownerChatId);
 
             AnalysisExportDAO exportDAO = new JsonAnalysisExportDAO();
             exportDAO.exportAnalysis(analysis, outputPath);
 
-            sendDocument(currentChatId, outputPath, "Ваш анализ расписания за текущую неделю (JSON):");
+            sendDocument(ctx.getChatId(), outputPath, "Ваш анализ расписания за текущую неделю (JSON):");
         } catch (Exception e) {
-            sendMessage(currentChatId, "Произошла ошибка при формировании анализа: " + e.getMessage());
+            sendMessage(ctx.getChatId(), "Произошла ошибка при формировании анализа: " + e.getMessage());
         }
     }
 
     private void sendDocument(Long chatId, String filePath, String caption) {
-        try {
-            SendDocument sendDocumentRequest = new SendDocument();
-            sendDocumentRequest.setChatId(chatId.toString());
-            sendDocumentRequest.setDocument(new InputFile(new java.io.File(filePath)));
-            sendDocumentRequest.setCaption(caption);
-            execute(sendDocumentRequest);
-        } catch (TelegramApiException e) {
-            sendMessage(chatId, "Ошибка при отправке файла: " + e.getMessage());
-        }
+        SendDocument sendDocumentRequest = new SendDocument();
+        sendDocumentRequest.setChatId(chatId.toString());
+        sendDocumentRequest.setDocument(new InputFile(new java.io.File(filePath)));
+        sendDocumentRequest.setCaption(caption);
+        // Файл отправляется через очередь, как и сообщения; поток обработки обновления загрузку не ждет
+        outboundQueue.enqueue(sendDocumentRequest, SendPriority.BULK).whenComplete((sent, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                sendMessage(chatId, MarkdownFormatter.escapeMarkdownV2("Ошибка при отправке файла: " + cause.getMessage()));
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package telegram;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Контекст обработки одного обновления Telegram.
+ * Создается в onUpdateReceived и передается обработчикам, Presenter и методам MainView явно,
+ * вместо общего поля или ThreadLocal с ID текущего чата.
+ */
+public final class UpdateContext {
+
+    private final Long chatId;
+    private final Update update;
+
+    public UpdateContext(Long chatId, Update update) {
+        this.chatId = chatId;
+        this.update = update;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public Update getUpdate() {
+        return update;
+    }
+}
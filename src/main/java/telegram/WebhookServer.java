@@ -0,0 +1,163 @@
+package telegram;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прием обновлений Telegram через webhook на встроенном HTTP-сервере JDK.
+ *
+ * Запрос принимается, только если заголовок X-Telegram-Bot-Api-Secret-Token совпадает с секретом,
+ * переданным Telegram в setWebhook; иначе любой, кто узнал путь, мог бы подделать обновление от чужого чата.
+ * Каждый POST с JSON объекта Update разбирается и передается обработчику, после чего сразу отвечаем 200:
+ * обработчик (TelegramBotView.onUpdateReceived) сам раскладывает обновления по очередям чатов.
+ * Запросы принимаются параллельно, по виртуальному потоку на запрос.
+ * Сервер слушает обычный HTTP; TLS, которого требует Telegram, завершает обратный прокси.
+ */
+public class WebhookServer {
+
+    // Обновление Telegram намного меньше; все, что больше, не разбираем
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+
+    static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    /**
+     * Получатель разобранных обновлений.
+     */
+    public interface UpdateHandler {
+        void onUpdate(Update update);
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final String path;
+    private final byte[] secretToken;
+    private final UpdateHandler handler;
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+
+    private final AtomicLong acceptedUpdates = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+
+    public WebhookServer(int port, String path, String secretToken, UpdateHandler handler) throws IOException {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Webhook path must start with '/', got: " + path);
+        }
+        if (!isValidSecretToken(secretToken)) {
+            throw new IllegalArgumentException("Webhook secret must be 1-256 characters of A-Z, a-z, 0-9, '_' or '-'");
+        }
+        this.path = path;
+        this.secretToken = secretToken.getBytes(StandardCharsets.US_ASCII);
+        this.handler = handler;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.requestExecutor = ChatOrderedExecutor.newUpdateExecutor();
+        this.server.setExecutor(requestExecutor);
+        this.server.createContext(path, this::handleRequest);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("[WebhookServer] Listening on port " + getPort() + ", path " + path);
+    }
+
+    public void stop() {
+        server.stop(1);
+        requestExecutor.shutdown();
+        System.out.println("[WebhookServer] Stopped. Accepted updates: " + acceptedUpdates.get() +
+                           ", rejected requests: " + rejectedRequests.get());
+    }
+
+    // Фактический порт (при порте 0 его выбирает система)
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getAcceptedUpdates() {
+        return acceptedUpdates.get();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(path)) {
+                reject(exchange, 404);
+                return;
+            }
+            // Секрет проверяем до чтения и разбора тела
+            if (!hasValidSecretToken(exchange)) {
+                reject(exchange, 401);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                reject(exchange, 405);
+                return;
+            }
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (body.length > MAX_BODY_BYTES) {
+                reject(exchange, 413);
+                return;
+            }
+            Update update;
+            try {
+                update = objectMapper.readValue(body, Update.class);
+            } catch (IOException e) {
+                System.err.println("[WebhookServer] Invalid update JSON: " + e.getMessage());
+                reject(exchange, 400);
+                return;
+            }
+            handler.onUpdate(update);
+            acceptedUpdates.incrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+        } catch (RuntimeException e) {
+            // Ответ не 2xx - Telegram повторит доставку обновления позже
+            System.err.println("[WebhookServer] Error handling update: " + e.getMessage());
+            rejectedRequests.incrementAndGet();
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean hasValidSecretToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst(SECRET_TOKEN_HEADER);
+        // Сравнение за постоянное время, чтобы секрет нельзя было подобрать по задержке ответа
+        return header != null && MessageDigest.isEqual(secretToken, header.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void reject(HttpExchange exchange, int statusCode) throws IOException {
+        rejectedRequests.incrementAndGet();
+        // Тело отклоненного запроса не читаем, поэтому соединение не переиспользуется
+        exchange.getResponseHeaders().set("Connection", "close");
+        exchange.sendResponseHeaders(statusCode, -1);
+    }
+
+    // Допустимый для setWebhook секрет: 1-256 символов A-Z, a-z, 0-9, _ и -
+    static boolean isValidSecretToken(String secretToken) {
+        if (secretToken == null || secretToken.isEmpty() || secretToken.length() > 256) {
+            return false;
+        }
+        for (int i = 0; i < secretToken.length(); i++) {
+            char c = secretToken.charAt(i);
+            if (!(c == '_' || c == '-' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
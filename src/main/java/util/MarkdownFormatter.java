@@ -1,14 +1,28 @@
 package util;
 
+import java.io.IOException;
+
 public class MarkdownFormatter {
     private static final char[] SPECIAL_CHARACTERS = {
-        '_', '*', '[', ']', '(', ')', '~', '`', '>', '#', '+', '-', '=', '|', 
+        '_', '*', '[', ']', '(', ')', '~', '`', '>', '#', '+', '-', '=', '|',
         '{', '}', '.', '!', ':', ';', '\\'
     };
 
+    // Таблица по коду символа: все спецсимволы MarkdownV2 - ASCII, остальные символы экранировать не нужно
+    private static final boolean[] IS_SPECIAL = new boolean[128];
+
+    // Нет символа, который нужно выбросить из текста
+    private static final char NONE = 0;
+
+    static {
+        for (char c : SPECIAL_CHARACTERS) {
+            IS_SPECIAL[c] = true;
+        }
+    }
+
     /**
      * Экранирует специальные символы для Telegram MarkdownV2 формата.
-     * Порядок экранирования важен! Сначала экранируем сам escape-символ.
+     * Если экранировать нечего, возвращается исходная строка без копирования.
      * @param text Текст для экранирования
      * @return Экранированный текст
      */
@@ -16,27 +30,74 @@ public class MarkdownFormatter {
         if (text == null) {
             return "";
         }
+        int first = firstSpecial(text);
+        if (first < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        result.append(text, 0, first);
+        appendEscapedTo(result, text, first, NONE);
+        return result.toString();
+    }
 
-        StringBuilder result = new StringBuilder();
+    /**
+     * Дописывает экранированный текст в out без промежуточных строк. null дописывается как пустая строка.
+     * @return out, чтобы можно было продолжать цепочку append
+     */
+    public static <A extends Appendable> A appendEscaped(A out, CharSequence text) throws IOException {
+        if (text == null) {
+            return out;
+        }
+        if (out instanceof StringBuilder) {
+            appendEscapedTo((StringBuilder) out, text, 0, NONE);
+            return out;
+        }
+        int runStart = 0;
         for (int i = 0; i < text.length(); i++) {
             char c = text.charAt(i);
-            boolean isSpecial = false;
-            for (char specialChar : SPECIAL_CHARACTERS) {
-                if (specialChar == c) {
-                    result.append('\\').append(c);
-                    isSpecial = true;
-                    break;
-                }
-            }
-            if (!isSpecial) {
-                result.append(c);
+            if (isSpecial(c)) {
+                out.append(text, runStart, i).append('\\').append(c);
+                runStart = i + 1;
             }
         }
-        return result.toString();
+        out.append(text, runStart, text.length());
+        return out;
+    }
+
+    /**
+     * То же для StringBuilder, без проверяемого IOException.
+     */
+    public static StringBuilder appendEscaped(StringBuilder out, CharSequence text) {
+        if (text != null) {
+            appendEscapedTo(out, text, 0, NONE);
+        }
+        return out;
+    }
+
+    /**
+     * Дописывает текст жирным: *текст*. Звездочки из самого текста выбрасываются.
+     */
+    public static StringBuilder appendBold(StringBuilder out, CharSequence text) {
+        out.append('*');
+        if (text != null) {
+            appendEscapedTo(out, text, 0, '*');
+        }
+        return out.append('*');
+    }
+
+    /**
+     * Дописывает текст моноширинным: `текст`. Обратные кавычки из самого текста выбрасываются.
+     */
+    public static StringBuilder appendCode(StringBuilder out, CharSequence text) {
+        out.append('`');
+        if (text != null) {
+            appendEscapedTo(out, text, 0, '`');
+        }
+        return out.append('`');
     }
 
     public static String bold(String text) {
-        return "*" + escapeMarkdownV2(text).replace("*", "") + "*";
+        return appendBold(new StringBuilder(length(text) + 16), text).toString();
     }
 
     public static String italic(String text) {
@@ -44,7 +105,7 @@ public class MarkdownFormatter {
     }
 
     public static String code(String text) {
-        return "`" + escapeMarkdownV2(text).replace("`", "") + "`";
+        return appendCode(new StringBuilder(length(text) + 16), text).toString();
     }
 
     public static String codeBlock(String text) {
@@ -52,13 +113,70 @@ public class MarkdownFormatter {
     }
 
     public static String formatAsMarkdownV2(String text, boolean isBold, boolean isCode) {
-        String escaped = escapeMarkdownV2(text);
+        if (!isBold && !isCode) {
+            return escapeMarkdownV2(text);
+        }
+        StringBuilder result = new StringBuilder(length(text) + 16);
+        if (isCode) {
+            result.append('`');
+        }
         if (isBold) {
-            escaped = "*" + escaped.replace("*", "") + "*";
+            result.append('*');
+        }
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if ((isBold && c == '*') || (isCode && c == '`')) {
+                    continue;
+                }
+                if (isSpecial(c)) {
+                    result.append('\\');
+                }
+                result.append(c);
+            }
+        }
+        if (isBold) {
+            result.append('*');
         }
         if (isCode) {
-            escaped = "`" + escaped.replace("`", "") + "`";
+            result.append('`');
+        }
+        return result.toString();
+    }
+
+    private static int firstSpecial(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isSpecial(c)) {
+                return i;
+            }
         }
-        return escaped;
+        return -1;
+    }
+
+    // Участки без спецсимволов дописываются целиком, а не по символу
+    private static void appendEscapedTo(StringBuilder out, CharSequence text, int from, char dropped) {
+        out.ensureCapacity(out.length() + text.length() - from + 16);
+        int runStart = from;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isSpecial(c)) {
+                continue;
+            }
+            out.append(text, runStart, i);
+            if (c != dropped) {
+                out.append('\\').append(c);
+            }
+            runStart = i + 1;
+        }
+        out.append(text, runStart, text.length());
+    }
+
+    private static boolean isSpecial(char c) {
+        return c < IS_SPECIAL.length && IS_SPECIAL[c];
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
     }
-} 
\ No newline at end of file
+}
@@ -1,18 +1,19 @@
 package view;
 
 import model.Event;
+import model.EventPage;
 import presenter.MainPresenter;
+import telegram.UpdateContext;
 
-import java.util.List;
-
-// Интерфейс для главного окна приложения
+// Интерфейс для главного окна приложения.
+// Каждый метод получает контекст обновления, на которое отвечает: по нему View выбирает чат и сообщение.
 public interface MainView {
-    void displayEvents(List<Event> events, boolean isObservedView, Long targetOwnerIdIfObserved);
-    void displayEventDetails(Event event); // Показать детали выбранного события
-    void showEventEditor(Event event); // Открыть редактор для нового (null) или существующего события
-    void showErrorMessage(String title, String message);
-    void showInfoMessage(String title, String message);
-    boolean showConfirmationDialog(String title, String message); // Для подтверждения удаления
+    void displayEventPage(UpdateContext ctx, EventPage page, boolean isObservedView, Long targetOwnerIdIfObserved); // Показать страницу списка событий
+    void displayEventDetails(UpdateContext ctx, Event event); // Показать детали выбранного события
+    void showEventEditor(UpdateContext ctx, Event event); // Открыть редактор для нового (null) или существующего события
+    void showErrorMessage(UpdateContext ctx, String title, String message);
+    void showInfoMessage(UpdateContext ctx, String title, String message);
+    boolean showConfirmationDialog(UpdateContext ctx, String title, String message); // Для подтверждения удаления
     void setPresenter(MainPresenter presenter); // Связать View с Presenter
 
     // Возможно, потребуется метод для отправки сообщения конкретному пользователю, 
@@ -0,0 +1,100 @@
+package dao.impl;
+
+import model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingEventDAOTest {
+
+    private static final Long OWNER = 1L;
+    private static final Long OTHER_OWNER = 2L;
+
+    private InMemoryEventDAO delegate;
+    private CachingEventDAO cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = spy(new InMemoryEventDAO());
+        cache = new CachingEventDAO(delegate, 2, 100);
+    }
+
+    @Test
+    void findById_repeatedReads_hitDelegateOnce() {
+        Event event = delegate.createEvent(event(OWNER, "Встреча"));
+
+        cache.findByIdAndOwnerChatId(event.getId(), OWNER);
+        cache.findByIdAndOwnerChatId(event.getId(), OWNER);
+        Event found = cache.findByIdAndOwnerChatId(event.getId(), OWNER).orElseThrow();
+
+        assertEquals("Встреча", found.getTitle());
+        verify(delegate, times(1)).findByIdAndOwnerChatId(event.getId(), OWNER);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void update_invalidatesOwnerEntries() {
+        Event event = cache.createEvent(event(OWNER, "Старое"));
+        cache.findAllByOwnerChatId(OWNER);
+        cache.countByOwnerChatId(OWNER);
+
+        Event changed = cache.findByIdAndOwnerChatId(event.getId(), OWNER).orElseThrow();
+        changed.setTitle("Новое");
+        cache.updateEvent(changed);
+
+        assertEquals("Новое", cache.findByIdAndOwnerChatId(event.getId(), OWNER).orElseThrow().getTitle());
+        assertEquals("Новое", cache.findAllByOwnerChatId(OWNER).get(0).getTitle());
+        verify(delegate, times(2)).findAllByOwnerChatId(OWNER);
+    }
+
+    @Test
+    void returnedEvents_areCopies() {
+        Event event = cache.createEvent(event(OWNER, "Оригинал"));
+        cache.findByIdAndOwnerChatId(event.getId(), OWNER).orElseThrow().setTitle("Изменено без сохранения");
+
+        assertEquals("Оригинал", cache.findByIdAndOwnerChatId(event.getId(), OWNER).orElseThrow().getTitle());
+    }
+
+    @Test
+    void deleteAndSaveAll_invalidateOwnerOnly() {
+        Event first = cache.createEvent(event(OWNER, "Первое"));
+        cache.createEvent(event(OTHER_OWNER, "Чужое"));
+        assertEquals(1, cache.countByOwnerChatId(OWNER));
+        assertEquals(1, cache.countByOwnerChatId(OTHER_OWNER));
+
+        cache.deleteByIdAndOwnerChatId(first.getId(), OWNER);
+        cache.saveAll(List.of(event(OWNER, "Из Google")), List.of(), List.of(), OWNER);
+
+        assertEquals(1, cache.countByOwnerChatId(OWNER));
+        assertEquals("Из Google", cache.findPageByOwnerChatId(OWNER, 0, 5).get(0).getTitle());
+        assertEquals(1, cache.countByOwnerChatId(OTHER_OWNER));
+        verify(delegate, times(2)).countByOwnerChatId(OWNER);
+        verify(delegate, times(1)).countByOwnerChatId(OTHER_OWNER);
+    }
+
+    @Test
+    void leastRecentlyUsedOwner_isEvicted() {
+        cache.countByOwnerChatId(1L);
+        cache.countByOwnerChatId(2L);
+        cache.countByOwnerChatId(1L);
+        cache.countByOwnerChatId(3L);
+
+        assertEquals(2, cache.getCachedOwnerCount());
+        assertEquals(1, cache.getEvictionCount());
+        cache.countByOwnerChatId(1L);
+        cache.countByOwnerChatId(2L);
+        verify(delegate, times(1)).countByOwnerChatId(1L);
+        verify(delegate, times(2)).countByOwnerChatId(2L);
+    }
+
+    private static Event event(Long owner, String title) {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        return new Event(null, title, "", start, start.plusHours(1), "", null, owner);
+    }
+}
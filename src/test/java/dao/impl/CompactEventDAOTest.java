@@ -0,0 +1,153 @@
+package dao.impl;
+
+import model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactEventDAOTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Test
+    void createAndFind_restoresAllFields() {
+        CompactEventDAO eventDAO = new CompactEventDAO();
+        Event event = new Event(null, "google-1", "Встреча", "Описание", BASE, BASE.plusHours(1), "Офис", BASE.minusMinutes(15), 1L);
+        event.setReminderSent(true);
+        eventDAO.createEvent(event);
+
+        Event found = eventDAO.findByIdAndOwnerChatId(event.getId(), 1L).orElseThrow();
+        assertNotSame(event, found);
+        assertEquals(event.getId(), found.getId());
+        assertEquals("google-1", found.getGoogleId());
+        assertEquals("Встреча", found.getTitle());
+        assertEquals("Описание", found.getDescription());
+        assertEquals("Офис", found.getLocation());
+        assertEquals(BASE, found.getStartTime());
+        assertEquals(BASE.plusHours(1), found.getEndTime());
+        assertEquals(BASE.minusMinutes(15), found.getReminderTime());
+        assertTrue(found.isReminderSent());
+        assertEquals(found, eventDAO.findByGoogleIdAndOwnerChatId("google-1", 1L).orElseThrow());
+        assertTrue(eventDAO.findByIdAndOwnerChatId(event.getId(), 2L).isEmpty());
+        assertTrue(eventDAO.findByGoogleIdAndOwnerChatId("google-1", 2L).isEmpty());
+    }
+
+    @Test
+    void nonUuidIds_areStoredAsStrings() {
+        CompactEventDAO eventDAO = new CompactEventDAO();
+        eventDAO.createEvent(new Event("custom-id", "A", null, BASE, BASE.plusHours(1), null, null, 1L));
+        // Та же UUID-строка в верхнем регистре - другой ID
+        String upper = UUID.randomUUID().toString().toUpperCase();
+        eventDAO.createEvent(new Event(upper, "B", null, BASE, BASE.plusHours(1), null, null, 1L));
+
+        assertEquals("A", eventDAO.findByIdAndOwnerChatId("custom-id", 1L).orElseThrow().getTitle());
+        assertEquals(upper, eventDAO.findByIdAndOwnerChatId(upper, 1L).orElseThrow().getId());
+        assertTrue(eventDAO.findByIdAndOwnerChatId(upper.toLowerCase(), 1L).isEmpty());
+    }
+
+    @Test
+    void ownerChangeAndDelete_reuseRowsAndReleaseStrings() {
+        CompactEventDAO eventDAO = new CompactEventDAO();
+        Event event = eventDAO.createEvent(new Event(null, "g", "Переезд", "", BASE, BASE.plusHours(1), "", null, 1L));
+
+        event.setOwnerChatId(2L);
+        eventDAO.updateEvent(event);
+        assertEquals(0, eventDAO.countByOwnerChatId(1L));
+        assertEquals(List.of(event), eventDAO.findEventsBetweenForOwner(BASE, BASE.plusDays(1), 2L));
+        assertTrue(eventDAO.findByGoogleIdAndOwnerChatId("g", 1L).isEmpty());
+        assertTrue(eventDAO.findByGoogleIdAndOwnerChatId("g", 2L).isPresent());
+
+        eventDAO.deleteByIdAndOwnerChatId(event.getId(), 2L);
+        assertEquals(0, eventDAO.countByOwnerChatId(2L));
+        assertTrue(eventDAO.getAllEventsGlobally().isEmpty());
+        assertEquals(0, eventDAO.getDictionarySize());
+        assertThrows(IllegalArgumentException.class, () -> eventDAO.updateEvent(event));
+    }
+
+    @Test
+    void duplicateGoogleIds_stayFindableAfterDeletingEither() {
+        CompactEventDAO eventDAO = new CompactEventDAO();
+        Event first = eventDAO.createEvent(new Event(null, "dup", "Первое", "", BASE, BASE.plusHours(1), "", null, 1L));
+        Event second = eventDAO.createEvent(new Event(null, "dup", "Второе", "", BASE, BASE.plusHours(1), "", null, 1L));
+        Event third = eventDAO.createEvent(new Event(null, "dup", "Третье", "", BASE, BASE.plusHours(1), "", null, 1L));
+
+        eventDAO.deleteByIdAndOwnerChatId(first.getId(), 1L);
+        Event found = eventDAO.findByGoogleIdAndOwnerChatId("dup", 1L).orElseThrow();
+        assertNotEquals(first.getId(), found.getId());
+
+        eventDAO.deleteByIdAndOwnerChatId(found.getId(), 1L);
+        Event last = found.getId().equals(second.getId()) ? third : second;
+        assertEquals(last.getId(), eventDAO.findByGoogleIdAndOwnerChatId("dup", 1L).orElseThrow().getId());
+
+        eventDAO.deleteByIdAndOwnerChatId(last.getId(), 1L);
+        assertTrue(eventDAO.findByGoogleIdAndOwnerChatId("dup", 1L).isEmpty());
+    }
+
+    @Test
+    void queries_matchInMemoryDAO_afterRandomMutations() {
+        Random random = new Random(11);
+        CompactEventDAO compact = new CompactEventDAO();
+        InMemoryEventDAO reference = new InMemoryEventDAO();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            long owner = 1 + random.nextInt(5);
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(60 * 24 * 30));
+            if (!ids.isEmpty() && random.nextInt(4) == 0) {
+                String id = ids.remove(random.nextInt(ids.size()));
+                compact.deleteByIdAndOwnerChatId(id, owner);
+                reference.deleteByIdAndOwnerChatId(id, owner);
+                if (reference.getAllEventsGlobally().stream().anyMatch(e -> e.getId().equals(id))) {
+                    ids.add(id);
+                }
+                continue;
+            }
+            String id = random.nextInt(10) == 0 ? "id-" + i : UUID.randomUUID().toString();
+            String googleId = random.nextBoolean() ? "g-" + i : null;
+            Event event = new Event(id, googleId, "Title " + random.nextInt(20), "", start, start.plusMinutes(30 + random.nextInt(120)),
+                    "", random.nextBoolean() ? start.minusMinutes(10) : null, owner);
+            event.setRemindersEnabled(random.nextBoolean());
+            compact.createEvent(copy(event));
+            reference.createEvent(copy(event));
+            ids.add(id);
+        }
+
+        Comparator<Event> byId = Comparator.comparing(Event::getId);
+        for (long owner = 1; owner <= 5; owner++) {
+            assertEquals(reference.findAllByOwnerChatId(owner), compact.findAllByOwnerChatId(owner));
+            assertEquals(reference.findPageByOwnerChatId(owner, 20, 10), compact.findPageByOwnerChatId(owner, 20, 10));
+            assertEquals(reference.countByOwnerChatId(owner), compact.countByOwnerChatId(owner));
+            LocalDateTime from = BASE.plusDays(3);
+            assertEquals(reference.findEventsBetweenForOwner(from, from.plusDays(7), owner),
+                    compact.findEventsBetweenForOwner(from, from.plusDays(7), owner));
+            List<Event> withGoogle = compact.findAllWithGoogleIdByOwnerChatId(owner);
+            withGoogle.sort(byId);
+            List<Event> expectedWithGoogle = reference.findAllWithGoogleIdByOwnerChatId(owner);
+            expectedWithGoogle.sort(byId);
+            assertEquals(expectedWithGoogle, withGoogle);
+        }
+        List<Event> streamed = compact.streamAllEventsGlobally().sorted(byId).toList();
+        List<Event> expectedAll = reference.getAllEventsGlobally();
+        expectedAll.sort(byId);
+        assertEquals(expectedAll, streamed);
+
+        List<Event> due = compact.findDueReminders(BASE.plusDays(10));
+        due.sort(byId);
+        List<Event> expectedDue = reference.findDueReminders(BASE.plusDays(10));
+        expectedDue.sort(byId);
+        assertEquals(expectedDue, due);
+    }
+
+    private static Event copy(Event event) {
+        Event copy = new Event(event.getId(), event.getGoogleId(), event.getTitle(), event.getDescription(),
+                event.getStartTime(), event.getEndTime(), event.getLocation(), event.getReminderTime(), event.getOwnerChatId());
+        copy.setRemindersEnabled(event.isRemindersEnabled());
+        return copy;
+    }
+}
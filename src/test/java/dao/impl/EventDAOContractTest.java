@@ -0,0 +1,310 @@
+package dao.impl;
+
+import dao.EventDAO;
+import model.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Общие тесты контракта EventDAO для хранилищ на диске: каждая реализация наследует этот класс
+ * и создает свой экземпляр DAO в пустом временном каталоге.
+ */
+abstract class EventDAOContractTest<T extends EventDAO & AutoCloseable> {
+
+    protected T eventDAO;
+    protected Long ownerChatId;
+
+    @TempDir
+    Path tempDir;
+
+    protected abstract T createEventDAO() throws Exception;
+
+    @BeforeEach
+    void setUpEventDAO() throws Exception {
+        eventDAO = createEventDAO();
+        ownerChatId = 1L;
+    }
+
+    @AfterEach
+    void tearDownEventDAO() throws Exception {
+        // Закрываем файлы и соединения до очистки @TempDir
+        eventDAO.close();
+    }
+
+    protected Event createSampleEvent(String id, String title, LocalDateTime startTime, LocalDateTime endTime) {
+        Event event = new Event(id, null, title, "Description for " + title, startTime, endTime, "Location", startTime.plusHours(1), ownerChatId);
+        event.setRemindersEnabled(true);
+        return event;
+    }
+
+    @Test
+    void createAndFindByIdAndOwnerChatId() {
+        // Время хранится с точностью до секунды
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String eventId = UUID.randomUUID().toString();
+        Event newEvent = createSampleEvent(eventId, "Test Event 1", now, now.plusHours(2));
+        eventDAO.createEvent(newEvent);
+        Optional<Event> retrievedEventOpt = eventDAO.findByIdAndOwnerChatId(eventId, ownerChatId);
+        assertTrue(retrievedEventOpt.isPresent(), "Event should be found by ID and owner");
+        Event retrievedEvent = retrievedEventOpt.get();
+        assertEquals(eventId, retrievedEvent.getId());
+        assertEquals(newEvent.getTitle(), retrievedEvent.getTitle());
+        assertEquals(newEvent.getStartTime(), retrievedEvent.getStartTime());
+        assertEquals(newEvent.getOwnerChatId(), retrievedEvent.getOwnerChatId());
+        assertTrue(retrievedEvent.isRemindersEnabled());
+    }
+
+    @Test
+    void createEvent_generatesId_ifNotProvided() {
+        LocalDateTime now = LocalDateTime.now();
+        Event newEvent = createSampleEvent(null, "Event With Generated ID", now, now.plusHours(1));
+        Event createdEvent = eventDAO.createEvent(newEvent);
+        assertNotNull(createdEvent.getId(), "ID should be generated");
+        assertFalse(createdEvent.getId().isEmpty(), "Generated ID should not be empty");
+        Optional<Event> retrievedEventOpt = eventDAO.findByIdAndOwnerChatId(createdEvent.getId(), ownerChatId);
+        assertTrue(retrievedEventOpt.isPresent(), "Event with generated ID should be retrievable");
+    }
+
+    @Test
+    void findByIdAndOwnerChatId_nonExistent_returnsEmpty() {
+        Optional<Event> event = eventDAO.findByIdAndOwnerChatId("non-existent-id", ownerChatId);
+        assertFalse(event.isPresent(), "Should not find a non-existent event");
+    }
+
+    @Test
+    void findAllByOwnerChatId() {
+        LocalDateTime now = LocalDateTime.now();
+        Event event1 = createSampleEvent(UUID.randomUUID().toString(), "Event Alpha", now, now.plusHours(1));
+        Event event2 = createSampleEvent(UUID.randomUUID().toString(), "Event Beta", now.plusDays(1), now.plusDays(1).plusHours(1));
+        eventDAO.createEvent(event1);
+        eventDAO.createEvent(event2);
+        List<Event> allEvents = eventDAO.findAllByOwnerChatId(ownerChatId);
+        assertEquals(2, allEvents.size(), "Should retrieve all created events for owner");
+        assertTrue(allEvents.stream().anyMatch(e -> e.getId().equals(event1.getId())));
+        assertTrue(allEvents.stream().anyMatch(e -> e.getId().equals(event2.getId())));
+    }
+
+    @Test
+    void findPageByOwnerChatId_returnsEventsInStartOrderWithLimitAndOffset() {
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        for (int i = 4; i >= 0; i--) {
+            eventDAO.createEvent(createSampleEvent(UUID.randomUUID().toString(), "Event " + i, base.plusDays(i), base.plusDays(i).plusHours(1)));
+        }
+
+        List<Event> secondPage = eventDAO.findPageByOwnerChatId(ownerChatId, 2, 2);
+
+        assertEquals(List.of("Event 2", "Event 3"), secondPage.stream().map(Event::getTitle).toList());
+        assertTrue(eventDAO.findPageByOwnerChatId(ownerChatId, 10, 2).isEmpty());
+        assertEquals(5, eventDAO.countByOwnerChatId(ownerChatId));
+        assertEquals(0, eventDAO.countByOwnerChatId(ownerChatId + 1));
+    }
+
+    @Test
+    void findEventsBetweenForOwner() {
+        LocalDateTime baseTime = LocalDateTime.of(2024, 6, 15, 10, 0);
+        Event event1 = createSampleEvent(UUID.randomUUID().toString(), "Event In Range 1", baseTime, baseTime.plusHours(2));
+        Event event2 = createSampleEvent(UUID.randomUUID().toString(), "Event In Range 2", baseTime.plusHours(1), baseTime.plusHours(3));
+        Event event3 = createSampleEvent(UUID.randomUUID().toString(), "Event Before Range", baseTime.minusHours(3), baseTime.minusHours(1));
+        Event event4 = createSampleEvent(UUID.randomUUID().toString(), "Event After Range", baseTime.plusHours(5), baseTime.plusHours(6));
+        eventDAO.createEvent(event1);
+        eventDAO.createEvent(event2);
+        eventDAO.createEvent(event3);
+        eventDAO.createEvent(event4);
+        List<Event> foundEvents = eventDAO.findEventsBetweenForOwner(baseTime, baseTime.plusHours(4), ownerChatId);
+        assertEquals(2, foundEvents.size(), "Should find 2 events in the specified range for owner");
+        assertTrue(foundEvents.stream().anyMatch(e -> e.getId().equals(event1.getId())));
+        assertTrue(foundEvents.stream().anyMatch(e -> e.getId().equals(event2.getId())));
+        assertFalse(foundEvents.stream().anyMatch(e -> e.getId().equals(event3.getId())));
+        assertFalse(foundEvents.stream().anyMatch(e -> e.getId().equals(event4.getId())));
+    }
+
+    @Test
+    void updateEvent() {
+        LocalDateTime now = LocalDateTime.now();
+        String eventId = UUID.randomUUID().toString();
+        Event originalEvent = createSampleEvent(eventId, "Original Title", now, now.plusHours(1));
+        eventDAO.createEvent(originalEvent);
+        Event eventToUpdate = eventDAO.findByIdAndOwnerChatId(eventId, ownerChatId).orElseThrow();
+        eventToUpdate.setTitle("Updated Title");
+        eventToUpdate.setLocation("New Location");
+        eventToUpdate.setRemindersEnabled(false);
+        Event updatedEvent = eventDAO.updateEvent(eventToUpdate);
+        assertEquals("Updated Title", updatedEvent.getTitle());
+        assertEquals("New Location", updatedEvent.getLocation());
+        assertFalse(updatedEvent.isRemindersEnabled());
+        Event retrievedAfterUpdate = eventDAO.findByIdAndOwnerChatId(eventId, ownerChatId).orElseThrow();
+        assertEquals("Updated Title", retrievedAfterUpdate.getTitle());
+        assertFalse(retrievedAfterUpdate.isRemindersEnabled());
+    }
+
+    @Test
+    void updateEvent_nonExistent_throwsException() {
+        LocalDateTime now = LocalDateTime.now();
+        Event nonExistentEvent = createSampleEvent("non-existent-id", "Non Existent", now, now.plusHours(1));
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            eventDAO.updateEvent(nonExistentEvent);
+        });
+        assertTrue(exception.getMessage().contains("not found"));
+    }
+
+    @Test
+    void deleteByIdAndOwnerChatId() {
+        LocalDateTime now = LocalDateTime.now();
+        String eventId = UUID.randomUUID().toString();
+        Event eventToDelete = createSampleEvent(eventId, "To Be Deleted", now, now.plusHours(1));
+        eventDAO.createEvent(eventToDelete);
+        assertTrue(eventDAO.findByIdAndOwnerChatId(eventId, ownerChatId).isPresent(), "Event should exist before deletion");
+        eventDAO.deleteByIdAndOwnerChatId(eventId, ownerChatId);
+        assertFalse(eventDAO.findByIdAndOwnerChatId(eventId, ownerChatId).isPresent(), "Event should not exist after deletion");
+    }
+
+    @Test
+    void findByGoogleIdAndOwnerChatId() {
+        LocalDateTime now = LocalDateTime.now();
+        String googleId = "google-event-123";
+        Event event = createSampleEvent(UUID.randomUUID().toString(), "Google Synced Event", now, now.plusHours(1));
+        event.setGoogleId(googleId);
+        eventDAO.createEvent(event);
+        Optional<Event> found = eventDAO.findByGoogleIdAndOwnerChatId(googleId, ownerChatId);
+        assertTrue(found.isPresent());
+        assertEquals(googleId, found.get().getGoogleId());
+    }
+
+    @Test
+    void getAllEventsGlobally() {
+        LocalDateTime now = LocalDateTime.now();
+        Event event1 = createSampleEvent(UUID.randomUUID().toString(), "Event1", now, now.plusHours(1));
+        Event event2 = createSampleEvent(UUID.randomUUID().toString(), "Event2", now.plusDays(1), now.plusDays(1).plusHours(1));
+        eventDAO.createEvent(event1);
+        eventDAO.createEvent(event2);
+        List<Event> allEvents = eventDAO.getAllEventsGlobally();
+        assertTrue(allEvents.size() >= 2, "Should retrieve all events globally");
+        assertTrue(allEvents.stream().anyMatch(e -> e.getId().equals(event1.getId())));
+        assertTrue(allEvents.stream().anyMatch(e -> e.getId().equals(event2.getId())));
+    }
+
+    @Test
+    void findDueReminders_returnsOnlyPendingRemindersUpToGivenTime() {
+        LocalDateTime baseTime = LocalDateTime.of(2024, 6, 15, 10, 0);
+        Event due = createSampleEvent(UUID.randomUUID().toString(), "Due", baseTime, baseTime.plusHours(2));
+        Event later = createSampleEvent(UUID.randomUUID().toString(), "Later", baseTime.plusDays(1), baseTime.plusDays(1).plusHours(1));
+        Event disabled = createSampleEvent(UUID.randomUUID().toString(), "Disabled", baseTime, baseTime.plusHours(1));
+        disabled.setRemindersEnabled(false);
+        Event alreadySent = createSampleEvent(UUID.randomUUID().toString(), "Sent", baseTime, baseTime.plusHours(1));
+        alreadySent.setReminderSent(true);
+        eventDAO.createEvent(due);
+        eventDAO.createEvent(later);
+        eventDAO.createEvent(disabled);
+        eventDAO.createEvent(alreadySent);
+
+        List<Event> dueReminders = eventDAO.findDueReminders(baseTime.plusHours(2));
+        assertEquals(1, dueReminders.size(), "Only the enabled, unsent reminder within range should be returned");
+        assertEquals(due.getId(), dueReminders.get(0).getId());
+    }
+
+    @Test
+    void concurrentWrites_areAllCommittedWithoutBusyErrors() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Event>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Event event = createSampleEvent(null, "Concurrent " + i, now.plusMinutes(i), now.plusMinutes(i + 30));
+            futures.add(executor.submit(() -> eventDAO.createEvent(event)));
+        }
+        try {
+            for (Future<Event> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(200, eventDAO.findAllByOwnerChatId(ownerChatId).size());
+    }
+
+    @Test
+    void failedWrite_doesNotRollBackOtherWritesInTheBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Event first = eventDAO.createEvent(createSampleEvent(null, "First", now, now.plusHours(1)));
+        Event duplicate = createSampleEvent(first.getId(), "Duplicate", now, now.plusHours(1));
+        assertThrows(RuntimeException.class, () -> eventDAO.createEvent(duplicate));
+        Event second = eventDAO.createEvent(createSampleEvent(null, "Second", now, now.plusHours(1)));
+        assertTrue(eventDAO.findByIdAndOwnerChatId(first.getId(), ownerChatId).isPresent());
+        assertTrue(eventDAO.findByIdAndOwnerChatId(second.getId(), ownerChatId).isPresent());
+    }
+
+    @Test
+    void saveAll_createsUpdatesAndDeletesInOneBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Event existing = eventDAO.createEvent(createSampleEvent(null, "Existing", now, now.plusHours(1)));
+        existing.setGoogleId("google-existing");
+        existing.setTitle("Existing Updated");
+        Event created = createSampleEvent(null, "Created", now.plusDays(1), now.plusDays(1).plusHours(1));
+        created.setGoogleId("google-created");
+
+        Event toDelete = eventDAO.createEvent(createSampleEvent(null, "Cancelled", now, now.plusHours(1)));
+
+        eventDAO.saveAll(List.of(created), List.of(existing), List.of(toDelete.getId()), ownerChatId);
+
+        assertNotNull(created.getId(), "ID should be generated for created events");
+        List<Event> googleLinked = eventDAO.findAllWithGoogleIdByOwnerChatId(ownerChatId);
+        assertEquals(2, googleLinked.size());
+        assertEquals("Existing Updated", eventDAO.findByIdAndOwnerChatId(existing.getId(), ownerChatId).orElseThrow().getTitle());
+        assertFalse(eventDAO.findByIdAndOwnerChatId(toDelete.getId(), ownerChatId).isPresent(), "Deleted event should be gone");
+    }
+
+    @Test
+    void saveAll_missingEventToUpdate_rollsBackWholeBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Event created = createSampleEvent(null, "Created", now, now.plusHours(1));
+        Event missing = createSampleEvent("missing-id", "Missing", now, now.plusHours(1));
+
+        assertThrows(IllegalArgumentException.class, () -> eventDAO.saveAll(List.of(created), List.of(missing), List.of(), ownerChatId));
+        assertTrue(eventDAO.findAllByOwnerChatId(ownerChatId).isEmpty(), "Nothing from a failed batch should be committed");
+    }
+
+    @Test
+    void streams_returnAllEventsAndReleaseResourcesOnClose() {
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 10, 0);
+        for (int i = 2; i >= 0; i--) {
+            eventDAO.createEvent(createSampleEvent(null, "Owned " + i, base.plusDays(i), base.plusDays(i).plusHours(1)));
+        }
+        Event other = createSampleEvent(null, "Other owner", base, base.plusHours(1));
+        other.setOwnerChatId(ownerChatId + 1);
+        eventDAO.createEvent(other);
+
+        // Потоков открывается больше, чем соединений в пуле: закрытый поток должен освобождать ресурсы
+        for (int i = 0; i < 20; i++) {
+            try (Stream<Event> events = eventDAO.streamAllEventsGlobally()) {
+                assertEquals(4, events.count());
+            }
+        }
+        try (Stream<Event> events = eventDAO.streamAllByOwnerChatId(ownerChatId)) {
+            assertEquals(List.of("Owned 0", "Owned 1", "Owned 2"), events.map(Event::getTitle).toList());
+        }
+
+        // Незавершенный обход не мешает записи
+        try (Stream<Event> events = eventDAO.streamAllEventsGlobally()) {
+            assertTrue(events.iterator().hasNext());
+            eventDAO.createEvent(createSampleEvent(null, "Created during stream", base, base.plusHours(1)));
+        }
+        try (Stream<Event> events = eventDAO.streamAllEventsGlobally()) {
+            assertEquals(5, events.count());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package dao.impl;
+
+import model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final Comparator<Event> BY_START_AND_ID =
+            Comparator.comparing(Event::getStartTime).thenComparing(Event::getId);
+
+    @Test
+    void queries_matchBruteForce_afterRandomInsertsAndRemovals() {
+        Random random = new Random(7);
+        EventIntervalIndex index = new EventIntervalIndex();
+        List<Event> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(60 * 24 * 30));
+            // Изредка длинные события, которые пересекают много интервалов
+            long durationMinutes = random.nextInt(20) == 0 ? 60 * 24 * 5 : 15 + random.nextInt(120);
+            Event event = new Event("e" + i, "Event " + i, "", start, start.plusMinutes(durationMinutes), "", null, 1L);
+            index.put(event);
+            expected.add(event);
+        }
+        for (int i = 0; i < 500; i++) {
+            Event removed = expected.remove(random.nextInt(expected.size()));
+            index.remove(removed.getId());
+        }
+        expected.sort(BY_START_AND_ID);
+
+        assertEquals(expected, index.all());
+        assertEquals(expected.size(), index.size());
+        assertEquals(expected.subList(100, 110), index.page(100, 10));
+        assertEquals(List.of(), index.page(expected.size(), 10));
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(60 * 24 * 30));
+            LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24 * 3));
+            List<Event> overlapping = expected.stream()
+                    .filter(e -> e.getStartTime().isBefore(to) && e.getEndTime().isAfter(from))
+                    .collect(Collectors.toList());
+            assertEquals(overlapping, index.overlapping(from, to));
+
+            List<Event> upcoming = expected.stream()
+                    .filter(e -> !e.getStartTime().isBefore(from))
+                    .limit(5)
+                    .collect(Collectors.toList());
+            assertEquals(upcoming, index.startingFrom(from, 5));
+        }
+    }
+
+    @Test
+    void put_sameIdAfterInPlaceTimeChange_movesEvent() {
+        EventIntervalIndex index = new EventIntervalIndex();
+        Event first = new Event("a", "A", "", BASE, BASE.plusHours(1), "", null, 1L);
+        Event second = new Event("b", "B", "", BASE.plusHours(2), BASE.plusHours(3), "", null, 1L);
+        index.put(first);
+        index.put(second);
+
+        // Время меняется прямо в объекте, уже лежащем в индексе
+        first.setStartTime(BASE.plusHours(5));
+        first.setEndTime(BASE.plusHours(6));
+        index.put(first);
+
+        assertEquals(List.of(second, first), index.all());
+        assertEquals(List.of(), index.overlapping(BASE, BASE.plusHours(1)));
+        assertEquals(List.of(first), index.overlapping(BASE.plusHours(5), BASE.plusHours(7)));
+    }
+
+    @Test
+    void inMemoryDAO_ownerChange_movesEventBetweenOwnerIndexes() {
+        InMemoryEventDAO eventDAO = new InMemoryEventDAO();
+        Event event = eventDAO.createEvent(new Event(null, "Moved", "", BASE, BASE.plusHours(1), "", null, 1L));
+
+        event.setOwnerChatId(2L);
+        eventDAO.updateEvent(event);
+
+        assertTrue(eventDAO.findAllByOwnerChatId(1L).isEmpty());
+        assertEquals(List.of(event), eventDAO.findEventsBetweenForOwner(BASE, BASE.plusDays(1), 2L));
+        assertEquals(1, eventDAO.countByOwnerChatId(2L));
+
+        eventDAO.deleteByIdAndOwnerChatId(event.getId(), 2L);
+        assertEquals(0, eventDAO.countByOwnerChatId(2L));
+    }
+}
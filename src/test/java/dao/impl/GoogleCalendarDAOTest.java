@@ -0,0 +1,172 @@
+package dao.impl;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleCalendarDAOTest {
+
+    private static final Long OWNER_CHAT_ID = 42L;
+
+    @TempDir
+    Path tempDir;
+
+    private StubCalendarTransport transport;
+    private GoogleCalendarDAO googleCalendarDAO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        GoogleClientSecrets.Details details = new GoogleClientSecrets.Details()
+                .setClientId("client-id")
+                .setClientSecret("client-secret");
+        GoogleClientSecrets clientSecrets = new GoogleClientSecrets().setInstalled(details);
+        transport = new StubCalendarTransport();
+        googleCalendarDAO = new GoogleCalendarDAO(transport, clientSecrets, tempDir.toFile(), 1);
+        googleCalendarDAO.exchangeCodeForTokens(OWNER_CHAT_ID, "auth-code");
+    }
+
+    @Test
+    void getEventChanges_withoutSyncToken_fetchesAllPagesAsFullSync() throws Exception {
+        GoogleEventChanges changes = googleCalendarDAO.getEventChanges(OWNER_CHAT_ID);
+
+        assertTrue(changes.isFullSync());
+        assertEquals(List.of("g1", "g2"), changes.getChangedEvents().stream().map(Event::getGoogleId).toList());
+        assertTrue(changes.getCancelledGoogleIds().isEmpty());
+        assertEquals("token-1", changes.getNextSyncToken());
+        assertTrue(transport.eventRequests.get(0).contains("timeMin="));
+    }
+
+    @Test
+    void getEventChanges_withStoredSyncToken_returnsOnlyChangesAndCancellations() throws Exception {
+        googleCalendarDAO.storeSyncToken(OWNER_CHAT_ID, "token-1");
+
+        GoogleEventChanges changes = googleCalendarDAO.getEventChanges(OWNER_CHAT_ID);
+
+        assertFalse(changes.isFullSync());
+        assertEquals(List.of("g2"), changes.getChangedEvents().stream().map(Event::getGoogleId).toList());
+        assertEquals("Renamed", changes.getChangedEvents().get(0).getTitle());
+        assertEquals(List.of("g1"), changes.getCancelledGoogleIds());
+        assertEquals("token-2", changes.getNextSyncToken());
+        assertEquals(1, transport.eventRequests.size());
+        assertFalse(transport.eventRequests.get(0).contains("timeMin="));
+    }
+
+    @Test
+    void getEventChanges_expiredSyncToken_fallsBackToFullSync() throws Exception {
+        googleCalendarDAO.storeSyncToken(OWNER_CHAT_ID, "expired");
+
+        GoogleEventChanges changes = googleCalendarDAO.getEventChanges(OWNER_CHAT_ID);
+
+        assertTrue(changes.isFullSync());
+        assertEquals(2, changes.getChangedEvents().size());
+        assertEquals("token-1", changes.getNextSyncToken());
+    }
+
+    @Test
+    void forEachEventChangesPage_handsOverEachPageWithProjectionAndPageSize() throws Exception {
+        List<GoogleEventChanges> pages = new ArrayList<>();
+        GoogleEventChanges lastPage = googleCalendarDAO.forEachEventChangesPage(OWNER_CHAT_ID, pages::add);
+
+        assertEquals(2, pages.size());
+        assertNull(pages.get(0).getNextSyncToken(), "Only the last page carries the sync token");
+        assertSame(pages.get(1), lastPage);
+        assertTrue(transport.eventRequests.stream().allMatch(url -> url.contains("maxResults=1") && url.contains("fields=")));
+    }
+
+    @Test
+    void getEvents_followsNextPageToken() throws Exception {
+        List<Event> events = googleCalendarDAO.getEvents(LocalDate.now(), LocalDate.now().plusDays(7), OWNER_CHAT_ID);
+
+        assertEquals(List.of("g1", "g2"), events.stream().map(Event::getGoogleId).toList());
+        assertEquals(2, transport.eventRequests.size());
+    }
+
+    @Test
+    void deleteTokens_removesStoredSyncToken() throws Exception {
+        googleCalendarDAO.storeSyncToken(OWNER_CHAT_ID, "token-1");
+        googleCalendarDAO.deleteTokens(OWNER_CHAT_ID);
+
+        assertFalse(new File(new File(tempDir.toFile(), OWNER_CHAT_ID.toString()), "SyncSettings").exists());
+    }
+
+    @Test
+    void findConnectedChatIds_listsOnlyUsersWithStoredCredential() throws Exception {
+        new File(tempDir.toFile(), "7").mkdirs();
+        new File(tempDir.toFile(), "not-a-chat").mkdirs();
+
+        assertEquals(List.of(OWNER_CHAT_ID), googleCalendarDAO.findConnectedChatIds());
+
+        googleCalendarDAO.deleteTokens(OWNER_CHAT_ID);
+
+        assertTrue(googleCalendarDAO.findConnectedChatIds().isEmpty());
+    }
+
+    @Test
+    void loadCredential_isCachedUntilTokensAreDeleted() throws Exception {
+        assertSame(googleCalendarDAO.loadCredential(OWNER_CHAT_ID), googleCalendarDAO.loadCredential(OWNER_CHAT_ID));
+
+        googleCalendarDAO.deleteTokens(OWNER_CHAT_ID);
+
+        assertNull(googleCalendarDAO.loadCredential(OWNER_CHAT_ID));
+        assertThrows(UserNotAuthenticatedException.class, () -> googleCalendarDAO.getEventChanges(OWNER_CHAT_ID));
+    }
+
+    /**
+     * Заглушка Google API: выдает токен OAuth и отвечает на events.list по параметрам запроса.
+     */
+    private static class StubCalendarTransport extends MockHttpTransport {
+        private final List<String> eventRequests = new ArrayList<>();
+
+        @Override
+        public LowLevelHttpRequest buildRequest(String method, String url) {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() {
+                    if (!url.contains("/calendar/v3/")) {
+                        return json(200, "{\"access_token\":\"access\",\"refresh_token\":\"refresh\",\"expires_in\":3600,\"token_type\":\"Bearer\"}");
+                    }
+                    eventRequests.add(url);
+                    if (url.contains("syncToken=expired")) {
+                        return json(410, "{\"error\":{\"code\":410,\"message\":\"Sync token is no longer valid\"}}");
+                    }
+                    if (url.contains("syncToken=token-1")) {
+                        return json(200, "{\"items\":[" + event("g1", "cancelled", "Meeting") + "," + event("g2", "confirmed", "Renamed") + "],"
+                                + "\"nextSyncToken\":\"token-2\"}");
+                    }
+                    if (url.contains("pageToken=page-2")) {
+                        return json(200, "{\"items\":[" + event("g2", "confirmed", "Review") + "],\"nextSyncToken\":\"token-1\"}");
+                    }
+                    return json(200, "{\"items\":[" + event("g1", "confirmed", "Meeting") + "],\"nextPageToken\":\"page-2\"}");
+                }
+            };
+        }
+
+        private static String event(String id, String status, String summary) {
+            return "{\"id\":\"" + id + "\",\"status\":\"" + status + "\",\"summary\":\"" + summary + "\","
+                    + "\"start\":{\"dateTime\":\"2030-01-01T10:00:00Z\"},\"end\":{\"dateTime\":\"2030-01-01T11:00:00Z\"}}";
+        }
+
+        private static MockLowLevelHttpResponse json(int statusCode, String content) {
+            return new MockLowLevelHttpResponse()
+                    .setStatusCode(statusCode)
+                    .setContentType(Json.MEDIA_TYPE)
+                    .setContent(content);
+        }
+    }
+}
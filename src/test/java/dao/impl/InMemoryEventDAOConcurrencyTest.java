@@ -0,0 +1,153 @@
+package dao.impl;
+
+import model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryEventDAOConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5000;
+    private static final int EVENT_IDS = 50;
+    private static final long OWNERS = 4;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Test
+    void concurrentMutations_keepGoogleIdAndOwnerIndexesConsistent() throws Exception {
+        InMemoryEventDAO eventDAO = new InMemoryEventDAO();
+        // Все ключи (владелец, Google ID), которые когда-либо записывались
+        Set<String> usedGoogleKeys = ConcurrentHashMap.newKeySet();
+
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        String eventId = "e" + random.nextInt(EVENT_IDS);
+                        long owner = 1 + random.nextLong(OWNERS);
+                        // Google ID уникален для события, как это обеспечивает сервис
+                        String googleId = random.nextInt(4) == 0 ? null : "g-" + eventId + "-" + random.nextInt(5);
+                        if (googleId != null) {
+                            usedGoogleKeys.add(owner + ":" + googleId);
+                        }
+                        Event event = new Event(eventId, googleId, "Title", "", BASE.plusMinutes(random.nextInt(1000)),
+                                BASE.plusMinutes(1000 + random.nextInt(100)), "", null, owner);
+                        switch (random.nextInt(3)) {
+                            case 0 -> eventDAO.createEvent(event);
+                            case 1 -> {
+                                try {
+                                    eventDAO.updateEvent(event);
+                                } catch (IllegalArgumentException e) {
+                                    // События с таким ID сейчас нет
+                                }
+                            }
+                            default -> eventDAO.deleteByIdAndOwnerChatId(eventId, owner);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            System.setOut(originalOut);
+        }
+
+        List<Event> stored = eventDAO.getAllEventsGlobally();
+        Set<String> storedGoogleKeys = ConcurrentHashMap.newKeySet();
+        int indexedCount = 0;
+        for (long owner = 1; owner <= OWNERS; owner++) {
+            indexedCount += eventDAO.countByOwnerChatId(owner);
+        }
+        assertEquals(stored.size(), indexedCount, "Every stored event must be in exactly one owner index");
+
+        for (Event event : stored) {
+            assertTrue(eventDAO.findAllByOwnerChatId(event.getOwnerChatId()).contains(event));
+            if (event.getGoogleId() != null) {
+                storedGoogleKeys.add(event.getOwnerChatId() + ":" + event.getGoogleId());
+                Optional<Event> found = eventDAO.findByGoogleIdAndOwnerChatId(event.getGoogleId(), event.getOwnerChatId());
+                assertSame(event, found.orElse(null), "Google ID lookup must return the stored event " + event.getId());
+            }
+        }
+        assertEquals(storedGoogleKeys.size(), eventDAO.googleIdIndexSize(), "Google ID index must not keep removed keys");
+        for (String key : usedGoogleKeys) {
+            if (!storedGoogleKeys.contains(key)) {
+                String[] parts = key.split(":", 2);
+                assertTrue(eventDAO.findByGoogleIdAndOwnerChatId(parts[1], Long.parseLong(parts[0])).isEmpty(),
+                        "Stale Google ID index entry: " + key);
+            }
+        }
+    }
+
+    @Test
+    void saveAllUpdatesRacingWithDeletes_neverResurrectEvents() throws Exception {
+        InMemoryEventDAO eventDAO = new InMemoryEventDAO();
+        int eventsPerBatch = 500;
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 50; round++) {
+                List<Event> updates = new ArrayList<>();
+                for (int i = 0; i < eventsPerBatch; i++) {
+                    String eventId = "race-" + round + "-" + i;
+                    eventDAO.createEvent(new Event(eventId, "g-" + eventId, "Title", "", BASE, BASE.plusHours(1), "", null, 1L));
+                    updates.add(new Event(eventId, "g-" + eventId, "Updated", "", BASE, BASE.plusHours(2), "", null, 1L));
+                }
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<?> batch = executor.submit(() -> {
+                    barrier.await();
+                    try {
+                        eventDAO.saveAll(List.of(), updates, List.of(), 1L);
+                    } catch (IllegalArgumentException e) {
+                        // Часть событий уже удалена - пакет отклонен целиком
+                    }
+                    return null;
+                });
+                Future<?> deletes = executor.submit(() -> {
+                    barrier.await();
+                    // С конца: удаления попадают между проверкой пакета и записью его последних событий
+                    for (int i = eventsPerBatch - 1; i >= 0; i--) {
+                        eventDAO.deleteByIdAndOwnerChatId(updates.get(i).getId(), 1L);
+                    }
+                    return null;
+                });
+                batch.get(10, TimeUnit.SECONDS);
+                deletes.get(10, TimeUnit.SECONDS);
+
+                // В любом порядке все события в итоге удалены: обновление не должно вернуть их обратно
+                assertEquals(0, eventDAO.countByOwnerChatId(1L), "Events resurrected in round " + round);
+                assertEquals(0, eventDAO.googleIdIndexSize());
+            }
+        } finally {
+            executor.shutdownNow();
+            System.setOut(originalOut);
+        }
+    }
+}
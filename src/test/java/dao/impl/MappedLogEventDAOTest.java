@@ -0,0 +1,169 @@
+package dao.impl;
+
+import model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLogEventDAOTest extends EventDAOContractTest<MappedLogEventDAO> {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private String logPath;
+
+    @Override
+    protected MappedLogEventDAO createEventDAO() {
+        logPath = tempDir.resolve("events.log").toString();
+        return new MappedLogEventDAO(logPath);
+    }
+
+    @Test
+    void reopen_replaysCreatesUpdatesDeletesAndBatches() {
+        Event kept = eventDAO.createEvent(createSampleEvent(null, "Kept", BASE, BASE.plusHours(1)));
+        Event deleted = eventDAO.createEvent(createSampleEvent(null, "Deleted", BASE, BASE.plusHours(1)));
+        kept.setTitle("Kept Updated");
+        kept.setGoogleId("google-kept");
+        eventDAO.updateEvent(kept);
+        eventDAO.deleteByIdAndOwnerChatId(deleted.getId(), ownerChatId);
+        Event batched = createSampleEvent(null, "Batched", BASE.plusDays(1), BASE.plusDays(1).plusHours(1));
+        eventDAO.saveAll(List.of(batched), List.of(), List.of(), ownerChatId);
+        eventDAO.close();
+
+        eventDAO = new MappedLogEventDAO(logPath);
+        assertEquals(List.of("Kept Updated", "Batched"),
+                eventDAO.findAllByOwnerChatId(ownerChatId).stream().map(Event::getTitle).toList());
+        assertEquals(kept.getId(), eventDAO.findByGoogleIdAndOwnerChatId("google-kept", ownerChatId).orElseThrow().getId());
+        assertEquals(BASE.plusHours(1), eventDAO.findByIdAndOwnerChatId(kept.getId(), ownerChatId).orElseThrow().getReminderTime());
+        assertTrue(eventDAO.findByIdAndOwnerChatId(deleted.getId(), ownerChatId).isEmpty());
+    }
+
+    @Test
+    void reopen_afterTornLastRecord_keepsEarlierRecordsAndAcceptsNewWrites() throws Exception {
+        Event first = eventDAO.createEvent(createSampleEvent(null, "First", BASE, BASE.plusHours(1)));
+        long sizeAfterFirst = eventDAO.getLogSize();
+        eventDAO.createEvent(createSampleEvent(null, "Second", BASE, BASE.plusHours(1)));
+        long sizeAfterSecond = eventDAO.getLogSize();
+        eventDAO.close();
+
+        // Имитируем сбой посреди записи: портим последний байт второй записи
+        try (RandomAccessFile file = new RandomAccessFile(logPath, "rw")) {
+            file.seek(sizeAfterSecond - 1);
+            int lastByte = file.read();
+            file.seek(sizeAfterSecond - 1);
+            file.write(lastByte ^ 0xFF);
+        }
+
+        eventDAO = new MappedLogEventDAO(logPath);
+        assertEquals(List.of(first.getId()), eventDAO.findAllByOwnerChatId(ownerChatId).stream().map(Event::getId).toList());
+        assertEquals(sizeAfterFirst, eventDAO.getLogSize());
+
+        Event third = eventDAO.createEvent(createSampleEvent(null, "Third", BASE, BASE.plusHours(1)));
+        eventDAO.close();
+        eventDAO = new MappedLogEventDAO(logPath);
+        assertEquals(2, eventDAO.countByOwnerChatId(ownerChatId));
+        assertTrue(eventDAO.findByIdAndOwnerChatId(third.getId(), ownerChatId).isPresent());
+    }
+
+    @Test
+    void compaction_dropsStaleRecordsAndKeepsState() {
+        eventDAO.close();
+        eventDAO = new MappedLogEventDAO(logPath, 64 * 1024, false);
+        Event event = eventDAO.createEvent(createSampleEvent(UUID.randomUUID().toString(), "Version 0", BASE, BASE.plusHours(1)));
+        long maxSize = 0;
+        for (int i = 1; i <= 5000; i++) {
+            event.setTitle("Version " + i);
+            eventDAO.updateEvent(event);
+            maxSize = Math.max(maxSize, eventDAO.getLogSize());
+        }
+
+        // Без сжатия 5000 версий заняли бы около 800 КБ
+        assertTrue(maxSize < 256 * 1024, "Log should be compacted automatically, max size " + maxSize);
+        eventDAO.compact();
+        assertTrue(eventDAO.getLogSize() < 1024);
+        assertEquals("Version 5000", eventDAO.findByIdAndOwnerChatId(event.getId(), ownerChatId).orElseThrow().getTitle());
+        eventDAO.close();
+
+        eventDAO = new MappedLogEventDAO(logPath);
+        assertEquals("Version 5000", eventDAO.findByIdAndOwnerChatId(event.getId(), ownerChatId).orElseThrow().getTitle());
+        assertEquals(1, eventDAO.getAllEventsGlobally().size());
+    }
+
+    @Test
+    void eventWithoutTimes_isRejectedAndNotLogged() {
+        Event kept = eventDAO.createEvent(createSampleEvent(null, "Kept", BASE, BASE.plusHours(1)));
+        long size = eventDAO.getLogSize();
+
+        Event broken = createSampleEvent(null, "Broken", BASE, BASE.plusHours(1));
+        broken.setStartTime(null);
+        assertThrows(IllegalArgumentException.class, () -> eventDAO.createEvent(broken));
+        assertThrows(IllegalArgumentException.class, () -> eventDAO.saveAll(List.of(), List.of(broken), List.of(), ownerChatId));
+        assertEquals(size, eventDAO.getLogSize());
+        eventDAO.close();
+
+        eventDAO = new MappedLogEventDAO(logPath);
+        assertEquals(List.of(kept.getId()), eventDAO.findAllByOwnerChatId(ownerChatId).stream().map(Event::getId).toList());
+    }
+
+    @Test
+    void reopen_skipsRecordThatCannotBeApplied_andKeepsLaterRecords() throws Exception {
+        Event first = eventDAO.createEvent(createSampleEvent(null, "First", BASE, BASE.plusHours(1)));
+        long size = eventDAO.getLogSize();
+        eventDAO.close();
+
+        // Целая запись (CRC сходится) с событием без времени начала - такую индекс не примет
+        byte[] record = recordWithoutStartTime(UUID.randomUUID().toString());
+        try (RandomAccessFile file = new RandomAccessFile(logPath, "rw")) {
+            file.seek(size);
+            file.write(record);
+        }
+
+        eventDAO = new MappedLogEventDAO(logPath);
+        assertEquals(size + record.length, eventDAO.getLogSize());
+        Event second = eventDAO.createEvent(createSampleEvent(null, "Second", BASE, BASE.plusHours(1)));
+        eventDAO.close();
+
+        eventDAO = new MappedLogEventDAO(logPath);
+        assertEquals(List.of(first.getId(), second.getId()).stream().sorted().toList(),
+                eventDAO.findAllByOwnerChatId(ownerChatId).stream().map(Event::getId).sorted().toList());
+    }
+
+    // Повторяет формат записи журнала: [длина][CRC32][владелец, события, удаления]
+    private byte[] recordWithoutStartTime(String eventId) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(true);
+            out.writeLong(ownerChatId);
+            out.writeInt(1);
+            byte[] id = eventId.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(id.length);
+            out.write(id);
+            out.writeInt(-1); // googleId
+            out.writeInt(-1); // title
+            out.writeInt(-1); // description
+            out.writeLong(Long.MIN_VALUE); // нет времени начала
+            out.writeLong(0);
+            out.writeInt(-1); // location
+            out.writeLong(Long.MIN_VALUE);
+            out.writeBoolean(true);
+            out.writeLong(ownerChatId);
+            out.writeBoolean(false);
+            out.writeBoolean(false);
+            out.writeInt(0);
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length).putInt((int) crc.getValue()).put(payload).array();
+    }
+}
@@ -0,0 +1,134 @@
+package dao.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLiteWriteQueueTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SQLiteConnectionPool connectionPool;
+    private SQLiteWriteQueue writeQueue;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connectionPool = new SQLiteConnectionPool(tempDir.resolve("queue.db").toString());
+        writeQueue = new SQLiteWriteQueue(connectionPool);
+        writeQueue.submit(connection -> execute(connection, "CREATE TABLE items (value INTEGER)"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeQueue.close();
+        connectionPool.close();
+    }
+
+    @Test
+    void submitDuringClose_failsFastWhileAcceptedWriteCommits() throws Exception {
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        CompletableFuture<Integer> accepted = CompletableFuture.supplyAsync(() -> {
+            try {
+                return writeQueue.submit(connection -> {
+                    writerBusy.countDown();
+                    await(releaseWriter);
+                    return execute(connection, "INSERT INTO items VALUES (1)");
+                });
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+
+        // close() ждет поток записи, который еще занят принятой операцией
+        Thread closer = new Thread(writeQueue::close);
+        closer.start();
+        while (closer.getState() != Thread.State.TIMED_WAITING && closer.isAlive()) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(SQLException.class, () -> writeQueue.submit(connection -> execute(connection, "INSERT INTO items VALUES (2)")));
+        releaseWriter.countDown();
+        assertEquals(1, accepted.get(5, TimeUnit.SECONDS));
+        closer.join(5000);
+        assertFalse(closer.isAlive());
+    }
+
+    @Test
+    void submitsRacingWithClose_allComplete() throws Exception {
+        AtomicInteger committed = new AtomicInteger();
+        List<Thread> submitters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread submitter = new Thread(() -> {
+                try {
+                    while (true) {
+                        writeQueue.submit(connection -> execute(connection, "INSERT INTO items VALUES (1)"));
+                        committed.incrementAndGet();
+                    }
+                } catch (SQLException e) {
+                    // Очередь закрыта - операция отклонена, а не зависла
+                }
+            });
+            submitters.add(submitter);
+            submitter.start();
+        }
+        while (committed.get() < 100) {
+            Thread.onSpinWait();
+        }
+
+        writeQueue.close();
+        for (Thread submitter : submitters) {
+            submitter.join(5000);
+            assertFalse(submitter.isAlive(), "Submitter blocked after close");
+        }
+    }
+
+    @Test
+    void operationThrowingError_failsOnlyThatOperation() throws Exception {
+        AssertionError error = assertThrows(AssertionError.class, () -> writeQueue.submit(connection -> {
+            execute(connection, "INSERT INTO items VALUES (1)");
+            throw new AssertionError("broken operation");
+        }));
+        assertEquals("broken operation", error.getMessage());
+
+        // Поток записи пережил ошибку, а изменения упавшей операции откачены
+        int inserted = writeQueue.submit(connection -> execute(connection, "INSERT INTO items VALUES (2)"));
+        assertEquals(1, inserted);
+        int rows = writeQueue.submit(connection -> {
+            try (Statement stmt = connection.getConnection().createStatement();
+                 var rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+                return rs.getInt(1);
+            }
+        });
+        assertEquals(1, rows);
+    }
+
+    private static int execute(SQLiteConnectionPool.PooledConnection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.getConnection().createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTemplateTest {
+
+    @Test
+    void plainTemplate_escapesLiteralsOnceAndSlotValuesOnRender() {
+        MessageTemplate template = MessageTemplate.plain("Неизвестная команда: {command}.");
+
+        assertEquals(1, template.getSlotCount());
+        assertEquals("Неизвестная команда\\: /a\\_b\\.",
+                template.render(new StringBuilder(), "command", "/a_b").toString());
+    }
+
+    @Test
+    void markdownTemplate_keepsLiteralsAndFormatsSlots() {
+        MessageTemplate template = MessageTemplate.markdown("Ключ {key:code}, автор {name:bold}, \\{raw\\} {count}\\.");
+
+        String rendered = template.render(new StringBuilder(), Map.of("key", "a`b", "name", "*Ann*", "count", 3)).toString();
+        assertEquals("Ключ `ab`, автор *Ann*, \\{raw\\} 3\\.", rendered);
+    }
+
+    @Test
+    void missingValuesAndUnknownFormats_areRenderedAsText() {
+        MessageTemplate template = MessageTemplate.markdown("{id} {x:italic} {}");
+
+        assertEquals(1, template.getSlotCount());
+        assertEquals("\\{id\\} {x:italic} {}", template.render());
+        assertEquals("7 {x:italic} {}", template.render(new StringBuilder(), "id", 7L).toString());
+    }
+
+    @Test
+    void templateWithoutSlots_returnsSameInstance() {
+        MessageTemplate template = MessageTemplate.plain("Готово.");
+
+        assertSame(template.render(), template.render());
+        assertEquals("Готово\\.", template.render());
+        StringBuilder buffer = new StringBuilder("> ");
+        assertSame(buffer, template.render(buffer));
+        assertEquals("> Готово\\.", buffer.toString());
+    }
+}
@@ -2,6 +2,8 @@ package service.impl;
 
 import dao.EventDAO;
 import model.Event;
+import model.EventPage;
+import model.SyncResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -243,4 +245,72 @@ class EventServiceImplTest {
         verify(mockEventDAO).findByIdAndOwnerChatId(eventId, ownerChatId);
         verify(mockEventDAO, never()).updateEvent(any(Event.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getEventPageForOwner_pageBeyondEnd_returnsLastPage() {
+        when(mockEventDAO.countByOwnerChatId(ownerChatId)).thenReturn(7);
+        when(mockEventDAO.findPageByOwnerChatId(ownerChatId, 5, 5)).thenReturn(List.of(sampleEvent1));
+
+        EventPage page = eventService.getEventPageForOwner(ownerChatId, 9, 5);
+
+        assertEquals(1, page.getPageIndex());
+        assertEquals(2, page.getTotalPages());
+        assertTrue(page.hasPrevious());
+        assertFalse(page.hasNext());
+        assertEquals(List.of(sampleEvent1), page.getEvents());
+    }
+
+    @Test
+    void getEventPageForOwner_noEvents_skipsPageQuery() {
+        when(mockEventDAO.countByOwnerChatId(ownerChatId)).thenReturn(0);
+
+        EventPage page = eventService.getEventPageForOwner(ownerChatId, 0, 5);
+
+        assertTrue(page.isEmpty());
+        verify(mockEventDAO, never()).findPageByOwnerChatId(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void upsertFromGoogle_diffsAgainstExistingEvents_andSavesOnce() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Event existingUnchanged = new Event("local-a", "google-a", "Same", null, start, start.plusHours(1), null, null, ownerChatId);
+        Event existingChanged = new Event("local-b", "google-b", "Old", null, start, start.plusHours(1), null, null, ownerChatId);
+        Event existingCancelled = new Event("local-d", "google-d", "Cancelled", null, start, start.plusHours(1), null, null, ownerChatId);
+        when(mockEventDAO.findAllWithGoogleIdByOwnerChatId(ownerChatId)).thenReturn(List.of(existingUnchanged, existingChanged, existingCancelled));
+
+        Event incomingUnchanged = new Event(null, "google-a", "Same", null, start, start.plusHours(1), null, null, null);
+        Event incomingChanged = new Event(null, "google-b", "New", null, start, start.plusHours(1), null, null, null);
+        Event incomingNew = new Event(null, "google-c", "Brand new", null, start, start.plusHours(2), null, null, null);
+        Event withoutGoogleId = new Event(null, null, "No Google ID", null, start, start.plusHours(1), null, null, null);
+
+        SyncResult result = eventService.upsertFromGoogle(
+                List.of(incomingUnchanged, incomingChanged, incomingNew, withoutGoogleId),
+                List.of("google-d", "google-unknown"), ownerChatId);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(1, result.getDeleted());
+        assertEquals(1, result.getSkipped());
+        verify(mockEventDAO).saveAll(List.of(incomingNew), List.of(incomingChanged), List.of("local-d"), ownerChatId);
+        verify(mockEventDAO, never()).findByGoogleIdAndOwnerChatId(anyString(), anyLong());
+        verify(mockEventDAO, never()).createEvent(any(Event.class));
+        verify(mockEventDAO, never()).updateEvent(any(Event.class));
+        assertEquals("local-b", incomingChanged.getId());
+        assertEquals(ownerChatId, incomingNew.getOwnerChatId());
+    }
+
+    @Test
+    void deleteGoogleEventsNotIn_removesOnlyMissingEventsInsideWindow() {
+        LocalDateTime windowStart = LocalDateTime.of(2025, 3, 1, 0, 0);
+        Event seen = new Event("local-a", "google-a", "Seen", null, windowStart.plusHours(10), windowStart.plusHours(11), null, null, ownerChatId);
+        Event missing = new Event("local-b", "google-b", "Missing", null, windowStart.plusHours(10), windowStart.plusHours(11), null, null, ownerChatId);
+        Event past = new Event("local-c", "google-c", "Past", null, windowStart.minusDays(1), windowStart.minusDays(1).plusHours(1), null, null, ownerChatId);
+        when(mockEventDAO.findAllWithGoogleIdByOwnerChatId(ownerChatId)).thenReturn(List.of(seen, missing, past));
+
+        SyncResult result = eventService.deleteGoogleEventsNotIn(Set.of("google-a"), windowStart, ownerChatId);
+
+        assertEquals(1, result.getDeleted());
+        verify(mockEventDAO).saveAll(List.of(), List.of(), List.of("local-b"), ownerChatId);
+    }
+}
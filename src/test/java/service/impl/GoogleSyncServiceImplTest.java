@@ -0,0 +1,137 @@
+package service.impl;
+
+import dao.impl.GoogleCalendarDAO;
+import dao.impl.GoogleEventChanges;
+import dao.impl.UserNotAuthenticatedException;
+import model.Event;
+import model.GoogleSyncMetrics;
+import model.SyncResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import service.EventService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GoogleSyncServiceImplTest {
+
+    private static final Long OWNER_CHAT_ID = 42L;
+
+    @Mock
+    private GoogleCalendarDAO mockGoogleCalendarDAO;
+
+    @Mock
+    private EventService mockEventService;
+
+    private GoogleSyncServiceImpl googleSyncService;
+
+    @BeforeEach
+    void setUp() {
+        googleSyncService = new GoogleSyncServiceImpl(mockGoogleCalendarDAO, mockEventService, 15, 0, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        googleSyncService.stop();
+    }
+
+    @Test
+    void requestSync_appliesEveryPageAndStoresTokenAfterwards() throws Exception {
+        LocalDateTime start = LocalDateTime.now();
+        Event googleEvent = new Event("g1", "Meeting", "", start, start.plusHours(1), "", null, OWNER_CHAT_ID);
+        GoogleEventChanges firstPage = new GoogleEventChanges(List.of(googleEvent), List.of(), null, false);
+        GoogleEventChanges lastPage = new GoogleEventChanges(List.of(), List.of("g2"), "token-2", false);
+        when(mockGoogleCalendarDAO.forEachEventChangesPage(eq(OWNER_CHAT_ID), any())).thenAnswer(invocation -> {
+            GoogleCalendarDAO.PageHandler<GoogleEventChanges> handler = invocation.getArgument(1);
+            handler.handle(firstPage);
+            handler.handle(lastPage);
+            return lastPage;
+        });
+        when(mockEventService.upsertFromGoogle(List.of(googleEvent), List.of(), OWNER_CHAT_ID))
+                .thenReturn(new SyncResult(1, 0, 0, 0, 0));
+        when(mockEventService.upsertFromGoogle(List.of(), List.of("g2"), OWNER_CHAT_ID))
+                .thenReturn(new SyncResult(0, 0, 0, 1, 0));
+
+        SyncResult result = googleSyncService.requestSync(OWNER_CHAT_ID).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getDeleted());
+        verify(mockGoogleCalendarDAO).storeSyncToken(OWNER_CHAT_ID, "token-2");
+        verify(mockEventService, never()).deleteGoogleEventsNotIn(any(), any(), any());
+        GoogleSyncMetrics metrics = googleSyncService.getMetrics();
+        assertEquals(1, metrics.getCompletedSyncs());
+        assertEquals(2, metrics.getAppliedChanges());
+    }
+
+    @Test
+    void requestSync_fullSync_deletesLocalEventsMissingFromListing() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Event first = new Event(null, "g1", "First", "", start, start.plusHours(1), "", null, OWNER_CHAT_ID);
+        Event second = new Event(null, "g3", "Second", "", start, start.plusHours(1), "", null, OWNER_CHAT_ID);
+        GoogleEventChanges firstPage = new GoogleEventChanges(List.of(first), List.of(), null, true);
+        GoogleEventChanges lastPage = new GoogleEventChanges(List.of(second), List.of(), "token-full", true);
+        when(mockGoogleCalendarDAO.forEachEventChangesPage(eq(OWNER_CHAT_ID), any())).thenAnswer(invocation -> {
+            GoogleCalendarDAO.PageHandler<GoogleEventChanges> handler = invocation.getArgument(1);
+            handler.handle(firstPage);
+            handler.handle(lastPage);
+            return lastPage;
+        });
+        when(mockEventService.upsertFromGoogle(any(), any(), eq(OWNER_CHAT_ID)))
+                .thenReturn(new SyncResult(0, 0, 1, 0, 0));
+        when(mockEventService.deleteGoogleEventsNotIn(eq(Set.of("g1", "g3")), any(), eq(OWNER_CHAT_ID)))
+                .thenReturn(new SyncResult(0, 0, 0, 2, 0));
+
+        SyncResult result = googleSyncService.requestSync(OWNER_CHAT_ID).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, result.getDeleted());
+        assertEquals(2, result.getUnchanged());
+        verify(mockEventService).deleteGoogleEventsNotIn(eq(Set.of("g1", "g3")), eq(GoogleCalendarDAO.fullSyncWindowStart()), eq(OWNER_CHAT_ID));
+        verify(mockGoogleCalendarDAO).storeSyncToken(OWNER_CHAT_ID, "token-full");
+    }
+
+    @Test
+    void requestSync_whileSyncInFlight_returnsSameFuture() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        GoogleEventChanges emptyPage = new GoogleEventChanges(List.of(), List.of(), "token-1", false);
+        when(mockGoogleCalendarDAO.forEachEventChangesPage(eq(OWNER_CHAT_ID), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return emptyPage;
+        });
+
+        CompletableFuture<SyncResult> first = googleSyncService.requestSync(OWNER_CHAT_ID);
+        CompletableFuture<SyncResult> second = googleSyncService.requestSync(OWNER_CHAT_ID);
+        release.countDown();
+
+        assertSame(first, second);
+        first.get(5, TimeUnit.SECONDS);
+        verify(mockGoogleCalendarDAO, times(1)).forEachEventChangesPage(eq(OWNER_CHAT_ID), any());
+    }
+
+    @Test
+    void requestSync_notAuthenticated_failsWithoutStoringToken() throws Exception {
+        when(mockGoogleCalendarDAO.forEachEventChangesPage(eq(OWNER_CHAT_ID), any()))
+                .thenThrow(new UserNotAuthenticatedException("not connected"));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> googleSyncService.requestSync(OWNER_CHAT_ID).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(UserNotAuthenticatedException.class, e.getCause());
+        verify(mockGoogleCalendarDAO, never()).storeSyncToken(any(), any());
+        assertEquals(1, googleSyncService.getMetrics().getFailedSyncs());
+    }
+}
@@ -0,0 +1,63 @@
+package service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderTimingWheelTest {
+
+    private static final long START = 1_700_000_000L;
+
+    @Test
+    void advance_firesEntriesExactlyAtDeadline() {
+        ReminderTimingWheel wheel = new ReminderTimingWheel(START);
+        wheel.schedule("seconds", 1L, START + 5);
+        wheel.schedule("minutes", 1L, START + 300);
+        wheel.schedule("hours", 1L, START + 7_200);
+
+        for (long tick = START + 1; tick <= START + 7_200; tick++) {
+            List<ReminderTimingWheel.Entry> due = wheel.advance(tick);
+            for (ReminderTimingWheel.Entry entry : due) {
+                assertEquals(entry.getDeadline(), tick, "Entry " + entry.getEventId() + " fired at the wrong tick");
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_pastDeadline_isDueOnNextAdvance() {
+        ReminderTimingWheel wheel = new ReminderTimingWheel(START);
+        wheel.schedule("overdue", 2L, START - 60);
+        List<ReminderTimingWheel.Entry> due = wheel.advance(START);
+        assertEquals(1, due.size());
+        assertEquals("overdue", due.get(0).getEventId());
+        assertEquals(Long.valueOf(2L), due.get(0).getOwnerChatId());
+    }
+
+    @Test
+    void cancelAndReschedule_replacePreviousEntry() {
+        ReminderTimingWheel wheel = new ReminderTimingWheel(START);
+        wheel.schedule("event", 1L, START + 10);
+        wheel.schedule("event", 1L, START + 20);
+        assertTrue(wheel.advance(START + 10).isEmpty(), "Rescheduled entry must not fire at the old deadline");
+        assertEquals(1, wheel.advance(START + 20).size());
+
+        wheel.schedule("cancelled", 1L, START + 30);
+        assertTrue(wheel.cancel("cancelled"));
+        assertTrue(wheel.advance(START + 40).isEmpty());
+        assertFalse(wheel.isScheduled("cancelled"));
+    }
+
+    @Test
+    void advance_largeClockJump_rebuildsWheel() {
+        ReminderTimingWheel wheel = new ReminderTimingWheel(START);
+        wheel.schedule("passed", 1L, START + 100_000);
+        wheel.schedule("future", 1L, START + 10_000_000);
+        List<ReminderTimingWheel.Entry> due = wheel.advance(START + 200_000);
+        assertEquals(1, due.size());
+        assertEquals("passed", due.get(0).getEventId());
+        assertTrue(wheel.isScheduled("future"));
+    }
+}
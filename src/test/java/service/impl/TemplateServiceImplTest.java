@@ -0,0 +1,37 @@
+package service.impl;
+
+import dao.impl.InMemoryResponseTemplateDAO;
+import org.junit.jupiter.api.Test;
+import service.MessageTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateServiceImplTest {
+
+    @Test
+    void compiledTemplate_isCachedUntilSetOrReset() {
+        TemplateServiceImpl templateService = new TemplateServiceImpl(new InMemoryResponseTemplateDAO());
+
+        MessageTemplate byDefault = templateService.getCompiledTemplate("greeting", "Привет, {name}!", false);
+        assertSame(byDefault, templateService.getCompiledTemplate("greeting", "Привет, {name}!", false));
+        assertEquals("Привет, Ann\\!", byDefault.render(new StringBuilder(), "name", "Ann").toString());
+
+        templateService.setTemplate("greeting", "Здравствуйте, {name}.");
+        MessageTemplate custom = templateService.getCompiledTemplate("greeting", "Привет, {name}!", false);
+        assertNotSame(byDefault, custom);
+        assertEquals("Здравствуйте, Ann\\.", custom.render(new StringBuilder(), "name", "Ann").toString());
+        assertSame(custom, templateService.getCompiledTemplate("greeting", "Привет, {name}!", false));
+
+        templateService.resetTemplate("greeting");
+        assertEquals("Привет, {name}!", templateService.getCompiledTemplate("greeting", "Привет, {name}!", false).getSource());
+    }
+
+    @Test
+    void compiledTemplate_dependsOnDefaultAndSyntax() {
+        TemplateServiceImpl templateService = new TemplateServiceImpl(new InMemoryResponseTemplateDAO());
+
+        assertEquals("a\\.", templateService.getCompiledTemplate("key", "a.", false).render());
+        assertEquals("a.", templateService.getCompiledTemplate("key", "a.", true).render());
+        assertEquals("b\\.", templateService.getCompiledTemplate("key", "b.", false).render());
+    }
+}
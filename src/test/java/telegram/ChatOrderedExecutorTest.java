@@ -0,0 +1,69 @@
+package telegram;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatOrderedExecutorTest {
+
+    private final ChatOrderedExecutor executor = new ChatOrderedExecutor(ChatOrderedExecutor.newUpdateExecutor());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown(5);
+    }
+
+    @Test
+    void submit_sameChat_runsTasksInSubmissionOrder() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            last = executor.submit(1L, () -> order.add(index));
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, order);
+    }
+
+    @Test
+    void submit_slowChat_doesNotBlockOtherChats() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = executor.submit(1L, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        executor.submit(2L, () -> { }).get(5, TimeUnit.SECONDS);
+
+        assertFalse(slow.isDone());
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_failingTask_doesNotBreakChatQueue() throws Exception {
+        executor.submit(1L, () -> { throw new IllegalStateException("boom"); });
+        CompletableFuture<Void> next = executor.submit(1L, () -> { });
+
+        next.get(5, TimeUnit.SECONDS);
+
+        assertTrue(next.isDone());
+        assertFalse(next.isCompletedExceptionally());
+    }
+}
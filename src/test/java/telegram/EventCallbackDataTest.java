@@ -0,0 +1,37 @@
+package telegram;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCallbackDataTest {
+
+    @Test
+    void encodeAndDecode_roundTripsUuidEventIdWithinTelegramLimit() {
+        String eventId = UUID.randomUUID().toString();
+
+        String toggleData = EventCallbackData.encodeToggleReminders(eventId, true);
+        EventCallbackData decoded = EventCallbackData.decode(toggleData);
+
+        assertTrue(EventCallbackData.fits(eventId));
+        assertTrue(toggleData.getBytes(StandardCharsets.UTF_8).length <= EventCallbackData.MAX_CALLBACK_DATA_BYTES);
+        assertEquals("r", decoded.getAction());
+        assertEquals(eventId, decoded.getEventId());
+        assertTrue(decoded.isEnableReminders());
+        assertEquals(eventId, EventCallbackData.decode(EventCallbackData.encode("d", eventId)).getEventId());
+    }
+
+    @Test
+    void fits_rejectsIdsLongerThanCallbackDataLimit() {
+        assertFalse(EventCallbackData.fits("x".repeat(61)));
+    }
+
+    @Test
+    void decode_malformedData_throws() {
+        assertThrows(IllegalArgumentException.class, () -> EventCallbackData.decode("d"));
+        assertThrows(IllegalArgumentException.class, () -> EventCallbackData.decode("r:event-1"));
+    }
+}
@@ -0,0 +1,199 @@
+package telegram;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundMessageQueueTest {
+
+    private OutboundMessageQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown(5);
+        }
+    }
+
+    @Test
+    void enqueue_sameChat_respectsPerChatRateAndOrder() throws Exception {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        queue = new OutboundMessageQueue(method -> {
+            sent.add(((SendMessage) method).getText());
+            return new Message();
+        }, 1000, 10, 1, 4, 100);
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<Message> last = null;
+        for (int i = 0; i < 4; i++) {
+            last = queue.enqueue(message(1L, "m" + i), SendPriority.INTERACTIVE);
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("m0", "m1", "m2", "m3"), sent);
+        // Первое сообщение уходит сразу, остальные три - по одному в 100 мс
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    void enqueue_reminderOvertakesQueuedBulkMessages() throws Exception {
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstSend = new CountDownLatch(1);
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        queue = new OutboundMessageQueue(method -> {
+            String text = ((SendMessage) method).getText();
+            if (text.equals("bulk-0")) {
+                firstSendStarted.countDown();
+                await(releaseFirstSend);
+            }
+            sent.add(text);
+            return new Message();
+        }, 1000, 1000, 10, 1, 100);
+
+        queue.enqueue(message(1L, "bulk-0"), SendPriority.BULK);
+        assertTrue(firstSendStarted.await(5, TimeUnit.SECONDS));
+        queue.enqueue(message(1L, "bulk-1"), SendPriority.BULK);
+        CompletableFuture<Message> reminder = queue.enqueue(message(1L, "reminder"), SendPriority.REMINDER);
+        releaseFirstSend.countDown();
+        reminder.get(5, TimeUnit.SECONDS);
+        queue.shutdown(5);
+
+        assertEquals(List.of("bulk-0", "reminder", "bulk-1"), sent);
+    }
+
+    @Test
+    void enqueue_tooManyRequests_retriesAfterRetryAfter() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        queue = new OutboundMessageQueue(method -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new TelegramApiRequestException("Error sending message", new JSONObject(
+                        "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 1\"," +
+                        "\"parameters\":{\"retry_after\":1}}"));
+            }
+            return new Message();
+        }, 1000, 1000, 10, 1, 100);
+
+        long startNanos = System.nanoTime();
+        queue.enqueue(message(1L, "hello"), SendPriority.INTERACTIVE).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, attempts.get());
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void enqueue_tooManyRequestsInPrivateChat_pausesAllChats() throws Exception {
+        List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+        long startNanos = System.nanoTime();
+        queue = new OutboundMessageQueue(rateLimitedOnce(1L, sentAt, startNanos), 1000, 1000, 10, 4, 100);
+
+        CompletableFuture<Message> limited = queue.enqueue(message(1L, "limited"), SendPriority.INTERACTIVE);
+        Thread.sleep(100);
+        queue.enqueue(message(2L, "other"), SendPriority.INTERACTIVE).get(5, TimeUnit.SECONDS);
+        limited.get(5, TimeUnit.SECONDS);
+
+        // Сообщение другого чата ждет общей паузы
+        assertTrue(sentAt.get(0) >= TimeUnit.MILLISECONDS.toNanos(900), "Sent after " + sentAt.get(0) + " ns");
+    }
+
+    @Test
+    void enqueue_tooManyRequestsInGroup_pausesOnlyThatGroup() throws Exception {
+        List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+        long startNanos = System.nanoTime();
+        queue = new OutboundMessageQueue(rateLimitedOnce(-100L, sentAt, startNanos), 1000, 1000, 10, 4, 100);
+
+        CompletableFuture<Message> limited = queue.enqueue(message(-100L, "limited"), SendPriority.INTERACTIVE);
+        Thread.sleep(100);
+        queue.enqueue(message(2L, "other"), SendPriority.INTERACTIVE).get(5, TimeUnit.SECONDS);
+
+        assertTrue(sentAt.get(0) < TimeUnit.MILLISECONDS.toNanos(900), "Sent after " + sentAt.get(0) + " ns");
+        limited.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void enqueue_documentsAndCallbackAnswers_goThroughSender() throws Exception {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        queue = new OutboundMessageQueue(method -> {
+            sent.add(method.getClass().getSimpleName());
+            return method instanceof SendDocument ? new Message() : Boolean.TRUE;
+        }, 1000, 1000, 10, 1, 100);
+
+        SendDocument document = new SendDocument();
+        document.setChatId("1");
+        document.setDocument(new InputFile("file-id"));
+        AnswerCallbackQuery answer = new AnswerCallbackQuery();
+        answer.setCallbackQueryId("query");
+
+        queue.enqueue(document, SendPriority.BULK).get(5, TimeUnit.SECONDS);
+        assertEquals(Boolean.TRUE, queue.enqueue(answer, 1L, SendPriority.INTERACTIVE).get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("SendDocument", "AnswerCallbackQuery"), sent);
+    }
+
+    @Test
+    void enqueue_queueFull_rejectsMessage() throws Exception {
+        CountDownLatch sendStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = new OutboundMessageQueue(method -> {
+            sendStarted.countDown();
+            await(release);
+            return new Message();
+        }, 1000, 1000, 10, 1, 1);
+
+        queue.enqueue(message(1L, "in-flight"), SendPriority.INTERACTIVE);
+        assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+        // Пока у чата есть сообщение в отправке, следующие остаются в очереди
+        queue.enqueue(message(1L, "waiting"), SendPriority.INTERACTIVE);
+        CompletableFuture<Message> rejected = queue.enqueue(message(1L, "overflow"), SendPriority.INTERACTIVE);
+        release.countDown();
+
+        assertTrue(rejected.isCompletedExceptionally());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Первое сообщение чата limitedChatId получает 429 с retry_after 1; время остальных отправок записывается
+    private static OutboundMessageQueue.MessageSender rateLimitedOnce(Long limitedChatId, List<Long> sentAt, long startNanos) {
+        AtomicInteger limitedAttempts = new AtomicInteger();
+        return method -> {
+            SendMessage message = (SendMessage) method;
+            if (message.getChatId().equals(limitedChatId.toString())) {
+                if (limitedAttempts.incrementAndGet() == 1) {
+                    throw new TelegramApiRequestException("Error sending message", new JSONObject(
+                            "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 1\"," +
+                            "\"parameters\":{\"retry_after\":1}}"));
+                }
+            } else {
+                sentAt.add(System.nanoTime() - startNanos);
+            }
+            return new Message();
+        };
+    }
+
+    private static SendMessage message(Long chatId, String text) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId.toString());
+        message.setText(text);
+        return message;
+    }
+}
@@ -0,0 +1,75 @@
+package telegram;
+
+import model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelegramBotViewEventListTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private final TelegramBotView view = new TelegramBotView("token", "username", null);
+
+    @Test
+    void pageWithLongDescriptions_fitsTelegramLimit() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            events.add(event("id-" + i, "Событие " + i, "Описание (с точками). ".repeat(500), "Офис"));
+        }
+
+        String text = view.appendEventPageCards(new StringBuilder("Ваше расписание:"), events, false).toString();
+
+        assertTrue(text.length() <= TelegramBotView.MAX_MESSAGE_LENGTH, "Length " + text.length());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(text.contains("id\\-" + i), "Missing event " + i);
+        }
+        assertTrue(text.contains("…"));
+    }
+
+    @Test
+    void pageWithMaximalFields_shortensCardsButKeepsEveryEvent() {
+        String longField = ".".repeat(TelegramBotView.LIST_FIELD_MAX_LENGTH);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            events.add(event("id-" + i, longField, longField, longField));
+        }
+
+        String text = view.appendEventPageCards(new StringBuilder("Ваше расписание:"), events, false).toString();
+
+        // Каждое событие страницы должно попасть в сообщение: следующая страница начинается после него
+        assertTrue(text.length() <= TelegramBotView.MAX_MESSAGE_LENGTH, "Length " + text.length());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(text.contains("id\\-" + i), "Missing event " + i);
+        }
+    }
+
+    @Test
+    void googleListWithLongDescriptions_isSplitIntoMessagesWithinLimit() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Event event = event(null, "Google " + i, "x".repeat(5000), "Переговорная #" + i);
+            event.setGoogleId("g" + i);
+            events.add(event);
+        }
+
+        List<String> messages = view.formatEventListMessages("*События Google Calendar:*", events);
+
+        assertTrue(messages.get(0).startsWith("*События Google Calendar:*"));
+        int cards = 0;
+        for (String message : messages) {
+            assertTrue(message.length() <= TelegramBotView.MAX_MESSAGE_LENGTH, "Length " + message.length());
+            cards += message.split("🆔 ", -1).length - 1;
+        }
+        assertEquals(25, cards);
+        assertTrue(messages.get(messages.size() - 1).contains("google\\:g24"));
+    }
+
+    private static Event event(String id, String title, String description, String location) {
+        return new Event(id, title, description, START, START.plusHours(1), location, null, 1L);
+    }
+}
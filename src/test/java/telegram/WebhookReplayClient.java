@@ -0,0 +1,102 @@
+package telegram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Локальный клиент для замера пропускной способности webhook-режима.
+ * Отправляет записанные JSON обновлений (по одному на строку файла) на WebhookServer
+ * с заданным числом одновременных запросов.
+ *
+ * Запуск: WebhookReplayClient <url> <секрет webhook> <файл с обновлениями> [параллельность] [повторы]
+ */
+public class WebhookReplayClient {
+
+    /**
+     * Итог прогона: сколько запросов получили 200 и за какое время.
+     */
+    public static class Result {
+        private final int succeeded;
+        private final int failed;
+        private final long elapsedNanos;
+
+        Result(int succeeded, int failed, long elapsedNanos) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getSucceeded() { return succeeded; }
+        public int getFailed() { return failed; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getUpdatesPerSecond() {
+            return elapsedNanos == 0 ? 0 : succeeded * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    public static Result replay(URI uri, String secretToken, List<String> bodies, int concurrency) {
+        HttpClient client = HttpClient.newHttpClient();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+
+        long startNanos = System.nanoTime();
+        for (String body : bodies) {
+            inFlight.acquireUninterruptibly();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .header(WebhookServer.SECRET_TOKEN_HEADER, secretToken)
+                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .build();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error == null && response.statusCode() == 200) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(error -> null)
+                .join();
+        return new Result(succeeded.get(), failed.get(), System.nanoTime() - startNanos);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: WebhookReplayClient <url> <secret> <updates.jsonl> [concurrency] [repeat]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        String secretToken = args[1];
+        List<String> recorded = Files.readAllLines(Path.of(args[2]), StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isBlank())
+                .collect(Collectors.toList());
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        int repeat = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        List<String> bodies = new ArrayList<>();
+        for (int i = 0; i < repeat; i++) {
+            bodies.addAll(recorded);
+        }
+        Result result = replay(uri, secretToken, bodies, concurrency);
+        System.out.printf("[WebhookReplayClient] Sent %d updates (%d failed) in %d ms: %.1f updates/s%n",
+                result.getSucceeded() + result.getFailed(), result.getFailed(),
+                result.getElapsedNanos() / 1_000_000, result.getUpdatesPerSecond());
+    }
+}
@@ -0,0 +1,111 @@
+package telegram;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookServerTest {
+
+    private static final String SECRET = "test-secret_123";
+
+    private WebhookServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void replay_parallelUpdates_allDeliveredToHandler() throws Exception {
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        server = new WebhookServer(0, "/hook", SECRET, update -> received.add(update.getUpdateId()));
+        server.start();
+
+        List<String> bodies = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            bodies.add("{\"update_id\":" + i + ",\"message\":{\"message_id\":" + i +
+                       ",\"date\":1700000000,\"chat\":{\"id\":" + (i % 7) + ",\"type\":\"private\"}," +
+                       "\"text\":\"/list\",\"some_new_field\":true}}");
+        }
+        WebhookReplayClient.Result result = WebhookReplayClient.replay(uri("/hook"), SECRET, bodies, 16);
+
+        assertEquals(200, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(200, received.size());
+        assertEquals(200, server.getAcceptedUpdates());
+    }
+
+    @Test
+    void request_invalidJsonOrMethod_isRejected() throws Exception {
+        List<Update> received = new ArrayList<>();
+        server = new WebhookServer(0, "/hook", SECRET, received::add);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+
+        HttpResponse<Void> badJson = client.send(HttpRequest.newBuilder(uri("/hook"))
+                .header(WebhookServer.SECRET_TOKEN_HEADER, SECRET)
+                .POST(HttpRequest.BodyPublishers.ofString("not json")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> get = client.send(HttpRequest.newBuilder(uri("/hook"))
+                .header(WebhookServer.SECRET_TOKEN_HEADER, SECRET).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> wrongPath = client.send(HttpRequest.newBuilder(uri("/hook/other"))
+                .header(WebhookServer.SECRET_TOKEN_HEADER, SECRET)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"update_id\":1}")).build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(400, badJson.statusCode());
+        assertEquals(405, get.statusCode());
+        assertEquals(404, wrongPath.statusCode());
+        assertTrue(received.isEmpty());
+        assertEquals(3, server.getRejectedRequests());
+    }
+
+    @Test
+    void request_withMissingOrWrongSecret_isRejectedWithoutReachingHandler() throws Exception {
+        List<Update> received = new ArrayList<>();
+        server = new WebhookServer(0, "/hook", SECRET, received::add);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        String forged = "{\"update_id\":1,\"message\":{\"message_id\":1,\"date\":1700000000," +
+                        "\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"/admin_logout\"}}";
+
+        HttpResponse<Void> missing = client.send(HttpRequest.newBuilder(uri("/hook"))
+                .POST(HttpRequest.BodyPublishers.ofString(forged)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> wrong = client.send(HttpRequest.newBuilder(uri("/hook"))
+                .header(WebhookServer.SECRET_TOKEN_HEADER, SECRET + "x")
+                .POST(HttpRequest.BodyPublishers.ofString(forged)).build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(401, missing.statusCode());
+        assertEquals(401, wrong.statusCode());
+        assertTrue(received.isEmpty());
+        assertEquals(0, server.getAcceptedUpdates());
+        assertEquals(2, server.getRejectedRequests());
+    }
+
+    @Test
+    void constructor_rejectsInvalidSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new WebhookServer(0, "/hook", null, update -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new WebhookServer(0, "/hook", "", update -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new WebhookServer(0, "/hook", "with space", update -> { }));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,45 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownFormatterTest {
+
+    private static final String ALL_SPECIAL = "_*[]()~`>#+-=|{}.!:;\\";
+
+    @Test
+    void escapeMarkdownV2_escapesEverySpecialCharacter() {
+        StringBuilder expected = new StringBuilder();
+        for (char c : ALL_SPECIAL.toCharArray()) {
+            expected.append('\\').append(c);
+        }
+        assertEquals(expected.toString(), MarkdownFormatter.escapeMarkdownV2(ALL_SPECIAL));
+        assertEquals("Итоги \\(v1\\.2\\)\\: 15%", MarkdownFormatter.escapeMarkdownV2("Итоги (v1.2): 15%"));
+        assertEquals("", MarkdownFormatter.escapeMarkdownV2(null));
+    }
+
+    @Test
+    void escapeMarkdownV2_withoutSpecialCharacters_returnsSameString() {
+        String plain = "Встреча с командой 2025";
+        assertSame(plain, MarkdownFormatter.escapeMarkdownV2(plain));
+    }
+
+    @Test
+    void boldAndCode_dropOwnDelimiterWithoutLeavingBackslash() {
+        assertEquals("*a\\_b\\.*", MarkdownFormatter.bold("a*_b.*"));
+        assertEquals("`id\\-1`", MarkdownFormatter.code("id-`1`"));
+        assertEquals("`*x\\.*`", MarkdownFormatter.formatAsMarkdownV2("x.*`", true, true));
+    }
+
+    @Test
+    void appendEscaped_writesIntoAnyAppendable() throws IOException {
+        StringWriter writer = new StringWriter();
+        MarkdownFormatter.appendEscaped(writer, "a.b").append(' ');
+        MarkdownFormatter.appendEscaped(writer, new StringBuilder("[c]"));
+        assertEquals("a\\.b \\[c\\]", writer.toString());
+    }
+}